@@ -34,6 +34,16 @@ import lombok.ToString;
 @ToString(exclude = { "pwd", "image" })
 @Builder(toBuilder = true)
 public class User {
+   /**
+    * Largest width or height of a profile picture, in pixels
+    */
+   private static final int MAX_IMAGE_SIZE = 256;
+
+   /**
+    * JPEG quality of a profile picture
+    */
+   private static final int IMAGE_QUALITY = 85;
+
    /**
     * A unique user identifier. (email address)<br/>
     * Mandatory for both sign up and sign in
@@ -112,11 +122,23 @@ public class User {
       return null;
    }
 
+   /**
+    * Set the profile picture of a user.<br/>
+    * The picture is scaled down to {@link #MAX_IMAGE_SIZE} and compressed as JPEG, as it is only shown as a small avatar.
+    * A lossless, full size picture costs every client that shows it hundreds of kilobytes for no visible gain.
+    * @param bmp The picture to set
+    */
    @JsonIgnore
    public void setImageBitmap(Bitmap bmp) {
       if (bmp != null) {
+         int largestSide = Math.max(bmp.getWidth(), bmp.getHeight());
+         if (largestSide > MAX_IMAGE_SIZE) {
+            float scale = (float) MAX_IMAGE_SIZE / largestSide;
+            bmp = Bitmap.createScaledBitmap(bmp, Math.round(bmp.getWidth() * scale), Math.round(bmp.getHeight() * scale), true);
+         }
+
          ByteArrayOutputStream stream = new ByteArrayOutputStream();
-         bmp.compress(Bitmap.CompressFormat.PNG, 100, stream);
+         bmp.compress(Bitmap.CompressFormat.JPEG, IMAGE_QUALITY, stream);
          this.image = stream.toByteArray();
       }
    }
@@ -2,28 +2,18 @@ package org.hit.android.haim.texasholdem.model.chat;
 
 import android.util.Log;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.node.TextNode;
-
 import org.hit.android.haim.texasholdem.common.model.bean.chat.Channel;
 import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
-import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
-import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.web.PushConnection;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -34,8 +24,9 @@ import retrofit2.Response;
 
 /**
  * The chat class is responsible for chat management.<br/>
- * There is a single instance of this class, as there is a single chat. In this class
- * we have a timer which updates the chat with messages received from server.<br/>
+ * There is a single instance of this class, as there is a single chat. The chat does not talk
+ * to the server by itself. The {@link PushConnection} of the game dispatches the messages and users
+ * the server pushes to this class, so a game holds a single connection.<br/>
  * We have a listener that we notify to when new messages arrive, so the UI can be updated
  * and show new message count using badge drawable.<br/>
  * The state of this class depends on user selection. If the game is not on network (AI), then
@@ -48,6 +39,11 @@ import retrofit2.Response;
 public class Chat {
     private static final String LOGGER = Chat.class.getSimpleName();
 
+    /**
+     * Maximum amount of messages we send at once. Must not exceed the limit of the server.
+     */
+    private static final int MAX_BATCH_SIZE = 20;
+
     private final Set<ChatListener> listeners;
 
     /**
@@ -55,11 +51,6 @@ public class Chat {
      */
     private final String chatId;
 
-    /**
-     * A scheduler that runs every one second, to refresh chat's messages
-     */
-    private ScheduledExecutorService executor;
-
     /**
      * All messages in this chat, sorted by time from oldest to newest
      */
@@ -67,7 +58,13 @@ public class Chat {
     private final List<Message> messages = Collections.synchronizedList(new ArrayList<>());
 
     /**
-     * Reference to channel info. We keep updating it during {@link #refresh()}
+     * Messages waiting to be sent, and whether a batch is on its way. Guarded by the outbox.
+     */
+    private final List<OutgoingMessage> outbox = new ArrayList<>();
+    private boolean isSending;
+
+    /**
+     * Reference to channel info. We keep updating it when the server pushes the users of the chat
      */
     private final AtomicReference<Channel> channelInfo = new AtomicReference<>();
 
@@ -80,22 +77,6 @@ public class Chat {
         listeners = new HashSet<>(2);
     }
 
-    /**
-     * Start the chat service, such that we will ask the server for updates.
-     */
-    public void start() {
-        Log.i(LOGGER, "Starting chat with id: " + chatId);
-        scheduleRefresh();
-    }
-
-    /**
-     * Stop the chat service, such that we will not longer ask the server for updates.
-     */
-    public void stop() {
-        Log.i(LOGGER, "Stopping chat");
-        stopExecutor();
-    }
-
     /**
      * Register a new {@link ChatListener}
      * @param listener The listener
@@ -112,27 +93,6 @@ public class Chat {
         listeners.remove(listener);
     }
 
-    /**
-     * Start a scheduler that runs every 1 second and updates ({@link #refresh()}) messages
-     */
-    private void scheduleRefresh() {
-        stopExecutor();
-
-        executor = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("ChatRefreshThread"));
-        executor.scheduleWithFixedDelay(Chat.this::refresh, 1, 1, TimeUnit.SECONDS);
-    }
-
-    /**
-     * Stop a previously started scheduler.
-     * @see #scheduleRefresh()
-     */
-    private void stopExecutor() {
-        if (executor != null) {
-            executor.shutdownNow();
-            executor = null;
-        }
-    }
-
     /**
      * Go over all listeners and notify them about a message that has been arrived from server
      * @param message The new message to notify about
@@ -154,92 +114,97 @@ public class Chat {
     }
 
     /**
-     * Refresh the chat with ALL or LATEST messages.<br/>
-     * In case the chat is empty, we will download all messages from server. Otherwise,
-     * we will download recent messages, based on the last message we have locally.
+     * A message was pushed by the server. See {@link PushConnection.PushListener#onMessageEvent(Message)}<br/>
+     * After reconnecting, the server might push messages we already have, so we skip them.
+     * @param message The pushed message
      */
-    private void refresh() {
-        Response<JsonNode> response = null;
-
-        try {
-            if (!messages.isEmpty()) {
-                Message lastMessage = messages.get(messages.size() - 1);
-                response = TexasHoldemWebService.getInstance().getChatService().getLatestMessagesInChannel(chatId, lastMessage.getDateTimeSent()).execute();
-            } else {
-                response = TexasHoldemWebService.getInstance().getChatService().getAllMessagesInChannel(chatId).execute();
+    public void onMessageEvent(Message message) {
+        synchronized (messages) {
+            if (!messages.isEmpty() && (message.getSeq() <= messages.get(messages.size() - 1).getSeq())) {
+                return;
             }
-        } catch (InterruptedIOException ignore) {
-            // Don't care
-        } catch (Exception e) {
-            Log.e(LOGGER, "Error has occurred while trying to read messages", e);
+
+            messages.add(message);
         }
 
-        if ((response == null) || !response.isSuccessful()) {
-            if (response != null) {
-                Log.e(LOGGER, TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
-            }
+        notifyMessageArrived(message);
+    }
 
-            notifyError("Failed getting messages");
-        } else {
-            try {
-                ObjectReader reader = TexasHoldemWebService.getInstance().getObjectMapper().readerFor(new TypeReference<List<Message>>() {});
-                List<Message> newMessages = reader.readValue(response.body().toString());
-                messages.addAll(newMessages);
-                newMessages.forEach(Chat.this::notifyMessageArrived);
-            } catch (JsonProcessingException e) {
-                Log.e(LOGGER, "Error has occurred while trying to read message", e);
-            }
-        }
+    /**
+     * The users of the chat were pushed by the server. See {@link PushConnection.PushListener#onUsersEvent(List)}
+     * @param users The players of the game
+     */
+    public void onUsersEvent(List<Player> users) {
+        channelInfo.set(Channel.builder().name(chatId).users(new HashSet<>(users)).build());
+    }
 
-        try {
-            if ((chatId != null) && (!chatId.isEmpty())) {
-                Response<JsonNode> channelInfoResponse = TexasHoldemWebService.getInstance().getGameService().getGameInfo(chatId).execute();
-                if (!channelInfoResponse.isSuccessful()) {
-                    Log.e(LOGGER, "Error has occurred while trying to read channel info: " + TexasHoldemWebService.getInstance().readHttpErrorResponse(channelInfoResponse));
-                } else {
-                    try {
-                        GameEngine gameEngine = TexasHoldemWebService.getInstance().getObjectMapper().readValue(channelInfoResponse.body().toString(), GameEngine.class);
-                        if (gameEngine != null) {
-                            channelInfo.set(gameEngine.getChat());
-                        }
-                    } catch (JsonProcessingException e) {
-                        Log.e(LOGGER, "Error has occurred while trying to read channel", e);
-                    }
-                }
-            }
-        } catch (InterruptedIOException ignore) {
-            // Don't care
-        } catch (Exception e) {
-            Log.e(LOGGER, "Error has occurred while trying to read channel info", e);
-        }
+    /**
+     * The connection to the server was lost. See {@link PushConnection.PushListener#onPushError(String, boolean)}
+     */
+    public void onPushError() {
+        notifyError("Failed getting messages");
     }
 
     /**
-     * @return Reference to channel info. We keep updating it during {@link #refresh()}
+     * @return Reference to channel info. We keep updating it when the server pushes the users of the chat
      */
     public Channel getChannelInfo() {
         return channelInfo.get();
     }
 
     /**
-     * Sends a new message to server
-     * @param userId User sending the message (This is the logged in user)
+     * Sends a new message to server.<br/>
+     * Messages are sent in batches. When a batch is on its way, new messages wait in the outbox, and are sent
+     * together once the server acknowledges the batch. The messages themselves arrive through the push connection.
      * @param message Message to send
      * @param errorConsumer A consumer which will get notified in case of failures
      */
-    public void sendMessage(String userId, String message, Consumer<String> errorConsumer) {
-        TexasHoldemWebService.getInstance().getChatService().sendMessage(chatId, userId, new TextNode(message)).enqueue(new Callback<JsonNode>() {
+    public void sendMessage(String message, Consumer<String> errorConsumer) {
+        synchronized (outbox) {
+            outbox.add(new OutgoingMessage(message, errorConsumer));
+            if (isSending) {
+                return;
+            }
+
+            isSending = true;
+        }
+
+        sendOutbox();
+    }
+
+    /**
+     * Send all messages in the outbox as one batch, and keep sending until the outbox is empty
+     */
+    private void sendOutbox() {
+        List<OutgoingMessage> batch;
+        synchronized (outbox) {
+            if (outbox.isEmpty()) {
+                isSending = false;
+                return;
+            }
+
+            batch = new ArrayList<>(outbox.subList(0, Math.min(outbox.size(), MAX_BATCH_SIZE)));
+            outbox.subList(0, batch.size()).clear();
+        }
+
+        List<String> contents = new ArrayList<>(batch.size());
+        batch.forEach(outgoing -> contents.add(outgoing.message));
+
+        TexasHoldemWebService.getInstance().getChatService().sendMessages(chatId, contents).enqueue(new Callback<List<Message>>() {
             @Override
-            public void onResponse(@NotNull Call<JsonNode> call, @NotNull Response<JsonNode> response) {
+            public void onResponse(@NotNull Call<List<Message>> call, @NotNull Response<List<Message>> response) {
                 if (!response.isSuccessful()) {
-                    errorConsumer.accept("Failed to send message. Try again");
-                    Log.e(LOGGER, "Failed to send message. Reason: " + TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
+                    Log.e(LOGGER, "Failed to send messages. Reason: " + TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
+                    batch.forEach(outgoing -> outgoing.errorConsumer.accept("Failed to send message. Try again"));
                 }
+
+                sendOutbox();
             }
 
             @Override
-            public void onFailure(@NotNull Call<JsonNode> call, @NotNull Throwable t) {
-                errorConsumer.accept("Failed to send message. Reason: " + t.getMessage());
+            public void onFailure(@NotNull Call<List<Message>> call, @NotNull Throwable t) {
+                batch.forEach(outgoing -> outgoing.errorConsumer.accept("Failed to send message. Reason: " + t.getMessage()));
+                sendOutbox();
             }
         });
     }
@@ -263,4 +228,17 @@ public class Chat {
          */
         void onChatError(String errorMessage);
     }
+
+    /**
+     * A message waiting in the outbox
+     */
+    private static class OutgoingMessage {
+        private final String message;
+        private final Consumer<String> errorConsumer;
+
+        OutgoingMessage(String message, Consumer<String> errorConsumer) {
+            this.message = message;
+            this.errorConsumer = errorConsumer;
+        }
+    }
 }
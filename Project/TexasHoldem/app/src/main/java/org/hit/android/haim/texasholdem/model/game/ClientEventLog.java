@@ -0,0 +1,46 @@
+package org.hit.android.haim.texasholdem.model.game;
+
+import android.util.Log;
+
+import org.hit.android.haim.texasholdem.common.util.EventLog;
+
+/**
+ * An implementation of {@link EventLog}, for the client side.<br/>
+ * Here we redirect events to {@link Log}, so levels are controlled by {@code adb shell setprop log.tag.<tag> <level>}.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ClientEventLog extends EventLog {
+    private final String tag;
+
+    /**
+     * Constructs a new {@link ClientEventLog}
+     * @param tag The tag to log events with
+     */
+    public ClientEventLog(String tag) {
+        this.tag = tag;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return Log.isLoggable(tag, toAndroidPriority(level));
+    }
+
+    @Override
+    protected void write(Level level, String message, Throwable error) {
+        Log.println(toAndroidPriority(level), tag, error == null ? message : message + '\n' + Log.getStackTraceString(error));
+    }
+
+    private static int toAndroidPriority(Level level) {
+        switch (level) {
+            case DEBUG:
+                return Log.DEBUG;
+            case WARN:
+                return Log.WARN;
+            case ERROR:
+                return Log.ERROR;
+            default:
+                return Log.INFO;
+        }
+    }
+}
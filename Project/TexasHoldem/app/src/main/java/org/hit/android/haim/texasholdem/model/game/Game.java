@@ -4,29 +4,32 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
 import org.hit.android.haim.texasholdem.common.model.game.Chips;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
 import org.hit.android.haim.texasholdem.common.model.game.Pot;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotEngine;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotLevel;
 import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
 import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.model.chat.Chat;
 import org.hit.android.haim.texasholdem.view.GameSoundService;
-import org.hit.android.haim.texasholdem.web.HttpStatus;
+import org.hit.android.haim.texasholdem.web.PushConnection;
 import org.hit.android.haim.texasholdem.web.SimpleCallback;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -39,7 +42,10 @@ import retrofit2.Response;
 
 /**
  * All business logic related to a game is managed by this class.<br/>
- * The class can work in two states, network or AI.
+ * The class can work in two states, network or AI.<br/>
+ * A network game is played by the server, which pushes the game to us. An AI (local) game runs a {@link GameEngine} on
+ * this device, with bots filling the seats, and never touches the network. In both states listeners receive a copy of the
+ * game whenever it changes, on the {@link #notifierThread}.
  *
  * @author Haim Adrian
  * @since 12-Jun-21
@@ -48,22 +54,51 @@ public class Game {
     private static final String LOGGER = Game.class.getSimpleName();
 
     /**
-     * Single thread pool for refreshing seats availability while user selects a seat. Once
-     * a game is started, this thread is stopped cause user cannot select another seat while
-     * game is running.
+     * How long a bot waits before playing its turn in a local game, so users can follow the game.
      */
-    private ScheduledExecutorService seatsAvailabilityRefreshThread;
+    private static final long LOCAL_BOT_TURN_DELAY_MILLIS = 1000;
 
     /**
-     * Single thread pool for refreshing game engine during a running game.<br/>
-     * We ask the cloud about game engine info to know when a game is started, and what steps were taken.
+     * How much time a bot has to decide on an action in a local game
      */
-    private ScheduledExecutorService gameRefreshThread;
+    private static final long LOCAL_BOT_DECISION_BUDGET_MILLIS = 500;
 
     /**
-     * An executor that runs listener updates asynchronously, to avoid of blocking Game.
+     * The level of bots in a local game. Medium bots are rule based, so they decide immediately and cost no CPU.
      */
-    private ExecutorService notifierThread;
+    private static final BotLevel LOCAL_BOT_LEVEL = BotLevel.MEDIUM;
+
+    /**
+     * The connection to the server, through which we receive the game state, the seats and the chat messages.<br/>
+     * The server pushes updates when they happen, so we do not have to poll it.
+     */
+    private PushConnection pushConnection;
+
+    /**
+     * A single thread that analyzes the pushed games and runs listener updates asynchronously, to avoid of blocking Game
+     * and the push connection. Every second it refreshes the listeners with the last game, so they can count the turn time
+     * down without asking the server.
+     */
+    private ScheduledExecutorService notifierThread;
+
+    /**
+     * The game itself, in case of a local game. The game is driven by the {@link #notifierThread}: our actions and the
+     * turns of bots are executed on it, and listeners are updated from it, so it acts as the event loop of a local game.
+     * The only other thread that modifies the game is the one the game deals a new round with, after the pot was shared,
+     * while nobody can act.<br/>
+     * This is {@code null} in network games.
+     */
+    private GameEngine localGameEngine;
+
+    /**
+     * Plays the turns of the bots in a local game
+     */
+    private BotEngine botEngine;
+
+    /**
+     * How many bots join a local game, when we join it
+     */
+    private int amountOfBots;
 
     /**
      * All {@link GameListener}s, those that we update about every step in a running game.<br/>
@@ -120,12 +155,6 @@ public class Game {
      */
     private GameStepNotificationInfo lastNotification = null;
 
-    /**
-     * In order to make sure game is always in sync, we keep the last time players were refreshed,
-     * so in case out optimization made us not to refresh players for more than 10 seconds, force refresh.
-     */
-    private long lastPlayersRefresh;
-
     // Hide ctor - Singleton
     private Game() {
         gameListeners = new HashSet<>(2);
@@ -158,35 +187,50 @@ public class Game {
 
         if (gameSettings.isNetwork()) {
             initNetworkGame();
+        } else {
+            initLocalGame(gameSettings);
         }
     }
 
     /**
-     * Initializes network components. Those are game notifier, chat, and game refresh.
+     * Initializes a local game, running on this device. We create the game and wait for our player to select a seat.
+     * Bots fill the other seats when we join it.<br/>
+     * There is no push connection and no periodic refresh: there is no turn time in a local game, so listeners are
+     * refreshed when the game changes only.
+     * @param gameSettings User defined settings of that game
      */
-    private void initNetworkGame() {
+    private void initLocalGame(ClientGameSettings gameSettings) {
         if (notifierThread != null) {
             stop(null);
         }
 
-        notifierThread = Executors.newFixedThreadPool(2, new CustomThreadFactory("GameNotifier"));
+        notifierThread = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("GameNotifier"));
+        chat = null;
+        amountOfBots = gameSettings.getAmountOfBots();
+        gameSettings.setCreatorId(thisPlayer.getId());
 
-        // Refresh seats availability every 500 milliseconds, to get "realtime" updates.
-        initSeatsAvailabilityThread();
+        // Bots play one at a time, so a single thread is enough for them
+        botEngine = new BotEngine(1, GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS, LOCAL_BOT_DECISION_BUDGET_MILLIS);
+        localGameEngine = new GameEngine(gameSettings, new LocalGameListener());
+    }
+
+    /**
+     * Initializes network components. Those are game notifier, chat, and the push connection.
+     */
+    private void initNetworkGame() {
+        if (notifierThread != null) {
+            stop(null);
+        }
 
-        // Refresh game state once a second, this isn't a realtime update, but good enough without
-        // flooding the server with requests.
-        gameRefreshThread = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("GameRefreshThread"));
-        gameRefreshThread.scheduleAtFixedRate(this::refreshGame, 1, 1, TimeUnit.SECONDS);
+        notifierThread = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("GameNotifier"));
+        notifierThread.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
 
-        // Start the chat so we will get messages from server
+        // The chat receives its messages through the push connection
         chat = new Chat(gameHash);
-        chat.start();
-    }
 
-    private void initSeatsAvailabilityThread() {
-        seatsAvailabilityRefreshThread = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("SeatsAvailabilityRefreshThread"));
-        seatsAvailabilityRefreshThread.scheduleAtFixedRate(this::refreshPlayers, 0, 1, TimeUnit.SECONDS);
+        // Connect to the server, so it pushes seats, game state and messages to us
+        pushConnection = new PushConnection(gameHash, new GamePushListener());
+        pushConnection.start();
     }
 
     /**
@@ -197,9 +241,9 @@ public class Game {
      */
     public void start(Consumer<String> runLater) {
         if (gameHash != null) {
-            TexasHoldemWebService.getInstance().getGameService().startGame(gameHash, new TextNode("")).enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().startGame(gameHash, new TextNode("")).enqueue(new SimpleCallback<Void>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
                     if (!response.isSuccessful()) {
                         runLater.accept(TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
                     } else {
@@ -208,11 +252,19 @@ public class Game {
                 }
 
                 @Override
-                public void onFailure(@NonNull Call<JsonNode> call, @NonNull Throwable t) {
+                public void onFailure(@NonNull Call<Void> call, @NonNull Throwable t) {
                     Log.e(LOGGER, "Failed to send START request", t);
                     runLater.accept("");
                 }
             });
+        } else if (localGameEngine != null) {
+            GameEngine game = localGameEngine;
+            if (game.getPlayers().size() < 2) {
+                runLater.accept("Waiting for players");
+            } else {
+                runOnNotifier(game::start);
+                runLater.accept("");
+            }
         }
     }
 
@@ -223,15 +275,27 @@ public class Game {
     public void stop(Runnable runLater) {
         Log.i(LOGGER, "Stopping game");
         boolean isRunLaterExecuted = false;
-        if (chat != null) {
-            chat.stop();
+        if (pushConnection != null) {
+            pushConnection.stop();
+            pushConnection = null;
         }
 
-        if (isJoinedGame) {
+        if (localGameEngine != null) {
+            localGameEngine.stop();
+            localGameEngine = null;
+        }
+
+        if (botEngine != null) {
+            botEngine.shutdown();
+            botEngine = null;
+        }
+
+        // There is nothing to leave in a local game
+        if (isJoinedGame && (gameHash != null)) {
             isRunLaterExecuted = true;
-            TexasHoldemWebService.getInstance().getGameService().leaveGame(gameHash, new TextNode("")).enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().leaveGame(gameHash, new TextNode("")).enqueue(new SimpleCallback<Void>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
                     Log.d(LOGGER, "Left game.");
                     if (runLater != null) {
                         runLater.run();
@@ -239,7 +303,7 @@ public class Game {
                 }
 
                 @Override
-                public void onFailure(@NonNull @NotNull Call<JsonNode> call, @NonNull @NotNull Throwable t) {
+                public void onFailure(@NonNull @NotNull Call<Void> call, @NonNull @NotNull Throwable t) {
                     Log.d(LOGGER, "Left game.");
                     if (runLater != null) {
                         runLater.run();
@@ -248,16 +312,6 @@ public class Game {
             });
         }
 
-        if (seatsAvailabilityRefreshThread != null) {
-            seatsAvailabilityRefreshThread.shutdownNow();
-            seatsAvailabilityRefreshThread = null;
-        }
-
-        if (gameRefreshThread != null) {
-            gameRefreshThread.shutdownNow();
-            gameRefreshThread = null;
-        }
-
         if (notifierThread != null) {
             notifierThread.shutdownNow();
             notifierThread = null;
@@ -280,36 +334,67 @@ public class Game {
     public void joinGame(Consumer<Player> onResponse) {
         // For network game
         if (gameHash != null) {
-            TexasHoldemWebService.getInstance().getGameService().joinGame(gameHash, thisPlayer).enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().joinGame(gameHash, thisPlayer).enqueue(new SimpleCallback<Player>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<Player> call, @NonNull Response<Player> response) {
                     if (!response.isSuccessful()) {
                         String errorMessage = TexasHoldemWebService.getInstance().readHttpErrorResponse(response);
                         Log.e(LOGGER, "Failed to join game: " + errorMessage);
                         notifyGameError(errorMessage);
                     } else {
                         isJoinedGame = true;
-                        JsonNode body = response.body();
-                        try {
-                            Player player = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), Player.class);
-                            Log.d(LOGGER, "Received player: " + player);
+                        Player player = response.body();
+                        Log.d(LOGGER, "Received player: " + player);
 
-                            // Update position based on server
-                            Game.this.thisPlayer.setPosition(player.getPosition());
-                            onResponse.accept(player);
+                        // Update position based on server
+                        Game.this.thisPlayer.setPosition(player.getPosition());
+                        onResponse.accept(player);
 
-                            // Send last players update to listener
-                            refreshPlayers();
-                        } catch (Exception e) {
-                            Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                            notifyGameError("Something went wrong. Try again.");
-                        }
+                        // The server pushes the players and the game to us now that we are part of the game
                     }
                 }
+
+                @Override
+                public void onFailure(@NonNull Call<Player> call, @NonNull Throwable t) {
+                    // Either we could not reach the server, or could not parse its response
+                    super.onFailure(call, t);
+                    notifyGameError("Something went wrong. Try again.");
+                }
             });
+        } else if (localGameEngine != null) {
+            joinLocalGame(onResponse);
         }
     }
 
+    /**
+     * Join {@link #thisPlayer} to the local game, at the seat it has selected, and fill the other seats with bots.<br/>
+     * The game is not started yet, so nothing else touches it, and we can join it from the calling thread.
+     * @param onResponse A consumer to pass our player to, with its position
+     */
+    private void joinLocalGame(Consumer<Player> onResponse) {
+        GameEngine game = localGameEngine;
+        try {
+            game.addPlayer(thisPlayer);
+
+            // Bots buy in with the same amount of chips we have
+            long chips = thisPlayer.getChips().get();
+            for (int i = 0; (i < amountOfBots) && (game.getPlayers().size() < GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS); i++) {
+                Player bot = botEngine.createBot(chips, LOCAL_BOT_LEVEL);
+                // Seat bots clockwise, next to us
+                bot.setPosition((thisPlayer.getPosition() + 1 + i) % GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS);
+                game.addPlayer(bot);
+            }
+        } catch (IllegalArgumentException e) {
+            Log.e(LOGGER, "Failed to join local game: " + e.getMessage());
+            notifyGameError(e.getMessage());
+            return;
+        }
+
+        isJoinedGame = true;
+        onResponse.accept(thisPlayer);
+        runOnNotifier(() -> onPlayersUpdate(copyOf(game).getPlayers().getPlayers()));
+    }
+
     /**
      * Check if this game is currently active or not.<br/>
      * We need to act different when a game is active and the GameFragment is re-created. In
@@ -331,23 +416,18 @@ public class Game {
     public void ifThisPlayerIsTheOwner(Runnable run) {
         // For network game
         if (gameHash != null) {
-            TexasHoldemWebService.getInstance().getGameService().getMyGameHash().enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().getMyGameHash().enqueue(new SimpleCallback<TextNode>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<TextNode> call, @NonNull Response<TextNode> response) {
                     if (!response.isSuccessful()) {
                         // Print it in DEBUG. We get NOT FOUND for players that are not the creator.
                         Log.d(LOGGER, "Failed to get my game hash while trying to check if current player is the creator: " + TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
                     } else {
-                        JsonNode body = response.body();
-                        try {
-                            String gameHash = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), TextNode.class).asText();
-                            Log.d(LOGGER, "Received game hash: " + gameHash);
+                        String gameHash = response.body().asText();
+                        Log.d(LOGGER, "Received game hash: " + gameHash);
 
-                            if (Game.this.gameHash.equals(gameHash)) {
-                                run.run();
-                            }
-                        } catch (Exception e) {
-                            Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
+                        if (gameHash.equals(Game.this.gameHash)) {
+                            run.run();
                         }
                     }
                 }
@@ -368,142 +448,106 @@ public class Game {
     public void ifPlayerPartOfGame(String playerId, Consumer<GameEngine> runLater) {
         if (gameEngine != null) {
             runLater.accept(gameEngine);
+        } else if (localGameEngine != null) {
+            // There is no one to ask. We are part of a local game once we have joined it.
+            runLater.accept(isJoinedGame ? copyOf(localGameEngine) : null);
         } else {
-            TexasHoldemWebService.getInstance().getGameService().getMyGame().enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().getMyGame().enqueue(new SimpleCallback<GameEngine>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<GameEngine> call, @NonNull Response<GameEngine> response) {
                     if (!response.isSuccessful()) {
                         runLater.accept(null);
                     } else {
-                        JsonNode body = response.body();
-                        try {
-                            GameEngine gameEngine = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), GameEngine.class);
-                            if (gameEngine != null) {
-                                Player player = gameEngine.getPlayers().getPlayerById(playerId);
-                                if (player == null) {
-                                    return;
-                                }
-
-                                gameHash = gameEngine.getGameHash();
-                                isJoinedGame = true;
-
-                                if (thisPlayer == null) {
-                                    thisPlayer = Player.builder().id(player.getId())
-                                            .name(player.getName())
-                                            .chips(new Chips(player.getChips().get()))
-                                            .build();
-                                }
-
-                                thisPlayer.setPosition(player.getPosition());
-
-                                // If Game.init was not called, call it now
-                                if (notifierThread == null) {
-                                    initNetworkGame();
-                                }
+                        GameEngine gameEngine = response.body();
+                        if (gameEngine != null) {
+                            Player player = gameEngine.getPlayers().getPlayerById(playerId);
+                            if (player == null) {
+                                return;
                             }
 
-                            runLater.accept(gameEngine);
-                        } catch (Exception e) {
-                            Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                            runLater.accept(null);
+                            gameHash = gameEngine.getGameHash();
+                            isJoinedGame = true;
+
+                            if (thisPlayer == null) {
+                                thisPlayer = Player.builder().id(player.getId())
+                                        .name(player.getName())
+                                        .chips(new Chips(player.getChips().get()))
+                                        .build();
+                            }
+
+                            thisPlayer.setPosition(player.getPosition());
+
+                            // If Game.init was not called, call it now
+                            if (notifierThread == null) {
+                                initNetworkGame();
+                            }
                         }
+
+                        runLater.accept(gameEngine);
                     }
                 }
+
+                @Override
+                public void onFailure(@NonNull Call<GameEngine> call, @NonNull Throwable t) {
+                    // Either we could not reach the server, or could not parse its response
+                    super.onFailure(call, t);
+                    runLater.accept(null);
+                }
             });
         }
     }
 
     /**
-     * Get list of players that are connected to our game, from cloud, and notify listener when it is updated.
+     * A game was pushed by the server. Runs on the {@link #notifierThread}, so pushed games and {@link #tick() ticks}
+     * are analyzed one at a time.<br/>
+     * Before game is started, it is in READY state, which means we are waiting for the creator to start it. Meanwhile
+     * listeners get the players, so they can show the available seats. Once the game is started, listeners get the game.
+     * @param gameEngine The pushed game
+     */
+    private void onGameUpdate(GameEngine gameEngine) {
+        Log.d(LOGGER, "Received game: " + gameEngine);
+
+        if (gameEngine.getGameState() != GameEngine.GameState.READY) {
+            this.gameEngine = gameEngine;
+            notifyGameRefresh(gameEngine);
+            detectAndNotifyAboutGameStep();
+        } else if (this.gameEngine != null) {
+            // When there is one player left in a game, the game enters into READY state and waits for admin to
+            // start it. Hence we show seats availability again, to wait for players to join
+            boolean wasActive = this.gameEngine.getGameState() != GameEngine.GameState.READY;
+            this.gameEngine = gameEngine;
+            if (wasActive) {
+                notifyPlayersRefresh(gameEngine.getPlayers().getPlayers());
+            }
+        }
+    }
+
+    /**
+     * Players joined or left the game. They are pushed by the server, and we pass them to listeners while
+     * seats can be selected, which is before the game is started, or while it waits for players.
+     * @param players The players that are currently in the game
      */
-    private void refreshPlayers() {
-        if (gameHash != null) {
-            TexasHoldemWebService.getInstance().getGameService().getPlayers(gameHash).enqueue(new SimpleCallback<JsonNode>() {
-                @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
-                    if (!response.isSuccessful()) {
-                        Log.e(LOGGER, "Failed to get players");
-                    } else {
-                        JsonNode body = response.body();
-                        try {
-                            Set<Player> players = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), new TypeReference<Set<Player>>() {
-                            });
-                            Log.d(LOGGER, "Received players: " + players);
-
-                            if ((Game.this.playersInGame == null) || (!Game.this.playersInGame.equals(players)) ||
-                                    ((System.currentTimeMillis() - lastPlayersRefresh) >= TimeUnit.SECONDS.toMillis(10))) {
-                                lastPlayersRefresh = System.currentTimeMillis();
-                                notifyPlayersRefresh(players);
-                            }
+    private void onPlayersUpdate(Set<Player> players) {
+        Log.d(LOGGER, "Received players: " + players);
+        playersInGame = players;
 
-                            // Keep it for next timer tick
-                            Game.this.playersInGame = players;
-                        } catch (Exception e) {
-                            Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                        }
-                    }
-                }
-            });
+        if ((gameEngine == null) || (gameEngine.getGameState() == GameEngine.GameState.READY)) {
+            notifyPlayersRefresh(players);
         }
     }
 
     /**
-     * Ask the cloud for game engine info.<br/>
-     * Once the game is started, we stop the seats availability thread, and let the listener get
-     * the updates about the game.
+     * Refresh the listeners with the last game every second, so they can update the turn timer without asking the server.
      */
-    private void refreshGame() {
-        if (gameHash != null) {
-            TexasHoldemWebService.getInstance().getGameService().getGameInfo(gameHash).enqueue(new SimpleCallback<JsonNode>() {
-                @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
-                    if (!response.isSuccessful()) {
-                        // Before user joins a game, we get bad request cause user that not part of
-                        // a game cannot receive game updates. Just ignore those failures.
-                        if ((response.code() != HttpStatus.BAD_REQUEST.getCode()) && (response.code() != HttpStatus.NOT_FOUND.getCode())) {
-                            Log.e(LOGGER, "Failed to get game update");
-                            notifyGameError("Game is Out of Sync");
-                        } else if (seatsAvailabilityRefreshThread == null) {
-                            notifyGameError("Disconnect");
-                        }
-                    } else {
-                        JsonNode body = response.body();
-                        try {
-                            GameEngine gameEngine = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), GameEngine.class);
-                            Log.d(LOGGER, "Received game: " + gameEngine);
-
-                            if (gameEngine != null) {
-                                // Before game is started, it is in READY state, which means we are
-                                // waiting for the creator to start it. Meanwhile we refresh seats.
-                                if (gameEngine.getGameState() != GameEngine.GameState.READY) {
-                                    Game.this.gameEngine = gameEngine;
-
-                                    // In case seats availability thread is still running, stop it.
-                                    // We get here one time only, when a game is started, so we stop
-                                    // the seats availability thread.
-                                    if (seatsAvailabilityRefreshThread != null) {
-                                        seatsAvailabilityRefreshThread.shutdownNow();
-                                        seatsAvailabilityRefreshThread = null;
-                                    }
-
-                                    notifyGameRefresh(gameEngine);
-                                    detectAndNotifyAboutGameStep();
-                                } else if (seatsAvailabilityRefreshThread == null) {
-                                    // Update game engine so we will have its up to dae state
-                                    Game.this.gameEngine = gameEngine;
-
-                                    // When there is one player left in a game, the game enters into
-                                    // READY state and waits for admin to start it. hence we refresh
-                                    // seats availability, to wait for players to join
-                                    initSeatsAvailabilityThread();
-                                }
-                            }
-                        } catch (Exception e) {
-                            Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                        }
-                    }
-                }
-            });
+    private void tick() {
+        try {
+            if ((gameEngine != null) && (gameEngine.getGameState() != GameEngine.GameState.READY)) {
+                notifyGameRefresh(gameEngine);
+                detectAndNotifyAboutGameStep();
+            }
+        } catch (Exception e) {
+            // Do not let an exception cancel the scheduled task
+            Log.e(LOGGER, "Error has occurred while refreshing game", e);
         }
     }
 
@@ -543,8 +587,13 @@ public class Game {
 
             // Check if need to play timer sound.
             // Don't play timer if there is less than 11 seconds. Anyway we want it to be heard once.
-            long timePassed = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - gameEngine.getPlayerTurnTimer().getTurnStartTime());
-            long timeLeft = gameEngine.getGameSettings().getTurnTime() - timePassed;
+            // There is no turn timer in a local game.
+            long timeLeft = -1;
+            if (gameEngine.getPlayerTurnTimer() != null) {
+                long timePassed = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - gameEngine.getPlayerTurnTimer().getTurnStartTime());
+                timeLeft = gameEngine.getGameSettings().getTurnTime() - timePassed;
+            }
+
             if ((timeLeft >= 11) && (timeLeft <= 13)) {
                 // A player action (CHECK, CALL, RAISE, FOLD) has higher priority than timer.
                 // So check here to make sure TIMER does not override player action.
@@ -581,9 +630,21 @@ public class Game {
      * @param playerAction The action to execute
      */
     public void executePlayerAction(PlayerAction playerAction) {
-        TexasHoldemWebService.getInstance().getGameService().executePlayerAction(gameHash, playerAction).enqueue(new SimpleCallback<JsonNode>() {
+        if (localGameEngine != null) {
+            GameEngine game = localGameEngine;
+            runOnNotifier(() -> {
+                try {
+                    game.executePlayerAction(game.getPlayers().getPlayerById(thisPlayer.getId()), playerAction);
+                } catch (IllegalArgumentException e) {
+                    notifyGameError(e.getMessage());
+                }
+            });
+            return;
+        }
+
+        TexasHoldemWebService.getInstance().getGameService().executePlayerAction(gameHash, playerAction).enqueue(new SimpleCallback<Void>() {
             @Override
-            public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+            public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
                 if (!response.isSuccessful()) {
                     notifyGameError(TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
                 }
@@ -672,6 +733,133 @@ public class Game {
         }
     }
 
+    /**
+     * Run a task on the {@link #notifierThread}, unless the game was stopped
+     * @param task The task to run
+     */
+    private void runOnNotifier(Runnable task) {
+        ScheduledExecutorService notifier = notifierThread;
+        if (notifier != null) {
+            try {
+                notifier.execute(task);
+            } catch (RejectedExecutionException ignore) {
+                // Game was stopped
+            }
+        }
+    }
+
+    /**
+     * Copy a local game, the same way a network game is copied when the server pushes it to us.<br/>
+     * Listeners draw the game on another thread, while bots keep playing the local game, so they must get a copy.
+     * {@link Player} reveals the hand of the user in the {@link ThreadContextMap} only, so we copy as our player,
+     * to keep our own hand in the copy, and hide the hands of the bots.
+     * @param game The game to copy
+     * @return A copy of the game
+     */
+    private GameEngine copyOf(GameEngine game) {
+        ThreadContextMap threadContext = ThreadContextMap.getInstance();
+        String currentUserId = threadContext.getUserId();
+        threadContext.setUserId(thisPlayer.getId());
+        try {
+            return TexasHoldemWebService.getInstance().getObjectMapper().convertValue(game, GameEngine.class);
+        } finally {
+            threadContext.setUserId(currentUserId);
+        }
+    }
+
+    /**
+     * Listens to the local game, the same way the server listens to network games: it passes turns to the
+     * {@link #botEngine}, and updates the listeners whenever the game changes.<br/>
+     * Chips are not persisted, as a local game is a training game, played with chips that are not taken from user's coins.
+     */
+    private class LocalGameListener implements GameEngine.PlayerUpdateListener {
+        @Override
+        public void onPlayerChipsUpdated(Player player, long chips) {
+            // Do nothing
+        }
+
+        @Override
+        public void onPlayerTurn(GameEngine game, Player player) {
+            publish(game);
+
+            // Let users follow the game before a bot plays. The bot plays on the notifier, which owns the game.
+            ScheduledExecutorService notifier = notifierThread;
+            BotEngine bots = botEngine;
+            if ((notifier != null) && (bots != null)) {
+                try {
+                    notifier.schedule(() -> {
+                        try {
+                            bots.playTurnNow(game, player);
+                        } catch (Exception e) {
+                            Log.e(LOGGER, "Error has occurred while playing turn of bot: " + player.getId(), e);
+                        }
+                    }, LOCAL_BOT_TURN_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException ignore) {
+                    // Game was stopped
+                }
+            }
+        }
+
+        @Override
+        public void onShowdown(GameEngine game, long evaluationNanos) {
+            publish(game);
+        }
+
+        @Override
+        public void onGameReady(GameEngine game) {
+            publish(game);
+        }
+
+        private void publish(GameEngine game) {
+            runOnNotifier(() -> {
+                if (game == localGameEngine) {
+                    try {
+                        onGameUpdate(copyOf(game));
+                    } catch (Exception e) {
+                        Log.e(LOGGER, "Error has occurred while refreshing local game", e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Dispatches the events of the {@link #pushConnection} to the game and to its chat
+     */
+    private class GamePushListener implements PushConnection.PushListener {
+        private final Chat chat;
+
+        GamePushListener() {
+            this.chat = Game.this.chat;
+        }
+
+        @Override
+        public void onGameEvent(GameEngine gameEngine) {
+            runOnNotifier(() -> onGameUpdate(gameEngine));
+        }
+
+        @Override
+        public void onUsersEvent(List<Player> users) {
+            chat.onUsersEvent(users);
+            runOnNotifier(() -> onPlayersUpdate(new HashSet<>(users)));
+        }
+
+        @Override
+        public void onMessageEvent(Message message) {
+            chat.onMessageEvent(message);
+        }
+
+        @Override
+        public void onPushError(String errorMessage, boolean isChannelGone) {
+            // Before user joins a game, there is nothing to disconnect from. Keep trying until the game is stopped.
+            if (isChannelGone && isJoinedGame) {
+                notifyGameError("Disconnect");
+            } else {
+                chat.onPushError();
+            }
+        }
+    }
+
     // Thread-safe, lazy-initialization of singleton
     private static class GameHolder {
         private static final Game INSTANCE = new Game();
@@ -690,7 +878,7 @@ public class Game {
         void onStep(GameEngine gameEngine, GameStepType step);
 
         /**
-         * Occurs every 1 second to refresh the UI
+         * Occurs whenever the server pushes a game, and every 1 second to refresh the UI
          * @param gameEngine Reference to {@link GameEngine} to have game info
          */
         void refresh(GameEngine gameEngine);
@@ -2,7 +2,8 @@ package org.hit.android.haim.texasholdem.view;
 
 import android.app.Service;
 import android.content.Intent;
-import android.media.MediaPlayer;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
 import android.os.IBinder;
 import android.util.Log;
 
@@ -13,23 +14,51 @@ import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
 import org.hit.android.haim.texasholdem.model.game.Game;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Play game sound effects in background
+ * Play game sound effects in background.<br/>
+ * Sound effects are short, so we decode them once into a {@link SoundPool} when the service starts, and play them from
+ * memory. Unlike a MediaPlayer per effect, playing is immediate and does not block the thread that notifies about game steps,
+ * and all effects share a single native player with a limited amount of voices. When all voices are busy, a step with
+ * higher priority (e.g. winning) stops the voice with the lowest priority (e.g. dealing a card).
  * @author Haim Adrian
  * @since 12-Jun-21
  */
 public class GameSoundService extends Service implements Game.GameListener {
     private static final String LOGGER = GameSoundService.class.getSimpleName();
 
+    /**
+     * Maximum amount of sound effects playing together
+     */
+    private static final int MAX_STREAMS = 4;
+
+    /**
+     * Priorities of the sound effects, where higher priority wins a voice when all voices are busy
+     */
+    private static final int LOW_PRIORITY = 0, NORMAL_PRIORITY = 1, HIGH_PRIORITY = 2;
+
+    /**
+     * The pool that holds the decoded sound effects
+     */
+    private volatile SoundPool soundPool;
+
     /**
      * Map between {@link org.hit.android.haim.texasholdem.model.game.Game.GameStepType} to its corresponding
-     * media player, so we can play sound effects for each game step.
+     * sound effect, so we can play sound effects for each game step.
      */
-    private Map<Game.GameStepType, MediaPlayer> mediaPlayers;
+    private volatile Map<Game.GameStepType, SoundEffect> soundEffects;
+
+    /**
+     * Sound effects that were decoded, and can be played. Loading is asynchronous, and playing a sound that was not
+     * decoded yet just fails, so we skip such sounds.
+     */
+    private final Set<Integer> loadedSoundIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
     @Nullable
     @Override
@@ -42,26 +71,51 @@ public class GameSoundService extends Service implements Game.GameListener {
     public int onStartCommand(Intent intent, int flags, int startId) {
         Log.d(LOGGER, "onStartCommand");
 
-        MediaPlayer chipsLongMediaPlayer = MediaPlayer.create(this, R.raw.chips_long);
-        mediaPlayers = new HashMap<>(Game.GameStepType.values().length);
-        mediaPlayers.put(Game.GameStepType.CALL, MediaPlayer.create(this, R.raw.chips_short));
-        mediaPlayers.put(Game.GameStepType.RAISE, chipsLongMediaPlayer);
-        mediaPlayers.put(Game.GameStepType.ALL_IN, chipsLongMediaPlayer);
-        mediaPlayers.put(Game.GameStepType.TIMER, MediaPlayer.create(this, R.raw.kitchen_timer));
-        mediaPlayers.put(Game.GameStepType.CHECK, MediaPlayer.create(this, R.raw.knock_on_door));
-        mediaPlayers.put(Game.GameStepType.DEAL_CARD, MediaPlayer.create(this, R.raw.dealing_card));
-        mediaPlayers.put(Game.GameStepType.FLIP_CARD, MediaPlayer.create(this, R.raw.flip_card));
-        mediaPlayers.put(Game.GameStepType.WIN, MediaPlayer.create(this, R.raw.success));
-        mediaPlayers.put(Game.GameStepType.LOSE, MediaPlayer.create(this, R.raw.fail));
-        mediaPlayers.put(Game.GameStepType.FOLD, MediaPlayer.create(this, R.raw.dealing_card));
-
-        // Listen to game steps so we can play sound effects for each step
-        Game.getInstance().addGameListener(this);
+        // Service might be started again while it is running. Sound effects were already loaded.
+        if (soundPool == null) {
+            soundPool = new SoundPool.Builder()
+                    .setMaxStreams(MAX_STREAMS)
+                    .setAudioAttributes(new AudioAttributes.Builder()
+                            .setUsage(AudioAttributes.USAGE_GAME)
+                            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                            .build())
+                    .build();
+            soundPool.setOnLoadCompleteListener((pool, soundId, status) -> {
+                if (status == 0) {
+                    loadedSoundIds.add(soundId);
+                } else {
+                    Log.w(LOGGER, "Failed to load sound effect: " + soundId + ", status: " + status);
+                }
+            });
+
+            // Steps that share a sound effect share its decoded sound as well
+            Map<Integer, Integer> resourceToSoundId = new HashMap<>();
+            Map<Game.GameStepType, SoundEffect> soundEffects = new EnumMap<>(Game.GameStepType.class);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.CALL, R.raw.chips_short, NORMAL_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.RAISE, R.raw.chips_long, NORMAL_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.ALL_IN, R.raw.chips_long, NORMAL_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.TIMER, R.raw.kitchen_timer, HIGH_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.CHECK, R.raw.knock_on_door, NORMAL_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.DEAL_CARD, R.raw.dealing_card, LOW_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.FLIP_CARD, R.raw.flip_card, LOW_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.WIN, R.raw.success, HIGH_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.LOSE, R.raw.fail, HIGH_PRIORITY);
+            addSoundEffect(soundEffects, resourceToSoundId, Game.GameStepType.FOLD, R.raw.dealing_card, NORMAL_PRIORITY);
+            this.soundEffects = soundEffects;
+
+            // Listen to game steps so we can play sound effects for each step
+            Game.getInstance().addGameListener(this);
+        }
 
         // Use sticky so onStartCommand will be called again in case service is killed.
         return Service.START_STICKY;
     }
 
+    private void addSoundEffect(Map<Game.GameStepType, SoundEffect> soundEffects, Map<Integer, Integer> resourceToSoundId, Game.GameStepType step, int resourceId, int priority) {
+        int soundId = resourceToSoundId.computeIfAbsent(resourceId, resId -> soundPool.load(this, resId, 1));
+        soundEffects.put(step, new SoundEffect(soundId, priority));
+    }
+
     @Override
     public void onDestroy() {
         Log.d(LOGGER, "onDestroy");
@@ -70,36 +124,29 @@ public class GameSoundService extends Service implements Game.GameListener {
         // Stop game to shutdown background threads
         try { Game.getInstance().stop(null); } catch (Exception ignore) { }
 
-        if (mediaPlayers != null) {
-            mediaPlayers.values().forEach(GameSoundService::releaseMediaPlayer);
-            mediaPlayers.clear();
+        if (soundPool != null) {
+            soundPool.release();
+            soundPool = null;
         }
 
+        soundEffects = null;
+        loadedSoundIds.clear();
+
         stopSelf();
         super.onDestroy();
     }
 
-    private static void releaseMediaPlayer(MediaPlayer mediaPlayer) {
-        try { mediaPlayer.stop(); } catch (Exception ignore) {}
-        try { mediaPlayer.reset(); } catch (Exception ignore) {} // Reset media player before releasing it so we will not get "mediaplayer went away with unhandled events" warning
-        try { mediaPlayer.release(); } catch (Exception ignore) {}
-    }
-
-    private static void restartMediaPlayer(MediaPlayer mediaPlayer) {
-        if (mediaPlayer.isPlaying()) {
-            mediaPlayer.stop();
-        }
-
-        mediaPlayer.start();
-    }
-
     @Override
     public void onStep(GameEngine gameEngine, Game.GameStepType step) {
         if (step != null) {
             Log.d(LOGGER, "onStep: " + step);
-            MediaPlayer mediaPlayer = mediaPlayers.get(step);
-            if (mediaPlayer != null) {
-                restartMediaPlayer(mediaPlayer);
+            // Steps are notified from the game notifier thread, so read the pool once, in case service is destroyed meanwhile
+            SoundPool soundPool = this.soundPool;
+            Map<Game.GameStepType, SoundEffect> soundEffects = this.soundEffects;
+            SoundEffect soundEffect = soundEffects == null ? null : soundEffects.get(step);
+            if ((soundPool != null) && (soundEffect != null) && loadedSoundIds.contains(soundEffect.soundId)) {
+                // Playing is asynchronous, so this returns immediately
+                soundPool.play(soundEffect.soundId, 1f, 1f, soundEffect.priority, 0, 1f);
             }
         }
     }
@@ -118,4 +165,17 @@ public class GameSoundService extends Service implements Game.GameListener {
     public void onGameError(String errorMessage) {
         // Do nothing
     }
+
+    /**
+     * A decoded sound effect, and its priority
+     */
+    private static class SoundEffect {
+        final int soundId;
+        final int priority;
+
+        SoundEffect(int soundId, int priority) {
+            this.soundId = soundId;
+            this.priority = priority;
+        }
+    }
 }
@@ -12,7 +12,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
 import org.hit.android.haim.texasholdem.R;
@@ -20,6 +19,7 @@ import org.hit.android.haim.texasholdem.databinding.ActivityLoginBinding;
 import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.view.fragment.login.SignInFragment;
 import org.hit.android.haim.texasholdem.view.fragment.login.SignUpFragment;
+import org.hit.android.haim.texasholdem.web.AvatarCache;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
 
 import retrofit2.Call;
@@ -83,10 +83,10 @@ public class LoginActivity extends AppCompatActivity {
      * @param context The context for initializing an intent with.
      */
     public static void doSignOut(ContextWrapper context) {
-        TexasHoldemWebService.getInstance().getUserService().signOut(new TextNode("")).enqueue(new Callback<JsonNode>() {
+        TexasHoldemWebService.getInstance().getUserService().signOut(new TextNode("")).enqueue(new Callback<Void>() {
             @Override
             @EverythingIsNonNull
-            public void onResponse(Call<JsonNode> call, Response<JsonNode> response) {
+            public void onResponse(Call<Void> call, Response<Void> response) {
                 TexasHoldemWebService.getInstance().setLoggedInUserId(null);
 
                 Log.d(LOGGER, "Server responded with: " + response);
@@ -95,7 +95,7 @@ public class LoginActivity extends AppCompatActivity {
 
             @Override
             @EverythingIsNonNull
-            public void onFailure(Call<JsonNode> call, Throwable t) {
+            public void onFailure(Call<Void> call, Throwable t) {
                 Log.e(LOGGER, "Error has occurred while signing out", t);
             }
         });
@@ -118,6 +118,7 @@ public class LoginActivity extends AppCompatActivity {
 
         // Initialize it so it will be able to access resources (certificate)
         TexasHoldemWebService.getInstance().init(getApplicationContext());
+        AvatarCache.getInstance().init(getApplicationContext());
 
         binding = ActivityLoginBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
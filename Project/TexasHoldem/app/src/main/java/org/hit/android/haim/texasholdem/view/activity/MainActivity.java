@@ -28,7 +28,6 @@ import androidx.navigation.Navigation;
 import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.android.material.navigation.NavigationView;
 import com.google.android.material.snackbar.Snackbar;
 import com.theartofdev.edmodo.cropper.CropImage;
@@ -39,6 +38,7 @@ import org.hit.android.haim.texasholdem.databinding.ActivityMainBinding;
 import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.model.game.Game;
 import org.hit.android.haim.texasholdem.view.GameSoundService;
+import org.hit.android.haim.texasholdem.web.AvatarCache;
 import org.hit.android.haim.texasholdem.web.SimpleCallback;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
 
@@ -287,6 +287,7 @@ public class MainActivity extends AppCompatActivity {
                     final InputStream imageStream = MainActivity.this.getContentResolver().openInputStream(resultUri);
                     Bitmap selectedImage = BitmapFactory.decodeStream(imageStream);
                     user.setImageBitmap(selectedImage);
+                    AvatarCache.getInstance().invalidate(user.getId());
                     TexasHoldemWebService.getInstance().getUserService().updateImage(user.getId(), user).enqueue(new UserInfoCallback());
                 } catch (Exception e) {
                     Log.e(LOGGER, "Error has occurred while selecting image: " + e.getMessage(), e);
@@ -454,7 +455,7 @@ public class MainActivity extends AppCompatActivity {
      * The server returns the user model when we ask for user info by identifier, or when
      * we update its details. For example when we update the image or coins.
      */
-    private class UserInfoCallback extends SimpleCallback<JsonNode> {
+    private class UserInfoCallback extends SimpleCallback<User> {
         /**
          * An optional task to run when response is received successfully.
          */
@@ -476,35 +477,37 @@ public class MainActivity extends AppCompatActivity {
         }
 
         @Override
-        public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+        public void onResponse(@NonNull Call<User> call, @NonNull Response<User> response) {
             if (!response.isSuccessful()) {
                 handleHttpErrorResponse("User info is unavailable", response);
             } else {
-                JsonNode body = response.body();
-                try {
-                    user = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), User.class);
-                    Log.d(LOGGER, "Received user info: " + user);
-
-                    userTextView.setText(String.format(getString(R.string.nav_header_user), user.getName(), user.getId()));
-                    coinsTextView.setText(String.valueOf(user.getCoins()));
-
-                    if (user.getImage() != null) {
-                        userImageView.setImageBitmap(user.getImageBitmap());
-                    } else {
-                        // Default user image
-                        userImageView.setImageResource(R.drawable.user);
-                    }
-
-                    if (runLater != null) {
-                        runLater.run();
-                    }
+                user = response.body();
+                Log.d(LOGGER, "Received user info: " + user);
+
+                userTextView.setText(String.format(getString(R.string.nav_header_user), user.getName(), user.getId()));
+                coinsTextView.setText(String.valueOf(user.getCoins()));
+
+                if (user.getImage() != null) {
+                    // Decode it off the main thread, at the size of the view
+                    AvatarCache.getInstance().loadInto(user.getId(), userImageView);
+                } else {
+                    // Default user image
+                    userImageView.setImageResource(R.drawable.user);
+                }
 
-                    refreshGameMenuVisibility();
-                } catch (Exception e) {
-                    Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                    showSnack("User info is unavailable. Reason: " + e.getMessage());
+                if (runLater != null) {
+                    runLater.run();
                 }
+
+                refreshGameMenuVisibility();
             }
         }
+
+        @Override
+        public void onFailure(@NonNull Call<User> call, @NonNull Throwable t) {
+            // Either we could not reach the server, or could not parse its response
+            super.onFailure(call, t);
+            showSnack("User info is unavailable. Reason: " + t.getMessage());
+        }
     }
 }
\ No newline at end of file
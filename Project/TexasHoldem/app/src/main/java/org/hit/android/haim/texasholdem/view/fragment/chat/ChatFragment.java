@@ -214,7 +214,7 @@ public class ChatFragment extends ViewBindedFragment<FragmentChatBinding> implem
             if (message.isEmpty()) {
                 Toast.makeText(mainActivity, "Cannot send empty message", Toast.LENGTH_SHORT).show();
             } else {
-                Game.getInstance().getChat().sendMessage(mainActivity.getUser().getId(), message, error -> Snackbar.make(fragmentView, error, Snackbar.LENGTH_LONG).show());
+                Game.getInstance().getChat().sendMessage(message, error -> Snackbar.make(fragmentView, error, Snackbar.LENGTH_LONG).show());
             }
         } else {
             Toast.makeText(mainActivity, "Cannot create messages. Reload.", Toast.LENGTH_LONG).show();
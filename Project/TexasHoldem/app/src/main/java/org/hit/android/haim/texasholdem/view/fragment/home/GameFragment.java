@@ -25,7 +25,6 @@ import androidx.appcompat.view.ContextThemeWrapper;
 import androidx.appcompat.widget.AppCompatButton;
 
 import com.airbnb.lottie.LottieAnimationView;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.android.material.badge.BadgeDrawable;
 import com.google.android.material.badge.BadgeUtils;
 import com.google.android.material.snackbar.BaseTransientBottomBar;
@@ -43,7 +42,6 @@ import org.hit.android.haim.texasholdem.common.model.game.Chips;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
 import org.hit.android.haim.texasholdem.common.model.game.Pot;
 import org.hit.android.haim.texasholdem.databinding.FragmentGameBinding;
-import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.model.chat.Chat;
 import org.hit.android.haim.texasholdem.model.game.Game;
 import org.hit.android.haim.texasholdem.view.GameSoundService;
@@ -52,8 +50,7 @@ import org.hit.android.haim.texasholdem.view.custom.CardView;
 import org.hit.android.haim.texasholdem.view.custom.HandView;
 import org.hit.android.haim.texasholdem.view.custom.PlayerView;
 import org.hit.android.haim.texasholdem.view.fragment.ViewBindedFragment;
-import org.hit.android.haim.texasholdem.web.SimpleCallback;
-import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
+import org.hit.android.haim.texasholdem.web.AvatarCache;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -61,13 +58,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import retrofit2.Call;
-import retrofit2.Response;
-
-
 /**
  * This fragment displays a game.<br/>
  * A game can be against AI or other players from network.
@@ -131,6 +125,24 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
      */
     private boolean isHighlighted = false;
 
+    /**
+     * The table as it was drawn by the last refresh, so the next refresh mutates only the views that changed.<br/>
+     * It is {@code null} when views were drawn from elsewhere (e.g. players refresh), which means the next refresh draws all.
+     */
+    private TableSnapshot lastSnapshot;
+
+    /**
+     * The table as it was posted to the UI thread by the last refresh. Refreshes run on the notifier of the {@link Game},
+     * so we compare with it there, and skip the post when nothing but the turn timer has changed.<br/>
+     * It is reset together with {@link #lastSnapshot}, so the next refresh is drawn.
+     */
+    private volatile TableSnapshot postedSnapshot;
+
+    /**
+     * The text resource that check button shows, so we set it only when it changes
+     */
+    private int checkButtonTextRes;
+
     /**
      * Constructs a new {@link GameFragment}
      */
@@ -215,8 +227,12 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
             getBinding().buttonChat.setVisibility(View.GONE);
         }
 
-        // Display the game hash so players can communicate with their friends
-        getBinding().gameHash.setText(String.format(getString(R.string.game_id), game.getGameHash()));
+        // Display the game hash so players can communicate with their friends. A local game has no hash.
+        if (game.getGameHash() != null) {
+            getBinding().gameHash.setText(String.format(getString(R.string.game_id), game.getGameHash()));
+        } else {
+            getBinding().gameHash.setVisibility(View.GONE);
+        }
         getBinding().winAnimation.setVisibility(View.INVISIBLE);
         getBinding().buttonRaise.setEnabled(false);
         getBinding().buttonCheck.setEnabled(false);
@@ -253,12 +269,20 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
     @Override
     public void onDestroyView() {
         game.removeGameStepListener(this);
-        game.getChat().removeChatListener(this);
+        if (game.getChat() != null) {
+            game.getChat().removeChatListener(this);
+        }
 
         chatButtonBadge = null;
         handler = null;
         startGameButton = null;
 
+        // Views are gone, so when the view is created again, we draw all of it
+        lastSnapshot = null;
+        postedSnapshot = null;
+        lastActivePlayer = null;
+        checkButtonTextRes = 0;
+
         super.onDestroyView();
     }
 
@@ -284,142 +308,204 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
     }
 
     // Here we draw the game based on game info.
+    // This runs on the notifier of the game every second, with a copy of the game, so we take the snapshot here and
+    // keep the UI thread for drawing. When the table has not changed, only the turn timer is posted.
     @Override
     public void refresh(GameEngine gameEngine) {
-        if ((handler != null) && (gameEngine != null)) {
-            handler.post(() -> {
+        Handler uiHandler = handler;
+        if ((uiHandler == null) || (gameEngine == null)) {
+            return;
+        }
+
+        TableSnapshot snapshot;
+        try {
+            snapshot = TableSnapshot.of(gameEngine, game.getThisPlayer().getId(), MAX_AMOUNT_OF_PLAYERS, game.isActive());
+        } catch (Throwable t) {
+            Log.e(LOGGER, "Error during refresh", t);
+            return;
+        }
+
+        int turnSecondsLeft = turnSecondsLeft(gameEngine);
+        if (snapshot.equals(postedSnapshot)) {
+            uiHandler.post(() -> {
                 if (handler != null) {
-                    try {
-                        updateBoardVisibility();
-                        updateHandsAndDealer(gameEngine);
-
-                        // Update our hand. (this player is the signed in user on this device)
-                        Player thisPlayer = gameEngine.getPlayers().getPlayerById(game.getThisPlayer().getId());
-
-                        // When player puts all-in and lose, he is kicked out of the game.
-                        // So detect this case here to execute leaveGame
-                        if (gameEngine.getPlayers().getPlayerById(thisPlayer.getId()) == null) {
-                            handler.postDelayed(() -> {
-                                Toast.makeText(getActivity(), "No chips left. Please re-join.", Toast.LENGTH_LONG).show();
-                            }, 250);
-                            doQuitGame();
-                        }
+                    updateTurnTimer(turnSecondsLeft);
+                }
+            });
+            return;
+        }
 
-                        // When players exit game by killing the app, we get into illegal state. skip this refresh.
-                        Player currentPlayer = gameEngine.getPlayers().getCurrentPlayer();
-                        if (currentPlayer == null) {
-                            // Refresh players cause player left
-                            playersRefresh(gameEngine.getPlayers().getPlayers());
-                            return;
-                        }
+        postedSnapshot = snapshot;
+        uiHandler.post(() -> {
+            if (handler != null) {
+                try {
+                    // Compare the table with what we have drawn last time, so we touch only the views that changed.
+                    TableSnapshot previous = lastSnapshot;
+                    lastSnapshot = snapshot;
+
+                    updateBoard(previous == null ? null : previous.getBoard(), snapshot.getBoard());
+                    updateSeats(gameEngine, previous, snapshot);
+
+                    // This player is the signed in user on this device
+                    Player thisPlayer = gameEngine.getPlayers().getPlayerById(game.getThisPlayer().getId());
+
+                    // When player puts all-in and lose, he is kicked out of the game.
+                    // So detect this case here to execute leaveGame
+                    if (gameEngine.getPlayers().getPlayerById(thisPlayer.getId()) == null) {
+                        handler.postDelayed(() -> {
+                            Toast.makeText(getActivity(), "No chips left. Please re-join.", Toast.LENGTH_LONG).show();
+                        }, 250);
+                        doQuitGame();
+                    }
 
-                        updateProgressBar(gameEngine);
+                    // When players exit game by killing the app, we get into illegal state. skip this refresh.
+                    Player currentPlayer = gameEngine.getPlayers().getCurrentPlayer();
+                    if (currentPlayer == null) {
+                        // Refresh players cause player left
+                        playersRefresh(gameEngine.getPlayers().getPlayers());
+                        return;
+                    }
 
-                        PlayerViewAccessor thisPlayerView = players.get(thisPlayer.getPosition());
-                        Hand myHand = thisPlayer.getHand();
-                        revealHand(thisPlayerView.handView, myHand);
+                    updateProgressBar(gameEngine, turnSecondsLeft);
 
-                        // Update action buttons.
-                        // Buttons should be disabled during a RESTART (win) and when it is not put player's turn.
-                        boolean isActionButtonEnabled = thisPlayer.equals(gameEngine.getPlayers().getCurrentPlayer()) &&
-                                (gameEngine.getPlayerToEarnings() == null);
+                    // Update action buttons, when they change.
+                    // Buttons should be disabled during a RESTART (win) and when it is not put player's turn.
+                    boolean isActionButtonEnabled = snapshot.isThisPlayerTurn() && !snapshot.isRoundOver();
+                    if ((previous == null) || (isActionButtonEnabled != (previous.isThisPlayerTurn() && !previous.isRoundOver()))) {
                         getBinding().buttonRaise.setEnabled(isActionButtonEnabled);
                         getBinding().buttonCheck.setEnabled(isActionButtonEnabled);
                         getBinding().buttonFold.setEnabled(isActionButtonEnabled);
-
-                        // Draw winners indication if necessary
-                        highlightWinnersIfNecessary(gameEngine);
-                    } catch (Throwable t) {
-                        Log.e(LOGGER, "Error during refresh", t);
                     }
+
+                    // Draw winners indication if necessary
+                    highlightWinnersIfNecessary(gameEngine);
+                } catch (Throwable t) {
+                    Log.e(LOGGER, "Error during refresh", t);
                 }
-            });
-        }
+            }
+        });
     }
 
     /**
-     * Helper method to show/hide hands based on involved players in a game.<br/>
-     * In addition, show the dealer.
+     * Helper method to show/hide hands based on involved players in a game, and show the dealer, chips, bets and
+     * revealed cards of every seat.<br/>
+     * Seats that did not change since previous snapshot are skipped.
      * @param gameEngine Game engine to get details from
+     * @param previous The table as it was drawn last time, or {@code null} to draw all seats
+     * @param snapshot The table to draw
      */
-    private void updateHandsAndDealer(GameEngine gameEngine) {
-        Set<Player> involvedPlayers = gameEngine.getPlayers().getInvolvedPlayers();
-        Player dealer = gameEngine.getDealer();
+    private void updateSeats(GameEngine gameEngine, @Nullable TableSnapshot previous, TableSnapshot snapshot) {
         for (Map.Entry<Integer, PlayerViewAccessor> currPlayer : players.entrySet()) {
+            PlayerViewAccessor playerView = currPlayer.getValue();
+
             // If player left the game, clear its view. Note that player might reconnect and select another seat.
-            if ((currPlayer.getValue().player == null) ||
-                (gameEngine.getPlayers().getPlayerById(currPlayer.getValue().player.getId()) == null) ||
-                (gameEngine.getPlayers().getPlayer(currPlayer.getValue().player.getPosition()) == null)) {
-                currPlayer.getValue().hide();
-                currPlayer.getValue().player = null;
-            } else {
-                // In case there is a player at this view, make sure it is visible.
-                currPlayer.getValue().playerView.setVisibility(View.VISIBLE);
+            if ((playerView.player == null) ||
+                (gameEngine.getPlayers().getPlayerById(playerView.player.getId()) == null) ||
+                (gameEngine.getPlayers().getPlayer(playerView.player.getPosition()) == null)) {
+                playerView.hide();
+                playerView.player = null;
+                continue;
+            }
 
+            // In case there is a player at this view, make sure it is visible.
+            playerView.playerView.setVisibility(View.VISIBLE);
+
+            TableSnapshot.SeatSnapshot seat = snapshot.getSeat(currPlayer.getKey());
+            TableSnapshot.SeatSnapshot previousSeat = previous == null ? null : previous.getSeat(currPlayer.getKey());
+            if (seat == null) {
+                // Hide it
+                playerView.setBet(0);
+            } else if (!seat.equals(previousSeat)) {
                 // Show or hide player's hand, based on player activity in the game
-                if (!involvedPlayers.contains(currPlayer.getValue().player)) {
-                    currPlayer.getValue().handView.setVisibility(View.INVISIBLE);
-                } else {
-                    // Make sure we hide other player hands. (After their won for example)
-                    // Do this only in case we do not show the winner
-                    if ((gameEngine.getPlayerToEarnings() == null) && !currPlayer.getValue().player.getId().equals(game.getThisPlayer().getId())) {
-                        currPlayer.getValue().handView.getFirstCardView().getCardImageView().setImageResource(R.drawable.pack);
-                        currPlayer.getValue().handView.getSecondCardView().getCardImageView().setImageResource(R.drawable.pack);
-                    }
+                playerView.handView.setVisibility(seat.isInvolved() ? View.VISIBLE : View.INVISIBLE);
+                playerView.handView.getDealerImageView().setVisibility(seat.isDealer() ? View.VISIBLE : View.INVISIBLE);
 
-                    currPlayer.getValue().handView.setVisibility(View.VISIBLE);
+                // Cards are face down (pack), unless it is our hand or the hand of a winner.
+                if ((previousSeat == null) || !Objects.equals(seat.getFirstCard(), previousSeat.getFirstCard())) {
+                    updateHandCard(playerView.handView.getFirstCardView(), seat.getFirstCard());
                 }
 
-                // Update dealer image
-                if (dealer != null) {
-                    boolean isDealer = dealer.equals(currPlayer.getValue().player);
-                    currPlayer.getValue().handView.getDealerImageView().setVisibility(isDealer ? View.VISIBLE : View.INVISIBLE);
+                if ((previousSeat == null) || !Objects.equals(seat.getSecondCard(), previousSeat.getSecondCard())) {
+                    updateHandCard(playerView.handView.getSecondCardView(), seat.getSecondCard());
                 }
 
-                // Update amount of chips
-                Player player = gameEngine.getPlayers().getPlayer(currPlayer.getKey());
-                if (player != null) {
-                    currPlayer.getValue().playerView.getPlayerChipsTextView().setText(player.getChips().getFormatted());
+                if ((previousSeat == null) || (seat.getChips() != previousSeat.getChips())) {
+                    playerView.playerView.getPlayerChipsTextView().setText(new Chips(seat.getChips()).getFormatted());
+                }
 
-                    // Update player's bet
-                    long playerPot = gameEngine.getPot().getPotOfPlayer(player);
-                    currPlayer.getValue().setBet(playerPot);
-                } else {
-                    // Hide it
-                    currPlayer.getValue().setBet(0);
+                if ((previousSeat == null) || (seat.getBet() != previousSeat.getBet())) {
+                    playerView.setBet(seat.getBet());
                 }
             }
         }
     }
 
+    /**
+     * Draw a card of a hand
+     * @param cardView The card view to draw the card into
+     * @param card The card to draw, or {@code null} to draw it face down
+     */
+    private void updateHandCard(CardView cardView, @Nullable Card card) {
+        int cardResource = card == null ? R.drawable.pack : cardsResource.cardToResource.getOrDefault(card, R.drawable.pack);
+        cardView.getCardImageView().setImageResource(cardResource);
+    }
+
     /**
      * Helper method to hide last player's progress bar and show the progress of current player, based on how
      * much time passed since his turn started.
      * @param gameEngine Game engine to get details from
+     * @param turnSecondsLeft See {@link #turnSecondsLeft(GameEngine)}
      */
-    private void updateProgressBar(GameEngine gameEngine) {
+    private void updateProgressBar(GameEngine gameEngine, int turnSecondsLeft) {
         Player currentPlayer = gameEngine.getPlayers().getCurrentPlayer();
         PlayerViewAccessor playerViewAccessor = players.get(currentPlayer.getPosition());
 
         // Hide last progress bar and reset it back to 60, when we detect a player switch.
-        int totalProgress = (int)TimeUnit.MILLISECONDS.toSeconds(gameEngine.getGameSettings().getTurnTime());
-        if (lastActivePlayer != null) {
-            if (!currentPlayer.getId().equals(lastActivePlayer.getId())) {
+        int totalProgress = totalTurnSeconds(gameEngine);
+        ProgressBar playerProgressBar = playerViewAccessor.playerView.getPlayerProgressBar();
+        if ((lastActivePlayer == null) || !currentPlayer.getId().equals(lastActivePlayer.getId())) {
+            if (lastActivePlayer != null) {
                 Log.d(LOGGER, "Turn moved to another player. Was: " + lastActivePlayer.getName() + ", and now: " + currentPlayer.getName());
-                ProgressBar playerProgressBar = players.get(lastActivePlayer.getPosition()).playerView.getPlayerProgressBar();
-                playerProgressBar.setVisibility(View.INVISIBLE);
-                playerProgressBar.setProgress(totalProgress);
+                ProgressBar lastProgressBar = players.get(lastActivePlayer.getPosition()).playerView.getPlayerProgressBar();
+                lastProgressBar.setVisibility(View.INVISIBLE);
+                lastProgressBar.setProgress(totalProgress);
             }
+
+            playerProgressBar.setMax(totalProgress);
+            playerProgressBar.setMin(0);
+            playerProgressBar.setVisibility(View.VISIBLE);
         }
 
         lastActivePlayer = currentPlayer;
+        playerProgressBar.setProgress(turnSecondsLeft, true);
+    }
 
-        long timePassed = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - gameEngine.getPlayerTurnTimer().getTurnStartTime());
-        ProgressBar playerProgressBar = playerViewAccessor.playerView.getPlayerProgressBar();
-        playerProgressBar.setMax(totalProgress);
-        playerProgressBar.setMin(0);
-        playerProgressBar.setVisibility(View.VISIBLE);
-        playerProgressBar.setProgress((int) Math.abs(totalProgress - timePassed), true);
+    /**
+     * Count the turn timer of current player down. This is the only view that changes every second, so a refresh of
+     * a table that has not changed updates it only.
+     * @param turnSecondsLeft See {@link #turnSecondsLeft(GameEngine)}
+     */
+    private void updateTurnTimer(int turnSecondsLeft) {
+        if (lastActivePlayer != null) {
+            players.get(lastActivePlayer.getPosition()).playerView.getPlayerProgressBar().setProgress(turnSecondsLeft, true);
+        }
+    }
+
+    private static int totalTurnSeconds(GameEngine gameEngine) {
+        return (int)TimeUnit.MILLISECONDS.toSeconds(gameEngine.getGameSettings().getTurnTime());
+    }
+
+    /**
+     * @param gameEngine Game engine to get details from
+     * @return How many seconds current player has left to act. There is no turn timer in a local game, so its bar stays full.
+     */
+    private static int turnSecondsLeft(GameEngine gameEngine) {
+        long timePassed = 0;
+        if (gameEngine.getPlayerTurnTimer() != null) {
+            timePassed = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - gameEngine.getPlayerTurnTimer().getTurnStartTime());
+        }
+
+        return (int) Math.abs(totalTurnSeconds(gameEngine) - timePassed);
     }
 
     /**
@@ -508,6 +594,12 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
                         // and display startButton cause the game is in READY state.
                         updateBoardVisibility();
 
+                        // Player views are drawn from scratch below, so next game refresh must draw all seats,
+                        // including the progress bar of current player.
+                        lastSnapshot = null;
+                        postedSnapshot = null;
+                        lastActivePlayer = null;
+
                         // Keep available seats
                         Set<Integer> availableSeats = new HashSet<>(SEATS);
                         playersToWorkWith.forEach(p -> {
@@ -541,10 +633,35 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
     }
 
     /**
-     * Hide the cards from board, and show a START button in case current player is the organizer.
+     * Hide the cards from board, and show a START button in case current player is the organizer.<br/>
+     * This draws the whole board. Refreshes of the game use {@link #updateBoard(TableSnapshot.BoardSnapshot, TableSnapshot.BoardSnapshot)}
+     * with the board they have drawn last time, to draw only the changes.
      */
     private void updateBoardVisibility() {
-        if (!game.isActive() || (game.getGameEngine().getGameState() == GameEngine.GameState.READY)) {
+        TableSnapshot.BoardSnapshot board = TableSnapshot.BoardSnapshot.of(game.isActive() ? game.getGameEngine() : null);
+        updateBoard(null, board);
+
+        // Next refresh must not compare with a board other than the one we've just drawn
+        lastSnapshot = null;
+        postedSnapshot = null;
+    }
+
+    /**
+     * Draw the board: its cards and the pot. When the board is hidden, show a START button in case current player is the organizer.
+     * @param previous The board as it was drawn last time, or {@code null} to draw all of it
+     * @param board The board to draw
+     */
+    private void updateBoard(@Nullable TableSnapshot.BoardSnapshot previous, TableSnapshot.BoardSnapshot board) {
+        if (board.isShown()) {
+            // Switch button text based on last action. A check does not change the board, so do it anyway.
+            updateCheckButtonText();
+        }
+
+        if (board.equals(previous)) {
+            return;
+        }
+
+        if (!board.isShown()) {
             getBinding().card0.setVisibility(View.INVISIBLE);
             getBinding().card1.setVisibility(View.INVISIBLE);
             getBinding().card2.setVisibility(View.INVISIBLE);
@@ -576,20 +693,26 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
                 });
             }
         } else {
-            // Update board
-            Board board = game.getGameEngine().getBoard();
-            updateCard(getBinding().card0, board.getFlop1().orElse(null));
-            updateCard(getBinding().card1, board.getFlop2().orElse(null));
-            updateCard(getBinding().card2, board.getFlop3().orElse(null));
-            updateCard(getBinding().card3, board.getTurn().orElse(null));
-            updateCard(getBinding().card4, board.getRiver().orElse(null));
-
-            // Update pot
-            getBinding().potAmount.setText(new Chips(game.getGameEngine().getPot().sum()).toShorthand());
-            getBinding().potAmount.setVisibility(View.VISIBLE);
+            // Update board. Flip only the cards that were opened since last time, so we do not replay their animation.
+            boolean wasShown = (previous != null) && previous.isShown();
+            CardView[] cardViews = { getBinding().card0, getBinding().card1, getBinding().card2, getBinding().card3, getBinding().card4 };
+            for (int i = 0; i < cardViews.length; i++) {
+                Card card = board.getCards().get(i);
+                if (!wasShown || !Objects.equals(card, previous.getCards().get(i))) {
+                    updateCard(cardViews[i], card);
+                }
+            }
 
-            // Switch button text based on last action
-            updateCheckButtonText();
+            // Update pot. At showdown, show the main pot and the side pots. e.g. "1.2K + 300"
+            if (!wasShown || !board.getPots().equals(previous.getPots())) {
+                StringBuilder potText = new StringBuilder();
+                for (Long pot : board.getPots()) {
+                    potText.append(potText.length() == 0 ? "" : " + ").append(new Chips(pot).toShorthand());
+                }
+                getBinding().potAmount.setText(potText);
+            }
+
+            getBinding().potAmount.setVisibility(View.VISIBLE);
         }
     }
 
@@ -598,27 +721,29 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
      * It can be either CHECK or CALL, depends on last action.
      */
     private void updateCheckButtonText() {
+        int textRes;
         PlayerActionKind lastActionKind = game.getGameEngine().findLastNonFoldAction();
         if (lastActionKind == PlayerActionKind.RAISE) {
-            getBinding().buttonCheck.setText(R.string.action_call);
+            textRes = R.string.action_call;
         } else if (lastActionKind == PlayerActionKind.CALL) {
             Pot pot = game.getGameEngine().getPot();
 
             // If for some reason there is no pot, just show call after call.
             if (pot == null) {
-                getBinding().buttonCheck.setText(R.string.action_call);
+                textRes = R.string.action_call;
             } else {
                 // Check if our player is the one who started a bet, and the last call was equal to
                 // our player's bet. If so, out player should see "check" and not "call".
                 long potOfPlayer = pot.getPotOfPlayer(game.getThisPlayer());
-                if (potOfPlayer == pot.getLastBet()) {
-                    getBinding().buttonCheck.setText(R.string.action_check);
-                } else {
-                    getBinding().buttonCheck.setText(R.string.action_call);
-                }
+                textRes = potOfPlayer == pot.getLastBet() ? R.string.action_check : R.string.action_call;
             }
         } else {
-            getBinding().buttonCheck.setText(R.string.action_check);
+            textRes = R.string.action_check;
+        }
+
+        if (textRes != checkButtonTextRes) {
+            checkButtonTextRes = textRes;
+            getBinding().buttonCheck.setText(textRes);
         }
     }
 
@@ -661,8 +786,9 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
         playerView.playerView.getPlayerNameTextView().setText(player.getName());
 
         // Now, before messing with image, make sure local data is different to save time.
+        // Pictures are cached, so a player that sits again costs a revalidation at most.
         if (!player.getName().equals(playerLocalName)) {
-            TexasHoldemWebService.getInstance().getUserService().getUserInfo(player.getId()).enqueue(new UserInfoCallback(playerView));
+            AvatarCache.getInstance().loadInto(player.getId(), playerView.playerView.getPlayerImageView());
         }
     }
 
@@ -990,49 +1116,6 @@ public class GameFragment extends ViewBindedFragment<FragmentGameBinding> implem
         }
     }
 
-    /**
-     * This class created to handle User info responses from server.<br/>
-     * The server returns the user model when we ask for user info by identifier, so we can display
-     * player images.
-     */
-    private static class UserInfoCallback extends SimpleCallback<JsonNode> {
-        /**
-         * The player view to update with user info
-         */
-        @NonNull
-        private final PlayerViewAccessor playerViewAccessor;
-
-        /**
-         * Constructs a new {@link UserInfoCallback}
-         * @param playerViewAccessor The player view to update with user info
-         */
-        public UserInfoCallback(@NonNull PlayerViewAccessor playerViewAccessor) {
-            this.playerViewAccessor = playerViewAccessor;
-        }
-
-        @Override
-        public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
-            if (!response.isSuccessful()) {
-                Log.e(LOGGER, "Failed to get user info of: " + playerViewAccessor.playerView.getPlayerNameTextView().getText().toString());
-            } else {
-                JsonNode body = response.body();
-                try {
-                    User user = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), User.class);
-                    Log.d(LOGGER, "Received user info: " + user);
-
-                    if (user.getImage() != null) {
-                        playerViewAccessor.playerView.getPlayerImageView().setImageBitmap(user.getImageBitmap());
-                    } else {
-                        // Default user image
-                        playerViewAccessor.playerView.getPlayerImageView().setImageResource(R.drawable.user);
-                    }
-                } catch (Exception e) {
-                    Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                }
-            }
-        }
-    }
-
     /**
      * Helper class to get card resource identifier by {@link Card} model.<br/>
      * Useful for drawing cards based on player hands or board.
@@ -2,7 +2,6 @@ package org.hit.android.haim.texasholdem.view.fragment.home;
 
 import android.os.Bundle;
 import android.view.View;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -36,8 +35,7 @@ public class HomeFragment extends ViewBindedFragment<FragmentHomeBinding> {
      */
     private void onPlayAiButtonClicked(View button) {
         if (getActivity() != null) {
-            Toast.makeText(getContext(), "This will be available soon.", Toast.LENGTH_LONG).show();
-            //((MainActivity)getActivity()).navigateToFragment(R.id.nav_play_ai);
+            ((MainActivity)getActivity()).navigateToFragment(R.id.nav_play_ai);
         }
     }
 
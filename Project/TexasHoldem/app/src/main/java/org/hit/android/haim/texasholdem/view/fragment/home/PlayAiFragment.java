@@ -7,7 +7,11 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.hit.android.haim.texasholdem.R;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
 import org.hit.android.haim.texasholdem.databinding.FragmentPlayAiBinding;
+import org.hit.android.haim.texasholdem.model.game.ClientGameSettings;
+import org.hit.android.haim.texasholdem.model.game.Game;
+import org.hit.android.haim.texasholdem.view.activity.MainActivity;
 import org.hit.android.haim.texasholdem.view.fragment.ViewBindedFragment;
 
 
@@ -27,6 +31,36 @@ public class PlayAiFragment extends ViewBindedFragment<FragmentPlayAiBinding> {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        getBinding();
+        getBinding().buttonGo.setOnClickListener(this::onGoButtonClicked);
+    }
+
+    /**
+     * Occurs when user clicks the go button, to start a local game against bots.<br/>
+     * A local game runs on this device, so there is nothing to ask the server. It is a training game, hence the chips are
+     * not taken from user's coins.
+     * @param button The go button
+     */
+    public void onGoButtonClicked(View button) {
+        long amountOfBots = getBinding().editTextPlayersCount.getLong(-1);
+        long chipsAmount = getBinding().editTextCoinsCount.getLong(-1);
+        long smallBet = getBinding().editTextSmallBet.getLong(-1);
+        long bigBet = getBinding().editTextBigBet.getLong(-1);
+
+        if ((amountOfBots <= 0) || (amountOfBots >= GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS)) {
+            getBinding().editTextPlayersCount.getEdit().setError("Must be between 1 and " + (GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS - 1));
+        } else if (chipsAmount <= 0) {
+            getBinding().editTextCoinsCount.getEdit().setError("Must be positive");
+        } else if (smallBet <= 0) {
+            getBinding().editTextSmallBet.getEdit().setError("Minimum value is 1");
+        } else if (bigBet <= smallBet) {
+            getBinding().editTextBigBet.getEdit().setError("Must be bigger than small bet");
+        } else {
+            ClientGameSettings gameSettings = new ClientGameSettings(chipsAmount, (int) amountOfBots, null);
+            gameSettings.setSmallBet(smallBet);
+            gameSettings.setBigBet(bigBet);
+
+            Game.getInstance().init(gameSettings, ((MainActivity)getActivity()).getUser());
+            ((MainActivity)getActivity()).navigateToFragment(R.id.nav_game);
+        }
     }
 }
\ No newline at end of file
@@ -8,10 +8,10 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
 import org.hit.android.haim.texasholdem.R;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
 import org.hit.android.haim.texasholdem.databinding.FragmentPlayNetworkBinding;
 import org.hit.android.haim.texasholdem.model.game.ClientGameSettings;
 import org.hit.android.haim.texasholdem.model.game.Game;
@@ -66,9 +66,9 @@ public class PlayNetworkFragment extends ViewBindedFragment<FragmentPlayNetworkB
             getBinding().editTextGameHash.getEdit().setError("Missing");
         } else {
             // Make sure game exists before navigating to GameFragment
-            TexasHoldemWebService.getInstance().getGameService().getGameInfo(gameHash).enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().getGameInfo(gameHash).enqueue(new SimpleCallback<GameEngine>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
+                public void onResponse(@NonNull Call<GameEngine> call, @NonNull Response<GameEngine> response) {
                     if (response.code() == HttpStatus.NOT_FOUND.getCode()) {
                         getBinding().editTextGameHash.getEdit().setError("Not Found");
                         return;
@@ -118,21 +118,21 @@ public class PlayNetworkFragment extends ViewBindedFragment<FragmentPlayNetworkB
             gameSettings.setSmallBet(smallBet);
             gameSettings.setBigBet(bigBet);
             gameSettings.setTurnTime(TimeUnit.SECONDS.toMillis(turnTimeout));
-            TexasHoldemWebService.getInstance().getGameService().createGame(gameSettings).enqueue(new SimpleCallback<JsonNode>() {
+            TexasHoldemWebService.getInstance().getGameService().createGame(gameSettings).enqueue(new SimpleCallback<TextNode>() {
                 @Override
-                public void onResponse(@NonNull Call<JsonNode> call, @NonNull Response<JsonNode> response) {
-                    JsonNode body = response.body();
-                    try {
-                        String gameHash = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), TextNode.class).asText();
-                        Log.d(LOGGER, "Received game hash: " + gameHash);
-
-                        gameSettings.setGameHash(gameHash);
-                        gameSettings.setNetwork(true);
-                        Game.getInstance().init(gameSettings, ((MainActivity)getActivity()).getUser());
-                        ((MainActivity)PlayNetworkFragment.this.getActivity()).navigateToFragment(R.id.nav_game);
-                    } catch (Exception e) {
-                        Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
+                public void onResponse(@NonNull Call<TextNode> call, @NonNull Response<TextNode> response) {
+                    if (!response.isSuccessful()) {
+                        Log.e(LOGGER, "Failed to create game: " + TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
+                        return;
                     }
+
+                    String gameHash = response.body().asText();
+                    Log.d(LOGGER, "Received game hash: " + gameHash);
+
+                    gameSettings.setGameHash(gameHash);
+                    gameSettings.setNetwork(true);
+                    Game.getInstance().init(gameSettings, ((MainActivity)getActivity()).getUser());
+                    ((MainActivity)PlayNetworkFragment.this.getActivity()).navigateToFragment(R.id.nav_game);
                 }
             });
         }
@@ -0,0 +1,235 @@
+package org.hit.android.haim.texasholdem.view.fragment.home;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Board;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Hand;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.Pot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An immutable view-model of the table, holding exactly what {@link GameFragment} draws: the board, the pot, the seats
+ * and whose turn it is.<br/>
+ * The game is refreshed every second (so the turn timer keeps running), while the table itself changes only when a player
+ * acts. The fragment takes a snapshot off the UI thread on every refresh, and when it equals the previous one, only the
+ * turn timer is updated. Otherwise, comparing the two snapshots lets the fragment mutate only the views that changed.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+class TableSnapshot {
+    /**
+     * The board and pot, in the middle of the table
+     */
+    @NonNull
+    private final BoardSnapshot board;
+
+    /**
+     * Seats by their position. A seat is {@code null} when there is no player sitting at it.
+     */
+    @NonNull
+    private final List<SeatSnapshot> seats;
+
+    /**
+     * Whether the pot was shared, and the round is over
+     */
+    private final boolean isRoundOver;
+
+    /**
+     * Whether it is the turn of the player using this device, so it can act
+     */
+    private final boolean isThisPlayerTurn;
+
+    private TableSnapshot(@NonNull BoardSnapshot board, @NonNull List<SeatSnapshot> seats, boolean isRoundOver, boolean isThisPlayerTurn) {
+        this.board = board;
+        this.seats = seats;
+        this.isRoundOver = isRoundOver;
+        this.isThisPlayerTurn = isThisPlayerTurn;
+    }
+
+    /**
+     * Take a snapshot of the table
+     * @param gameEngine The game to take a snapshot of
+     * @param thisPlayerId Identifier of the player using this device, so we can reveal its hand
+     * @param amountOfSeats Amount of seats around the table
+     * @param isActive Whether the game is active. The board of an inactive game is hidden
+     * @return The snapshot
+     */
+    static TableSnapshot of(@NonNull GameEngine gameEngine, @NonNull String thisPlayerId, int amountOfSeats, boolean isActive) {
+        Set<Player> involvedPlayers = gameEngine.getPlayers().getInvolvedPlayers();
+        Map<String, Pot.PlayerWinning> playerToEarnings = gameEngine.getPlayerToEarnings();
+        boolean isShowdown = (playerToEarnings != null) && (involvedPlayers.size() > 1);
+        Player currentPlayer = gameEngine.getPlayers().getCurrentPlayer();
+
+        List<SeatSnapshot> seats = new ArrayList<>(amountOfSeats);
+        for (int position = 0; position < amountOfSeats; position++) {
+            Player player = gameEngine.getPlayers().getPlayer(position);
+            if (player == null) {
+                seats.add(null);
+            } else {
+                // Reveal our hand, and the hands of the winners when there was a showdown. Other hands are face down.
+                Hand revealedHand = null;
+                if (player.getId().equals(thisPlayerId)) {
+                    revealedHand = player.getHand();
+                } else if (isShowdown && playerToEarnings.containsKey(player.getId())) {
+                    revealedHand = playerToEarnings.get(player.getId()).getHandRank().getHand();
+                }
+
+                seats.add(new SeatSnapshot(player.getId(),
+                        player.getChips().get(),
+                        gameEngine.getPot().getPotOfPlayer(player),
+                        involvedPlayers.contains(player),
+                        player.equals(gameEngine.getDealer()),
+                        player.equals(currentPlayer),
+                        revealedHand == null ? null : revealedHand.getCardAt(0).orElse(null),
+                        revealedHand == null ? null : revealedHand.getCardAt(1).orElse(null)));
+            }
+        }
+
+        boolean isThisPlayerTurn = (currentPlayer != null) && currentPlayer.getId().equals(thisPlayerId);
+        return new TableSnapshot(BoardSnapshot.of(isActive ? gameEngine : null),
+                Collections.unmodifiableList(seats),
+                playerToEarnings != null,
+                isThisPlayerTurn);
+    }
+
+    /**
+     * @param position Position of a seat
+     * @return The seat at the specified position, or {@code null} when there is no player sitting at it
+     */
+    @Nullable
+    SeatSnapshot getSeat(int position) {
+        return (position >= 0) && (position < seats.size()) ? seats.get(position) : null;
+    }
+
+    /**
+     * The cards on board, and the pot
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    static class BoardSnapshot {
+        /**
+         * Amount of cards on board: flop, turn and river
+         */
+        static final int BOARD_SIZE = 5;
+
+        /**
+         * Whether the board is shown. It is hidden when the game has not started, or is waiting for the next round.
+         */
+        private final boolean isShown;
+
+        /**
+         * The five cards of a board, where cards that were not opened yet are {@code null}
+         */
+        @NonNull
+        private final List<Card> cards;
+
+        /**
+         * Sum of the pot. At showdown, the main pot and the side pots, ordered from the main pot.
+         */
+        @NonNull
+        private final List<Long> pots;
+
+        private BoardSnapshot(boolean isShown, @NonNull List<Card> cards, @NonNull List<Long> pots) {
+            this.isShown = isShown;
+            this.cards = cards;
+            this.pots = pots;
+        }
+
+        /**
+         * Take a snapshot of the board
+         * @param gameEngine The game to take a snapshot of, or {@code null} when there is no active game
+         * @return The snapshot
+         */
+        static BoardSnapshot of(@Nullable GameEngine gameEngine) {
+            if ((gameEngine == null) || (gameEngine.getGameState() == GameEngine.GameState.READY)) {
+                return new BoardSnapshot(false, Collections.nCopies(BOARD_SIZE, null), Collections.singletonList(0L));
+            }
+
+            Board board = gameEngine.getBoard();
+            List<Card> cards = Arrays.asList(board.getFlop1().orElse(null),
+                    board.getFlop2().orElse(null),
+                    board.getFlop3().orElse(null),
+                    board.getTurn().orElse(null),
+                    board.getRiver().orElse(null));
+
+            // The pot is shared at showdown, and its layers are kept with their sums, so we can show how it was split
+            Pot pot = gameEngine.getPot();
+            List<Long> pots = gameEngine.getPlayerToEarnings() == null ? null : pot.getPotSums();
+            if ((pots == null) || pots.isEmpty()) {
+                pots = Collections.singletonList(pot.sum());
+            }
+
+            return new BoardSnapshot(true, Collections.unmodifiableList(cards), Collections.unmodifiableList(pots));
+        }
+    }
+
+    /**
+     * A player sitting at the table
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    static class SeatSnapshot {
+        @NonNull
+        private final String playerId;
+
+        /**
+         * Amount of chips the player has
+         */
+        private final long chips;
+
+        /**
+         * Amount of chips the player has put in pot
+         */
+        private final long bet;
+
+        /**
+         * Whether the player is involved in current hand, so we show its cards
+         */
+        private final boolean isInvolved;
+
+        private final boolean isDealer;
+
+        /**
+         * Whether it is the turn of the player, so we show its turn timer
+         */
+        private final boolean isCurrentPlayer;
+
+        /**
+         * Cards of a player that are revealed. {@code null} means the card is face down.
+         */
+        @Nullable
+        private final Card firstCard, secondCard;
+
+        private SeatSnapshot(@NonNull String playerId, long chips, long bet, boolean isInvolved, boolean isDealer,
+                             boolean isCurrentPlayer, @Nullable Card firstCard, @Nullable Card secondCard) {
+            this.playerId = playerId;
+            this.chips = chips;
+            this.bet = bet;
+            this.isInvolved = isInvolved;
+            this.isDealer = isDealer;
+            this.isCurrentPlayer = isCurrentPlayer;
+            this.firstCard = firstCard;
+            this.secondCard = secondCard;
+        }
+    }
+}
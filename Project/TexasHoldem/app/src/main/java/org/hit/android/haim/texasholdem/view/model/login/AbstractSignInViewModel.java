@@ -9,8 +9,6 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
 import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
 import org.hit.android.haim.texasholdem.web.services.UserService;
@@ -73,28 +71,22 @@ public abstract class AbstractSignInViewModel extends ViewModel {
      * Derived classes use it.
      */
     @Data
-    protected class LoginCallbackHandler implements Callback<JsonNode> {
+    protected class LoginCallbackHandler implements Callback<User> {
         private final String logTag;
         private final String successLogMessage;
 
         @Override
         @EverythingIsNonNull
-        public void onResponse(Call<JsonNode> call, Response<JsonNode> response) {
+        public void onResponse(Call<User> call, Response<User> response) {
             LoginResult loginResult;
 
             if (!response.isSuccessful()) {
                 String errorMessage = TexasHoldemWebService.getInstance().readHttpErrorResponse(response);
                 loginResult = LoginResult.builder().errorMessage(errorMessage).build();
             } else {
-                JsonNode body = response.body();
-                try {
-                    User userInfo = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), User.class);
-                    Log.d(logTag, successLogMessage + ": [" + userInfo + "]");
-                    loginResult = LoginResult.builder().user(userInfo).build();
-                } catch (Exception e) {
-                    Log.e(logTag, "Failed parsing response. Response was: " + body, e);
-                    loginResult = LoginResult.builder().errorMessage(e.getMessage()).build();
-                }
+                User userInfo = response.body();
+                Log.d(logTag, successLogMessage + ": [" + userInfo + "]");
+                loginResult = LoginResult.builder().user(userInfo).build();
             }
 
             loginResultNotifier.setValue(loginResult);
@@ -102,7 +94,7 @@ public abstract class AbstractSignInViewModel extends ViewModel {
 
         @Override
         @EverythingIsNonNull
-        public void onFailure(Call<JsonNode> call, Throwable t) {
+        public void onFailure(Call<User> call, Throwable t) {
             Log.d(logTag, "Error has occurred while trying to " + logTag + ": " + t.getMessage());
             loginResultNotifier.setValue(LoginResult.builder().errorMessage(t.getMessage()).build());
         }
@@ -8,8 +8,6 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.Observer;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
 import org.hit.android.haim.texasholdem.R;
 import org.hit.android.haim.texasholdem.model.User;
 import org.hit.android.haim.texasholdem.web.TexasHoldemWebService;
@@ -66,30 +64,24 @@ public class SignInViewModel extends AbstractSignInViewModel {
 
         User user = new User(username, password.toCharArray());
 
-        userService.signIn(user).enqueue(new Callback<JsonNode>() {
+        userService.signIn(user).enqueue(new Callback<UserService.JwtTokenResponse>() {
             @Override
             @EverythingIsNonNull
-            public void onResponse(Call<JsonNode> call, Response<JsonNode> response) {
+            public void onResponse(Call<UserService.JwtTokenResponse> call, Response<UserService.JwtTokenResponse> response) {
                 LoginResult loginResult = null;
 
                 if (!response.isSuccessful()) {
                     String errorMessage = TexasHoldemWebService.getInstance().readHttpErrorResponse(response);
                     loginResult = LoginResult.builder().errorMessage(errorMessage).build();
                 } else {
-                    JsonNode body = response.body();
-                    try {
-                        UserService.JwtTokenResponse jwtTokenResponse = TexasHoldemWebService.getInstance().getObjectMapper().readValue(body.toString(), UserService.JwtTokenResponse.class);
-                        if ((jwtTokenResponse != null) && (jwtTokenResponse.getToken() != null)) {
-                            Log.d(LOGGER, "Server responded with a valid JWT token: " + jwtTokenResponse.getToken());
-                            TexasHoldemWebService.getInstance().setJwtToken(jwtTokenResponse.getToken());
-                            fastLogin(user.getId());
-                        } else {
-                            Log.e(LOGGER, "Server has not responded with a valid JWT token");
-                            loginResult = LoginResult.builder().errorMessage("Server returned invalid token").build();
-                        }
-                    } catch (Exception e) {
-                        Log.e(LOGGER, "Failed parsing response. Response was: " + body, e);
-                        loginResult = LoginResult.builder().errorMessage(e.getMessage()).build();
+                    UserService.JwtTokenResponse jwtTokenResponse = response.body();
+                    if ((jwtTokenResponse != null) && (jwtTokenResponse.getToken() != null)) {
+                        Log.d(LOGGER, "Server responded with a valid JWT token: " + jwtTokenResponse.getToken());
+                        TexasHoldemWebService.getInstance().setJwtToken(jwtTokenResponse.getToken());
+                        fastLogin(user.getId());
+                    } else {
+                        Log.e(LOGGER, "Server has not responded with a valid JWT token");
+                        loginResult = LoginResult.builder().errorMessage("Server returned invalid token").build();
                     }
                 }
 
@@ -100,7 +92,7 @@ public class SignInViewModel extends AbstractSignInViewModel {
 
             @Override
             @EverythingIsNonNull
-            public void onFailure(Call<JsonNode> call, Throwable t) {
+            public void onFailure(Call<UserService.JwtTokenResponse> call, Throwable t) {
                 Log.d(LOGGER, "Error has occurred while trying to sign in: " + t.getMessage());
                 loginResultNotifier.setValue(LoginResult.builder().errorMessage(t.getMessage()).build());
             }
@@ -0,0 +1,354 @@
+package org.hit.android.haim.texasholdem.web;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.hit.android.haim.texasholdem.R;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * This singleton class loads the profile pictures of players, so views do not download and decode them on their own.<br/>
+ * Pictures are kept in two levels:
+ * <ul>
+ *     <li>Memory - decoded bitmaps, at the size of the view that shows them, in an LRU bounded by bytes.</li>
+ *     <li>Disk - the downloaded bytes and their ETag, so we revalidate a picture with the server (304, no body) instead
+ *     of downloading it again, and still have it when we are offline.</li>
+ * </ul>
+ * Downloading and decoding is done off the main thread, and a picture that is already being loaded is not loaded twice.
+ * Remember to call {@link #init(Context)} before using this class.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class AvatarCache {
+    private static final String LOGGER = AvatarCache.class.getSimpleName();
+
+    /**
+     * Name of the folder under the cache directory of the app, where we keep the pictures
+     */
+    private static final String CACHE_DIR_NAME = "avatars";
+    private static final String IMAGE_FILE_SUFFIX = ".img";
+    private static final String ETAG_FILE_SUFFIX = ".etag";
+
+    /**
+     * How many bytes of pictures to keep on disk. When we exceed it, the least recently used pictures are deleted.
+     */
+    private static final long MAX_DISK_CACHE_BYTES = 10 * 1024 * 1024;
+
+    /**
+     * The size we decode to when the view was not laid out yet
+     */
+    private static final int DEFAULT_SIZE_PX = 192;
+
+    /**
+     * Decoded pictures, by user id and size. Sized by the bytes of the bitmaps, using 1/16 of the heap.
+     */
+    private final LruCache<String, Bitmap> memoryCache;
+
+    /**
+     * Callbacks waiting for a picture that is being loaded, by the key of the picture in {@link #memoryCache}.<br/>
+     * A key exists in this map as long as its picture is being loaded, so we can tell whether to load it or just wait.
+     */
+    private final Map<String, List<Consumer<Bitmap>>> inFlight = new HashMap<>();
+
+    /**
+     * Used to deliver loaded pictures on the main thread
+     */
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Threads that download and decode pictures
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, new CustomThreadFactory("AvatarLoader"));
+
+    private File diskCacheDir;
+
+    // Hide creation of this class as it is a singleton
+    private AvatarCache() {
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+        memoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * @return The unique instance of {@link AvatarCache}
+     */
+    public static AvatarCache getInstance() {
+        return AvatarCacheHolder.INSTANCE;
+    }
+
+    /**
+     * Call this method from application class to initialize the disk cache.
+     * @param context Context to get the cache directory from
+     */
+    public synchronized void init(Context context) {
+        // Make sure we do this once.
+        if (diskCacheDir == null) {
+            File dir = new File(context.getCacheDir(), CACHE_DIR_NAME);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                Log.w(LOGGER, "Failed to create avatars cache directory. Pictures will not be kept on disk.");
+            } else {
+                diskCacheDir = dir;
+            }
+        }
+    }
+
+    /**
+     * Show the picture of a user in an image view.<br/>
+     * When the picture is in memory it is shown immediately. Otherwise the view shows the default user picture until
+     * the picture is loaded. The picture is decoded to the size of the view, so we do not keep full size pictures in memory.
+     * @param userId The user to show its picture
+     * @param imageView The view to show the picture in
+     */
+    public void loadInto(@NonNull String userId, @NonNull ImageView imageView) {
+        int size = Math.max(imageView.getWidth(), imageView.getHeight());
+        if (size <= 0) {
+            size = DEFAULT_SIZE_PX;
+        }
+
+        if (memoryCache.get(key(userId, size)) == null) {
+            imageView.setImageResource(R.drawable.user);
+        }
+
+        // Tag the view with the user, so a late picture of a previous user will not override the picture of current user.
+        imageView.setTag(userId);
+        load(userId, size, bitmap -> {
+            if (userId.equals(imageView.getTag())) {
+                if (bitmap != null) {
+                    imageView.setImageBitmap(bitmap);
+                } else {
+                    imageView.setImageResource(R.drawable.user);
+                }
+            }
+        });
+    }
+
+    /**
+     * Load the picture of a user, decoded to a specific size.<br/>
+     * The callback is executed on the main thread. It is executed immediately (before this method returns) in case the
+     * picture is in memory.
+     * @param userId The user to load its picture
+     * @param size Width and height of the view that shows the picture, in pixels
+     * @param callback Receives the picture, or {@code null} when user has no picture
+     */
+    public void load(@NonNull String userId, int size, @NonNull Consumer<Bitmap> callback) {
+        String key = key(userId, size);
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            callback.accept(bitmap);
+            return;
+        }
+
+        synchronized (inFlight) {
+            List<Consumer<Bitmap>> callbacks = inFlight.get(key);
+            if (callbacks != null) {
+                // Already loading it. Just wait for it.
+                callbacks.add(callback);
+                return;
+            }
+
+            callbacks = new ArrayList<>(1);
+            callbacks.add(callback);
+            inFlight.put(key, callbacks);
+        }
+
+        executor.execute(() -> {
+            Bitmap loaded = null;
+            try {
+                loaded = loadFromDiskOrServer(userId, size);
+                if (loaded != null) {
+                    memoryCache.put(key, loaded);
+                }
+            } catch (Exception e) {
+                Log.e(LOGGER, "Error has occurred while loading picture of: " + userId, e);
+            }
+
+            List<Consumer<Bitmap>> callbacks;
+            synchronized (inFlight) {
+                callbacks = inFlight.remove(key);
+            }
+
+            Bitmap result = loaded;
+            mainHandler.post(() -> callbacks.forEach(c -> c.accept(result)));
+        });
+    }
+
+    /**
+     * Forget the picture of a user, so it will be loaded again. Use it after updating the picture of a user.<br/>
+     * The disk copy is kept, as the server tells us whether it was modified.
+     * @param userId The user whose picture was modified
+     */
+    public void invalidate(@NonNull String userId) {
+        String prefix = userId + "@";
+        for (String key : memoryCache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                memoryCache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Revalidate the cached picture of a user with the server, download it when it was modified, and decode it.<br/>
+     * In case the server cannot be reached, we use the cached picture.
+     */
+    @Nullable
+    private Bitmap loadFromDiskOrServer(String userId, int size) throws IOException {
+        File imageFile = diskFile(userId, IMAGE_FILE_SUFFIX);
+        File eTagFile = diskFile(userId, ETAG_FILE_SUFFIX);
+        byte[] cached = (imageFile != null) && imageFile.isFile() ? Files.readAllBytes(imageFile.toPath()) : null;
+        String eTag = (cached != null) && eTagFile.isFile() ? new String(Files.readAllBytes(eTagFile.toPath()), StandardCharsets.UTF_8) : null;
+
+        byte[] image = cached;
+        try {
+            Response<ResponseBody> response = TexasHoldemWebService.getInstance().getUserService().getUserImage(userId, eTag).execute();
+            if (response.code() == HttpStatus.NOT_MODIFIED.getCode()) {
+                Log.d(LOGGER, "Picture of " + userId + " was not modified");
+                if (imageFile != null) {
+                    imageFile.setLastModified(System.currentTimeMillis());
+                }
+            } else if (response.isSuccessful() && (response.body() != null)) {
+                try (ResponseBody body = response.body()) {
+                    image = body.bytes();
+                }
+
+                store(imageFile, eTagFile, image, response.headers().get("ETag"));
+            } else if (response.code() == HttpStatus.NOT_FOUND.getCode()) {
+                // User has no picture (or it is a bot), so use the default one.
+                image = null;
+                delete(imageFile, eTagFile);
+            } else {
+                Log.e(LOGGER, "Failed to get picture of " + userId + ": " + TexasHoldemWebService.getInstance().readHttpErrorResponse(response));
+            }
+        } catch (IOException e) {
+            Log.w(LOGGER, "Failed to get picture of " + userId + ". Using the cached one. Reason: " + e.getMessage());
+        }
+
+        return image == null ? null : decode(image, size);
+    }
+
+    /**
+     * Decode a picture to the smallest power of two that is not smaller than the specified size, so we do not allocate
+     * a full size bitmap for a small view.
+     */
+    private static Bitmap decode(byte[] image, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(image, 0, image.length, options);
+
+        int sampleSize = 1;
+        while ((options.outWidth / (sampleSize * 2) >= size) && (options.outHeight / (sampleSize * 2) >= size)) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        return BitmapFactory.decodeByteArray(image, 0, image.length, options);
+    }
+
+    private void store(File imageFile, File eTagFile, byte[] image, String eTag) {
+        if (imageFile == null) {
+            return;
+        }
+
+        try {
+            Files.write(imageFile.toPath(), image);
+            if (eTag != null) {
+                Files.write(eTagFile.toPath(), eTag.getBytes(StandardCharsets.UTF_8));
+            } else {
+                Files.deleteIfExists(eTagFile.toPath());
+            }
+
+            trimDiskCache();
+        } catch (IOException e) {
+            Log.w(LOGGER, "Failed to store picture on disk: " + e.getMessage());
+            delete(imageFile, eTagFile);
+        }
+    }
+
+    private static void delete(File imageFile, File eTagFile) {
+        if (imageFile != null) {
+            imageFile.delete();
+            eTagFile.delete();
+        }
+    }
+
+    /**
+     * Delete the least recently used pictures until the disk cache fits {@link #MAX_DISK_CACHE_BYTES}
+     */
+    private synchronized void trimDiskCache() {
+        File[] images = diskCacheDir.listFiles((dir, name) -> name.endsWith(IMAGE_FILE_SUFFIX));
+        if (images == null) {
+            return;
+        }
+
+        long totalBytes = Arrays.stream(images).mapToLong(File::length).sum();
+        if (totalBytes <= MAX_DISK_CACHE_BYTES) {
+            return;
+        }
+
+        Arrays.sort(images, Comparator.comparingLong(File::lastModified));
+        for (File image : images) {
+            if (totalBytes <= MAX_DISK_CACHE_BYTES) {
+                break;
+            }
+
+            totalBytes -= image.length();
+            String name = image.getName();
+            delete(image, new File(diskCacheDir, name.substring(0, name.length() - IMAGE_FILE_SUFFIX.length()) + ETAG_FILE_SUFFIX));
+        }
+    }
+
+    @Nullable
+    private File diskFile(String userId, String suffix) {
+        if (diskCacheDir == null) {
+            return null;
+        }
+
+        try {
+            // User identifiers are emails, so encode them to get a valid file name
+            return new File(diskCacheDir, URLEncoder.encode(userId, StandardCharsets.UTF_8.name()) + suffix);
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    private static String key(String userId, int size) {
+        return userId + "@" + size;
+    }
+
+    private static class AvatarCacheHolder {
+        private static final AvatarCache INSTANCE = new AvatarCache();
+    }
+}
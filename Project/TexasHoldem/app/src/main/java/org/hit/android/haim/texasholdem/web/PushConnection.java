@@ -0,0 +1,244 @@
+package org.hit.android.haim.texasholdem.web;
+
+import android.util.Log;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * A persistent connection to the push stream of a game, which replaces polling the game, its seats and its chat.<br/>
+ * The server pushes server sent events: {@code game} with the state of the game (for its players only), {@code users}
+ * with the players sitting at the game, and {@code message} for every chat message. We parse each event once, to its
+ * bean, and dispatch it to a {@link PushListener}.<br/>
+ * When the connection is lost, we reconnect with the id of the last event we have (the sequence number of the last
+ * message), so the server sends the messages we missed first. Failing reconnects are delayed with an exponential backoff,
+ * so a device that is offline does not wake its radio every second.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class PushConnection {
+    private static final String LOGGER = PushConnection.class.getSimpleName();
+
+    /**
+     * How long to wait before reconnecting. It is doubled for every failing reconnect, up to {@link #MAX_RECONNECT_DELAY_MILLIS}
+     */
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RECONNECT_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final String GAME_EVENT = "game";
+    private static final String USERS_EVENT = "users";
+    private static final String MESSAGE_EVENT = "message";
+
+    /**
+     * The channel to listen to. This is the hash of a game
+     */
+    private final String channelName;
+
+    private final PushListener listener;
+
+    /**
+     * A thread that holds the connection, and reads its events
+     */
+    private ExecutorService executor;
+
+    /**
+     * The open connection, so we can close it when connection is stopped
+     */
+    private volatile Call<ResponseBody> streamCall;
+
+    /**
+     * The id of the last event we have, to reconnect with. (Last-Event-ID)
+     */
+    private volatile String lastEventId;
+
+    /**
+     * Constructs a new {@link PushConnection}
+     * @param channelName The channel to listen to. This is the hash of a game
+     * @param listener A listener to dispatch the events to
+     */
+    public PushConnection(String channelName, PushListener listener) {
+        this.channelName = channelName;
+        this.listener = listener;
+    }
+
+    /**
+     * Connect to the server, and keep the connection open until {@link #stop()} is called
+     */
+    public synchronized void start() {
+        stop();
+
+        Log.i(LOGGER, "Connecting to push stream of: " + channelName);
+        executor = Executors.newSingleThreadExecutor(new CustomThreadFactory("PushConnectionThread"));
+        executor.execute(this::listen);
+    }
+
+    /**
+     * Close the connection, and stop reconnecting
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        Call<ResponseBody> call = streamCall;
+        if (call != null) {
+            call.cancel();
+            streamCall = null;
+        }
+    }
+
+    /**
+     * Hold the connection until the thread is interrupted, and reconnect whenever the connection is over.<br/>
+     * The delay before reconnecting is reset once we are connected, so a stream that the server closes (timeout) is
+     * reopened quickly, while a server that cannot be reached is retried less and less often.
+     */
+    private void listen() {
+        long reconnectDelay = INITIAL_RECONNECT_DELAY_MILLIS;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            Call<ResponseBody> call = TexasHoldemWebService.getInstance().getChatService().streamChannel(channelName, lastEventId);
+            streamCall = call;
+
+            try {
+                Response<ResponseBody> response = call.execute();
+                if (!response.isSuccessful() || (response.body() == null)) {
+                    String errorMessage = TexasHoldemWebService.getInstance().readHttpErrorResponse(response);
+                    Log.e(LOGGER, "Failed to connect to push stream: " + errorMessage);
+
+                    // Bad request or not found, means the game is over
+                    boolean isChannelGone = (response.code() == HttpStatus.BAD_REQUEST.getCode()) || (response.code() == HttpStatus.NOT_FOUND.getCode());
+                    listener.onPushError(errorMessage, isChannelGone);
+                } else {
+                    reconnectDelay = INITIAL_RECONNECT_DELAY_MILLIS;
+                    try (ResponseBody body = response.body()) {
+                        readEvents(body.source());
+                    }
+                }
+            } catch (InterruptedIOException ignore) {
+                // Don't care
+            } catch (IOException e) {
+                if (!call.isCanceled()) {
+                    Log.e(LOGGER, "Error has occurred while reading push stream", e);
+                    listener.onPushError("Connection lost", false);
+                }
+            } catch (Exception e) {
+                Log.e(LOGGER, "Error has occurred while reading push stream", e);
+            }
+
+            try {
+                // Add some jitter, so clients that were disconnected together do not reconnect together
+                TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(reconnectDelay / 2, reconnectDelay + 1));
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Read server sent events until the stream is over. An event is made of "id:", "event:" and "data:" lines, followed by an empty line.<br/>
+     * Lines starting with ":" are heartbeats.
+     * @param source The stream to read
+     */
+    private void readEvents(BufferedSource source) throws IOException {
+        String eventId = null;
+        String eventName = null;
+        StringBuilder data = new StringBuilder();
+
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    if (eventId != null) {
+                        lastEventId = eventId;
+                    }
+
+                    onEvent(eventName, data.toString());
+                }
+
+                eventId = null;
+                eventName = null;
+                data.setLength(0);
+            } else if (line.startsWith("id:")) {
+                eventId = line.substring("id:".length()).trim();
+            } else if (line.startsWith("event:")) {
+                eventName = line.substring("event:".length()).trim();
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+
+                data.append(line.substring("data:".length()).trim());
+            }
+        }
+    }
+
+    private void onEvent(String eventName, String data) {
+        ObjectMapper objectMapper = TexasHoldemWebService.getInstance().getObjectMapper();
+
+        try {
+            if (GAME_EVENT.equals(eventName)) {
+                listener.onGameEvent(objectMapper.readValue(data, GameEngine.class));
+            } else if (USERS_EVENT.equals(eventName)) {
+                listener.onUsersEvent(objectMapper.readValue(data, new TypeReference<List<Player>>() {}));
+            } else if (MESSAGE_EVENT.equals(eventName)) {
+                listener.onMessageEvent(objectMapper.readValue(data, Message.class));
+            }
+        } catch (JsonProcessingException e) {
+            Log.e(LOGGER, "Error has occurred while trying to read push event: " + eventName, e);
+        }
+    }
+
+    /**
+     * Implement this interface in order to receive the events of a {@link PushConnection}.<br/>
+     * Events are dispatched from the thread of the connection, one at a time, in the order the server sent them.
+     */
+    public interface PushListener {
+        /**
+         * Occurs whenever the state of the game changes, in case we are one of its players
+         * @param gameEngine The up to date game
+         */
+        void onGameEvent(GameEngine gameEngine);
+
+        /**
+         * Occurs when we connect, and whenever players join or leave the game
+         * @param users The players sitting at the game
+         */
+        void onUsersEvent(List<Player> users);
+
+        /**
+         * Occurs for every chat message, including messages sent by this client
+         * @param message The message
+         */
+        void onMessageEvent(Message message);
+
+        /**
+         * Occurs when we could not connect, or the connection was lost. We keep reconnecting until the connection is stopped.
+         * @param errorMessage The error message to show to user
+         * @param isChannelGone Whether the server does not know the channel, which means the game is over
+         */
+        void onPushError(String errorMessage, boolean isChannelGone);
+    }
+}
@@ -34,7 +34,9 @@ import retrofit2.converter.jackson.JacksonConverterFactory;
 
 /**
  * This singleton class responsible for the communication with Texas Holdem backend.<br/>
- * Remember to call {@link #init(Context)} before using his class, so we will configure security.
+ * Remember to call {@link #init(Context)} before using his class, so we will configure security.<br/>
+ * Responses of the services are decoded straight from the response body to their beans, so there is no need to parse
+ * them again. Use {@link #readHttpErrorResponse(retrofit2.Response)} for errors.
  * @author Haim Adrian
  * @since 23-Mar-21
  */
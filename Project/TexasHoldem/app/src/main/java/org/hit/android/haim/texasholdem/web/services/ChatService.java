@@ -1,16 +1,18 @@
 package org.hit.android.haim.texasholdem.web.services;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.TextNode;
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Streaming;
 
 /**
  * Lists all restful web services related to Chat controllers at Texas Holdem backend
@@ -20,23 +22,39 @@ import retrofit2.http.Path;
  */
 public interface ChatService {
     /* ***************************** Message Controller ***************************** */
-    /** @return Message or Error */
-    @POST("/message/{channelName}/{userId}")
-    Call<JsonNode> sendMessage(@Path("channelName") String channelName, @Path("userId") String userId, @Body TextNode message);
+    /**
+     * Send a batch of messages on behalf of the signed in user
+     * @return {@code List<Message>}, the sent messages with their sequence numbers, or Error
+     */
+    @POST("/message/{channelName}")
+    Call<List<Message>> sendMessages(@Path("channelName") String channelName, @Body List<String> messages);
 
     /** @return {@code List<Message>} or Error */
     @GET("/message/{channelName}")
-    Call<JsonNode> getAllMessagesInChannel(@Path("channelName") String channelName);
+    Call<List<Message>> getAllMessagesInChannel(@Path("channelName") String channelName);
 
     /** @return {@code List<Message>} or Error */
     @GET("/message/{channelName}/since/{lastMessageDateTime}")
-    Call<JsonNode> getLatestMessagesInChannel(@Path("channelName") String channelName, @Path("lastMessageDateTime") LocalDateTime lastMessageDateTime);
+    Call<List<Message>> getLatestMessagesInChannel(@Path("channelName") String channelName, @Path("lastMessageDateTime") LocalDateTime lastMessageDateTime);
+
+    /** @return {@code List<Message>} or Error */
+    @GET("/message/{channelName}/after/{lastMessageSeq}")
+    Call<List<Message>> getMessagesAfterSeqInChannel(@Path("channelName") String channelName, @Path("lastMessageSeq") long lastMessageSeq);
+
+    /**
+     * @param lastMessageSeq Sequence number of the last message we have, or {@code null} to receive all messages
+     * @return Server sent events: {@code message} with a Message, {@code users} with the {@code List<Player>} of the channel,
+     * and {@code game} with the GameEngine, for players of the game. Or Error. See {@link org.hit.android.haim.texasholdem.web.PushConnection PushConnection}
+     */
+    @Streaming
+    @GET("/message/{channelName}/stream")
+    Call<ResponseBody> streamChannel(@Path("channelName") String channelName, @Header("Last-Event-ID") String lastMessageSeq);
 
     /** @return Message or Error */
     @GET("/message/info/{messageId}")
-    Call<JsonNode> getMessageInfo(@Path("userId") String messageId);
+    Call<Message> getMessageInfo(@Path("userId") String messageId);
 
     /** @return {@code List<Message>} or Error */
     @GET("/message/info")
-    Call<JsonNode> getMessagesInfo(@Body List<String> messagesId);
+    Call<List<Message>> getMessagesInfo(@Body List<String> messagesId);
 }
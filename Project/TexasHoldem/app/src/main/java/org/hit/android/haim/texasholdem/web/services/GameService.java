@@ -1,10 +1,14 @@
 package org.hit.android.haim.texasholdem.web.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 
 import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+
+import java.util.Set;
 
 import retrofit2.Call;
 import retrofit2.http.Body;
@@ -22,41 +26,41 @@ import retrofit2.http.Path;
 public interface GameService {
     /** @return String (game hash) or Error */
     @POST("/game/new")
-    Call<JsonNode> createGame(@Body GameSettings gameSettings);
+    Call<TextNode> createGame(@Body GameSettings gameSettings);
 
     /** @return void (200 OK) or Error */
     @PUT("/game/{gameHash}/start")
-    Call<JsonNode> startGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
+    Call<Void> startGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
 
     /** @return void (200 OK) or Error */
     @PUT("/game/{gameHash}/stop")
-    Call<JsonNode> stopGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
+    Call<Void> stopGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
 
     /** @return String (game hash) or Error */
     @GET("/game/leader/hash")
-    Call<JsonNode> getMyGameHash();
+    Call<TextNode> getMyGameHash();
 
     /** @return GameEngine or Error */
     @GET("/game/mygame")
-    Call<JsonNode> getMyGame();
+    Call<GameEngine> getMyGame();
 
-    /** @return void (200 OK) or Error */
+    /** @return Player, with the position it got, or Error */
     @PUT("/game/{gameHash}/join")
-    Call<JsonNode> joinGame(@Path("gameHash") String gameHash, @Body Player player);
+    Call<Player> joinGame(@Path("gameHash") String gameHash, @Body Player player);
 
     /** @return void (200 OK) or Error */
     @PUT("/game/{gameHash}/leave")
-    Call<JsonNode> leaveGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
+    Call<Void> leaveGame(@Path("gameHash") String gameHash, @Body JsonNode bodyForRetrofit);
 
     /** @return {@code Set<Player>} or Error */
     @GET("/game/{gameHash}/players")
-    Call<JsonNode> getPlayers(@Path("gameHash") String gameHash);
+    Call<Set<Player>> getPlayers(@Path("gameHash") String gameHash);
 
-    /** @return ClientGameEngine or Error */
+    /** @return GameEngine or Error */
     @GET("/game/{gameHash}/info")
-    Call<JsonNode> getGameInfo(@Path("gameHash") String gameHash);
+    Call<GameEngine> getGameInfo(@Path("gameHash") String gameHash);
 
     /** @return void (200 OK) or Error */
     @PUT("/game/{gameHash}/action")
-    Call<JsonNode> executePlayerAction(@Path("gameHash") String gameHash, @Body PlayerAction playerAction);
+    Call<Void> executePlayerAction(@Path("gameHash") String gameHash, @Body PlayerAction playerAction);
 }
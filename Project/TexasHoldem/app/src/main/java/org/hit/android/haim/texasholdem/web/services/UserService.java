@@ -8,9 +8,11 @@ import java.util.List;
 
 import lombok.Getter;
 import lombok.ToString;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
@@ -30,7 +32,7 @@ public interface UserService {
      * @return {@link User} or Error
      */
     @PUT("/user/signup")
-    Call<JsonNode> signUp(@Body User user);
+    Call<User> signUp(@Body User user);
 
     /**
      * Use this method for signing in a user.<br/>
@@ -40,37 +42,48 @@ public interface UserService {
      * @return {@link JwtTokenResponse} or Error
      */
     @POST("/user/signin")
-    Call<JsonNode> signIn(@Body User user);
+    Call<JwtTokenResponse> signIn(@Body User user);
 
     /**
      * Use this method for signing out a user.<br/>
      * Remember to reset the JWT token, so no request will succeed after signing out.
-     * @return String or Error
+     * @return void (200 OK, with a plain text we do not read) or Error
      */
     @PUT("/user/signout")
-    Call<JsonNode> signOut(@Body JsonNode bodyForRetrofit);
+    Call<Void> signOut(@Body JsonNode bodyForRetrofit);
 
     /** @return User or Error */
     @GET("/user/{userId}/info")
-    Call<JsonNode> getUserInfo(@Path("userId") String userId);
+    Call<User> getUserInfo(@Path("userId") String userId);
 
     /** @return {@code List<User>} or Error */
     @GET("/user/info")
-    Call<JsonNode> getUsersInfo(@Body List<String> usersId);
+    Call<List<User>> getUsersInfo(@Body List<String> usersId);
 
     /**
      * Update the amount of coins a user have.
      * @return User or Error
      */
     @POST("/user/{userId}/coins")
-    Call<JsonNode> updateCoins(@Path("userId") String userId, @Body User user);
+    Call<User> updateCoins(@Path("userId") String userId, @Body User user);
+
+    /**
+     * Get the profile picture of a user, as raw bytes.<br/>
+     * Send the ETag of a cached picture, so the server responds with 304 (and no body) when it was not modified.
+     * @param userId The user to get its picture
+     * @param eTag ETag of the cached picture, or {@code null} when there is no cached picture
+     * @return The picture, 304 when it was not modified, 404 when user has no picture, or Error
+     * @see org.hit.android.haim.texasholdem.web.AvatarCache
+     */
+    @GET("/user/{userId}/image")
+    Call<ResponseBody> getUserImage(@Path("userId") String userId, @Header("If-None-Match") String eTag);
 
     /**
      * Update the profile picture of a user.
      * @return User or Error
      */
     @POST("/user/{userId}/image")
-    Call<JsonNode> updateImage(@Path("userId") String userId, @Body User user);
+    Call<User> updateImage(@Path("userId") String userId, @Body User user);
 
     /**
      * A response of signin API.<br/>
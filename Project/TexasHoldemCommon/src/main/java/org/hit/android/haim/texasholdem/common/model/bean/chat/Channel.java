@@ -3,15 +3,16 @@ package org.hit.android.haim.texasholdem.common.model.bean.chat;
 import lombok.*;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * A channel in chat.<br/>
  * For each online game we have a dedicated channel, at which players can communicate with each other.<br/>
- * There cannot be &gt;1 channel for a game.
+ * There cannot be &gt;1 channel for a game.<br/>
+ * Messages are kept in a {@link MessageBuffer}, which is bounded and assigns sequence numbers to messages.
  *
  * @author Haim Adrian
  * @since 14-Apr-21
@@ -28,7 +29,21 @@ public class Channel {
     private Set<Player> users = new HashSet<>();
 
     @Builder.Default
-    private List<Message> messages = new ArrayList<>();
+    private List<Message> messages = new MessageBuffer();
+
+    /**
+     * Collect the messages whose sequence number is greater than the specified one
+     * @param seq The sequence number of the last message a client has. Use 0 to get all messages
+     * @return The messages after {@code seq}, ordered by sequence number
+     */
+    public List<Message> since(long seq) {
+        if (messages instanceof MessageBuffer) {
+            return ((MessageBuffer) messages).since(seq);
+        }
+
+        // A channel that was deserialized, or created with a plain list
+        return messages.stream().filter(message -> message.getSeq() > seq).collect(Collectors.toList());
+    }
 
     /**
      * Clear all messages in chat
@@ -45,6 +45,23 @@ public class Message {
      * The user sent the message
      */
     private Player user;
+
+    /**
+     * Sequence number of the message in its channel. Assigned when the message is appended to a channel.
+     * @see MessageBuffer
+     */
+    private long seq;
+
+    /**
+     * Constructs a new {@link Message}, without sequence number
+     * @param message The message a user sent
+     * @param dateTimeSent Time when user sent the message
+     * @param channelId To which channel the message was sent
+     * @param user The user sent the message
+     */
+    public Message(String message, LocalDateTime dateTimeSent, String channelId, Player user) {
+        this(message, dateTimeSent, channelId, user, 0);
+    }
 }
 
 
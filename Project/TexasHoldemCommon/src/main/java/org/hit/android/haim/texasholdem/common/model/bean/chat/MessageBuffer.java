@@ -0,0 +1,183 @@
+package org.hit.android.haim.texasholdem.common.model.bean.chat;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The messages of a {@link Channel}, kept in a bounded ring buffer.<br/>
+ * Every appended message gets a sequence number, which is greater than the sequence number of the message before it,
+ * so clients can ask for the messages after the last sequence number they have, using {@link #since(long)}, and get them
+ * in O(k), where k is the amount of new messages. There is no need to sort, as the buffer is ordered by sequence number.<br/>
+ * When the buffer is full, appending a message evicts the oldest one, so a long running game does not grow its chat forever.<br/>
+ * The buffer is thread safe. Iterating it iterates a snapshot, so readers never see a half written buffer.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class MessageBuffer extends AbstractList<Message> {
+    /**
+     * Default amount of messages we keep per channel
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Message[] ring;
+
+    /**
+     * Index of the oldest message in {@link #ring}
+     */
+    private int head;
+    private int size;
+
+    /**
+     * The sequence number of the next appended message. Sequence numbers start from 1, so 0 means "before all messages".
+     */
+    private long nextSeq = 1;
+
+    /**
+     * Constructs a new {@link MessageBuffer} with {@link #DEFAULT_CAPACITY}
+     */
+    public MessageBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new {@link MessageBuffer}
+     * @param capacity Maximum amount of messages to keep
+     */
+    public MessageBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive. Was: " + capacity);
+        }
+
+        ring = new Message[capacity];
+    }
+
+    /**
+     * Append a message, and set its sequence number.<br/>
+     * A message that already has a sequence number (e.g. when restoring a game) keeps it, as long as it is greater than
+     * the sequence number of the last message. Otherwise it gets the next sequence number.
+     * @param message The message to append
+     * @return {@code true}
+     */
+    @Override
+    public synchronized boolean add(Message message) {
+        append(message);
+        return true;
+    }
+
+    /**
+     * Append messages, with a single lock acquisition, so they get consecutive sequence numbers.
+     * @param messages The messages to append
+     * @return Whether there were messages to append
+     * @see #add(Message)
+     */
+    @Override
+    public synchronized boolean addAll(Collection<? extends Message> messages) {
+        for (Message message : messages) {
+            append(message);
+        }
+
+        return !messages.isEmpty();
+    }
+
+    private void append(Message message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Cannot append null message");
+        }
+
+        long seq = Math.max(message.getSeq(), nextSeq);
+        message.setSeq(seq);
+        nextSeq = seq + 1;
+
+        if (size == ring.length) {
+            ring[head] = message;
+            head = (head + 1) % ring.length;
+        } else {
+            ring[(head + size) % ring.length] = message;
+            size++;
+        }
+    }
+
+    /**
+     * Collect the messages whose sequence number is greater than the specified one.<br/>
+     * When some of them were already evicted, we return the ones that are still in buffer.
+     * @param seq The sequence number of the last message a client has. Use 0 to get all messages
+     * @return The messages after {@code seq}, ordered by sequence number
+     */
+    public synchronized List<Message> since(long seq) {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        long lastSeq = ring[(head + size - 1) % ring.length].getSeq();
+        if (seq >= lastSeq) {
+            return Collections.emptyList();
+        }
+
+        // Sequence numbers are increasing, but not necessarily contiguous (restored games), so look for the first one
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ring[(head + mid) % ring.length].getSeq() > seq) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        List<Message> result = new ArrayList<>(size - low);
+        for (int i = low; i < size; i++) {
+            result.add(ring[(head + i) % ring.length]);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The sequence number of the last appended message, or 0 when no message was appended yet
+     */
+    public synchronized long getLastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * @return Maximum amount of messages we keep
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    @Override
+    public synchronized Message get(int index) {
+        if ((index < 0) || (index >= size)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return ring[(head + index) % ring.length];
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Remove all messages. Sequence numbers keep increasing, so clients do not miss messages sent after clearing.
+     */
+    @Override
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Message> iterator() {
+        return since(0).iterator();
+    }
+}
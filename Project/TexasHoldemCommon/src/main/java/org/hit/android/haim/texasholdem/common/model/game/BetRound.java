@@ -0,0 +1,162 @@
+package org.hit.android.haim.texasholdem.common.model.game;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The state machine of a single round of bets. (Pre-flop, flop, turn or river)<br/>
+ * Instead of scanning the players after every action to find out whether the round of bets is over, we keep the state
+ * of the round and update it on every action: the highest bet, the last player that raised, the players that still
+ * have to act and the players that went all-in.<br/>
+ * Players are referred to by their seats (See {@link Players#getOccupiedSeats()}), so the state is a few bitmasks, and
+ * telling whether the round is over, or who is the next player to act, is a matter of a few bit operations.<br/>
+ * A player has to act when he is still in the round, did not go all-in, and either did not act yet or did not match the
+ * highest bet. A raise makes all of the other players, that can still act, pending again.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Data
+@NoArgsConstructor
+public class BetRound {
+    /**
+     * Seats of the players that did not fold during current round. (Including players that went all-in)
+     */
+    private int inSeats;
+
+    /**
+     * Seats of the players that have no chips left to bet with
+     */
+    private int allInSeats;
+
+    /**
+     * Seats of the players that have to act before the round of bets is over
+     */
+    private int pendingSeats;
+
+    /**
+     * The highest amount of chips a player has put during current round of bets
+     */
+    private long highestBet;
+
+    /**
+     * Seat of the last player that raised, or {@code -1} when nobody has raised during current round of bets.<br/>
+     * Blinds are not considered a raise.
+     */
+    private int lastAggressorSeat = -1;
+
+    /**
+     * Copy constructor, used when taking a snapshot of a game
+     * @param other The bet round to copy
+     */
+    public BetRound(BetRound other) {
+        inSeats = other.inSeats;
+        allInSeats = other.allInSeats;
+        pendingSeats = other.pendingSeats;
+        highestBet = other.highestBet;
+        lastAggressorSeat = other.lastAggressorSeat;
+    }
+
+    /**
+     * Start a new round of bets. All of the players that can still act have to act.
+     * @param inSeats Seats of the players that are part of the round. See {@link Players#getPlayingSeats()}
+     * @param allInSeats Seats of the players that went all-in. See {@link Players#getAllInSeats()}
+     */
+    public void start(int inSeats, int allInSeats) {
+        this.inSeats = inSeats;
+        this.allInSeats = allInSeats & inSeats;
+        pendingSeats = inSeats & ~allInSeats;
+        highestBet = 0;
+        lastAggressorSeat = -1;
+    }
+
+    /**
+     * A player has put a blind. The player still has to act, unlike a bet.
+     * @param seat Seat of the player
+     * @param roundBet Total amount of chips the player has put during current round of bets
+     * @param isAllIn Whether the player has no chips left
+     */
+    public void postBlind(int seat, long roundBet, boolean isAllIn) {
+        highestBet = Math.max(highestBet, roundBet);
+        if (isAllIn) {
+            markAllIn(seat);
+        }
+    }
+
+    /**
+     * A player has checked
+     * @param seat Seat of the player
+     */
+    public void check(int seat) {
+        pendingSeats &= ~(1 << seat);
+    }
+
+    /**
+     * A player has put chips. This is a raise when the player has put more than the highest bet, in which case all of
+     * the other players that can act have to act again. Otherwise it is a call. (Might be an all-in for less than a call)
+     * @param seat Seat of the player
+     * @param roundBet Total amount of chips the player has put during current round of bets
+     * @param isAllIn Whether the player has no chips left
+     */
+    public void bet(int seat, long roundBet, boolean isAllIn) {
+        int seatBit = 1 << seat;
+        if (roundBet > highestBet) {
+            highestBet = roundBet;
+            lastAggressorSeat = seat;
+            pendingSeats = inSeats & ~allInSeats;
+        }
+
+        pendingSeats &= ~seatBit;
+        if (isAllIn) {
+            markAllIn(seat);
+        }
+    }
+
+    /**
+     * A player has folded, or left the table in the middle of a round
+     * @param seat Seat of the player
+     */
+    public void fold(int seat) {
+        int seatBit = 1 << seat;
+        inSeats &= ~seatBit;
+        allInSeats &= ~seatBit;
+        pendingSeats &= ~seatBit;
+    }
+
+    private void markAllIn(int seat) {
+        int seatBit = 1 << seat;
+        allInSeats |= (seatBit & inSeats);
+        pendingSeats &= ~seatBit;
+    }
+
+    /**
+     * @return Whether all of the players have acted and matched the highest bet, or could not act anymore
+     */
+    @JsonIgnore
+    public boolean isOver() {
+        return pendingSeats == 0;
+    }
+
+    /**
+     * @return Seats of the players that did not fold and still have chips to bet with
+     */
+    @JsonIgnore
+    public int getActiveSeats() {
+        return inSeats & ~allInSeats;
+    }
+
+    /**
+     * Find the next player that has to act, going around the table clockwise.
+     * @param fromSeat The seat to start looking after. (Exclusive)
+     * @return Seat of the next player to act, or {@code -1} when the round of bets is over
+     */
+    public int nextSeat(int fromSeat) {
+        if (pendingSeats == 0) {
+            return -1;
+        }
+
+        // First look at the seats after the specified one, and then go around the table
+        int seatsAfter = (fromSeat >= Integer.SIZE - 1) || (fromSeat < 0) ? 0 : pendingSeats & (-1 << (fromSeat + 1));
+        return Integer.numberOfTrailingZeros(seatsAfter != 0 ? seatsAfter : pendingSeats);
+    }
+}
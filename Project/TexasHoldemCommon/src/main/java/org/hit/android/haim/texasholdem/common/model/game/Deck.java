@@ -7,6 +7,7 @@ import java.security.SecureRandom;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -54,6 +55,16 @@ public class Deck extends CardsHolder {
         Collections.shuffle(getCards(), new SecureRandom());
     }
 
+    /**
+     * Restores the order of the deck, as it was when a snapshot was taken.<br/>
+     * Used when restoring a game, so the next cards are exactly the same cards that were about to be opened before restore.
+     * @param cards The remaining cards of a deck, ordered from head to tail
+     */
+    public void restoreOrder(List<Card> cards) {
+        super.clear();
+        super.addCards(cards);
+    }
+
     /**
      * Pops a card out of the head of the deck and return it
      * @return A card from the head of the deck
@@ -4,17 +4,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.hit.android.haim.texasholdem.common.model.bean.chat.Channel;
 import org.hit.android.haim.texasholdem.common.model.bean.game.*;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotPlayer;
 import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.common.util.EventLog;
 
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 /**
  * A class that represents a game between several players<br/>
@@ -26,7 +30,7 @@ import java.util.stream.Collectors;
  */
 @Data
 @NoArgsConstructor
-@ToString(exclude = {"chat", "deck", "gameLog", "listener", "playersLock"})
+@ToString(exclude = {"chat", "deck", "gameLog", "listener", "playersLock", "gameLock"})
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class GameEngine {
     private static final AtomicInteger gameCounter = new AtomicInteger(100); // Assume there can be 900 games running in parallel
@@ -135,12 +139,19 @@ public class GameEngine {
     private ArrayDeque<PlayerActionKind> lastActionKind; // ArrayDeque and not Deque, so we will have access to clone()
 
     /**
-     * Map between every player to his last action, so we will be able to detect the case when
-     * current player calls and next player raised. In this case, next player cannot raise again.
-     * Instead, we should open next card.
+     * Map between every player to his last action during current round of bets, so clients can show
+     * what each player did.
      */
     private Map<String, PlayerAction> playerToHisLastAction;
 
+    /**
+     * State of current round of bets, updated on every action, so we know whether the round of bets is over
+     * and who is the next player to act without scanning the players.
+     * @see BetRound
+     */
+    @JsonIgnore
+    private BetRound betRound = new BetRound();
+
     /**
      * A listener to get notified upon player updates, so we can persist changes in chips amount.
      */
@@ -178,6 +189,36 @@ public class GameEngine {
     @JsonIgnore
     private final Lock playersLock = new ReentrantLock();
 
+    /**
+     * A lock to change the state of this game by one thread at a time: player actions, players joining and leaving,
+     * the turn timer and the next round. Listeners are notified while holding it, so they see a consistent game.
+     */
+    @JsonIgnore
+    private final ReentrantLock gameLock = new ReentrantLock();
+
+    /**
+     * Advanced whenever the state of this game might have changed, so readers can tell whether a copy of the
+     * game they already have is up to date, without serializing the game again.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private volatile long stateVersion;
+
+    /**
+     * Whether this game was {@link #suspend() suspended}, in which case it does not accept actions anymore.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean isSuspended;
+
+    /**
+     * Whether we are in the middle of taking the mandatory bets, in which case we do not notify about turns,
+     * to avoid of letting a player (e.g. a bot) act before the big blind is taken.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean isPostingBlinds;
+
     /**
      * Constructs a new {@link GameEngine}
      * @param gameSettings Preferences of a game.
@@ -188,7 +229,7 @@ public class GameEngine {
         this.listener = listener;
         notifier = new PlayerUpdateNotifier();
         timeCreated = System.currentTimeMillis();
-        id = gameCounter.getAndIncrement();
+        id = generateId();
         initGameHash();
         players = new Players();
         chat = Channel.builder().name(getGameHash()).build();
@@ -200,7 +241,208 @@ public class GameEngine {
         gameState = new AtomicReference<>(GameState.READY);
         playerToHisLastAction = new HashMap<>();
 
-        info("GameEngine created: " + this);
+        eventLog().info("GameEngine created", "game", this);
+    }
+
+    /**
+     * Restores a {@link GameEngine} out of a snapshot that was taken using {@link #toSnapshot()}.<br/>
+     * The restored game continues from the exact point it was at: same deck order, hands, pots and turn deadline.
+     * @param snapshot The snapshot to restore a game from
+     * @param listener A listener to get notified upon player updates, so we can persist changes in chips amount.
+     */
+    public GameEngine(@NonNull GameEngineSnapshot snapshot, @NonNull PlayerUpdateListener listener) {
+        gameSettings = GameSettings.builder()
+            .smallBet(snapshot.getSmallBet())
+            .bigBet(snapshot.getBigBet())
+            .turnTime(snapshot.getTurnTime())
+            .creatorId(snapshot.getCreatorId())
+            .isNetwork(snapshot.isNetwork())
+            .build();
+        this.listener = listener;
+        id = snapshot.getId();
+        gameHash = snapshot.getGameHash();
+        timeCreated = snapshot.getTimeCreated();
+        notifier = new PlayerUpdateNotifier();
+        advanceGameCounter(sequenceOf(id) + 1);
+
+        // Seats
+        Player[] playersArray = new Player[snapshot.getMaxAmountOfPlayers()];
+        for (GameEngineSnapshot.PlayerSnapshot playerSnapshot : snapshot.getPlayers()) {
+            if (playerSnapshot != null) {
+                Player player;
+                if (playerSnapshot.getBotLevel() != null) {
+                    // Restore bots as bots, so they keep playing their turns
+                    player = new BotPlayer(playerSnapshot.getId(), playerSnapshot.getName(), playerSnapshot.getChips(), playerSnapshot.getPosition(), playerSnapshot.getBotLevel());
+                    player.setPlaying(playerSnapshot.isPlaying());
+                    player.setHand(new Hand(new ArrayList<>(playerSnapshot.getHand())));
+                } else {
+                    player = Player.builder()
+                        .id(playerSnapshot.getId())
+                        .name(playerSnapshot.getName())
+                        .chips(new Chips(playerSnapshot.getChips()))
+                        .isPlaying(playerSnapshot.isPlaying())
+                        .position(playerSnapshot.getPosition())
+                        .hand(new Hand(new ArrayList<>(playerSnapshot.getHand())))
+                        .build();
+                }
+
+                playersArray[playerSnapshot.getPosition()] = player;
+            }
+        }
+        players = new Players(playersArray, snapshot.getCurrentPlayerIndex(), snapshot.getPrevPlayerIndex(), snapshot.getMaxAmountOfPlayers());
+        dealer = snapshot.getDealerPosition() < 0 ? null : players.getPlayer(snapshot.getDealerPosition());
+        smallBlindPlayer = snapshot.getSmallBlindPosition() < 0 ? null : players.getPlayer(snapshot.getSmallBlindPosition());
+        bigBlindPlayer = snapshot.getBigBlindPosition() < 0 ? null : players.getPlayer(snapshot.getBigBlindPosition());
+
+        // Chat
+        chat = Channel.builder().name(getGameHash()).build();
+        chat.getUsers().addAll(players.getPlayers());
+        if (snapshot.getChatMessages() != null) {
+            chat.getMessages().addAll(snapshot.getChatMessages());
+        }
+
+        // Cards
+        gameLog = snapshot.getGameLog() == null ? new GameLog() : snapshot.getGameLog();
+        deck = new Deck();
+        deck.restoreOrder(snapshot.getDeck());
+        board = new Board(new ArrayList<>(snapshot.getBoard()));
+
+        // Bets. A player might have left the table in the middle of a round, and his chips are still in the pot.
+        pot = new Pot();
+        Map<String, Long> potsForRound = snapshot.getPotsForRound() == null ? Collections.emptyMap() : snapshot.getPotsForRound();
+        if (snapshot.getPots() != null) {
+            snapshot.getPots().forEach((playerId, sum) -> {
+                Player player = players.getPlayerById(playerId);
+                if (player == null) {
+                    player = Player.builder().id(playerId).chips(new Chips()).build();
+                }
+
+                pot.restorePotOfPlayer(player, sum, potsForRound.getOrDefault(playerId, 0L));
+            });
+        }
+        pot.restoreLastBet(snapshot.getLastBet());
+        lastActionKind = snapshot.getLastActionKind() == null ? null : new ArrayDeque<>(snapshot.getLastActionKind());
+        playerToHisLastAction = snapshot.getPlayerToHisLastAction() == null ? new HashMap<>() : new HashMap<>(snapshot.getPlayerToHisLastAction());
+        playerToEarnings = snapshot.getPlayerToEarnings();
+        if (snapshot.getBetRound() != null) {
+            betRound = new BetRound(snapshot.getBetRound());
+        } else {
+            // Snapshot of an older version. Let all of the players that can act, act again.
+            betRound.start(players.getPlayingSeats(), players.getAllInSeats());
+            betRound.setHighestBet(pot.getLastBet() == null ? 0 : pot.getLastBet());
+        }
+
+        playerTurnTimer = gameSettings.isNetwork() ? new PlayerTurnTimer(this::onPlayerTurnTimeout, gameSettings.getTurnTime()) : null;
+        gameState = new AtomicReference<>(snapshot.getGameState());
+
+        eventLog().info("GameEngine restored", "game", this);
+
+        // Continue from where we stopped. Either count the remaining time of current player, or wait for next round.
+        if (gameState.get() == GameState.STARTED) {
+            if (playerTurnTimer != null) {
+                playerTurnTimer.resume(snapshot.getTurnElapsedMillis());
+            }
+        } else if (gameState.get() == GameState.RESTART) {
+            scheduleNextRound();
+        }
+    }
+
+    /**
+     * @return The value of the game counter that the next created game will use. (See {@link #generateId()})
+     */
+    public static int getNextGameId() {
+        return gameCounter.get();
+    }
+
+    /**
+     * Make sure the next game identifier is not lower than the specified one.<br/>
+     * We use this when restoring games, to avoid of generating an identifier of a restored game.
+     * @param nextGameId The minimum identifier of the next created game
+     */
+    public static void advanceGameCounter(int nextGameId) {
+        gameCounter.accumulateAndGet(nextGameId, Math::max);
+    }
+
+    /**
+     * Take a snapshot of this game, to be able to restore it later using {@link #GameEngine(GameEngineSnapshot, PlayerUpdateListener)}.<br/>
+     * Note that a snapshot contains secrets (deck and hands), so it must never be exposed to clients.
+     * @return A snapshot of current game
+     */
+    public GameEngineSnapshot toSnapshot() {
+        gameLock.lock();
+        try {
+            return takeSnapshot();
+        } finally {
+            gameLock.unlock();
+        }
+    }
+
+    /**
+     * See {@link #toSnapshot()}. Call this when holding the {@link #gameLock}
+     */
+    private GameEngineSnapshot takeSnapshot() {
+        GameEngineSnapshot snapshot = new GameEngineSnapshot();
+        snapshot.setId(id);
+        snapshot.setGameHash(gameHash);
+        snapshot.setTimeCreated(timeCreated);
+        snapshot.setGameState(gameState.get());
+        snapshot.setSmallBet(gameSettings.getSmallBet());
+        snapshot.setBigBet(gameSettings.getBigBet());
+        snapshot.setTurnTime(gameSettings.getTurnTime());
+        snapshot.setCreatorId(gameSettings.getCreatorId());
+        snapshot.setNetwork(gameSettings.isNetwork());
+
+        GameEngineSnapshot.PlayerSnapshot[] playerSnapshots = new GameEngineSnapshot.PlayerSnapshot[players.getMaxAmountOfPlayers()];
+        players.forEachPlayer(player -> playerSnapshots[player.getPosition()] = GameEngineSnapshot.PlayerSnapshot.builder()
+            .id(player.getId())
+            .name(player.getName())
+            .chips(player.getChips().get())
+            .isPlaying(player.isPlaying())
+            .position(player.getPosition())
+            .hand(player.getHand() == null ? new ArrayList<>() : player.getHand().copyCards())
+            .botLevel(player instanceof BotPlayer ? ((BotPlayer) player).getLevel() : null)
+            .build());
+        snapshot.setPlayers(playerSnapshots);
+        snapshot.setCurrentPlayerIndex(players.getCurrentPlayerIndex());
+        snapshot.setPrevPlayerIndex(players.getPrevPlayerIndex());
+        snapshot.setMaxAmountOfPlayers(players.getMaxAmountOfPlayers());
+        snapshot.setDealerPosition(dealer == null ? -1 : dealer.getPosition());
+        snapshot.setSmallBlindPosition(smallBlindPlayer == null ? -1 : smallBlindPlayer.getPosition());
+        snapshot.setBigBlindPosition(bigBlindPlayer == null ? -1 : bigBlindPlayer.getPosition());
+
+        snapshot.setDeck(deck.copyCards());
+        snapshot.setBoard(board.copyCards());
+        snapshot.setPots(pot.getPlayerPots());
+        snapshot.setPotsForRound(pot.getPlayerPotsOfRound());
+        snapshot.setLastBet(pot.getLastBet());
+        snapshot.setLastActionKind(lastActionKind == null ? null : new ArrayList<>(lastActionKind));
+        snapshot.setBetRound(new BetRound(betRound));
+        snapshot.setPlayerToHisLastAction(new HashMap<>(playerToHisLastAction));
+        snapshot.setPlayerToEarnings(playerToEarnings);
+        snapshot.setGameLog(gameLog);
+        snapshot.setChatMessages(new ArrayList<>(chat.getMessages()));
+        snapshot.setTurnElapsedMillis(playerTurnTimer == null ? 0 : System.currentTimeMillis() - playerTurnTimer.getTurnStartTime());
+
+        return snapshot;
+    }
+
+    /**
+     * Generate the identifier of a new game.<br/>
+     * By default, this is the next value of the game counter. Override it in case the identifier should carry more
+     * information, e.g. the shard that a game belongs to.
+     * @return The identifier of a new game
+     */
+    protected int generateId() {
+        return gameCounter.getAndIncrement();
+    }
+
+    /**
+     * The reverse of {@link #generateId()}, used to extract the value of the game counter out of a game identifier.
+     * @param gameId Identifier of a game
+     * @return The value of the game counter that the specified identifier was generated with
+     */
+    protected int sequenceOf(int gameId) {
+        return gameId;
     }
 
     /**
@@ -214,12 +456,12 @@ public class GameEngine {
     /**
      * Override this method to use the correct logging service.<br/>
      * For server, this is Log4j2, and for client, this is Android's Log.<br/>
-     * We log game operations during a game, to follow where the game is at some specific time.
-     * @param message The message to log
+     * We log game operations during a game, to follow where the game is at some specific time. Every action and turn is
+     * logged in {@link EventLog.Level#DEBUG debug} level, and game lifecycle in {@link EventLog.Level#INFO info} level.
+     * @return The log to write events of this game to. By default, {@link EventLog#STDOUT}
      */
-    protected void info(String message) {
-        // By default, log to system out
-        System.out.println(message);
+    protected EventLog eventLog() {
+        return EventLog.STDOUT;
     }
 
     /**
@@ -234,22 +476,28 @@ public class GameEngine {
      * @param player The player to add
      */
     public void addPlayer(Player player) {
-        if (isActive()) {
-            throw new IllegalArgumentException("Cannot join an active game. Wait for round to end.");
-        } else {
-            // Lock on players, to make sure we do not let more than 7 players to join a game.
-            if (players.size() < MAXIMUM_AMOUNT_OF_PLAYERS) {
-                playersLock.lock();
-                try {
-                    if (players.size() < MAXIMUM_AMOUNT_OF_PLAYERS) {
-                        info(getId() + " - Adding player: " + player);
-                        players.addPlayer(player);
-                        chat.getUsers().add(player);
+        gameLock.lock();
+        try {
+            ensureNotSuspended();
+            if (isActive()) {
+                throw new IllegalArgumentException("Cannot join an active game. Wait for round to end.");
+            } else {
+                // Lock on players, to make sure we do not let more than 7 players to join a game.
+                if (players.size() < MAXIMUM_AMOUNT_OF_PLAYERS) {
+                    playersLock.lock();
+                    try {
+                        if (players.size() < MAXIMUM_AMOUNT_OF_PLAYERS) {
+                            eventLog().info("Adding player", "game", gameHash, "player", player);
+                            players.addPlayer(player);
+                            chat.getUsers().add(player);
+                        }
+                    } finally {
+                        playersLock.unlock();
                     }
-                } finally {
-                    playersLock.unlock();
                 }
             }
+        } finally {
+            unlockAfterChange();
         }
     }
 
@@ -263,26 +511,38 @@ public class GameEngine {
             return;
         }
 
-        info(getId() + " - Removing player: " + player);
+        gameLock.lock();
+        try {
+            ensureNotSuspended();
+            eventLog().info("Removing player", "game", gameHash, "player", player);
+
+            // If it is the current player who leaves, execute FOLD action
+            Player playerById = players.getPlayerById(player.getId());
+            if (playerById != null) {
+                try {
+                    if (players.getCurrentPlayerIndex() == players.indexOfPlayer(playerById)) {
+                        executePlayerAction(playerById, PlayerAction.builder().name(playerById.getName()).actionKind(PlayerActionKind.FOLD).build());
+                    }
+                } catch (Exception ignore) {
 
-        // If it is the current player who leaves, execute FOLD action
-        Player playerById = players.getPlayerById(player.getId());
-        if (playerById != null) {
-            try {
-                if (players.getCurrentPlayerIndex() == players.indexOfPlayer(playerById)) {
-                    executePlayerAction(playerById, PlayerAction.builder().name(playerById.getName()).actionKind(PlayerActionKind.FOLD).build());
                 }
-            } catch (Exception ignore) {
 
-            }
+                playersLock.lock();
+                try {
+                    // Leaving in the middle of a round is the same as folding, so we will not wait for this player to act
+                    int seat = players.indexOfPlayer(playerById);
+                    if (seat >= 0) {
+                        betRound.fold(seat);
+                    }
 
-            playersLock.lock();
-            try {
-                players.removePlayer(playerById);
-                chat.getUsers().remove(playerById);
-            } finally {
-                playersLock.unlock();
+                    players.removePlayer(playerById);
+                    chat.getUsers().remove(playerById);
+                } finally {
+                    playersLock.unlock();
+                }
             }
+        } finally {
+            unlockAfterChange();
         }
     }
 
@@ -293,17 +553,24 @@ public class GameEngine {
      * we {@link #moveTurnForward()} to the next player.
      */
     public void start() {
-        if (gameState.compareAndSet(GameState.READY, GameState.STARTED)) {
-            info(getId() + " - Starting new game.");
-
-            // Generate random dealer
-            List<Integer> availablePlayers = new ArrayList<>(players.size());
-            players.getPlayers().forEach(p -> availablePlayers.add(p.getPosition()));
-            int dealerIndex = new Random().nextInt(availablePlayers.size());
-            dealer = players.getPlayer(availablePlayers.get(dealerIndex));
+        gameLock.lock();
+        try {
+            ensureNotSuspended();
+            if (gameState.compareAndSet(GameState.READY, GameState.STARTED)) {
+                eventLog().info("Starting new game", "game", gameHash);
+
+                // Generate random dealer, by skipping a random amount of occupied seats
+                int occupiedSeats = players.getOccupiedSeats();
+                for (int i = new Random().nextInt(Integer.bitCount(occupiedSeats)); i > 0; i--) {
+                    occupiedSeats &= (occupiedSeats - 1);
+                }
+                dealer = players.getPlayer(Integer.numberOfTrailingZeros(occupiedSeats));
 
-            // Start the round. (Set min player as the current player, and take mandatory bets)
-            startRound();
+                // Start the round. (Set min player as the current player, and take mandatory bets)
+                startRound();
+            }
+        } finally {
+            unlockAfterChange();
         }
     }
 
@@ -316,21 +583,38 @@ public class GameEngine {
      * @throws IllegalArgumentException In case the specified player is not the current player, or not playing, or action is illegal
      */
     public void executePlayerAction(Player player, PlayerAction action) throws IllegalArgumentException {
-        info(getId() + " - Executing player action. [player=" + player + ", action=" + action + "]");
+        gameLock.lock();
+        try {
+            ensureNotSuspended();
+            applyPlayerAction(player, action);
+        } finally {
+            unlockAfterChange();
+        }
+    }
+
+    /**
+     * See {@link #executePlayerAction(Player, PlayerAction)}. Call this when holding the {@link #gameLock}
+     */
+    private void applyPlayerAction(Player player, PlayerAction action) {
+        long startTime = System.nanoTime();
+        eventLog().debug("Executing player action", "game", gameHash, "player", player, "action", action);
         validatePlayerAction(player, action);
 
         if (playerToEarnings != null) {
-            info("Player action was ignored because there is currently player earnings available. So as long as it is available," +
-                " all player actions are ignored. Clients expected to read game state and wait for next round. [player=" + player + ", action=" + action + "]");
+            // So as long as earnings are available, all player actions are ignored. Clients expected to read game state and wait for next round.
+            eventLog().debug("Player action was ignored because there is currently player earnings available", "game", gameHash, "player", player, "action", action);
             return;
         }
 
         Player currPlayer = players.getCurrentPlayer();
+        int seat = currPlayer.getPosition();
         switch (action.getActionKind()) {
             case CALL: {
                 long amount = pot.getLastBet() == null ? action.getChips().get() : pot.getLastBet();
                 long chips = pot.bet(currPlayer, amount - pot.getPotOfPlayer(currPlayer));
                 action.setChips(chips);
+                players.updateAllIn(currPlayer);
+                betRound.bet(seat, pot.getPotOfPlayer(currPlayer), currPlayer.getChips().get() == 0);
 
                 // Update listener about update of chips
                 notifier.notifyPlayerChipsUpdated(currPlayer, -1 * chips);
@@ -341,13 +625,24 @@ public class GameEngine {
                 long validatedChips = Math.min(player.getChips().get(), action.getChips().get());
                 long chips = pot.bet(currPlayer, validatedChips);
                 action.setChips(chips);
+                players.updateAllIn(currPlayer);
+                if (isPostingBlinds) {
+                    betRound.postBlind(seat, pot.getPotOfPlayer(currPlayer), currPlayer.getChips().get() == 0);
+                } else {
+                    betRound.bet(seat, pot.getPotOfPlayer(currPlayer), currPlayer.getChips().get() == 0);
+                }
 
                 // Update listener about update of chips
                 notifier.notifyPlayerChipsUpdated(currPlayer, -1 * chips);
                 break;
             }
+            case CHECK: {
+                betRound.check(seat);
+                break;
+            }
             case FOLD: {
-                currPlayer.setPlaying(false);
+                players.fold(currPlayer);
+                betRound.fold(seat);
                 break;
             }
             default:
@@ -361,38 +656,20 @@ public class GameEngine {
 
         playerToHisLastAction.put(currPlayer.getId(), action);
 
-        // Everytime it is the dealer's turn we can continue to next game stage, unless the dealer is raising
-        // Another option is before the flop is shown. In this case, big blind player is the last to act.
-        Player activeDealer = players.getAvailablePlayingPlayerReversed(players.indexOfPlayer(dealer));
-        boolean isBetRoundOver = (action.getActionKind() != PlayerActionKind.RAISE) &&
-            ((board.getFlop1().isPresent() && currPlayer.equals(activeDealer)) || (!board.getFlop1().isPresent() && currPlayer.equals(bigBlindPlayer)));
-
-        // Another option for bet round to over is in case the current action is CALL, and the next player
-        // is the one with the highest raise. Of course this is irrelevant before the flop, since the bigBlind player
-        // by default is the highest raise, though he is the last to act.
-        // There might be another case when the last player to speak folds. In this case, we set true to isBetRoundOver above,
-        // but it might be that there was a raise that we need to continue to scan the board until we get to that player who raised.
-        Player playerWithHighestRaise = findPlayerWithHighestRaise();
-        if (((action.getActionKind() == PlayerActionKind.CALL) || (action.getActionKind() == PlayerActionKind.FOLD)) &&
-            (playerWithHighestRaise != null) &&
-            board.getFlop1().isPresent()) {
-            isBetRoundOver = playerWithHighestRaise.equals(players.getAvailablePlayingPlayer(currPlayer.getPosition() + 1));
-        }
-
-        // If it is last player standing, he won.
-        List<Player> playersLeft = players.getInvolvedPlayers().stream().filter(p -> p.getChips().get() > 0).collect(Collectors.toList());
-        if ((playersLeft.size() == 0) || ((playersLeft.size() == 1) && (currPlayer.getId().equals(playersLeft.get(0).getId()) || (action.getActionKind() == PlayerActionKind.FOLD)))) {
-            isBetRoundOver = true;
-        }
-
-        if (isBetRoundOver) {
+        // The round of bets is over once all of the players that can act have acted and matched the highest bet.
+        // If there is one player left in the round, he won. If there is one player left that can act, there is nobody
+        // to bet against, so we open the rest of the cards.
+        boolean isLastPlayerStanding = Integer.bitCount(betRound.getInSeats()) <= 1;
+        int playersLeft = Integer.bitCount(betRound.getActiveSeats());
+        if (betRound.isOver() || isLastPlayerStanding) {
             // If we opened a new card, clear last bet to start a new bet round.
             // When the river card is already opened we do not want to clear last bet, so we will be
             // able to recognize that the game has finished.
-            if ((playersLeft.size() > 1) && showNextCard()) {
+            if (!isLastPlayerStanding && (playersLeft > 1) && showNextCard()) {
                 pot.clearLastBet();
                 pot.clearPotsOfRound();
                 playerToHisLastAction.clear();
+                betRound.start(betRound.getInSeats(), betRound.getAllInSeats());
 
                 // Set dealer as the current player, so we will move to small blind player down below.
                 players.setCurrentPlayerIndex(dealer.getPosition());
@@ -407,6 +684,10 @@ public class GameEngine {
         if (playerToEarnings == null) {
             moveTurnForward();
         }
+
+        if (!isPostingBlinds) {
+            notifyPlayerActionExecuted(currPlayer, action, System.nanoTime() - startTime);
+        }
     }
 
     /**
@@ -433,32 +714,6 @@ public class GameEngine {
         return action;
     }
 
-    /**
-     * Use this method to find the player that raised the highest amount of chips.<br/>
-     * This is needed so we can know at which player we should stop a round of bets. Meaning that
-     * if current player calls, and the next player is the one who started a raise, then we should open
-     * a card and not let the next player raise again.<br/>
-     * We lookup for the highest because there might be re-raise operations.
-     * @return Player with highest raise, or null in case no one raised.
-     */
-    private Player findPlayerWithHighestRaise() {
-        Set<Player> involvedPlayers = players.getInvolvedPlayers();
-        Player highestRaise = null;
-        for (Player player : involvedPlayers) {
-            PlayerAction lastAction = playerToHisLastAction.get(player.getId());
-            if ((lastAction != null) && (lastAction.getActionKind() == PlayerActionKind.RAISE)) {
-                if ((highestRaise == null) || (pot.getPotOfPlayer(highestRaise) < pot.getPotOfPlayer(player))) {
-                    // Ignore the current player. We are looking for another player
-                    if (!player.equals(players.getCurrentPlayer())) {
-                        highestRaise = player;
-                    }
-                }
-            }
-        }
-
-        return highestRaise;
-    }
-
     /**
      * Validates that a player can run the specified player action
      *
@@ -484,14 +739,8 @@ public class GameEngine {
         if (pot.getLastBet() != null) {
             // We might get here with a CHECK after FOLD, though there could be a bet before the FOLD, hence fix this.
             if (action.getActionKind() == PlayerActionKind.CHECK) {
-                PlayerAction prevPlayerAction = playerToHisLastAction.get(player.getId());
-
-                // CHECK is ok when player raised last time we visited him. Otherwise, we need to fix it to CALL.
-                // In addition, cannot check in case there is a "future" player that raised over current player.
-                Player playerWithHighestRaise = findPlayerWithHighestRaise();
-                if ((prevPlayerAction == null) ||
-                    (prevPlayerAction.getActionKind() != PlayerActionKind.RAISE) ||
-                    (playerWithHighestRaise != null)) {
+                // CHECK is ok when player has already matched the highest bet. (e.g. big blind) Otherwise, we need to fix it to CALL.
+                if (pot.getPotOfPlayer(player) < betRound.getHighestBet()) {
                     action.setActionKind(PlayerActionKind.CALL);
                     action.setChips(pot.getLastBet());
                 }
@@ -513,12 +762,12 @@ public class GameEngine {
      * @return Whether a new card was opened or not
      */
     private boolean showNextCard() {
-        info(getId() + " - Showing next card.");
+        eventLog().debug("Showing next card", "game", gameHash);
         boolean isNewCardShown = false;
 
         // If no flop, open the flop
         if (!board.getFlop1().isPresent()) {
-            info(getId() + " - Showing flop.");
+            eventLog().debug("Showing flop", "game", gameHash);
             isNewCardShown = true;
             deck.dropCard();
             board.addCard(deck.popCard());
@@ -527,14 +776,14 @@ public class GameEngine {
         }
         // Else, if there is no turn yet, open turn
         else if (!board.hasTurn()) {
-            info(getId() + " - Showing turn.");
+            eventLog().debug("Showing turn", "game", gameHash);
             isNewCardShown = true;
             deck.dropCard();
             board.addCard(deck.popCard());
         }
         // Else, if there is no river yet, open river
         else if (!board.hasRiver()) {
-            info(getId() + " - Showing river.");
+            eventLog().debug("Showing river", "game", gameHash);
             isNewCardShown = true;
             deck.dropCard();
             board.addCard(deck.popCard());
@@ -550,12 +799,12 @@ public class GameEngine {
     private void applyWinIfNeeded() {
         // When there is a single active player, or we arrived to the dealer after River is shown, end the round.
         // Check also last bet cause if it is null, it means we have just shown a new card
-        Set<Player> involvedPlayers = players.getInvolvedPlayers();
-        int playersLeft = (int)involvedPlayers.stream().filter(player -> player.getChips().get() > 0).count();
+        int playingSeats = players.getPlayingSeats();
+        int playersLeft = Integer.bitCount(players.getActiveSeats());
         if ((playersLeft <= 1) || board.hasRiver()) {
             // In case there is more than single player in, but one player at most left with chips, make sure
             // we open all of the cards in a board.
-            if ((involvedPlayers.size() > 1) && (playersLeft <= 1)) {
+            if ((Integer.bitCount(playingSeats) > 1) && (playersLeft <= 1)) {
                 while (!board.hasRiver()) {
                     if (!showNextCard()) {
                         break;
@@ -566,9 +815,11 @@ public class GameEngine {
             // Sign that we are ready to restart a round, letting new players to join now
             gameState.set(GameState.RESTART);
 
-            info(getId() + " - Apply winning.");
-            playerToEarnings = pot.applyWinning(involvedPlayers, board);
-            info(getId() + " - The winners: " + playerToEarnings);
+            eventLog().debug("Apply winning", "game", gameHash);
+            long showdownStartTime = System.nanoTime();
+            playerToEarnings = pot.applyWinning(players.getInvolvedPlayers(), board);
+            long showdownNanos = System.nanoTime() - showdownStartTime;
+            eventLog().info("The winners", "game", gameHash, "winners", playerToEarnings);
 
             // Log winners and listener about changes in chips due to win
             playerToEarnings.forEach((playerId, earning) -> {
@@ -581,32 +832,63 @@ public class GameEngine {
                     .build());
             });
 
-            // Wait for 10 seconds in background before starting a new round.
-            // We wait so clients can draw winning indications
-            ExecutorService service = Executors.newSingleThreadExecutor(new CustomThreadFactory("RoundLauncher-" + getGameHash()));
-            service.submit(() -> {
-                try {
-                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
-                } catch (InterruptedException ignore) {
+            try {
+                listener.onShowdown(this, showdownNanos);
+            } catch (Exception e) {
+                eventLog().warn("Listener has failed handling showdown", e, "game", gameHash);
+            }
+
+            scheduleNextRound();
+        }
+    }
+
+    /**
+     * Wait for 10 seconds in background before starting a new round.<br/>
+     * We wait so clients can draw winning indications.
+     */
+    private void scheduleNextRound() {
+        ExecutorService service = Executors.newSingleThreadExecutor(new CustomThreadFactory("RoundLauncher-" + getGameHash()));
+        service.submit(() -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ignore) {
+            }
+
+            gameLock.lock();
+            try {
+                // Game might have been stopped or suspended while we were waiting. A suspended game continues after restore.
+                if (isSuspended || (gameState.get() != GameState.RESTART)) {
+                    return;
                 }
 
-                // Disconnect all players that have no chips to play with
-                players.getPlayers().stream().filter(p -> p.getChips().get() <= 0).forEach(this::removePlayer);
+                // Disconnect all players that have no chips to play with. Removing a player while walking the seats is safe.
+                players.forEachPlayer(player -> {
+                    if (player.getChips().get() <= 0) {
+                        removePlayer(player);
+                        listener.onPlayerDisconnected(player);
+                    }
+                });
 
-                if (players.getPlayers().size() <= 1) {
+                if (players.size() <= 1) {
                     playerToEarnings = null;
                     dealer = null;
                     gameState.set(GameState.READY);
+                    try {
+                        listener.onGameReady(this);
+                    } catch (Exception e) {
+                        eventLog().warn("Listener has failed handling game ready", e, "game", gameHash);
+                    }
                 } else {
                     // Move the dealer forward
                     dealer = players.getAvailablePlayer(players.indexOfPlayer(dealer) + 1);
                     players.setCurrentPlayerIndex(dealer.getPosition());
                     startRound();
                 }
-
+            } finally {
+                unlockAfterChange();
                 service.shutdown();
-            });
-        }
+            }
+        });
     }
 
     /**
@@ -619,7 +901,7 @@ public class GameEngine {
     private void startRound() {
         gameState.set(GameState.STARTED);
 
-        info(getId() + " - Starting new round");
+        eventLog().debug("Starting new round", "game", gameHash);
         playerToEarnings = null;
 
         // Make sure all players are marked as currently playing, as we are starting a new round.
@@ -639,17 +921,26 @@ public class GameEngine {
 
         // Current must to bet player is the one after the dealer. This player has to add small bet.
         pot.clear();
+        betRound.start(players.getPlayingSeats(), players.getAllInSeats());
         lastActionKind = new ArrayDeque<>();
         players.setCurrentPlayerIndex(players.indexOfPlayer(dealer) + 1);
         smallBlindPlayer = players.getCurrentPlayer();
-        executePlayerAction(smallBlindPlayer, PlayerAction.builder().name(smallBlindPlayer.getName()).actionKind(PlayerActionKind.RAISE).chips(new Chips(gameSettings.getSmallBet())).build());
-
-        // Move to next player and take big bet from it.
-        bigBlindPlayer = players.getCurrentPlayer();
-        executePlayerAction(bigBlindPlayer, PlayerAction.builder().name(bigBlindPlayer.getName()).actionKind(PlayerActionKind.RAISE).chips(new Chips(gameSettings.getBigBet())).build());
+        isPostingBlinds = true;
+        try {
+            executePlayerAction(smallBlindPlayer, PlayerAction.builder().name(smallBlindPlayer.getName()).actionKind(PlayerActionKind.RAISE).chips(new Chips(gameSettings.getSmallBet())).build());
+
+            // Move to next player and take big bet from it.
+            bigBlindPlayer = players.getCurrentPlayer();
+            executePlayerAction(bigBlindPlayer, PlayerAction.builder().name(bigBlindPlayer.getName()).actionKind(PlayerActionKind.RAISE).chips(new Chips(gameSettings.getBigBet())).build());
+        } finally {
+            isPostingBlinds = false;
+        }
 
         // Now the game is officially started and we are waiting for the next player to play.
         //moveTurnForward(); // executePlayerAction already moves turn forward
+        if (playerToEarnings == null) {
+            notifyPlayerTurn(players.getCurrentPlayer());
+        }
     }
 
     /**
@@ -659,7 +950,7 @@ public class GameEngine {
      * in a circle, until all players own 2 cards.
      */
     private void dealCards() {
-        players.getPlayers().forEach(p -> {
+        players.forEachPlayer(p -> {
             if (p.getHand() == null) {
                 p.setHand(new Hand());
             } else {
@@ -680,16 +971,52 @@ public class GameEngine {
     }
 
     /**
-     * A method used to move the turn from current player to the next playing one, and init the time started
+     * A method used to move the turn from current player to the next player that has to act, and init the time started
      * of this player, to count the time it takes for this player to start.
      */
     private void moveTurnForward() {
-        Player newPlayer = players.nextPlayer();
-        info(getId() + " - Moving turn to next player: " + newPlayer);
+        Player newPlayer;
+        int nextSeat = betRound.nextSeat(players.getCurrentPlayerIndex());
+        if ((nextSeat >= 0) && (players.getPlayer(nextSeat) != null)) {
+            players.setCurrentPlayerIndex(nextSeat);
+            newPlayer = players.getCurrentPlayer();
+        } else {
+            newPlayer = players.nextPlayer();
+        }
+
+        eventLog().debug("Moving turn to next player", "game", gameHash, "player", newPlayer);
 
         if (gameSettings.isNetwork()) {
             playerTurnTimer.startOrReset();
         }
+
+        if (!isPostingBlinds) {
+            notifyPlayerTurn(newPlayer);
+        }
+    }
+
+    /**
+     * Let the listener know that an action was executed, e.g. to measure it.
+     */
+    private void notifyPlayerActionExecuted(Player player, PlayerAction action, long durationNanos) {
+        try {
+            listener.onPlayerActionExecuted(this, player, action, durationNanos);
+        } catch (Exception e) {
+            eventLog().warn("Listener has failed handling action of player", e, "game", gameHash, "player", player);
+        }
+    }
+
+    /**
+     * Let the listener know that it is the turn of a player, e.g. so a bot can play its turn.
+     */
+    private void notifyPlayerTurn(Player player) {
+        if (player != null) {
+            try {
+                listener.onPlayerTurn(this, player);
+            } catch (Exception e) {
+                eventLog().warn("Listener has failed handling turn of player", e, "game", gameHash, "player", player);
+            }
+        }
     }
 
     /**
@@ -697,9 +1024,25 @@ public class GameEngine {
      * ran out of time. In this case, we force the current player to fold and move forward to next player.
      */
     private void onPlayerTurnTimeout() {
-        info(getId() + " - Player turn timeout occurred. [player=" + players.getCurrentPlayer() + "]");
-        executePlayerAction(players.getCurrentPlayer(),
-            PlayerAction.builder().name(players.getCurrentPlayer().getName()).actionKind(PlayerActionKind.FOLD).build());
+        gameLock.lock();
+        try {
+            // The player might have acted while we were waiting for the lock, in which case the turn timer was reset
+            if (isSuspended || !isActive() || (System.currentTimeMillis() - playerTurnTimer.getTurnStartTime() <= gameSettings.getTurnTime())) {
+                return;
+            }
+
+            eventLog().info("Player turn timeout occurred", "game", gameHash, "player", players.getCurrentPlayer());
+            try {
+                listener.onPlayerTurnTimeout(this, players.getCurrentPlayer());
+            } catch (Exception e) {
+                eventLog().warn("Listener has failed handling turn timeout", e, "game", gameHash);
+            }
+
+            applyPlayerAction(players.getCurrentPlayer(),
+                PlayerAction.builder().name(players.getCurrentPlayer().getName()).actionKind(PlayerActionKind.FOLD).build());
+        } finally {
+            unlockAfterChange();
+        }
     }
 
     /**
@@ -707,35 +1050,87 @@ public class GameEngine {
      * We will stop and if there are bets, we return them back to the players.
      */
     public void stop() {
-        // Do this in case game is not already stopped
-        if (gameState.compareAndSet(GameState.READY, GameState.STOPPED) ||
-            gameState.compareAndSet(GameState.STARTED, GameState.STOPPED) ||
-            gameState.compareAndSet(GameState.RESTART, GameState.STOPPED)) {
-            info(getId() + " - Stopping game.");
+        gameLock.lock();
+        try {
+            // Do this in case game is not already stopped
+            if (gameState.compareAndSet(GameState.READY, GameState.STOPPED) ||
+                gameState.compareAndSet(GameState.STARTED, GameState.STOPPED) ||
+                gameState.compareAndSet(GameState.RESTART, GameState.STOPPED)) {
+                eventLog().info("Stopping game", "game", gameHash);
+
+                gameState.set(GameState.STOPPED);
+
+                if (playerTurnTimer != null) {
+                    playerTurnTimer.stop();
+                }
 
-            gameState.set(GameState.STOPPED);
+                gameLog.clear();
+                players.clear();
+                chat.clear();
+                chat.getUsers().clear();
+                board.clear();
+                dealer = null;
+                lastActionKind = null;
 
-            if (playerTurnTimer != null) {
-                playerTurnTimer.stop();
+                // In case there are pots, return the chips back to their owners, and update listener about update of chips
+                pot.returnChips(notifier::notifyPlayerChipsUpdated);
+
+                // Let the notifier thread finish the updates above, and then free it
+                notifier.shutdown();
             }
+        } finally {
+            unlockAfterChange();
+        }
+    }
 
-            gameLog.clear();
-            players.clear();
-            chat.clear();
-            chat.getUsers().clear();
-            board.clear();
-            dealer = null;
-            lastActionKind = null;
+    /**
+     * Suspend this game before the server goes down, so it can be snapshot at a stable point and restored later.<br/>
+     * A suspended game rejects player actions, players joining and leaving, and its turn timer and next round are
+     * paused. Chips updates that were already queued are still delivered. See {@link #awaitPendingNotifications(long)}<br/>
+     * A suspended game cannot be resumed. Restore a new game out of its {@link #toSnapshot() snapshot} instead.
+     */
+    public void suspend() {
+        gameLock.lock();
+        try {
+            if (!isSuspended) {
+                eventLog().info("Suspending game", "game", gameHash);
+                isSuspended = true;
+
+                if (playerTurnTimer != null) {
+                    playerTurnTimer.stop();
+                }
 
-            // In case there are pots, return the chips back to their owners.
-            Map<Player, Long> pots = pot.getPlayerPots();
-            pots.forEach((player, chips) -> {
-                player.getChips().add(chips);
+                notifier.shutdown();
+            }
+        } finally {
+            gameLock.unlock();
+        }
+    }
 
-                // Update listener about update of chips
-                notifier.notifyPlayerChipsUpdated(player, chips);
-            });
-            pot.clear();
+    /**
+     * Wait for the chips updates of a {@link #suspend() suspended} or stopped game to be delivered to the listener.
+     * @param timeoutMillis How long to wait at most
+     * @return Whether all of the updates were delivered or not
+     * @throws InterruptedException In case we were interrupted while waiting
+     */
+    public boolean awaitPendingNotifications(long timeoutMillis) throws InterruptedException {
+        return notifier.awaitTermination(timeoutMillis);
+    }
+
+    /**
+     * Release the {@link #gameLock} after changing this game, and advance the {@link #stateVersion}
+     */
+    private void unlockAfterChange() {
+        stateVersion++;
+        gameLock.unlock();
+    }
+
+    /**
+     * Throw an exception in case this game was {@link #suspend() suspended}, to reject any change
+     */
+    private void ensureNotSuspended() {
+        if (isSuspended) {
+            throw new IllegalArgumentException("Game is suspended. Server is going down.");
         }
     }
 
@@ -748,6 +1143,14 @@ public class GameEngine {
         return gameState.get() == GameState.STARTED;
     }
 
+    /**
+     * @return Amount of chips updates that were not delivered to the {@link #listener} yet
+     */
+    @JsonIgnore
+    public int getPendingNotifications() {
+        return notifier == null ? 0 : notifier.getPendingUpdates();
+    }
+
     /**
      * @return Current {@link GameEngine.GameState game state}
      */
@@ -799,6 +1202,66 @@ public class GameEngine {
          * @param chips The chips value that was modified. Can be negative when player loses chips
          */
         void onPlayerChipsUpdated(Player player, long chips);
+
+        /**
+         * This event is raised whenever the game disconnects a player by itself, e.g. when player has no chips left.<br/>
+         * It is not raised for players that were removed using {@link GameEngine#removePlayer(Player)}.
+         * @param player The player that was disconnected
+         */
+        default void onPlayerDisconnected(Player player) {
+
+        }
+
+        /**
+         * This event is raised whenever the turn moves to a player, after the mandatory bets of a round were taken.<br/>
+         * It is raised from the thread that executed the previous action, so implementations must not block it, and
+         * must not execute the player's action from within this event.
+         * @param game The game in which it is the player's turn
+         * @param player The player whose turn it is
+         */
+        default void onPlayerTurn(GameEngine game, Player player) {
+
+        }
+
+        /**
+         * This event is raised after a player action was executed, not including the mandatory bets.<br/>
+         * It is raised from the thread that executed the action, so implementations must be fast, and must not block it.
+         * @param game The game in which the action was executed
+         * @param player The player that acted
+         * @param action The executed action
+         * @param durationNanos How long it took to execute the action, in nanoseconds
+         */
+        default void onPlayerActionExecuted(GameEngine game, Player player, PlayerAction action, long durationNanos) {
+
+        }
+
+        /**
+         * This event is raised when a round is over and the pot was shared among the winners.<br/>
+         * It is raised from the thread that executed the last action, so implementations must be fast, and must not block it.
+         * @param game The game in which the round is over
+         * @param evaluationNanos How long it took to evaluate the hands and share the pot, in nanoseconds
+         */
+        default void onShowdown(GameEngine game, long evaluationNanos) {
+
+        }
+
+        /**
+         * This event is raised when a player ran out of time, right before the player is forced to fold.
+         * @param game The game in which the turn timed out
+         * @param player The player that ran out of time
+         */
+        default void onPlayerTurnTimeout(GameEngine game, Player player) {
+
+        }
+
+        /**
+         * This event is raised when a round is over and there are not enough players to start the next one, so the game
+         * is back in {@link GameState#READY} state, waiting for players to join.
+         * @param game The game that waits for players
+         */
+        default void onGameReady(GameEngine game) {
+
+        }
     }
 
     /**
@@ -806,13 +1269,21 @@ public class GameEngine {
      * The listener might do IO operations that are not necessarily blocking.
      */
     private class PlayerUpdateNotifier {
-        private final ExecutorService executor;
+        private final ThreadPoolExecutor executor;
 
         /**
          * Constructs a new {@link PlayerUpdateNotifier}
          */
         public PlayerUpdateNotifier() {
-            executor = Executors.newSingleThreadExecutor(new CustomThreadFactory("PlayerUpdateNotifier-" + getGameHash()));
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new CustomThreadFactory("PlayerUpdateNotifier-" + getGameHash()));
+        }
+
+        /**
+         * @return Amount of updates waiting to be delivered
+         */
+        int getPendingUpdates() {
+            return executor.getQueue().size();
         }
 
         /**
@@ -821,7 +1292,26 @@ public class GameEngine {
          * @param chips The chips value that was modified. Can be negative when player loses chips
          */
         void notifyPlayerChipsUpdated(Player player, long chips) {
-            executor.submit(() -> listener.onPlayerChipsUpdated(player, chips));
+            try {
+                executor.submit(() -> listener.onPlayerChipsUpdated(player, chips));
+            } catch (RejectedExecutionException e) {
+                eventLog().info("Game is stopped. Ignoring chips update of player", "game", gameHash, "player", player);
+            }
+        }
+
+        /**
+         * Stop accepting updates. Updates that were already submitted are still delivered.
+         */
+        void shutdown() {
+            executor.shutdown();
+        }
+
+        /**
+         * Wait for the updates to be delivered, after a {@link #shutdown()}
+         * @return Whether all of the updates were delivered within the timeout
+         */
+        boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
         }
     }
 }
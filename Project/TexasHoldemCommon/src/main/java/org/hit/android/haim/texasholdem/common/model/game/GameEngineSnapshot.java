@@ -0,0 +1,111 @@
+package org.hit.android.haim.texasholdem.common.model.game;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerActionKind;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotLevel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A checkpoint of a {@link GameEngine}, containing everything we need in order to resume a game
+ * after a server restart.<br/>
+ * Unlike the json we return to clients, a snapshot contains the secrets of a game as well: the order
+ * of the deck, the hands of the players, the chat messages, and the time that was already spent by the current player.<br/>
+ * Use {@link GameEngine#toSnapshot()} to take a snapshot, and {@link GameEngine#GameEngine(GameEngineSnapshot, GameEngine.PlayerUpdateListener)}
+ * to restore a game out of it.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Data
+@NoArgsConstructor
+public class GameEngineSnapshot {
+    private int id;
+    private String gameHash;
+    private long timeCreated;
+    private GameEngine.GameState gameState;
+
+    /**
+     * Game settings are kept flat, since {@link org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings GameSettings}
+     * hides the creator and the network flag from json.
+     */
+    private long smallBet;
+    private long bigBet;
+    private long turnTime;
+    private String creatorId;
+    private boolean network;
+
+    /**
+     * Seats, where an empty seat refers to {@code null}
+     */
+    private PlayerSnapshot[] players;
+    private int currentPlayerIndex;
+    private int prevPlayerIndex;
+    private int maxAmountOfPlayers;
+
+    /**
+     * Positions of the dealer and blinds, or {@code -1} when there is no such player
+     */
+    private int dealerPosition = -1;
+    private int smallBlindPosition = -1;
+    private int bigBlindPosition = -1;
+
+    /**
+     * The remaining cards of the deck, in their exact order
+     */
+    private List<Card> deck;
+    private List<Card> board;
+
+    /**
+     * Pot of each player (by player identifier) for the whole round, and for the current round of bets
+     */
+    private Map<String, Long> pots;
+    private Map<String, Long> potsForRound;
+    private Long lastBet;
+
+    /**
+     * Last action kinds, ordered from the most recent one
+     */
+    private List<PlayerActionKind> lastActionKind;
+    private Map<String, PlayerAction> playerToHisLastAction;
+
+    /**
+     * State of the current round of bets. Might be {@code null} in snapshots that were taken by older versions.
+     */
+    private BetRound betRound;
+    private Map<String, Pot.PlayerWinning> playerToEarnings;
+    private GameLog gameLog;
+    private List<Message> chatMessages;
+
+    /**
+     * How much time the current player has already spent on his turn, so the turn deadline is kept after restore
+     */
+    private long turnElapsedMillis;
+
+    /**
+     * A snapshot of a single seated player, including his hand.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerSnapshot {
+        private String id;
+        private String name;
+        private long chips;
+        private boolean isPlaying;
+        private int position;
+        private List<Card> hand;
+
+        /**
+         * The level of a bot, so it is restored as a bot that keeps playing. {@code null} when the player is a user.
+         */
+        private BotLevel botLevel;
+    }
+}
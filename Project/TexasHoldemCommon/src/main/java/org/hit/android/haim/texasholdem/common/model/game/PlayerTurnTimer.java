@@ -85,6 +85,17 @@ public class PlayerTurnTimer {
         }
     }
 
+    /**
+     * Call this method when a game is restored in the middle of a turn.<br/>
+     * This will start counting as if the turn has started {@code elapsedMillis} ago, so a restore does not
+     * extend the deadline of current player.
+     * @param elapsedMillis How much time the current player has already spent on his turn
+     */
+    public void resume(long elapsedMillis) {
+        startOrReset();
+        turnStartedAt.set(System.currentTimeMillis() - Math.max(0, Math.min(elapsedMillis, timeoutMillis)));
+    }
+
     /**
      * Call this method to free resources. (Stop the timer)<br/>
      * Note that after calling this method you can still use this reference and call {@link #startOrReset()}.
@@ -9,27 +9,26 @@ import lombok.ToString;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Board;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This class responsible for managing in-game players access.<br/>
- * Players are sorted by insertion order, and backed-by a set to make sure a player
- * is not added twice.<br/>
+ * Players are kept in a fixed array of seats, in the order they are sitting around a table, and a bitmask
+ * of the occupied seats makes sure a player is not added twice.<br/>
+ * A table has a few seats only, so scanning the seats is cheaper than hashing, and the masks let the game
+ * count and walk its players without allocating anything. (See {@link #getOccupiedSeats()}, {@link #getPlayingSeats()},
+ * {@link #getAllInSeats()} and {@link #forEachPlayer(int, Consumer)})<br/>
+ * The masks are kept up to date when players join, leave, {@link #fold(Player) fold} or {@link #updateAllIn(Player) go all-in},
+ * so reading them is a field access, and the game tells the state of a round with a few bit operations.<br/>
  * In addition we maintain current playing player, so it is possible to get next player. (Turns)
  * @author Haim Adrian
  * @since 11-Jun-21
  */
-@ToString(exclude = {"players"})
+@ToString
 public class Players {
-    /**
-     * All of the players in a game, to back-by the ordered list of players,
-     * and make sure there can't be a situation where player is added twice.<br/>
-     * Implementation that supports add/remove/random access in O(1)
-     */
-    @JsonIgnore
-    private final Map<Player, Integer> players;
-
     /**
      * List of players, so we can iterate on, one by another, in the order they were added,
      * thus saving the same order as players are sitting around a table.
@@ -38,11 +37,23 @@ public class Players {
     private final Player[] playersArray;
 
     /**
-     * Keep a map of the identifiers of all players in a game.<br/>
-     * We keep that in a set to win the ability to check if a user is part of a game in O(1), by user identifier
+     * A bit for every seat at {@link #playersArray}, which is set when there is a player sitting at that seat.<br/>
+     * We do not serialize it, as it is derived from the array.
+     */
+    @JsonIgnore
+    private int occupiedSeats;
+
+    /**
+     * Seats of the players that are still in current round, including those who went all-in. ({@link Player#isPlaying()})
      */
     @JsonIgnore
-    private final Map<String, Player> playersById;
+    private int playingSeats;
+
+    /**
+     * Seats of the playing players that have no chips left. (All-in)
+     */
+    @JsonIgnore
+    private int allInSeats;
 
     /**
      * Index of the player we are waiting for, to finish its turn. (Current player)<br/>
@@ -72,24 +83,22 @@ public class Players {
     /**
      * Constructor for Jackson.
      */
-    // Define it explicitly so we will be able to fill in the maps according to the players in the array.
-    // Otherwise the maps will be empty. (Cause we ignore them in json, to reduce duplicities)
+    // Define it explicitly so we will be able to fill in the seat masks according to the players in the array.
+    // Otherwise the masks will be empty. (Cause we ignore them in json, to reduce duplicities)
     @JsonCreator
     public Players(@JsonProperty("playersArray") Player[] playersArray,
                    @JsonProperty("currentPlayerIndex") int currentPlayerIndex,
                    @JsonProperty("prevPlayerIndex") int prevPlayerIndex,
                    @JsonProperty("maxAmountOfPlayers") int maxAmountOfPlayers) {
+        validateSeats(playersArray.length);
         this.playersArray = playersArray;
         this.currentPlayerIndex = currentPlayerIndex;
         this.prevPlayerIndex = prevPlayerIndex;
         this.maxAmountOfPlayers = maxAmountOfPlayers;
-        players = new HashMap<>();
-        playersById = new HashMap<>();
 
         for (int i = 0; i < playersArray.length; i++) {
             if (playersArray[i] != null) {
-                players.put(playersArray[i], i);
-                playersById.put(playersArray[i].getId(), playersArray[i]);
+                occupySeat(playersArray[i], i);
             }
         }
     }
@@ -99,10 +108,15 @@ public class Players {
      * @param maxAmountOfPlayers How many players can be added
      */
     public Players(int maxAmountOfPlayers) {
+        validateSeats(maxAmountOfPlayers);
         this.maxAmountOfPlayers = maxAmountOfPlayers;
-        players = new HashMap<>();
         playersArray = new Player[maxAmountOfPlayers];
-        playersById = new HashMap<>();
+    }
+
+    private static void validateSeats(int seats) {
+        if (seats > Integer.SIZE) {
+            throw new IllegalArgumentException("A table can have " + Integer.SIZE + " seats at most. Was: " + seats);
+        }
     }
 
     /**
@@ -114,9 +128,9 @@ public class Players {
      * @throws IllegalArgumentException In case player is already part of the game
      */
     public void addPlayer(Player player) throws IllegalArgumentException {
-        if (players.containsKey(player)) {
+        if (indexOfPlayer(player) >= 0) {
             throw new IllegalArgumentException("Player " + player + " is already part of the game");
-        } else if (players.size() == maxAmountOfPlayers) {
+        } else if (size() == maxAmountOfPlayers) {
             throw new IllegalArgumentException("Full. There are already " + maxAmountOfPlayers + " players");
         } else {
             int playerIndex = player.getPosition();
@@ -124,11 +138,24 @@ public class Players {
                 playerIndex = (playerIndex + 1) % maxAmountOfPlayers;
             }
 
-            // Put the player and map it to its index (position)
+            // Put the player and occupy its seat (position)
             player.setPosition(playerIndex);
-            players.put(player, playerIndex);
             playersArray[playerIndex] = player;
-            playersById.put(player.getId(), player);
+            occupySeat(player, playerIndex);
+        }
+    }
+
+    /**
+     * Set the bits of a seat in the masks, based on the player sitting at that seat
+     */
+    private void occupySeat(Player player, int seat) {
+        int seatBit = 1 << seat;
+        occupiedSeats |= seatBit;
+        if (player.isPlaying()) {
+            playingSeats |= seatBit;
+            if (player.getChips().get() == 0) {
+                allInSeats |= seatBit;
+            }
         }
     }
 
@@ -140,7 +167,7 @@ public class Players {
      */
     public Player getPlayer(int playerIndex) throws IndexOutOfBoundsException {
         if (playerIndex < 0) {
-            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + players.size() + ")");
+            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + size() + ")");
         }
 
         return playersArray[playerIndex % playersArray.length];
@@ -156,7 +183,7 @@ public class Players {
      */
     public Player getAvailablePlayer(int playerIndex) throws IndexOutOfBoundsException {
         if (playerIndex < 0) {
-            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + players.size() + ")");
+            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + size() + ")");
         }
 
         Player result;
@@ -177,7 +204,7 @@ public class Players {
      */
     public Player getAvailablePlayingPlayer(int playerIndex) throws IndexOutOfBoundsException {
         if (playerIndex < 0) {
-            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + players.size() + ")");
+            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + size() + ")");
         }
 
         Player result = null;
@@ -199,7 +226,7 @@ public class Players {
      */
     public Player getAvailablePlayingPlayerReversed(int playerIndex) throws IndexOutOfBoundsException {
         if (playerIndex < 0) {
-            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + players.size() + ")");
+            throw new IndexOutOfBoundsException("There is no player at: " + playerIndex + ". Try: [0, " + size() + ")");
         }
 
         Player result;
@@ -214,14 +241,16 @@ public class Players {
     }
 
     /**
-     * Add a player to this game.
-     * @param player The player to add
+     * Remove a player from this game.
+     * @param player The player to remove
      */
     public void removePlayer(Player player) {
-        if (players.containsKey(player)) {
-            int index = players.remove(player);
+        int index = indexOfPlayer(player);
+        if (index >= 0) {
             playersArray[index] = null;
-            playersById.remove(player.getId());
+            occupiedSeats &= ~(1 << index);
+            playingSeats &= ~(1 << index);
+            allInSeats &= ~(1 << index);
 
             // In case we remove the current player, update the index to the next player.
             if (currentPlayerIndex == index) {
@@ -235,7 +264,24 @@ public class Players {
      * @return The index of a specified player, or {@code -1} in case player does not exist
      */
     public int indexOfPlayer(Player player) {
-        return players.getOrDefault(player, -1);
+        if (player == null) {
+            return -1;
+        }
+
+        // Position of a player is its seat, so usually there is no need to scan
+        int position = player.getPosition();
+        if ((position >= 0) && (position < playersArray.length) && player.equals(playersArray[position])) {
+            return position;
+        }
+
+        for (int seats = occupiedSeats; seats != 0; seats &= (seats - 1)) {
+            int seat = Integer.numberOfTrailingZeros(seats);
+            if (player.equals(playersArray[seat])) {
+                return seat;
+            }
+        }
+
+        return -1;
     }
 
     /**
@@ -244,7 +290,16 @@ public class Players {
      * @return A player or {@code null} in case this user is not one of the players
      */
     public Player getPlayerById(String playerId) {
-        return playersById.get(playerId);
+        if (playerId != null) {
+            for (int seats = occupiedSeats; seats != 0; seats &= (seats - 1)) {
+                Player player = playersArray[Integer.numberOfTrailingZeros(seats)];
+                if ((player != null) && playerId.equals(player.getId())) {
+                    return player;
+                }
+            }
+        }
+
+        return null;
     }
 
     /**
@@ -284,23 +339,109 @@ public class Players {
      * @return How many players there are
      */
     public int size() {
-        return players.size();
+        return Integer.bitCount(occupiedSeats);
     }
 
     /**
-     * @return A new set containing the players in this holder
+     * @return A new set containing the players in this holder. Prefer {@link #forEachPlayer(Consumer)} when there is
+     * no need to keep the players.
      */
     @JsonIgnore
     public Set<Player> getPlayers() {
-        return new HashSet<>(players.keySet());
+        Set<Player> result = new HashSet<>(size() * 2);
+        forEachPlayer(result::add);
+        return result;
+    }
+
+    /**
+     * A bit for every occupied seat. e.g. {@code 0b101} means there are two players, at seats 0 and 2.
+     * @return The occupied seats
+     */
+    @JsonIgnore
+    public int getOccupiedSeats() {
+        return occupiedSeats;
+    }
+
+    /**
+     * Seats of the players that are still in current round, including those who went all-in. ({@link Player#isPlaying()})
+     * @return The playing seats
+     */
+    @JsonIgnore
+    public int getPlayingSeats() {
+        return playingSeats;
+    }
+
+    /**
+     * @return Seats of the playing players that have no chips left. (All-in)
+     */
+    @JsonIgnore
+    public int getAllInSeats() {
+        return allInSeats;
+    }
+
+    /**
+     * @return Seats of the playing players that still have chips, which are the players that can still act in current round.
+     */
+    @JsonIgnore
+    public int getActiveSeats() {
+        return playingSeats & ~allInSeats;
+    }
+
+    /**
+     * Take a player out of current round. Use this rather than {@link Player#setPlaying(boolean)}, so the playing
+     * seats are kept up to date.
+     * @param player The player who folds
+     */
+    public void fold(Player player) {
+        player.setPlaying(false);
+        int seat = indexOfPlayer(player);
+        if (seat >= 0) {
+            playingSeats &= ~(1 << seat);
+            allInSeats &= ~(1 << seat);
+        }
+    }
+
+    /**
+     * Call this after a player has bet, to mark the player as all-in in case he has no chips left
+     * @param player The player who bet
+     */
+    public void updateAllIn(Player player) {
+        int seat = indexOfPlayer(player);
+        if ((seat >= 0) && player.isPlaying() && (player.getChips().get() == 0)) {
+            allInSeats |= (1 << seat);
+        }
+    }
+
+    /**
+     * Run an action on every player, by seat order
+     * @param action The action to run
+     */
+    public void forEachPlayer(Consumer<? super Player> action) {
+        forEachPlayer(occupiedSeats, action);
+    }
+
+    /**
+     * Run an action on the players sitting at the specified seats, by seat order.<br/>
+     * Seats that got empty in the meantime are skipped, so it is safe to remove players while iterating.
+     * @param seats A mask of seats. See {@link #getOccupiedSeats()}, {@link #getPlayingSeats()}, {@link #getActiveSeats()}
+     * @param action The action to run
+     */
+    public void forEachPlayer(int seats, Consumer<? super Player> action) {
+        for (; seats != 0; seats &= (seats - 1)) {
+            Player player = playersArray[Integer.numberOfTrailingZeros(seats)];
+            if (player != null) {
+                action.accept(player);
+            }
+        }
     }
 
     /**
      * Remove all players from this reference
      */
     public void clear() {
-        players.clear();
-        playersById.clear();
+        occupiedSeats = 0;
+        playingSeats = 0;
+        allInSeats = 0;
         Arrays.fill(playersArray, null);
     }
 
@@ -336,12 +477,16 @@ public class Players {
     }
 
     /**
-     * Use this method at the end of a round, to collect all players that are in. ({@link Player#isPlaying()}
-     * @return A set of involved players, to send to {@link Pot#applyWinning(Set, Board)}
+     * Use this method at the end of a round, to collect all players that are in. ({@link Player#isPlaying()}<br/>
+     * To count the involved players, use {@link #getPlayingSeats()} instead.
+     * @return A new set of involved players, to send to {@link Pot#applyWinning(Set, Board)}
      */
     @JsonIgnore
     public Set<Player> getInvolvedPlayers() {
-        return players.keySet().stream().filter(Player::isPlaying).collect(Collectors.toSet());
+        int playingSeats = getPlayingSeats();
+        Set<Player> result = new HashSet<>(Integer.bitCount(playingSeats) * 2);
+        forEachPlayer(playingSeats, result::add);
+        return result;
     }
 
     /**
@@ -349,7 +494,15 @@ public class Players {
      * Use this method whenever a round is started, to mark all of the players as currently playing.
      */
     public void markAllPlayersAsPlaying() {
-        players.keySet().forEach(player -> player.setPlaying(true));
+        playingSeats = occupiedSeats;
+        allInSeats = 0;
+        for (int seats = occupiedSeats; seats != 0; seats &= (seats - 1)) {
+            int seat = Integer.numberOfTrailingZeros(seats);
+            playersArray[seat].setPlaying(true);
+            if (playersArray[seat].getChips().get() == 0) {
+                allInSeats |= (1 << seat);
+            }
+        }
     }
 }
 
@@ -2,8 +2,6 @@ package org.hit.android.haim.texasholdem.common.model.game;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -12,9 +10,9 @@ import org.hit.android.haim.texasholdem.common.model.bean.game.Board;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculator;
 import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculatorResult;
-import org.hit.android.haim.texasholdem.common.util.Pair;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -23,28 +21,40 @@ import java.util.stream.Collectors;
  * went all-in, but other players want to keep raising more than the all-in of another player.<br/>
  * In this scenario, there will be a pot with the all-in of that player, and any other raise, more than the all-in,
  * will be managed in a side pot.<br/>
+ * Side pots are kept as {@link PotLayer layers}, which are updated as bets arrive, so when a round is over we can share
+ * the pot in a single pass over the layers.<br/>
  * As part of it, we must be aware of the players in this class.
  * @author Haim Adrian
  * @since 12-Jun-21
  */
 public class Pot {
     /**
-     * Map between pot to a set of contributing players.<br/>
-     * This allows us to create side pots when there is a player that went all-int, and other players continue raising.
+     * Map between player identifier to the total amount of chips the player has put during a round.
      */
-    @JsonSerialize(keyUsing = Player.PlayerKeySerializer.class)
-    @JsonDeserialize(keyUsing = Player.PlayerKeyDeserializer.class)
     @JsonProperty
-    private final Map<Player, HandPot> pots = new HashMap<>();
+    private final Map<String, Long> pots = new HashMap<>();
 
     /**
      * Keep pots of players for a round of bets, so we can know the total bet of a player per round, and also
      * get the ability to equal a bet when player that already paid is calling.
      */
-    @JsonSerialize(keyUsing = Player.PlayerKeySerializer.class)
-    @JsonDeserialize(keyUsing = Player.PlayerKeyDeserializer.class)
     @JsonProperty
-    private final Map<Player, HandPot> potsForRound = new HashMap<>();
+    private final Map<String, Long> potsForRound = new HashMap<>();
+
+    /**
+     * The pot, split into layers by the all-in amounts of players. First layer is the main pot, and the others are side pots.<br/>
+     * The last layer has no upper bound, and it holds the chips that are over the highest all-in.
+     * @see PotLayer
+     */
+    @JsonProperty
+    private final List<PotLayer> layers = new ArrayList<>(Collections.singletonList(new PotLayer()));
+
+    /**
+     * The players that have put chips in the pot, by their identifier, so we can return chips to them.<br/>
+     * This is the state of the server. It is not part of the json, so a deserialized pot exposes player identifiers only.
+     */
+    @JsonIgnore
+    private final Map<String, Player> contributors = new HashMap<>();
 
     /**
      * A reference to the last bet, to make sure a new bet is legal and not below it.<br/>
@@ -54,13 +64,84 @@ public class Pot {
     private Long lastBet;
 
     /**
-     * This method is exposed so we can use it from {@link GameEngine#stop()}, to make sure we do not stop
-     * a game and lose chips. When there are pots and a game is stopped, the chips are returned to the players.
-     * @return A copy of all player pots
+     * Exposed for {@link GameEngine#toSnapshot()}, so we can checkpoint the bets of a round.
+     * @return A copy of all player pots, by player identifier
+     */
+    @JsonIgnore
+    public Map<String, Long> getPlayerPots() {
+        return new HashMap<>(pots);
+    }
+
+    /**
+     * Exposed for {@link GameEngine#toSnapshot()}, so we can checkpoint the bets of the current round of bets as well.
+     * @return A copy of all player pots of the current round of bets, by player identifier
+     */
+    @JsonIgnore
+    public Map<String, Long> getPlayerPotsOfRound() {
+        return new HashMap<>(potsForRound);
+    }
+
+    /**
+     * @return A copy of the main pot and side pots, ordered from the main pot. See {@link PotLayer}
+     */
+    public List<PotLayer> copyLayers() {
+        return layers.stream().map(PotLayer::new).collect(Collectors.toList());
+    }
+
+    /**
+     * The amounts of the main pot and of the side pots that have chips, ordered from the main pot.<br/>
+     * Layers are kept after the pot is shared, so clients use this to show the main pot and side pots at showdown.
+     * @return Amount of chips in every pot
      */
     @JsonIgnore
-    public Map<Player, Long> getPlayerPots() {
-        return pots.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getSum()));
+    public List<Long> getPotSums() {
+        return layers.stream().map(PotLayer::getSum).filter(sum -> sum > 0).collect(Collectors.toList());
+    }
+
+    /**
+     * Return the chips in the pot to the players who put them, and clear the pot.<br/>
+     * This method is exposed so we can use it from {@link GameEngine#stop()}, to make sure we do not stop a game and lose chips.
+     * @param onReturned Called for every player that got chips back, with the amount of chips
+     */
+    public void returnChips(BiConsumer<Player, Long> onReturned) {
+        pots.forEach((playerId, chips) -> {
+            Player player = contributors.get(playerId);
+            if (player != null) {
+                player.getChips().add(chips);
+                onReturned.accept(player, chips);
+            }
+        });
+
+        clear();
+    }
+
+    /**
+     * Put back the pots of a player, as they were when a snapshot was taken.<br/>
+     * This is used when restoring a game, see {@link GameEngine#GameEngine(GameEngineSnapshot, GameEngine.PlayerUpdateListener)}
+     * @param player The player to restore his pots
+     * @param sum Total amount of chips the player has put during a round
+     * @param sumOfRound Amount of chips the player has put during the current round of bets
+     */
+    public void restorePotOfPlayer(Player player, long sum, long sumOfRound) {
+        if (sum > 0) {
+            contributors.put(player.getId(), player);
+            pots.merge(player.getId(), sum, Long::sum);
+        }
+
+        if (sumOfRound > 0) {
+            contributors.put(player.getId(), player);
+            potsForRound.merge(player.getId(), sumOfRound, Long::sum);
+        }
+
+        rebuildLayers();
+    }
+
+    /**
+     * Put back the last bet, as it was when a snapshot was taken.
+     * @param lastBet The last bet to restore. Can be {@code null}
+     */
+    public void restoreLastBet(Long lastBet) {
+        this.lastBet = lastBet;
     }
 
     /**
@@ -86,8 +167,15 @@ public class Pot {
         long delta = validatedAmount - getPotOfPlayer(player);
         player.getChips().remove(delta);
 
-        pots.computeIfAbsent(player, p -> new HandPot()).add(delta);
-        potsForRound.computeIfAbsent(player, p -> new HandPot()).add(delta);
+        long potBefore = pots.getOrDefault(player.getId(), 0L);
+        contributors.put(player.getId(), player);
+        pots.put(player.getId(), potBefore + delta);
+        potsForRound.merge(player.getId(), delta, Long::sum);
+
+        addToLayers(player.getId(), potBefore, potBefore + delta);
+        if (player.getChips().get() == 0) {
+            splitLayerAt(potBefore + delta);
+        }
 
         return delta;
     }
@@ -98,11 +186,7 @@ public class Pot {
      * @return How many chips the specified player put. Can be 0.
      */
     public long getPotOfPlayer(Player player) {
-        if (!potsForRound.containsKey(player)) {
-            return 0;
-        }
-
-        return potsForRound.get(player).sum;
+        return potsForRound.getOrDefault(player.getId(), 0L);
     }
 
     /**
@@ -124,139 +208,158 @@ public class Pot {
      */
     public void clear() {
         pots.clear();
+        contributors.clear();
+        layers.clear();
+        layers.add(new PotLayer());
         clearPotsOfRound();
         clearLastBet();
     }
 
     /**
      * Use this method when a round is over, and we need to share the pot among winning players.<br/>
-     * Note that not all of the money will get to the best hand, as it might be that the best hand belongs to a player
-     * that went all-in, and there is some dead money in the pot, of players that bet after the winner who went all-in.
-     * In this case, the "dead" money will be split between the other involved winners.
+     * Every layer goes to the best hands among the involved players that have put chips in that layer. This way a player
+     * that went all-in can win the chips that every player has matched, but not the chips that were bet over his all-in.
+     * Chips of a layer that no involved player has put chips in (e.g. players that bet and then folded) go to the winners
+     * of the layer below.<br/>
+     * After sharing the pot, the layers are kept with their winners, so clients can show the main pot and side pots,
+     * until the pot is {@link #clear() cleared}.
      * @param involvedPlayers See {@link Players#getInvolvedPlayers()}
      * @param board The {@link Board}, to find winning hands.
      * @return A map between a winner and {@link PlayerWinning} reference holding the amount of chips and hand rank.
      */
     public Map<String, PlayerWinning> applyWinning(Set<Player> involvedPlayers, Board board) {
-        Map<Player, PlayerWinning> result = new HashMap<>();
+        Map<String, PlayerWinning> result = new HashMap<>();
 
-        // Use a tree map so we will sort the map based on keys (ranks)
-        // We use a reverse order comparator, so the best rank will be first.
-        Map<HandRankCalculatorResult, Set<Player>> rankToPlayers = new TreeMap<>(Comparator.reverseOrder());
+        // Rank the hands once, best hand first. Players of the same rank are ordered by their seat.
+        List<RankedPlayer> rankedPlayers = new ArrayList<>(involvedPlayers.size());
         for (Player player : involvedPlayers) {
-            HandRankCalculatorResult rank = HandRankCalculator.calculate(board, player.getHand());
-            rankToPlayers.computeIfAbsent(rank, r -> new HashSet<>()).add(player);
+            rankedPlayers.add(new RankedPlayer(player, HandRankCalculator.calculate(board, player.getHand())));
         }
+        rankedPlayers.sort(Comparator.comparing((RankedPlayer rankedPlayer) -> rankedPlayer.rank).reversed()
+            .thenComparingInt(rankedPlayer -> rankedPlayer.player.getPosition()));
+
+        List<RankedPlayer> prevWinners = Collections.emptyList();
+        for (PotLayer layer : layers) {
+            List<RankedPlayer> winners = findWinners(layer, rankedPlayers);
+            if (winners.isEmpty()) {
+                winners = prevWinners;
+            }
 
-        for (Map.Entry<HandRankCalculatorResult, Set<Player>> currRankToPlayers : rankToPlayers.entrySet()) {
-            Set<Player> winners = currRankToPlayers.getValue();
-
-            // Keep spreading pots until we handle all winning players.
-            while (!winners.isEmpty()) {
-                // Get the minimum sum based on winners, to take this part out from pots, and share among winners.
-                long minSum = findMinSumBasedOnWinnersBet(winners);
-                Pair<Long, Long> winShareAndRemainder = calculateWinAndRemainder(winners.size(), minSum);
-                Player firstWinner = winners.iterator().next();
-
-                // Now iterate over all winners to share the pots among them.
-                sharePotsAmongWinners(result, winners, winShareAndRemainder.getFirst(), currRankToPlayers.getKey());
-
-                // Now add the remainder to the first player
-                if (firstWinner != null) {
-                    firstWinner.getChips().add(winShareAndRemainder.getSecond());
-                    result.get(firstWinner).sum += winShareAndRemainder.getSecond();
+            if ((layer.sum > 0) && !winners.isEmpty()) {
+                long share = layer.sum / winners.size();
+                long remainder = layer.sum % winners.size();
+                for (RankedPlayer winner : winners) {
+                    // The remainder goes to the first winner
+                    long winning = share + remainder;
+                    remainder = 0;
+
+                    winner.player.getChips().add(winning);
+                    result.computeIfAbsent(winner.player.getId(), id -> new PlayerWinning(0L, winner.rank)).sum += winning;
+                    layer.winnerIds.add(winner.player.getId());
                 }
             }
 
-            // If all pots have been drained, there is no reason to continue.
-            // We continue iterating when there is "dead money".
-            if (pots.isEmpty()) {
-                break;
-            }
+            prevWinners = winners;
         }
 
         // Clear the pots for next round
         pots.clear();
+        contributors.clear();
 
-        return result.entrySet().stream().collect(Collectors.toMap(ent -> ent.getKey().getId(), Map.Entry::getValue));
+        return result;
     }
 
     /**
-     * A method to give for each winner the amount of chips he deserves.<br/>
-     * The amount of winning chips is calculated at {@link #calculateWinAndRemainder(int, long)}, and we
-     * just iterate over all winners and assign for each winner the amount of chips he deserves.<br/>
-     * The method will remove a winner from {@code winners}, in case it was fully handled (meaning its pot
-     * has drained and the player has already received all the chips he deserves)
-     * @param winnerToWinSum How many chips each player earned.
-     * @param winners Set of winners to go over and share the pots among them.
-     * @param winningSum To know how many chips each winner deserves
-     * @param handRank The hand rank of a winner, to save it to the value we put in {@code winnerToWinSum}
+     * Find the best hands out of the involved players that have put chips in a layer.
+     * @param layer The layer to find winners of
+     * @param rankedPlayers Involved players, ordered from the best hand
+     * @return The winners. Several winners in case of a draw, or none when no involved player has put chips in this layer.
      */
-    private void sharePotsAmongWinners(Map<Player, PlayerWinning> winnerToWinSum, Set<Player> winners, long winningSum, HandRankCalculatorResult handRank) {
-        for (Iterator<Player> winnerIter = winners.iterator(); winnerIter.hasNext();) {
-            Player winner = winnerIter.next();
-
-            // If current player's pot has been drained, it means we've finished handling this player, hence
-            // we remove him.
-            if (pots.get(winner) == null) {
-                winnerIter.remove();
+    private static List<RankedPlayer> findWinners(PotLayer layer, List<RankedPlayer> rankedPlayers) {
+        List<RankedPlayer> winners = new ArrayList<>();
+        for (RankedPlayer rankedPlayer : rankedPlayers) {
+            if (layer.playerIds.contains(rankedPlayer.player.getId())) {
+                if (winners.isEmpty() || (rankedPlayer.rank.compareTo(winners.get(0).rank) == 0)) {
+                    winners.add(rankedPlayer);
+                } else {
+                    // Players are ordered by rank, so the rest are worse
+                    break;
+                }
             }
+        }
 
-            // Add the chips to the winner
-            winner.getChips().add(winningSum);
-            if (!winnerToWinSum.containsKey(winner)) {
-                winnerToWinSum.put(winner, new PlayerWinning(0L, handRank));
+        return winners;
+    }
+
+    /**
+     * Add the chips of a player to the layers they fall in.
+     * @param playerId Identifier of the betting player
+     * @param from Total amount the player has put before this bet
+     * @param to Total amount the player has put after this bet
+     */
+    private void addToLayers(String playerId, long from, long to) {
+        long layerStart = 0;
+        for (PotLayer layer : layers) {
+            long overlap = Math.min(to, layer.cap) - Math.max(from, layerStart);
+            if (overlap > 0) {
+                layer.sum += overlap;
+                layer.playerIds.add(playerId);
             }
 
-            // Add the winning amount to the total amount of current winner.
-            // It might be that there will be several iterations, hence we aggregate.
-            winnerToWinSum.get(winner).sum += winningSum;
+            layerStart = layer.cap;
+            if (layerStart >= to) {
+                break;
+            }
         }
     }
 
     /**
-     * This method will go over the pots of the winners, to find the minimum sum, such
-     * that we can make a pot out of that sum to share among the winners.<br/>
-     * This is how we handle "dead money". (The "dead money" will stay in {@link #pots})
-     * @param winners Set of players to find minimum sum of
-     * @return The minimum sum
+     * When a player goes all-in, the layer his all-in falls in is split in two, so the chips over his all-in
+     * are kept in a side pot he cannot win.
+     * @param cap Total amount of chips the player has put
      */
-    private long findMinSumBasedOnWinnersBet(Set<Player> winners) {
-        long minSum = Long.MAX_VALUE;
-        for (Player currWinner : winners) {
-            long sum = pots.get(currWinner).getSum();
-            if (sum < minSum) {
-                minSum = sum;
+    private void splitLayerAt(long cap) {
+        long layerStart = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            PotLayer layer = layers.get(i);
+            if (cap == layer.cap) {
+                return;
             }
-        }
 
-        return minSum;
+            if (cap < layer.cap) {
+                PotLayer lower = new PotLayer();
+                lower.cap = cap;
+                for (Map.Entry<String, Long> pot : pots.entrySet()) {
+                    long inLayer = Math.min(pot.getValue(), cap) - layerStart;
+                    if (inLayer > 0) {
+                        lower.sum += inLayer;
+                        lower.playerIds.add(pot.getKey());
+                    }
+                }
+
+                layer.sum -= lower.sum;
+                layer.playerIds.removeIf(playerId -> pots.getOrDefault(playerId, 0L) <= cap);
+                layers.add(i, lower);
+                return;
+            }
+
+            layerStart = layer.cap;
+        }
     }
 
     /**
-     * This method calculates how many chips each winner earns, and the remainder, out of all pots.<br/>
-     * We take the amount of the specified {@code sumToTakeFromPots} out of all {@link #pots}, and then calculate
-     * the winning sum (totalSum / winners.size()), and the remainder.
-     * @param amountOfWinners Amount of winners to calculate how many chips each winner earns
-     * @param sumToTakeFromPots The amount of chips to take from each pot
-     * @return Pair(win, remainder)
+     * Build the layers out of {@link #pots}. The layers are split by the pots of players that have no chips left.
      */
-    private Pair<Long, Long> calculateWinAndRemainder(int amountOfWinners, long sumToTakeFromPots) {
-        long allPots = 0;
-        for (Iterator<Map.Entry<Player, HandPot>> potsIterator = pots.entrySet().iterator(); potsIterator.hasNext();) {
-            Map.Entry<Player, HandPot> currPot = potsIterator.next();
-            allPots += currPot.getValue().takeSum(sumToTakeFromPots);
-
-            // If current pot has drained, remove it.
-            // We remove drained pots so we will know when to stop the main applyWinnings loop.
-            if (currPot.getValue().getSum() == 0) {
-                potsIterator.remove();
+    private void rebuildLayers() {
+        layers.clear();
+        layers.add(new PotLayer());
+        pots.forEach((playerId, sum) -> addToLayers(playerId, 0, sum));
+        pots.forEach((playerId, sum) -> {
+            Player player = contributors.get(playerId);
+            if ((player != null) && (player.getChips().get() == 0)) {
+                splitLayerAt(sum);
             }
-        }
-
-        long win = allPots / amountOfWinners;
-        long remainder = allPots % amountOfWinners;
-        return Pair.of(win, remainder);
+        });
     }
 
     @JsonIgnore
@@ -265,40 +368,54 @@ public class Pot {
             return 0;
         }
 
-        return pots.values().stream().mapToLong(HandPot::getSum).sum();
+        return pots.values().stream().mapToLong(Long::longValue).sum();
     }
 
     /**
-     * Reference to a single pot.<br/>
-     * Usually there is one pot, but there might be more when players are out of chips.
+     * A layer of the pot. The first layer is the main pot, and the rest are side pots.<br/>
+     * A layer holds the chips that players have put between the cap of the previous layer and its own cap. Only the players
+     * that have put chips in a layer can win it.
      */
     @Data
-    private static class HandPot {
-        private long sum = 0;
+    @NoArgsConstructor
+    public static class PotLayer {
+        /**
+         * Total amount of chips a player has to put in order to fill this layer. {@link Long#MAX_VALUE} for the last layer.
+         */
+        private long cap = Long.MAX_VALUE;
 
-        public void add(long amount) {
-            sum += amount;
-        }
+        /**
+         * Amount of chips in this layer
+         */
+        private long sum;
 
         /**
-         * Remove an amount out of sum and return it.<br/>
-         * This method is used when we take chips for a winning player, and we allow
-         * defining an upper bound to make sure we do not give a player more than he bet.
-         * @param upperBound The bound to set
-         * @return the sum, considering upper bound.
+         * Identifiers of the players that have put chips in this layer
          */
-        public long takeSum(long upperBound) {
-            long result = Math.min(sum, upperBound);
-            if (upperBound >= sum) {
-                sum = 0;
-            } else {
-                sum -= upperBound;
-            }
+        private Set<String> playerIds = new LinkedHashSet<>();
+
+        /**
+         * Identifiers of the players that won this layer. Empty until the round is over.
+         */
+        private Set<String> winnerIds = new LinkedHashSet<>();
 
-            return result;
+        PotLayer(PotLayer other) {
+            cap = other.cap;
+            sum = other.sum;
+            playerIds = new LinkedHashSet<>(other.playerIds);
+            winnerIds = new LinkedHashSet<>(other.winnerIds);
         }
     }
 
+    /**
+     * A player and the rank of his hand, used when sharing the pot
+     */
+    @AllArgsConstructor
+    private static class RankedPlayer {
+        final Player player;
+        final HandRankCalculatorResult rank;
+    }
+
     /**
      * A class to hold how many chips a player earns, and what his hand rank is.<br/>
      * The hand rank is needed so we will be able to show what hand a winner had.
@@ -0,0 +1,171 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import lombok.Builder;
+import lombok.Data;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerActionKind;
+import org.hit.android.haim.texasholdem.common.model.game.Chips;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.Pot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a bot can see when it is its turn to play.<br/>
+ * The context is a copy of the public state of a game and the bot's own hand, so a {@link BotStrategy} can never
+ * peek at the deck or at the hands of other players, and can take its time without holding the game.<br/>
+ * In addition, the context builds legal {@link PlayerAction actions} out of a strategy's intent, so strategies
+ * do not have to deal with the betting rules of {@link GameEngine}.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Data
+@Builder
+public class BotContext {
+    /**
+     * Name of the bot, used as the name of the actions it takes
+     */
+    private String name;
+
+    /**
+     * The two cards of the bot
+     */
+    private List<Card> hand;
+
+    /**
+     * The cards that are open on board. Empty before the flop.
+     */
+    private List<Card> board;
+
+    /**
+     * Chips the bot has, not including the chips it has already bet
+     */
+    private long chips;
+
+    /**
+     * The sum of all bets in the pot
+     */
+    private long pot;
+
+    /**
+     * How many chips the bot has to add in order to call. 0 when there is nothing to call.
+     */
+    private long toCall;
+
+    /**
+     * The highest bet of current bet round, or {@code null} when nobody has bet yet.
+     */
+    private Long lastBet;
+
+    /**
+     * Big blind of the game. Used as the minimum raise.
+     */
+    private long bigBet;
+
+    /**
+     * How many players, other than the bot, are still in the round
+     */
+    private int opponents;
+
+    /**
+     * Whether the bot can check, or it has to call/fold
+     */
+    private boolean canCheck;
+
+    /**
+     * Build the context of a bot, out of the game it plays in
+     * @param game The game a bot plays in
+     * @param bot The bot whose turn it is
+     * @return A context for the bot to decide with
+     */
+    public static BotContext of(GameEngine game, Player bot) {
+        Pot pot = game.getPot();
+        Long lastBet = pot.getLastBet();
+        long toCall = lastBet == null ? 0 : Math.max(0, lastBet - pot.getPotOfPlayer(bot));
+        long bigBet = game.getGameSettings().getBigBet();
+        PlayerActionKind lastAction = game.findLastNonFoldAction();
+
+        // Big blind can check when everybody has just called the big blind. Same as GameEngine's validation.
+        boolean canCheck = (toCall == 0) &&
+            ((lastAction == null) || (lastAction == PlayerActionKind.CHECK) ||
+                (bot.equals(game.getBigBlindPlayer()) && (lastBet != null) && (lastBet == bigBet)));
+
+        return BotContext.builder()
+            .name(bot.getName())
+            .hand(bot.getHand() == null ? new ArrayList<>() : bot.getHand().copyCards())
+            .board(game.getBoard().copyCards())
+            .chips(bot.getChips().get())
+            .pot(pot.sum())
+            .toCall(toCall)
+            .lastBet(lastBet)
+            .bigBet(bigBet)
+            .opponents(Math.max(1, Integer.bitCount(game.getPlayers().getPlayingSeats()) - 1))
+            .canCheck(canCheck)
+            .build();
+    }
+
+    /**
+     * @return Whether we are before the flop or not
+     */
+    public boolean isPreFlop() {
+        return board.isEmpty();
+    }
+
+    /**
+     * @return The part of the pot that the bot has to pay for a call. 0 when it has nothing to call.
+     */
+    public double getPotOdds() {
+        return toCall == 0 ? 0 : (double) toCall / (pot + toCall);
+    }
+
+    /**
+     * Fold, unless the bot can stay in the round for free, in which case it does not make sense to fold.
+     * @return A legal fold action
+     */
+    public PlayerAction fold() {
+        if (toCall == 0) {
+            return passive();
+        }
+
+        return PlayerAction.builder().name(name).actionKind(PlayerActionKind.FOLD).build();
+    }
+
+    /**
+     * Check when possible, otherwise call.
+     * @return A legal check/call action
+     */
+    public PlayerAction passive() {
+        if (canCheck) {
+            return PlayerAction.builder().name(name).actionKind(PlayerActionKind.CHECK).build();
+        }
+
+        return PlayerAction.builder().name(name).actionKind(PlayerActionKind.CALL).chips(new Chips(lastBet == null ? bigBet : lastBet)).build();
+    }
+
+    /**
+     * Raise by a part of the pot. The raise is at least one big blind over the last bet, and at most all of the
+     * chips the bot has, in which case GameEngine might turn it into a call.
+     * @param potFraction The part of the pot (after calling) to raise by. e.g. 0.5 for half a pot.
+     * @return A legal raise action
+     */
+    public PlayerAction raise(double potFraction) {
+        long raiseBy = Math.max(bigBet, (long) ((pot + toCall) * potFraction));
+        long amount = toCall + raiseBy;
+
+        // GameEngine treats raises that do not go over the last bet as a call
+        if (lastBet != null) {
+            amount = Math.max(amount, lastBet + bigBet);
+        }
+
+        amount = Math.min(amount, chips);
+        if (amount <= 0) {
+            return passive();
+        }
+
+        return PlayerAction.builder().name(name).actionKind(PlayerActionKind.RAISE).chips(new Chips(amount)).build();
+    }
+}
@@ -0,0 +1,176 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.common.util.EventLog;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays the turns of {@link BotPlayer bots}.<br/>
+ * Register {@link #onPlayerTurn(GameEngine, Player)} as the turn listener of a game (See {@link GameEngine.PlayerUpdateListener}),
+ * and whenever it is the turn of a bot, the engine decides on an action using the bot's {@link BotStrategy} and executes it.<br/>
+ * Decisions are made by a fixed amount of low priority threads, with a bounded queue, and every decision has a strict
+ * time budget. This way bots can never take more than those threads, and a burst of bot turns cannot starve the
+ * threads that serve human players. When the queue is full, the turn is dropped and the turn timer of the game
+ * folds the bot.<br/>
+ * The engine is used by the server to fill seats, and by the client to play offline.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BotEngine {
+    private final AtomicInteger botCounter = new AtomicInteger();
+
+    /**
+     * Amount of decisions made, decisions that went over their budget, and turns dropped due to a full queue
+     */
+    private final AtomicLong decisions = new AtomicLong();
+    private final AtomicLong overBudgetDecisions = new AtomicLong();
+    private final AtomicLong droppedTurns = new AtomicLong();
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * How much time a bot has to decide, in nanoseconds
+     */
+    private final long decisionBudgetNanos;
+
+    /**
+     * Constructs a new {@link BotEngine}
+     * @param threads Amount of threads making decisions
+     * @param queueCapacity Maximum amount of bot turns waiting for a thread
+     * @param decisionBudgetMillis How much time a bot has to decide on an action
+     */
+    public BotEngine(int threads, int queueCapacity, long decisionBudgetMillis) {
+        decisionBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, decisionBudgetMillis));
+
+        // Bots must keep their low priority, so they are never virtual threads
+        CustomThreadFactory threadFactory = new CustomThreadFactory("BotEngine", false);
+        executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = threadFactory.newThread(runnable);
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+    }
+
+    /**
+     * Create a new bot. Add the bot to a game as any other player.<br/>
+     * Identifiers of bots are random, as the counter we number bots by starts over on every start up, while bots of
+     * previous runs are restored with their identifiers.
+     * @param chips Chips the bot starts with
+     * @param level Level of the bot
+     * @return The new bot
+     */
+    public BotPlayer createBot(long chips, BotLevel level) {
+        int botNumber = botCounter.incrementAndGet();
+        return new BotPlayer(BotPlayer.ID_PREFIX + UUID.randomUUID(), "Bot " + botNumber, chips, 0, level);
+    }
+
+    /**
+     * Call this when it is the turn of a player. In case the player is a bot, its turn is played in background.
+     * @param game The game where it is the player's turn
+     * @param player The player whose turn it is
+     */
+    public void onPlayerTurn(GameEngine game, Player player) {
+        if (!(player instanceof BotPlayer)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> playTurn(game, (BotPlayer) player));
+        } catch (RejectedExecutionException e) {
+            droppedTurns.incrementAndGet();
+            eventLog().info("Bot turn was dropped as there are too many pending bot turns", "game", game.getGameHash(), "bot", player);
+        }
+    }
+
+    /**
+     * Play the turn of a player on the calling thread, in case the player is a bot.<br/>
+     * Use this instead of {@link #onPlayerTurn(GameEngine, Player)} when a game is driven by a single thread (e.g. the event
+     * loop of an offline game), so the bot acts on the thread that owns the game, and not on the threads of this engine.
+     * @param game The game where it is the player's turn
+     * @param player The player whose turn it is
+     */
+    public void playTurnNow(GameEngine game, Player player) {
+        if (player instanceof BotPlayer) {
+            playTurn(game, (BotPlayer) player);
+        }
+    }
+
+    private void playTurn(GameEngine game, BotPlayer bot) {
+        // The turn might have moved on while we were waiting in queue, e.g. due to a timeout
+        if ((game.getGameState() != GameEngine.GameState.STARTED) || !bot.equals(game.getPlayers().getCurrentPlayer())) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + decisionBudgetNanos;
+        BotContext context = BotContext.of(game, bot);
+        PlayerAction action;
+        try {
+            action = bot.getStrategy().decide(context, deadline);
+        } catch (Exception e) {
+            eventLog().warn("Bot strategy has failed. Playing passive", e, "bot", bot);
+            action = context.passive();
+        }
+
+        decisions.incrementAndGet();
+        if (System.nanoTime() > deadline) {
+            overBudgetDecisions.incrementAndGet();
+        }
+
+        try {
+            game.executePlayerAction(bot, action);
+        } catch (IllegalArgumentException e) {
+            // Game has changed while we were thinking. Nothing to do, the game will let us know when it is our turn again.
+            eventLog().debug("Bot action was rejected", "bot", bot, "action", action, "reason", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Amount of decisions bots have made
+     */
+    public long getDecisions() {
+        return decisions.get();
+    }
+
+    /**
+     * @return Amount of decisions that took longer than their budget
+     */
+    public long getOverBudgetDecisions() {
+        return overBudgetDecisions.get();
+    }
+
+    /**
+     * @return Amount of bot turns that were dropped because the queue was full
+     */
+    public long getDroppedTurns() {
+        return droppedTurns.get();
+    }
+
+    /**
+     * Stop playing bot turns. Pending turns are dropped.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Override this method to use the correct logging service.
+     * @return The log to write events of bots to. By default, {@link EventLog#STDOUT}
+     */
+    protected EventLog eventLog() {
+        return EventLog.STDOUT;
+    }
+}
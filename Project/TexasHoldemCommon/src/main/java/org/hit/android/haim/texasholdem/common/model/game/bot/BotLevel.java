@@ -0,0 +1,38 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+/**
+ * Levels of bots that a game creator can fill seats with.<br/>
+ * Strategies are stateless, so all bots of a level share the same strategy instance.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public enum BotLevel {
+    /**
+     * Plays by the score of its hand, and bluffs a lot
+     */
+    EASY(new RuleBasedBotStrategy(0.8)),
+
+    /**
+     * Plays by the score of its hand, and rarely bluffs
+     */
+    MEDIUM(new RuleBasedBotStrategy(0.3)),
+
+    /**
+     * Plays by the equity of its hand against the pot odds
+     */
+    HARD(new EquityBotStrategy(5000, new RuleBasedBotStrategy(0.3)));
+
+    private final BotStrategy strategy;
+
+    BotLevel(BotStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return The strategy that plays bots of this level
+     */
+    public BotStrategy getStrategy() {
+        return strategy;
+    }
+}
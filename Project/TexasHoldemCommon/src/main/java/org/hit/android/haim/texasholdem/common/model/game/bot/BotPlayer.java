@@ -0,0 +1,49 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.Chips;
+
+/**
+ * A {@link Player} that is played by a {@link BotStrategy} rather than by a user.<br/>
+ * A bot is seated like any other player, and {@link BotEngine} plays its turns. Clients see it as a regular player.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BotPlayer extends Player {
+    /**
+     * Identifiers of bots start with this prefix, so they never collide with user identifiers. Users cannot sign up
+     * with an identifier that starts with it.
+     */
+    public static final String ID_PREFIX = "bot-";
+
+    /**
+     * The level of this bot, kept so a bot is restored with the same level after a restart
+     */
+    @Getter
+    @JsonIgnore
+    private final BotLevel level;
+
+    /**
+     * Constructs a new {@link BotPlayer}
+     * @param id Identifier of the bot. Should start with {@link #ID_PREFIX}
+     * @param name Name of the bot, as other players see it
+     * @param chips Chips the bot starts with
+     * @param position The seat to prefer
+     * @param level The level of the bot, which decides the strategy playing it
+     */
+    public BotPlayer(String id, String name, long chips, int position, BotLevel level) {
+        super(id, name, new Chips(chips), false, null, position);
+        this.level = level;
+    }
+
+    /**
+     * @return The strategy playing this bot
+     */
+    @JsonIgnore
+    public BotStrategy getStrategy() {
+        return level.getStrategy();
+    }
+}
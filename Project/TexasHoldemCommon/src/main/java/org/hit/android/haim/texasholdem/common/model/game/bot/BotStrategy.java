@@ -0,0 +1,26 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+
+/**
+ * A strategy that decides what a bot does at its turn.<br/>
+ * Strategies are stateless and shared between bots, and they are called from the threads of a {@link BotEngine},
+ * so they must be thread safe.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ * @see RuleBasedBotStrategy
+ * @see EquityBotStrategy
+ */
+@FunctionalInterface
+public interface BotStrategy {
+    /**
+     * Decide what a bot should do at its turn.<br/>
+     * Implementations must return by the specified deadline. Use the actions that {@link BotContext} builds
+     * (e.g. {@link BotContext#raise(double)}) to make sure the result is legal.
+     * @param context What the bot can see
+     * @param deadlineNanos The time, based on {@link System#nanoTime()}, to return a decision by
+     * @return The action to execute
+     */
+    PlayerAction decide(BotContext context, long deadlineNanos);
+}
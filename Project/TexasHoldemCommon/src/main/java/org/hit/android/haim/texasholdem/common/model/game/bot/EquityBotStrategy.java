@@ -0,0 +1,140 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Board;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Hand;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.game.Deck;
+import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculator;
+import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculatorResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A strategy that estimates the equity of a hand, and plays when the equity is worth the pot odds.<br/>
+ * Equity is the chance to win the pot at showdown. We estimate it by dealing the unknown cards (the rest of the board
+ * and the hands of the opponents) at random, again and again, until the deadline of the decision or
+ * {@link #maxSamples} deals, whichever comes first.<br/>
+ * When the deadline does not leave enough time for a meaningful estimation, we fall back to {@link RuleBasedBotStrategy}.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class EquityBotStrategy implements BotStrategy {
+    /**
+     * Less deals than this are too noisy to rely on
+     */
+    private static final int MIN_SAMPLES = 100;
+
+    /**
+     * Check the deadline once in this amount of deals, to keep {@link System#nanoTime()} off the loop
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 16;
+
+    /**
+     * Upper bound of deals per decision. Estimation error is ~1/sqrt(samples), so more than a few thousands
+     * is just a waste of CPU.
+     */
+    private final int maxSamples;
+
+    /**
+     * The strategy we use when there is no time to estimate equity
+     */
+    private final BotStrategy fallback;
+
+    /**
+     * Constructs a new {@link EquityBotStrategy}
+     * @param maxSamples Upper bound of deals per decision
+     * @param fallback The strategy to use when there is no time to estimate equity
+     */
+    public EquityBotStrategy(int maxSamples, BotStrategy fallback) {
+        this.maxSamples = Math.max(MIN_SAMPLES, maxSamples);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public PlayerAction decide(BotContext context, long deadlineNanos) {
+        double equity = estimateEquity(context.getHand(), context.getBoard(), context.getOpponents(), deadlineNanos);
+        if (equity < 0) {
+            return fallback.decide(context, deadlineNanos);
+        }
+
+        // The equity we expect to have when everybody is equal
+        double fairShare = 1.0 / (context.getOpponents() + 1);
+        if (equity >= fairShare + (1 - fairShare) * 0.45) {
+            return context.raise(equity);
+        }
+
+        if ((context.getToCall() == 0) || (equity >= context.getPotOdds() + 0.03)) {
+            return context.passive();
+        }
+
+        return context.fold();
+    }
+
+    /**
+     * Estimate the chance of a hand to win at showdown, where a split pot counts as a part of a win.
+     * @param hand The cards of a bot
+     * @param board The open cards
+     * @param opponents How many players the bot plays against
+     * @param deadlineNanos The time, based on {@link System#nanoTime()}, to stop dealing at
+     * @return The equity, between 0 and 1, or -1 when there was not enough time to estimate it
+     */
+    double estimateEquity(List<Card> hand, List<Card> board, int opponents, long deadlineNanos) {
+        List<Card> unknownCards = new ArrayList<>(Deck.getAllCards());
+        unknownCards.removeAll(hand);
+        unknownCards.removeAll(board);
+        Card[] unknown = unknownCards.toArray(new Card[0]);
+
+        int missingBoardCards = Board.AMOUNT_OF_CARDS - board.size();
+        opponents = Math.max(1, Math.min(opponents, (unknown.length - missingBoardCards) / 2));
+        int cardsToDeal = missingBoardCards + 2 * opponents;
+
+        Random random = ThreadLocalRandom.current();
+        double wins = 0;
+        int samples = 0;
+        while (samples < maxSamples) {
+            if (((samples % DEADLINE_CHECK_INTERVAL) == 0) && (System.nanoTime() >= deadlineNanos)) {
+                break;
+            }
+
+            // Partial Fisher-Yates: Shuffle the cards we are about to deal to the beginning of the array
+            for (int i = 0; i < cardsToDeal; i++) {
+                int j = i + random.nextInt(unknown.length - i);
+                Card temp = unknown[i];
+                unknown[i] = unknown[j];
+                unknown[j] = temp;
+            }
+
+            List<Card> sampleBoardCards = new ArrayList<>(Board.AMOUNT_OF_CARDS);
+            sampleBoardCards.addAll(board);
+            sampleBoardCards.addAll(Arrays.asList(unknown).subList(0, missingBoardCards));
+
+            HandRankCalculatorResult myRank = HandRankCalculator.calculate(new Board(sampleBoardCards), new Hand(new ArrayList<>(hand)));
+            int ties = 0;
+            boolean isLost = false;
+            for (int opponent = 0; (opponent < opponents) && !isLost; opponent++) {
+                int firstCard = missingBoardCards + 2 * opponent;
+                List<Card> opponentHand = new ArrayList<>(Arrays.asList(unknown[firstCard], unknown[firstCard + 1]));
+                int result = myRank.compareTo(HandRankCalculator.calculate(new Board(sampleBoardCards), new Hand(opponentHand)));
+                if (result < 0) {
+                    isLost = true;
+                } else if (result == 0) {
+                    ties++;
+                }
+            }
+
+            if (!isLost) {
+                wins += 1.0 / (ties + 1);
+            }
+
+            samples++;
+        }
+
+        return samples < MIN_SAMPLES ? -1 : wins / samples;
+    }
+}
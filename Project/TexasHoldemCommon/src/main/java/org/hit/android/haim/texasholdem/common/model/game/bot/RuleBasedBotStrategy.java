@@ -0,0 +1,128 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Board;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Hand;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.game.rank.HandRank;
+import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A cheap strategy that scores the hand of a bot, and plays according to that score and the pot odds.<br/>
+ * Before the flop, a hand is scored by its two cards (pairs, high cards, suited and connected cards).
+ * After the flop, a hand is scored by the rank it makes with the board, where ranks that the board makes by
+ * itself are worth less.<br/>
+ * A decision takes a few microseconds, so this strategy is also used as the fallback of slower strategies.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class RuleBasedBotStrategy implements BotStrategy {
+    /**
+     * How aggressive the bot is, between 0 and 1. Aggressive bots raise with weaker hands, and bluff more often.
+     */
+    private final double aggression;
+
+    /**
+     * Constructs a new {@link RuleBasedBotStrategy}
+     * @param aggression How aggressive the bot is, between 0 (passive) and 1 (maniac)
+     */
+    public RuleBasedBotStrategy(double aggression) {
+        this.aggression = Math.max(0, Math.min(1, aggression));
+    }
+
+    @Override
+    public PlayerAction decide(BotContext context, long deadlineNanos) {
+        double strength = context.isPreFlop() ? preFlopStrength(context.getHand()) : postFlopStrength(context.getHand(), context.getBoard());
+
+        // The more opponents, the less a hand is worth
+        strength = Math.pow(strength, 1 + 0.15 * (context.getOpponents() - 1));
+
+        double raiseThreshold = 0.8 - 0.2 * aggression;
+        if ((strength >= raiseThreshold) || (ThreadLocalRandom.current().nextDouble() < aggression * 0.05)) {
+            return context.raise(0.25 + strength / 2);
+        }
+
+        if ((context.getToCall() == 0) || (strength >= context.getPotOdds() + 0.1 * (1 - aggression))) {
+            return context.passive();
+        }
+
+        return context.fold();
+    }
+
+    /**
+     * Score two cards between 0 and 1, based on the Chen formula, where the best hand (AA) is 20 points.
+     * @param hand The cards of a bot
+     * @return The strength of the hand
+     */
+    static double preFlopStrength(List<Card> hand) {
+        if (hand.size() < 2) {
+            return 0;
+        }
+
+        Card high = hand.get(0).getCardRank().ordinal() >= hand.get(1).getCardRank().ordinal() ? hand.get(0) : hand.get(1);
+        Card low = high == hand.get(0) ? hand.get(1) : hand.get(0);
+        int highValue = high.getCardRank().ordinal() + 1;
+        int lowValue = low.getCardRank().ordinal() + 1;
+
+        double score;
+        switch (high.getCardRank()) {
+            case ACE: score = 10; break;
+            case KING: score = 8; break;
+            case QUEEN: score = 7; break;
+            case JACK: score = 6; break;
+            default: score = highValue / 2.0;
+        }
+
+        if (highValue == lowValue) {
+            score = Math.max(5, score * 2);
+        } else {
+            if (high.getCardSuit() == low.getCardSuit()) {
+                score += 2;
+            }
+
+            int gap = highValue - lowValue - 1;
+            score -= gap == 0 ? 0 : gap == 1 ? 1 : gap == 2 ? 2 : gap == 3 ? 4 : 5;
+            if ((gap <= 1) && (highValue < Card.CardRank.QUEEN.ordinal() + 1)) {
+                score += 1;
+            }
+        }
+
+        return Math.max(0, Math.min(20, score)) / 20;
+    }
+
+    /**
+     * Score a hand between 0 and 1, based on the rank it makes with the board.
+     * @param hand The cards of a bot
+     * @param board The open cards
+     * @return The strength of the hand
+     */
+    static double postFlopStrength(List<Card> hand, List<Card> board) {
+        HandRank rank = HandRankCalculator.calculate(new Board(new ArrayList<>(board)), new Hand(new ArrayList<>(hand))).getRank().getHandRank();
+        HandRank boardRank = HandRankCalculator.calculate(new Board(new ArrayList<>(board)), new Hand(new ArrayList<>())).getRank().getHandRank();
+
+        double strength;
+        switch (rank) {
+            case HIGH_CARD: strength = 0.15; break;
+            case PAIR: strength = 0.45; break;
+            case TWO_PAIRS: strength = 0.65; break;
+            case TRIPS: strength = 0.75; break;
+            case STRAIGHT: strength = 0.82; break;
+            case FLUSH: strength = 0.86; break;
+            case FULL_HOUSE: strength = 0.92; break;
+            case NONE: strength = 0; break;
+            default: strength = 0.98;
+        }
+
+        // When the board makes the rank by itself, everybody has it
+        if ((rank == boardRank) && (rank != HandRank.HIGH_CARD)) {
+            strength /= 2;
+        }
+
+        return strength;
+    }
+}
@@ -2,11 +2,16 @@ package org.hit.android.haim.texasholdem.common.util;
 
 import lombok.NonNull;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A thread factory with custom name prefix.
+ * A thread factory with custom name prefix.<br/>
+ * When {@link #setVirtualThreads(boolean) virtual threads} are enabled and the JVM supports them (Java 21 and up),
+ * the factory creates virtual threads, so the threads of games, timers and listeners are cheap enough to block.
+ * Virtual threads are created by reflection, as this module has to compile for Java 8 and Android.
  * @author Haim Adrian
  * @since 27-Jun-21
  */
@@ -22,17 +27,97 @@ public class CustomThreadFactory implements ThreadFactory {
      */
     private final ThreadFactory defaultThreadFactory;
 
+    /**
+     * {@code Thread.ofVirtual()}, or {@code null} when the JVM does not support virtual threads
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * {@code Thread.Builder.unstarted(Runnable)}
+     */
+    private static final Method UNSTARTED;
+
+    private static volatile boolean isVirtualThreads;
+
+    static {
+        Method ofVirtual = null;
+        Method unstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        } catch (Exception ignore) {
+            // Virtual threads are not supported
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        UNSTARTED = unstarted;
+    }
+
+    /**
+     * Whether this factory may create virtual threads. False for threads that must keep their priority, e.g. bots.
+     */
+    private final boolean allowVirtual;
+
+    /**
+     * Used to number virtual threads, which have no name by default
+     */
+    private final AtomicInteger virtualThreadNumber = new AtomicInteger();
+
     /**
      * Constructs a new {@link CustomThreadFactory}
      * @param namePrefix A name prefix to use for meaningful thread name
      */
     public CustomThreadFactory(@NonNull String namePrefix) {
+        this(namePrefix, true);
+    }
+
+    /**
+     * Constructs a new {@link CustomThreadFactory}
+     * @param namePrefix A name prefix to use for meaningful thread name
+     * @param allowVirtual Whether to create virtual threads when they are {@link #setVirtualThreads(boolean) enabled}.
+     * Use false for threads that must stay platform threads.
+     */
+    public CustomThreadFactory(@NonNull String namePrefix, boolean allowVirtual) {
         this.namePrefix = namePrefix;
+        this.allowVirtual = allowVirtual;
         defaultThreadFactory = Executors.defaultThreadFactory();
     }
 
+    /**
+     * @return Whether the JVM supports virtual threads
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Enable or disable virtual threads for all factories that allow them. Affects threads created from now on.
+     * @param isVirtualThreads Whether to create virtual threads. Ignored when the JVM does not support them.
+     */
+    public static void setVirtualThreads(boolean isVirtualThreads) {
+        CustomThreadFactory.isVirtualThreads = isVirtualThreads && isVirtualThreadsSupported();
+    }
+
+    /**
+     * @return Whether factories create virtual threads
+     */
+    public static boolean isVirtualThreads() {
+        return isVirtualThreads;
+    }
+
     @Override
     public Thread newThread(Runnable r) {
+        if (allowVirtual && isVirtualThreads) {
+            try {
+                Thread t = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), r);
+                t.setName(namePrefix + "-virtual-" + virtualThreadNumber.incrementAndGet());
+                return t;
+            } catch (Exception e) {
+                // Should not happen, as we have found the methods. Fall back to a platform thread.
+            }
+        }
+
         Thread t = defaultThreadFactory.newThread(r);
         t.setName(namePrefix + "-" + t.getName());
         return t;
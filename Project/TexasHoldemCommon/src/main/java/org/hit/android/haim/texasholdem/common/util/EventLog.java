@@ -0,0 +1,120 @@
+package org.hit.android.haim.texasholdem.common.util;
+
+/**
+ * A structured event log, shared by the server and the client.<br/>
+ * An event is a constant description plus up to three key/value fields, e.g.
+ * {@code log.debug("Executing player action", "game", gameHash, "player", player, "action", action)},
+ * which is written as {@code Executing player action. [game=abc, player=..., action=...]}.<br/>
+ * The level is checked before anything is formatted, and there are no varargs, so logging an event with a disabled
+ * level allocates nothing. (As long as the values are references, and not primitives that have to be boxed)<br/>
+ * Implementations decide where to write to, e.g. log4j2 on the server, or {@code android.util.Log} on the client.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public abstract class EventLog {
+    /**
+     * Writes events of level {@link Level#INFO} and up to {@link System#out}. Used when there is no better place to write to.
+     */
+    public static final EventLog STDOUT = new EventLog() {
+        @Override
+        public boolean isEnabled(Level level) {
+            return level.compareTo(Level.INFO) >= 0;
+        }
+
+        @Override
+        protected void write(Level level, String message, Throwable error) {
+            System.out.println(level + " " + message + (error == null ? "" : " " + error));
+        }
+    };
+
+    /**
+     * Levels of events, from the most verbose to the most severe
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /**
+     * @param level A level to check
+     * @return Whether events of the specified level are written
+     */
+    public abstract boolean isEnabled(Level level);
+
+    /**
+     * Write a formatted event. Called only when the level of the event is enabled.
+     * @param level Level of the event
+     * @param message The formatted event, including its fields
+     * @param error An error to write with the event. Can be {@code null}
+     */
+    protected abstract void write(Level level, String message, Throwable error);
+
+    public void debug(String event) {
+        log(Level.DEBUG, null, event, null, null, null, null, null, null);
+    }
+
+    public void debug(String event, String key1, Object value1) {
+        log(Level.DEBUG, null, event, key1, value1, null, null, null, null);
+    }
+
+    public void debug(String event, String key1, Object value1, String key2, Object value2) {
+        log(Level.DEBUG, null, event, key1, value1, key2, value2, null, null);
+    }
+
+    public void debug(String event, String key1, Object value1, String key2, Object value2, String key3, Object value3) {
+        log(Level.DEBUG, null, event, key1, value1, key2, value2, key3, value3);
+    }
+
+    public void info(String event) {
+        log(Level.INFO, null, event, null, null, null, null, null, null);
+    }
+
+    public void info(String event, String key1, Object value1) {
+        log(Level.INFO, null, event, key1, value1, null, null, null, null);
+    }
+
+    public void info(String event, String key1, Object value1, String key2, Object value2) {
+        log(Level.INFO, null, event, key1, value1, key2, value2, null, null);
+    }
+
+    public void info(String event, String key1, Object value1, String key2, Object value2, String key3, Object value3) {
+        log(Level.INFO, null, event, key1, value1, key2, value2, key3, value3);
+    }
+
+    public void warn(String event, Throwable error, String key1, Object value1) {
+        log(Level.WARN, error, event, key1, value1, null, null, null, null);
+    }
+
+    public void warn(String event, Throwable error, String key1, Object value1, String key2, Object value2) {
+        log(Level.WARN, error, event, key1, value1, key2, value2, null, null);
+    }
+
+    public void error(String event, Throwable error, String key1, Object value1) {
+        log(Level.ERROR, error, event, key1, value1, null, null, null, null);
+    }
+
+    private void log(Level level, Throwable error, String event, String key1, Object value1, String key2, Object value2, String key3, Object value3) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(128).append(event).append('.');
+        if (key1 != null) {
+            message.append(" [");
+            appendField(message, key1, value1);
+            if (key2 != null) {
+                appendField(message.append(", "), key2, value2);
+            }
+            if (key3 != null) {
+                appendField(message.append(", "), key3, value3);
+            }
+            message.append(']');
+        }
+
+        write(level, message.toString(), error);
+    }
+
+    private static void appendField(StringBuilder message, String key, Object value) {
+        message.append(key).append('=').append(value);
+    }
+}
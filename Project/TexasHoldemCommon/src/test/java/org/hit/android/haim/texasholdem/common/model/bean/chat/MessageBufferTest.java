@@ -0,0 +1,76 @@
+package org.hit.android.haim.texasholdem.common.model.bean.chat;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class MessageBufferTest {
+    @Test
+    public void testMessageBuffer_appendMessages_sequenceNumbersAreIncreasing() {
+        // Arrange
+        MessageBuffer buffer = new MessageBuffer(4);
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            buffer.add(newMessage("message" + i));
+        }
+
+        // Assert
+        Assertions.assertEquals(3, buffer.size(), "There were 3 messages");
+        Assertions.assertEquals(3, buffer.getLastSeq(), "Last sequence number supposed to be 3");
+        List<Message> latest = buffer.since(1);
+        Assertions.assertEquals(2, latest.size(), "There were 2 messages after the first one");
+        Assertions.assertEquals("message2", latest.get(0).getMessage());
+        Assertions.assertEquals(3, latest.get(1).getSeq());
+        Assertions.assertTrue(buffer.since(3).isEmpty(), "There are no messages after the last one");
+    }
+
+    @Test
+    public void testMessageBuffer_bufferIsFull_oldestMessagesAreEvicted() {
+        // Arrange
+        MessageBuffer buffer = new MessageBuffer(3);
+
+        // Act
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(newMessage("message" + i));
+        }
+
+        // Assert
+        Assertions.assertEquals(3, buffer.size(), "Buffer must not grow beyond its capacity");
+        Assertions.assertEquals("message3", buffer.get(0).getMessage(), "Oldest messages supposed to be evicted");
+        Assertions.assertEquals(5, buffer.getLastSeq(), "Sequence numbers keep increasing after eviction");
+        List<Message> all = buffer.since(0);
+        Assertions.assertEquals(3, all.size(), "Evicted messages cannot be read");
+        Assertions.assertEquals(3, all.get(0).getSeq());
+        Assertions.assertEquals(5, all.get(2).getSeq());
+    }
+
+    @Test
+    public void testMessageBuffer_appendBatch_sequenceNumbersAreConsecutive() {
+        // Arrange
+        MessageBuffer buffer = new MessageBuffer(8);
+        buffer.add(newMessage("message1"));
+        List<Message> batch = Arrays.asList(newMessage("message2"), newMessage("message3"), newMessage("message4"));
+
+        // Act
+        buffer.addAll(batch);
+
+        // Assert
+        Assertions.assertEquals(4, buffer.size(), "There were 4 messages");
+        Assertions.assertEquals(2, batch.get(0).getSeq());
+        Assertions.assertEquals(4, batch.get(2).getSeq(), "Messages of a batch keep their order");
+        Assertions.assertEquals(batch, buffer.since(1), "Batch supposed to follow the first message");
+    }
+
+    private static Message newMessage(String content) {
+        return new Message(content, LocalDateTime.now(), "channel", new Player());
+    }
+}
@@ -0,0 +1,191 @@
+package org.hit.android.haim.texasholdem.common.model.game;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Compare {@link BetRound} with a reference model that scans all of the seats after every action.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BetRoundTest {
+    private static final int SEATS = 7;
+    private static final int ROUNDS = 2000;
+
+    @Test
+    public void testBetRound_randomRounds_sameAsReferenceModel() {
+        Random random = new Random(7);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            ReferenceRound reference = new ReferenceRound(random);
+            BetRound betRound = new BetRound();
+            betRound.start(reference.inSeats(), reference.allInSeats());
+
+            // Blinds
+            int seat = reference.nextSeat(random.nextInt(SEATS));
+            for (int blind = 1; (blind <= 2) && (seat >= 0); blind++) {
+                reference.put(seat, blind, true);
+                betRound.postBlind(seat, reference.roundBets[seat], reference.isAllIn[seat]);
+                seat = reference.nextSeat(seat);
+            }
+
+            while (true) {
+                Assertions.assertEquals(reference.isOver(), betRound.isOver(), "Round over. Round #" + round);
+                Assertions.assertEquals(reference.highestBet, betRound.getHighestBet(), "Highest bet. Round #" + round);
+                Assertions.assertEquals(reference.lastAggressor, betRound.getLastAggressorSeat(), "Last aggressor. Round #" + round);
+                Assertions.assertEquals(reference.inSeats(), betRound.getInSeats(), "In seats. Round #" + round);
+                Assertions.assertEquals(reference.allInSeats(), betRound.getAllInSeats(), "All-in seats. Round #" + round);
+                Assertions.assertEquals(seat, betRound.nextSeat(seat == -1 ? -1 : seat - 1), "Next seat. Round #" + round);
+
+                if (reference.isOver()) {
+                    break;
+                }
+
+                switch (random.nextInt(4)) {
+                    case 0: {
+                        reference.fold(seat);
+                        betRound.fold(seat);
+                        break;
+                    }
+                    case 1: {
+                        if (reference.roundBets[seat] == reference.highestBet) {
+                            reference.check(seat);
+                            betRound.check(seat);
+                            break;
+                        }
+                        // Otherwise, call
+                    }
+                    case 2: {
+                        reference.put(seat, reference.highestBet - reference.roundBets[seat], false);
+                        betRound.bet(seat, reference.roundBets[seat], reference.isAllIn[seat]);
+                        break;
+                    }
+                    default: {
+                        reference.put(seat, reference.highestBet - reference.roundBets[seat] + 1 + random.nextInt(50), false);
+                        betRound.bet(seat, reference.roundBets[seat], reference.isAllIn[seat]);
+                    }
+                }
+
+                seat = reference.nextSeat(seat);
+            }
+        }
+    }
+
+    @Test
+    public void testBetRound_raiseAfterEverybodyChecked_othersHaveToActAgain() {
+        // Arrange
+        BetRound betRound = new BetRound();
+        betRound.start(0b111, 0);
+
+        // Act
+        betRound.check(0);
+        betRound.check(1);
+        betRound.bet(2, 10, false);
+
+        // Assert
+        Assertions.assertFalse(betRound.isOver(), "Players that checked have to respond to the raise");
+        Assertions.assertEquals(0, betRound.nextSeat(2), "Next player supposed to be the first one after the raiser");
+        betRound.bet(0, 10, false);
+        betRound.fold(1);
+        Assertions.assertTrue(betRound.isOver(), "Everybody has matched the raise or folded");
+        Assertions.assertEquals(-1, betRound.nextSeat(0), "There is no next player when round is over");
+    }
+
+    /**
+     * The reference model. Scans all of the seats to answer every question.
+     */
+    private static class ReferenceRound {
+        final boolean[] isIn = new boolean[SEATS];
+        final boolean[] isAllIn = new boolean[SEATS];
+        final boolean[] hasActed = new boolean[SEATS];
+        final long[] chips = new long[SEATS];
+        final long[] roundBets = new long[SEATS];
+        long highestBet;
+        int lastAggressor = -1;
+
+        ReferenceRound(Random random) {
+            for (int seat = 0; seat < SEATS; seat++) {
+                isIn[seat] = random.nextInt(4) != 0;
+                chips[seat] = random.nextInt(120);
+                isAllIn[seat] = isIn[seat] && (chips[seat] == 0);
+            }
+        }
+
+        void put(int seat, long amount, boolean isBlind) {
+            long actual = Math.min(amount, chips[seat]);
+            chips[seat] -= actual;
+            roundBets[seat] += actual;
+            isAllIn[seat] = chips[seat] == 0;
+            hasActed[seat] = !isBlind;
+
+            if (roundBets[seat] > highestBet) {
+                highestBet = roundBets[seat];
+                if (!isBlind) {
+                    lastAggressor = seat;
+                }
+            }
+        }
+
+        void check(int seat) {
+            hasActed[seat] = true;
+        }
+
+        void fold(int seat) {
+            isIn[seat] = false;
+            isAllIn[seat] = false;
+        }
+
+        boolean isPending(int seat) {
+            return isIn[seat] && !isAllIn[seat] && (!hasActed[seat] || (roundBets[seat] < highestBet));
+        }
+
+        boolean isOver() {
+            for (int seat = 0; seat < SEATS; seat++) {
+                if (isPending(seat)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        int nextSeat(int fromSeat) {
+            for (int i = 1; i <= SEATS; i++) {
+                int seat = (fromSeat + i) % SEATS;
+                if (isPending(seat)) {
+                    return seat;
+                }
+            }
+
+            return -1;
+        }
+
+        int inSeats() {
+            return mask(isIn);
+        }
+
+        int allInSeats() {
+            int result = 0;
+            for (int seat = 0; seat < SEATS; seat++) {
+                if (isIn[seat] && isAllIn[seat]) {
+                    result |= (1 << seat);
+                }
+            }
+
+            return result;
+        }
+
+        private static int mask(boolean[] seats) {
+            int result = 0;
+            for (int seat = 0; seat < seats.length; seat++) {
+                if (seats[seat]) {
+                    result |= (1 << seat);
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.hit.android.haim.texasholdem.common.model.game;
 
 import org.hit.android.haim.texasholdem.common.model.bean.game.*;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotLevel;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotPlayer;
 import org.hit.android.haim.texasholdem.common.util.JsonUtils;
 import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
 import org.junit.jupiter.api.AfterEach;
@@ -78,6 +80,52 @@ public class GameEngineTest {
         Assertions.assertEquals(1, gameEngine1.getPlayers().size(), "We have added one player");
     }
 
+    @Test
+    public void testGameEngineToJson_seatsAreRestoredFromPlayersArray() throws Exception {
+        // Arrange
+        gameEngine.getPlayers().addPlayer(new Player("id2", "name2", new Chips(0), true, new Hand(), 4));
+        gameEngine.getPlayers().markAllPlayersAsPlaying();
+
+        // Act
+        GameEngine gameEngine1 = JsonUtils.readValueFromString(JsonUtils.writeValueAsString(gameEngine), GameEngine.class);
+        Players players = gameEngine1.getPlayers();
+
+        // Assert
+        Assertions.assertEquals((1 << 1) | (1 << 4), players.getOccupiedSeats(), "Seats should be derived from players array");
+        Assertions.assertEquals(1 << 4, players.getAllInSeats(), "Player without chips should be all-in");
+        Assertions.assertEquals(1 << 1, players.getActiveSeats(), "Only player with chips should be active");
+        Assertions.assertEquals(4, players.indexOfPlayer(players.getPlayerById("id2")), "Player should be found by id");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> players.addPlayer(new Player("id2", "name2", new Chips(10), true, null, 0)), "Player is already seated");
+    }
+
+    @Test
+    public void testPlayers_foldAllInAndLeave_seatMasksAreUpdated() {
+        // Arrange
+        Players players = new Players();
+        Player folding = new Player("id1", "name1", new Chips(10), true, new Hand(), 1);
+        Player allIn = new Player("id2", "name2", new Chips(10), true, new Hand(), 4);
+        players.addPlayer(folding);
+        players.addPlayer(allIn);
+        players.markAllPlayersAsPlaying();
+
+        // Act
+        players.fold(folding);
+        allIn.getChips().remove(10);
+        players.updateAllIn(allIn);
+
+        // Assert
+        Assertions.assertFalse(folding.isPlaying(), "Folding player should not be playing");
+        Assertions.assertEquals(1 << 4, players.getPlayingSeats(), "Folded seat should not be playing");
+        Assertions.assertEquals(1 << 4, players.getAllInSeats(), "Player without chips should be all-in");
+        Assertions.assertEquals(0, players.getActiveSeats(), "Nobody can act");
+
+        players.removePlayer(allIn);
+        Assertions.assertEquals(0, players.getPlayingSeats() | players.getAllInSeats(), "Seats of a player who left should be cleared");
+
+        players.markAllPlayersAsPlaying();
+        Assertions.assertEquals(1 << 1, players.getActiveSeats(), "All players should be playing in a new round");
+    }
+
     @Test
     public void testGameEngineToJson_addHandAndBoard_makeSureJacksonDoesNotFail() {
         Throwable t = null;
@@ -471,6 +519,95 @@ public class GameEngineTest {
         }
     }
 
+    @Test
+    public void testSnapshot_restoreInTheMiddleOfRound_gameContinuesFromSamePoint() {
+        GameEngine gameEngine = null;
+        GameEngine restoredGameEngine = null;
+        try {
+            gameEngine = simulateFullGameFlowUntilTurnRound();
+
+            // Act
+            GameEngineSnapshot snapshot = JsonUtils.readValueFromString(JsonUtils.writeValueAsString(gameEngine.toSnapshot()), GameEngineSnapshot.class);
+            restoredGameEngine = new GameEngine(snapshot, (player, chips) -> {});
+
+            // Assert
+            Assertions.assertEquals(gameEngine.getId(), restoredGameEngine.getId(), "Identifier supposed to be kept");
+            Assertions.assertTrue(GameEngine.getNextGameId() > restoredGameEngine.getId(), "Restored identifier must not be generated again");
+            Assertions.assertEquals(GameEngine.GameState.STARTED, restoredGameEngine.getGameState(), "Game supposed to be active");
+            Assertions.assertEquals(gameEngine.getPlayers().getCurrentPlayer(), restoredGameEngine.getPlayers().getCurrentPlayer(), "Current player supposed to be kept");
+            Assertions.assertEquals(gameEngine.getDealer(), restoredGameEngine.getDealer(), "Dealer supposed to be kept");
+            Assertions.assertEquals(gameEngine.getDeck().copyCards(), restoredGameEngine.getDeck().copyCards(), "Deck order supposed to be kept");
+            Assertions.assertEquals(gameEngine.getBoard().copyCards(), restoredGameEngine.getBoard().copyCards(), "Board supposed to be kept");
+            Assertions.assertEquals(gameEngine.getPot().sum(), restoredGameEngine.getPot().sum(), "Pot supposed to be kept");
+            for (Player player : gameEngine.getPlayers().getPlayers()) {
+                Player restoredPlayer = restoredGameEngine.getPlayers().getPlayerById(player.getId());
+                Assertions.assertEquals(player.getChips().get(), restoredPlayer.getChips().get(), "Chips supposed to be kept");
+                Assertions.assertEquals(player.getHand().copyCards(), restoredPlayer.getHand().copyCards(), "Hand supposed to be kept");
+            }
+
+            // Make sure the game goes on. Small blind checks.
+            Player currPlayer = restoredGameEngine.getPlayers().getCurrentPlayer();
+            restoredGameEngine.executePlayerAction(currPlayer, PlayerAction.builder().name(currPlayer.getName()).actionKind(PlayerActionKind.CHECK).build());
+            Assertions.assertEquals(currPlayer.getName() + " checked.", restoredGameEngine.getGameLog().getLastPlayerAction().toString());
+        } catch (Exception e) {
+            Assertions.fail("No exception supposed to occur", e);
+        } finally {
+            if (gameEngine != null) {
+                gameEngine.stop();
+            }
+
+            if (restoredGameEngine != null) {
+                restoredGameEngine.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshot_restoreGameWithBots_botsAreRestoredWithTheirLevel() {
+        GameEngine gameEngine = null;
+        GameEngine restoredGameEngine = null;
+        try {
+            gameEngine = new GameEngine(new GameSettings(1, 2, 60000, "id", true), (player, chips) -> {});
+            gameEngine.getPlayers().addPlayer(new Player("id1", "name1", new Chips(500), false, null, 0));
+            gameEngine.getPlayers().addPlayer(new BotPlayer(BotPlayer.ID_PREFIX + "1", "Bot 1", 500, 1, BotLevel.EASY));
+            gameEngine.getPlayers().addPlayer(new BotPlayer(BotPlayer.ID_PREFIX + "2", "Bot 2", 500, 2, BotLevel.HARD));
+            gameEngine.start();
+
+            // Act
+            GameEngineSnapshot snapshot = JsonUtils.readValueFromString(JsonUtils.writeValueAsString(gameEngine.toSnapshot()), GameEngineSnapshot.class);
+            restoredGameEngine = new GameEngine(snapshot, (player, chips) -> {});
+
+            // Assert
+            Player user = restoredGameEngine.getPlayers().getPlayerById("id1");
+            Player easyBot = restoredGameEngine.getPlayers().getPlayerById(BotPlayer.ID_PREFIX + "1");
+            Player hardBot = restoredGameEngine.getPlayers().getPlayerById(BotPlayer.ID_PREFIX + "2");
+            Assertions.assertFalse(user instanceof BotPlayer, "User supposed to be restored as a user");
+            Assertions.assertTrue(easyBot instanceof BotPlayer, "Bot supposed to be restored as a bot");
+            Assertions.assertTrue(hardBot instanceof BotPlayer, "Bot supposed to be restored as a bot");
+            Assertions.assertEquals(BotLevel.EASY, ((BotPlayer) easyBot).getLevel(), "Level of bot supposed to be kept");
+            Assertions.assertEquals(BotLevel.HARD, ((BotPlayer) hardBot).getLevel(), "Level of bot supposed to be kept");
+            Assertions.assertSame(BotLevel.HARD.getStrategy(), ((BotPlayer) hardBot).getStrategy(), "Bot supposed to be played by the strategy of its level");
+
+            for (Player player : gameEngine.getPlayers().getPlayers()) {
+                Player restoredPlayer = restoredGameEngine.getPlayers().getPlayerById(player.getId());
+                Assertions.assertEquals(player.getChips().get(), restoredPlayer.getChips().get(), "Chips supposed to be kept");
+                Assertions.assertEquals(player.getHand().copyCards(), restoredPlayer.getHand().copyCards(), "Hand supposed to be kept");
+                Assertions.assertEquals(player.isPlaying(), restoredPlayer.isPlaying(), "Playing state supposed to be kept");
+                Assertions.assertEquals(player.getPosition(), restoredPlayer.getPosition(), "Seat supposed to be kept");
+            }
+        } catch (Exception e) {
+            Assertions.fail("No exception supposed to occur", e);
+        } finally {
+            if (gameEngine != null) {
+                gameEngine.stop();
+            }
+
+            if (restoredGameEngine != null) {
+                restoredGameEngine.stop();
+            }
+        }
+    }
+
     private GameEngine simulateFullGameFlowUntilTurnRound() {
         // Arrange
         Map<Player, Long> playerChipsUpdates = new HashMap<>();
@@ -6,12 +6,14 @@ import org.hit.android.haim.texasholdem.common.model.bean.game.Hand;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.game.rank.HandRank;
 import org.hit.android.haim.texasholdem.common.model.game.rank.HandRankCalculatorTest;
+import org.hit.android.haim.texasholdem.common.util.JsonUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -184,5 +186,49 @@ public class PotTest {
         Assertions.assertNotNull(playerToEarnings.get(players[4].getId()).getHandRank().getRank(), "Hand rank is expected to be available for winner");
         Assertions.assertEquals(HandRank.TRIPS, playerToEarnings.get(players[4].getId()).getHandRank().getRank().getHandRank(), "Expected hand rank is three of a kind");
     }
+
+    @Test
+    public void testPot_twoPlayersAllInMoreThanThird_layersHoldMainPotAndSidePot() {
+        // Arrange
+        players[0].getChips().set(3000);
+        for (int i = 0; i < COUNT; i++) {
+            if ((i % 2) == 0) {
+                pot.bet(players[i], players[i].getChips().get());
+            }
+        }
+
+        // Act
+        List<Pot.PotLayer> layers = pot.copyLayers();
+        pot.applyWinning(new HashSet<>(Arrays.asList(players)), board);
+        List<Pot.PotLayer> layersAfterWinning = pot.copyLayers();
+
+        // Assert
+        Assertions.assertEquals(3, layers.size(), "Main pot, side pot and an empty top layer are expected");
+        Assertions.assertEquals(9000, layers.get(0).getSum(), "Main pot supposed to hold the all-in of first player from everyone");
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("0", "2", "4")), layers.get(0).getPlayerIds(), "All players supposed to be part of the main pot");
+        Assertions.assertEquals(4000, layers.get(1).getSum(), "Side pot supposed to hold the chips over the all-in of first player");
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("2", "4")), layers.get(1).getPlayerIds(), "First player is not part of the side pot");
+        Assertions.assertEquals(0, layers.get(2).getSum(), "Nobody has bet over the highest all-in");
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("0")), layersAfterWinning.get(0).getWinnerIds(), "First player supposed to win the main pot");
+        Assertions.assertEquals(0, pot.sum(), "Pot supposed to be empty after sharing it");
+        Assertions.assertEquals(Arrays.asList(9000L, 4000L), pot.getPotSums(), "Main pot and side pot supposed to be kept for showdown");
+    }
+
+    @Test
+    public void testPot_deserialized_playerPotsAreKeyedByPlayerId() throws Exception {
+        // Arrange
+        pot.bet(players[0], 100);
+        pot.bet(players[1], 200);
+
+        // Act
+        Pot deserialized = JsonUtils.readValueFromString(JsonUtils.writeValueAsString(pot), Pot.class);
+
+        // Assert
+        Map<String, Long> playerPots = deserialized.getPlayerPots();
+        Assertions.assertEquals(100, playerPots.get(players[0].getId()), "Pot of first player");
+        Assertions.assertEquals(200, playerPots.get(players[1].getId()), "Pot of second player");
+        Assertions.assertEquals(playerPots, deserialized.getPlayerPotsOfRound(), "Pots of round are the same in the first round of bets");
+        Assertions.assertEquals(Arrays.asList(300L), deserialized.getPotSums(), "There are no side pots when nobody is all-in");
+    }
 }
 
@@ -0,0 +1,131 @@
+package org.hit.android.haim.texasholdem.common.model.game.bot;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.Card;
+import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerActionKind;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BotEngineTest {
+    private static final long BUDGET_MILLIS = 20;
+    private BotEngine botEngine;
+
+    @BeforeEach
+    public void setup() {
+        botEngine = new BotEngine(2, 100, BUDGET_MILLIS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        botEngine.shutdown();
+        botEngine = null;
+    }
+
+    @Test
+    public void testEquityStrategy_pocketAcesHeadsUp_raises() {
+        BotContext context = BotContext.builder()
+            .name("bot")
+            .hand(Arrays.asList(new Card(Card.CardRank.ACE, Card.CardSuit.CLUB), new Card(Card.CardRank.ACE, Card.CardSuit.HEART)))
+            .board(new ArrayList<>())
+            .chips(1000)
+            .pot(3)
+            .toCall(1)
+            .lastBet(2L)
+            .bigBet(2)
+            .opponents(1)
+            .build();
+
+        // A deadline that leaves time for all of the deals, so the decision does not depend on the speed of the machine
+        PlayerAction action = BotLevel.HARD.getStrategy().decide(context, System.nanoTime() + TimeUnit.MINUTES.toNanos(1));
+
+        Assertions.assertEquals(PlayerActionKind.RAISE, action.getActionKind(), "Pocket aces heads up are worth a raise");
+        Assertions.assertTrue(action.getChips().get() > 2, "Raise must go over the last bet");
+    }
+
+    @Test
+    public void testEquityStrategy_deadlineHasPassed_noEstimation() {
+        EquityBotStrategy strategy = new EquityBotStrategy(5000, new RuleBasedBotStrategy(0));
+        double equity = strategy.estimateEquity(Arrays.asList(new Card(Card.CardRank.ACE, Card.CardSuit.CLUB), new Card(Card.CardRank.ACE, Card.CardSuit.HEART)),
+            new ArrayList<>(), 1, System.nanoTime());
+
+        Assertions.assertEquals(-1, equity, "No deal supposed to be made after the deadline, so we fall back");
+    }
+
+    @Test
+    public void testRuleBasedStrategy_weakHandFacingBigRaise_folds() {
+        BotContext context = BotContext.builder()
+            .name("bot")
+            .hand(Arrays.asList(new Card(Card.CardRank.SEVEN, Card.CardSuit.CLUB), new Card(Card.CardRank.TWO, Card.CardSuit.HEART)))
+            .board(new ArrayList<>())
+            .chips(1000)
+            .pot(203)
+            .toCall(200)
+            .lastBet(200L)
+            .bigBet(2)
+            .opponents(3)
+            .build();
+
+        PlayerAction action = new RuleBasedBotStrategy(0).decide(context, System.nanoTime());
+        Assertions.assertEquals(PlayerActionKind.FOLD, action.getActionKind(), "7-2 offsuit must not call a big raise");
+    }
+
+    @Test
+    public void testBotContext_nothingToCall_neverFolds() {
+        BotContext context = BotContext.builder().name("bot").chips(1000).pot(10).toCall(0).bigBet(2).canCheck(true).build();
+        Assertions.assertEquals(PlayerActionKind.CHECK, context.fold().getActionKind(), "There is no reason to fold for free");
+    }
+
+    @Test
+    public void testBotsOnlyGame_botsPlayRoundToTheEnd() throws InterruptedException {
+        CountDownLatch showdown = new CountDownLatch(1);
+        GameEngine game = new GameEngine(new GameSettings(1, 2, 60000, "id", false), new GameEngine.PlayerUpdateListener() {
+            @Override
+            public void onPlayerChipsUpdated(Player player, long chips) {
+
+            }
+
+            @Override
+            public void onPlayerTurn(GameEngine game, Player player) {
+                botEngine.onPlayerTurn(game, player);
+            }
+
+            @Override
+            public void onShowdown(GameEngine game, long evaluationNanos) {
+                showdown.countDown();
+            }
+        });
+
+        try {
+            game.addPlayer(botEngine.createBot(200, BotLevel.EASY));
+            game.addPlayer(botEngine.createBot(200, BotLevel.MEDIUM));
+            game.addPlayer(botEngine.createBot(200, BotLevel.HARD));
+            Assertions.assertEquals(3, game.getPlayers().size(), "All bots supposed to be seated");
+
+            game.start();
+
+            // The timeout is a guard against a hanging test only
+            Assertions.assertTrue(showdown.await(1, TimeUnit.MINUTES), "Bots supposed to play the round to its end");
+            Assertions.assertEquals(GameEngine.GameState.RESTART, game.getGameState(), "Round supposed to be over");
+            Assertions.assertNotNull(game.getPlayerToEarnings(), "Round supposed to have winners");
+            Assertions.assertEquals(0, botEngine.getDroppedTurns(), "No bot turn supposed to be dropped");
+            Assertions.assertTrue(botEngine.getDecisions() > 0, "Bots supposed to decide their actions through the bot engine");
+            Assertions.assertTrue(botEngine.getOverBudgetDecisions() <= botEngine.getDecisions(), "Decisions over budget are part of the decisions");
+        } finally {
+            game.stop();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.hit.android.haim.texasholdem.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class EventLogTest {
+    @Test
+    public void testEventLog_enabledLevel_eventIsFormattedWithFields() {
+        // Arrange
+        RecordingEventLog log = new RecordingEventLog(EventLog.Level.INFO);
+
+        // Act
+        log.info("Executing player action", "game", "abc", "player", "Goku", "action", "CALL");
+        log.info("Starting new game");
+
+        // Assert
+        Assertions.assertEquals(2, log.messages.size(), "Both events supposed to be written");
+        Assertions.assertEquals("Executing player action. [game=abc, player=Goku, action=CALL]", log.messages.get(0));
+        Assertions.assertEquals("Starting new game.", log.messages.get(1));
+    }
+
+    @Test
+    public void testEventLog_disabledLevel_valuesAreNotFormatted() {
+        // Arrange
+        RecordingEventLog log = new RecordingEventLog(EventLog.Level.INFO);
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("Values of a disabled event must not be formatted");
+            }
+        };
+
+        // Act
+        log.debug("Moving turn to next player", "game", value, "player", value);
+
+        // Assert
+        Assertions.assertTrue(log.messages.isEmpty(), "Debug events are disabled");
+    }
+
+    private static class RecordingEventLog extends EventLog {
+        private final Level minLevel;
+        private final List<String> messages = new ArrayList<>();
+
+        RecordingEventLog(Level minLevel) {
+            this.minLevel = minLevel;
+        }
+
+        @Override
+        public boolean isEnabled(Level level) {
+            return level.compareTo(minLevel) >= 0;
+        }
+
+        @Override
+        protected void write(Level level, String message, Throwable error) {
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.hit.android.haim.texasholdem.server.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Polls a running server the way clients of a game do, and prints the throughput and latency percentiles.<br/>
+ * We use it to compare the platform threads mode of the server with the virtual threads mode (threads.virtual) under the
+ * same load: Run the server with VIRTUAL_THREADS=false, run the load test, restart the server with VIRTUAL_THREADS=true
+ * and run the load test again, with the same arguments.<br/>
+ * Every simulated user signs up (once. Users are kept for the next runs), signs in and joins a table. Then it polls the
+ * info of its game, the players and the chat of its table, one request after another, once in a poll interval.
+ * Only the polling is measured, after a warm up.<br/>
+ * Usage: {@code gradlew :texas-holdem-server:loadTest -PloadTest.users=2000 -PloadTest.duration=120}
+ * Arguments are {@code key=value} pairs. See {@link #main(String[])} for the keys and their defaults.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class PollingLoadTest {
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String PASSWORD = "LoadTest1234";
+
+    /**
+     * Latencies are recorded in buckets of 100 microseconds, up to 30 seconds
+     */
+    private static final long BUCKET_MICROS = 100;
+    private static final int BUCKETS = 300_000;
+
+    private final String baseUrl;
+    private final int users;
+    private final int playersPerTable;
+    private final long pollIntervalMillis;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final int setupThreads;
+    private final HttpClient client;
+
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder tooManyRequests = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean isRecording;
+
+    private PollingLoadTest(Map<String, String> args) {
+        baseUrl = args.getOrDefault("baseUrl", "http://localhost:8080");
+        users = Integer.parseInt(args.getOrDefault("users", "1000"));
+        playersPerTable = Integer.parseInt(args.getOrDefault("playersPerTable", "5"));
+        pollIntervalMillis = Long.parseLong(args.getOrDefault("pollIntervalMillis", "1000"));
+        warmupMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args.getOrDefault("warmup", "30")));
+        durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args.getOrDefault("duration", "120")));
+        setupThreads = Integer.parseInt(args.getOrDefault("setupThreads", "4"));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    /**
+     * Arguments, as key=value pairs:
+     * <ul>
+     *     <li>baseUrl - The server to load. Default: http://localhost:8080</li>
+     *     <li>users - Amount of simulated users. Default: 1000</li>
+     *     <li>playersPerTable - Amount of users at every table. Default: 5</li>
+     *     <li>pollIntervalMillis - How often a user polls, like the client does. Default: 1000</li>
+     *     <li>warmup - Seconds of polling before we start measuring. Default: 30</li>
+     *     <li>duration - Seconds of polling we measure. Default: 120</li>
+     *     <li>setupThreads - Amount of users that sign up, sign in and join at once. Default: 4</li>
+     * </ul>
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+
+        new PollingLoadTest(arguments).run();
+    }
+
+    private void run() throws Exception {
+        System.out.println("Setting up " + users + " users at " + baseUrl + ", " + playersPerTable + " per table");
+        List<Table> tables = setup();
+
+        System.out.println("Polling every " + pollIntervalMillis + "ms. Warm up " + TimeUnit.MILLISECONDS.toSeconds(warmupMillis) +
+            "s, then measure " + TimeUnit.MILLISECONDS.toSeconds(durationMillis) + "s");
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        long end = System.currentTimeMillis() + warmupMillis + durationMillis;
+        CountDownLatch done = new CountDownLatch(users);
+        int userIndex = 0;
+        for (Table table : tables) {
+            for (String token : table.tokens) {
+                // Spread the users over the first interval, so they do not all poll at once
+                long delay = userIndex++ * pollIntervalMillis / users;
+                scheduler.schedule(() -> poll(scheduler, table.gameHash, token, end, done), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        Thread.sleep(warmupMillis);
+        isRecording = true;
+        Thread.sleep(durationMillis);
+        isRecording = false;
+        done.await(1, TimeUnit.MINUTES);
+        scheduler.shutdownNow();
+
+        report();
+    }
+
+    /**
+     * Sign all of the users up and in, and seat them at tables
+     */
+    private List<Table> setup() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, setupThreads));
+        try {
+            List<Future<Table>> futures = new ArrayList<>();
+            for (int first = 0; first < users; first += playersPerTable) {
+                int from = first;
+                int to = Math.min(users, first + playersPerTable);
+                futures.add(executor.submit(() -> setupTable(from, to)));
+            }
+
+            List<Table> tables = new ArrayList<>();
+            for (Future<Table> future : futures) {
+                tables.add(future.get());
+            }
+
+            return tables;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Table setupTable(int fromUser, int toUser) throws Exception {
+        Table table = new Table();
+        for (int i = fromUser; i < toUser; i++) {
+            String userId = "loadtest-" + i;
+            String token = signIn(userId);
+            if (table.gameHash == null) {
+                String gameHash = send(request("/game/new", token).POST(json("{\"smallBet\":1,\"bigBet\":2}")), 200);
+                table.gameHash = gameHash.replace("\"", "").trim();
+            }
+
+            send(request("/game/" + table.gameHash + "/join", token)
+                .PUT(json("{\"id\":\"" + userId + "\",\"name\":\"" + userId + "\",\"chips\":{\"chips\":0},\"position\":" + (i - fromUser) + "}")), 200);
+            table.tokens.add(token);
+        }
+
+        return table;
+    }
+
+    private String signIn(String userId) throws Exception {
+        // Users are kept between runs, so a user that is already registered is fine
+        send(request("/user/signup", null)
+            .PUT(json("{\"id\":\"" + userId + "\",\"pwd\":\"" + PASSWORD + "\",\"name\":\"" + userId + "\",\"dateOfBirth\":\"2000-01-01\"}")), 200, 400);
+
+        String response = send(request("/user/signin", null).POST(json("{\"id\":\"" + userId + "\",\"pwd\":\"" + PASSWORD + "\"}")), 200);
+        Matcher matcher = TOKEN.matcher(response);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Sign in of " + userId + " responded without a token: " + response);
+        }
+
+        return matcher.group(1);
+    }
+
+    /**
+     * Send a setup request. Retry while the server is overloaded. (429)
+     * @return Body of the response
+     */
+    private String send(HttpRequest.Builder request, int... expectedStatuses) throws Exception {
+        while (true) {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 429) {
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, retryAfter)));
+                continue;
+            }
+
+            for (int expectedStatus : expectedStatuses) {
+                if (response.statusCode() == expectedStatus) {
+                    return response.body();
+                }
+            }
+
+            throw new IllegalStateException(request.build().uri() + " responded " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    /**
+     * Poll the game, the players and the chat of a table, one after another, and schedule the next poll
+     */
+    private void poll(ScheduledExecutorService scheduler, String gameHash, String token, long end, CountDownLatch done) {
+        long start = System.currentTimeMillis();
+        if (start >= end) {
+            done.countDown();
+            return;
+        }
+
+        measure(request("/game/" + gameHash + "/info", token).GET())
+            .thenCompose(ignore -> measure(request("/game/" + gameHash + "/players", token).GET()))
+            .thenCompose(ignore -> measure(request("/message/" + gameHash + "/after/0", token).GET()))
+            .whenComplete((ignore, e) -> {
+                long delay = Math.max(0, start + pollIntervalMillis - System.currentTimeMillis());
+                try {
+                    scheduler.schedule(() -> poll(scheduler, gameHash, token, end, done), delay, TimeUnit.MILLISECONDS);
+                } catch (Exception rejected) {
+                    // Scheduler is shut down
+                    done.countDown();
+                }
+            });
+    }
+
+    private CompletableFuture<Void> measure(HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+            .handle((response, e) -> {
+                if (isRecording) {
+                    record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    if (e != null) {
+                        errors.increment();
+                    } else if (response.statusCode() == 429) {
+                        tooManyRequests.increment();
+                    } else if (response.statusCode() / 100 == 2) {
+                        ok.increment();
+                    } else {
+                        failed.increment();
+                    }
+                }
+
+                return null;
+            });
+    }
+
+    private void record(long micros) {
+        latencies.incrementAndGet((int) Math.min(BUCKETS - 1, micros / BUCKET_MICROS));
+    }
+
+    private void report() {
+        long total = ok.sum() + tooManyRequests.sum() + failed.sum() + errors.sum();
+        double seconds = durationMillis / 1000.0;
+        System.out.println(String.format("Requests: %d (%.1f/s). OK: %d, 429: %d, Failed: %d, Errors: %d",
+            total, total / seconds, ok.sum(), tooManyRequests.sum(), failed.sum(), errors.sum()));
+        System.out.println(String.format("Latency (ms): p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+            percentile(total, 0.5), percentile(total, 0.9), percentile(total, 0.99), percentile(total, 0.999), percentile(total, 1)));
+    }
+
+    private double percentile(long total, double percentile) {
+        long rank = (long) Math.ceil(total * percentile);
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += latencies.get(i);
+            if ((count >= rank) && (count > 0)) {
+                return (i + 1) * BUCKET_MICROS / 1000.0;
+            }
+        }
+
+        return 0;
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        return request;
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    /**
+     * A game and the tokens of the users sitting at its table
+     */
+    private static class Table {
+        private String gameHash;
+        private final List<String> tokens = new ArrayList<>();
+    }
+}
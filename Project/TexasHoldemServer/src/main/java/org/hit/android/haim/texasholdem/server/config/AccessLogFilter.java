@@ -0,0 +1,270 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.server.trace.Tracing;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Writes an access log, as json lines, to the {@code accesslog} logger. (See log4j2.xml)<br/>
+ * Clients poll the server every second, so we do not log all requests. Failed requests (status 400 and up) and slow
+ * requests are always logged, while the rest are sampled by {@code access-log.sample-rate}.<br/>
+ * The request thread only captures a few fields into an entry and offers it to a bounded queue. A single background
+ * thread formats the entries and writes them, and when the queue is full, entries are dropped rather than blocking requests.<br/>
+ * Headers and payloads are not logged unless configured, and even then, they are capped, sensitive headers are redacted,
+ * JWT tokens and passwords are masked, and payloads of sign in and sign up are never logged.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class AccessLogFilter extends OncePerRequestFilter implements AutoCloseable {
+    private static final Logger accessLog = LogManager.getLogger("accesslog");
+    private static final String REDACTED = "***";
+
+    /**
+     * Matches a JWT token, e.g. in a query string or a payload
+     */
+    private static final Pattern JWT = Pattern.compile("eyJ[\\w-]*\\.[\\w-]*\\.[\\w-]*");
+
+    /**
+     * Matches the value of a password field in a json payload. Passwords are sent as a string or as an array of characters.
+     * The value might be cut by the cap of the payload, so it also matches a value that reaches the end of the payload
+     */
+    private static final Pattern PASSWORD = Pattern.compile("(\"(?:pwd|password)\"\\s*:\\s*)(\"(?:[^\"\\\\]|\\\\.)*(?:\"|$)|\\[[^\\]]*(?:\\]|$))", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Paths whose payloads are never logged, as they are all about credentials
+     */
+    private static final Set<String> CREDENTIAL_PATHS = Set.of("/user/signin", "/user/signup");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final boolean includeHeaders;
+    private final boolean includePayload;
+    private final int maxLength;
+
+    /**
+     * Names of headers (lower case) whose values are never logged
+     */
+    private final Set<String> redactedHeaders;
+
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean isRunning = true;
+
+    /**
+     * Constructs a new {@link AccessLogFilter}
+     * @param sampleRate The fraction of successful requests to log, between 0 and 1
+     * @param slowThresholdMillis Requests that take longer than this are always logged
+     * @param includeHeaders Whether to log request headers
+     * @param includePayload Whether to log request payloads. Payloads are copied for sampled requests only
+     * @param maxLength Maximum length of a query string, header value or payload. Longer values are truncated
+     * @param redactedHeaders Names of headers whose values are never logged
+     * @param queueCapacity Maximum amount of entries waiting to be written
+     */
+    public AccessLogFilter(double sampleRate, long slowThresholdMillis, boolean includeHeaders, boolean includePayload, int maxLength,
+                           Set<String> redactedHeaders, int queueCapacity) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.includeHeaders = includeHeaders;
+        this.includePayload = includePayload;
+        this.maxLength = maxLength;
+        this.redactedHeaders = redactedHeaders.stream().map(header -> header.trim().toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        writer = new CustomThreadFactory("AccessLogWriter").newThread(this::writeEntries);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long startTime = System.nanoTime();
+
+        // Decide up front, so we copy payloads of sampled requests only
+        boolean isSampled = (sampleRate > 0) && ((sampleRate >= 1) || (ThreadLocalRandom.current().nextDouble() < sampleRate));
+        boolean isPayloadLogged = isSampled && includePayload && !CREDENTIAL_PATHS.contains(request.getRequestURI());
+        HttpServletRequest loggedRequest = isPayloadLogged ? new ContentCachingRequestWrapper(request, maxLength) : request;
+
+        try {
+            filterChain.doFilter(loggedRequest, response);
+        } finally {
+            long durationNanos = System.nanoTime() - startTime;
+            int status = response.getStatus();
+            if (isSampled || (status >= 400) || (durationNanos >= slowThresholdNanos)) {
+                Entry entry = new Entry();
+                entry.timestamp = System.currentTimeMillis();
+                entry.method = request.getMethod();
+                entry.path = request.getRequestURI();
+                entry.query = request.getQueryString();
+                entry.status = status;
+                entry.durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+                entry.client = request.getRemoteAddr();
+                entry.user = (String) request.getAttribute(Tracing.PLAYER_ID_ATTRIBUTE);
+                if (includeHeaders) {
+                    entry.headers = captureHeaders(request);
+                }
+                if (loggedRequest instanceof ContentCachingRequestWrapper) {
+                    byte[] content = ((ContentCachingRequestWrapper) loggedRequest).getContentAsByteArray();
+                    entry.payload = content.length == 0 ? null : new String(content, StandardCharsets.UTF_8);
+                }
+
+                if (!queue.offer(entry)) {
+                    droppedEntries.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Amount of entries that were dropped since start up because the queue was full
+     */
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    private List<String[]> captureHeaders(HttpServletRequest request) {
+        List<String[]> headers = new ArrayList<>();
+        Enumeration<String> names = request.getHeaderNames();
+        while ((names != null) && names.hasMoreElements()) {
+            String name = names.nextElement();
+            headers.add(new String[] { name, redactedHeaders.contains(name.toLowerCase(Locale.ROOT)) ? REDACTED : request.getHeader(name) });
+        }
+
+        return headers;
+    }
+
+    /**
+     * The loop of the writer thread. Formats entries and writes them, until the filter is closed.
+     */
+    private void writeEntries() {
+        JsonFactory jsonFactory = new JsonFactory();
+        StringWriter line = new StringWriter(512);
+        long reportedDrops = 0;
+
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                Entry entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    line.getBuffer().setLength(0);
+                    writeEntry(jsonFactory, line, entry);
+                    write(line.toString());
+                }
+
+                long drops = droppedEntries.get();
+                if (drops != reportedDrops) {
+                    accessLog.warn("{\"dropped\":" + (drops - reportedDrops) + "}");
+                    reportedDrops = drops;
+                }
+            } catch (InterruptedException e) {
+                isRunning = false;
+            } catch (Exception e) {
+                // Do not let a malformed entry stop the access log
+                logger.error("Failed to write access log entry", e);
+            }
+        }
+    }
+
+    private void writeEntry(JsonFactory jsonFactory, StringWriter line, Entry entry) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(line)) {
+            json.writeStartObject();
+            json.writeNumberField("time", entry.timestamp);
+            json.writeStringField("method", entry.method);
+            json.writeStringField("path", entry.path);
+            if (entry.query != null) {
+                json.writeStringField("query", sanitize(entry.query));
+            }
+            json.writeNumberField("status", entry.status);
+            json.writeNumberField("durationMicros", entry.durationMicros);
+            json.writeStringField("client", entry.client);
+            if (entry.user != null) {
+                json.writeStringField("user", entry.user);
+            }
+            if (entry.headers != null) {
+                json.writeObjectFieldStart("headers");
+                for (String[] header : entry.headers) {
+                    json.writeStringField(header[0], sanitize(header[1]));
+                }
+                json.writeEndObject();
+            }
+            if (entry.payload != null) {
+                json.writeStringField("payload", sanitize(entry.payload));
+            }
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Write a formatted entry to the access log. Called by the writer thread only
+     */
+    void write(String line) {
+        accessLog.info(line);
+    }
+
+    /**
+     * Mask JWT tokens and passwords, and truncate values longer than {@link #maxLength}
+     */
+    private String sanitize(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String result = JWT.matcher(value).replaceAll(REDACTED);
+        result = PASSWORD.matcher(result).replaceAll("$1\"" + REDACTED + "\"");
+        return result.length() > maxLength ? result.substring(0, maxLength) + "..." : result;
+    }
+
+    /**
+     * Stop the writer, after it writes the entries that are already in queue.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The fields we capture on the request thread. Everything else is done by the writer.
+     */
+    private static class Entry {
+        long timestamp;
+        String method;
+        String path;
+        String query;
+        int status;
+        long durationMicros;
+        String client;
+        String user;
+        List<String[]> headers;
+        String payload;
+    }
+}
@@ -0,0 +1,200 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.server.model.game.ShardedGameId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The server nodes of a cluster, and the shards each of them owns.<br/>
+ * Shards are assigned to nodes using a consistent hash ring, so every node computes the same assignment out of
+ * the same {@code cluster.nodes} list, and adding or removing a node moves the shards of its neighbours only.<br/>
+ * When {@code cluster.nodes} lists one node or less, this node owns all of the shards and nothing is routed.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+@Component
+public class ClusterTopology {
+    /**
+     * How many points each node has on the ring. More points spread the shards more evenly between nodes.
+     */
+    private static final int VIRTUAL_NODES = 160;
+
+    /**
+     * Comma separated base urls of all nodes in the cluster. e.g. http://localhost:8080,http://localhost:8081
+     */
+    @Value("${cluster.nodes:}")
+    private String nodes;
+
+    /**
+     * Base url of this node, as it appears in {@link #nodes}
+     */
+    @Value("${cluster.self:}")
+    private String self;
+
+    /**
+     * The node that owns each shard, where shard is the index
+     */
+    private final String[] shardToNode = new String[ShardedGameId.SHARDS];
+
+    /**
+     * Base urls of all nodes, except this one
+     */
+    private final List<String> remoteNodes = new ArrayList<>();
+
+    /**
+     * IP addresses of all nodes, except this one, so we can tell whether a request was sent by a node of the cluster
+     */
+    private final Set<String> remoteNodeAddresses = new HashSet<>();
+
+    private boolean isClustered;
+
+    @PostConstruct
+    public void init() {
+        List<String> nodeList = Arrays.stream(nodes.split(","))
+            .map(ClusterTopology::normalizeUrl)
+            .filter(node -> !node.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+
+        isClustered = nodeList.size() > 1;
+        if (!isClustered) {
+            log.info("Running as a single node. All shards are local.");
+            return;
+        }
+
+        self = normalizeUrl(self);
+        if (!nodeList.contains(self)) {
+            throw new IllegalStateException("cluster.self (" + self + ") must be one of cluster.nodes: " + nodeList);
+        }
+
+        for (String node : nodeList) {
+            if (!self.equals(node)) {
+                remoteNodes.add(node);
+                remoteNodeAddresses.addAll(resolveAddresses(node));
+            }
+        }
+
+        TreeMap<Integer, String> ring = new TreeMap<>();
+        for (String node : nodeList) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+
+        List<Integer> localShards = new ArrayList<>();
+        for (int shard = 0; shard < ShardedGameId.SHARDS; shard++) {
+            Map.Entry<Integer, String> owner = ring.ceilingEntry(hash("shard-" + shard));
+            if (owner == null) {
+                owner = ring.firstEntry();
+            }
+
+            shardToNode[shard] = owner.getValue();
+            if (self.equals(owner.getValue())) {
+                localShards.add(shard);
+            }
+        }
+
+        if (localShards.isEmpty()) {
+            throw new IllegalStateException("Node " + self + " does not own any shard. Cluster is too large for " + ShardedGameId.SHARDS + " shards.");
+        }
+
+        ShardedGameId.setLocalShards(localShards.stream().mapToInt(Integer::intValue).toArray());
+        log.info("Running as node " + self + " in a cluster of " + nodeList.size() + " nodes. Local shards: " + localShards);
+    }
+
+    /**
+     * @return Whether there are other nodes that we might route requests to, or not
+     */
+    public boolean isClustered() {
+        return isClustered;
+    }
+
+    /**
+     * Find the node that owns a game, in case it is not this node.
+     * @param gameId Identifier of a game
+     * @return Base url of the owning node, or empty when the game is owned by this node
+     */
+    public Optional<String> findRemoteOwner(int gameId) {
+        if (!isClustered) {
+            return Optional.empty();
+        }
+
+        String owner = shardToNode[ShardedGameId.shardOf(gameId)];
+        return self.equals(owner) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /**
+     * @return Base urls of all nodes, except this one. Empty when this node is not clustered
+     */
+    public List<String> getRemoteNodes() {
+        return Collections.unmodifiableList(remoteNodes);
+    }
+
+    /**
+     * Check whether an address belongs to another node of the cluster. We use it to trust headers that only nodes may send.
+     * @param address The IP address of a client. e.g. {@link javax.servlet.ServletRequest#getRemoteAddr()}
+     * @return Whether the address is the address of another node, or not
+     */
+    public boolean isRemoteNodeAddress(String address) {
+        if (!isClustered || (address == null) || address.isEmpty()) {
+            return false;
+        }
+
+        try {
+            // Address is an IP literal, so there is no lookup. We parse it to compare IPv6 addresses in the same format.
+            return remoteNodeAddresses.contains(InetAddress.getByName(address).getHostAddress());
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static Set<String> resolveAddresses(String node) {
+        try {
+            String host = URI.create(node).getHost();
+            if (host == null) {
+                throw new UnknownHostException(node);
+            }
+
+            return Arrays.stream(InetAddress.getAllByName(host)).map(InetAddress::getHostAddress).collect(Collectors.toSet());
+        } catch (UnknownHostException | IllegalArgumentException e) {
+            log.warn("Cannot resolve the address of node " + node + ". Requests it forwards will be routed again.");
+            return Collections.emptySet();
+        }
+    }
+
+    private static String normalizeUrl(String url) {
+        String result = url == null ? "" : url.trim();
+        while (result.endsWith("/")) {
+            result = result.substring(0, result.length() - 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * We cannot use {@link String#hashCode()} for the ring, as close strings (node#1, node#2) get close hash codes,
+     * which would cluster the points of a node together. MD5 spreads them, and is the same on every JVM.
+     */
+    private static int hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ((digest[0] & 0xFF) << 24) | ((digest[1] & 0xFF) << 16) | ((digest[2] & 0xFF) << 8) | (digest[3] & 0xFF);
+        } catch (NoSuchAlgorithmException e) {
+            // MD5 is a mandatory algorithm of every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.service.UserService;
 import org.hit.android.haim.texasholdem.server.security.JwtUtils;
+import org.hit.android.haim.texasholdem.server.trace.Tracing;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -41,7 +42,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Some hard coded shit, I know.. But this is a "before" filter without a bean to control on which paths it should not apply.
         // We cannot validate JWT token for the signup and signin, since server has not created a JWT yet.
-        if ((pathInfo != null) && !pathInfo.isBlank() && !pathInfo.trim().equals("/") && !pathInfo.toLowerCase().contains("user/signin") && !pathInfo.toLowerCase().contains("user/signup")) {
+        if ((pathInfo != null) && !pathInfo.isBlank() && !pathInfo.trim().equals("/") && !pathInfo.trim().equals("/metrics") && !pathInfo.trim().equals("/tracing") && !pathInfo.toLowerCase().contains("user/signin") && !pathInfo.toLowerCase().contains("user/signup")) {
             // Get these by ourselves since the class is not a @Component, cause we don't want the filter to be applied for all requests.
             if (userService == null) {
                 ServletContext servletContext = request.getServletContext();
@@ -71,6 +72,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (user != null) {
                 // Keep userId to current thread
                 ThreadContextMap.getInstance().setUserId(user.getId());
+                request.setAttribute(Tracing.PLAYER_ID_ATTRIBUTE, user.getId());
 
                 if (SecurityContextHolder.getContext().getAuthentication() == null) {
                     UserDetails userDetails = userService.loadUserByUsername(user.getId());
@@ -0,0 +1,122 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hit.android.haim.texasholdem.server.trace.Tracing;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate of requests per user and endpoint, with an in memory token bucket.<br/>
+ * Clients poll the server a few times per second, so this protects the server from a misbehaving or outdated client
+ * that polls too often. Requests over the limit are rejected with 429 (Too Many Requests) and a Retry-After header.<br/>
+ * Polling is reading, so only GET requests are limited. e.g. sending chat messages to a polled channel is not.<br/>
+ * A bucket is a single {@link AtomicLong}, holding the time at which the bucket will be full again. (Generic cell rate algorithm)
+ * A request adds one interval to it, and is allowed as long as the bucket does not get fuller than the burst.
+ * This way acquiring a token is a compare-and-set, without locks. Buckets of users that stopped sending requests expire.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+    /**
+     * Buckets by user and endpoint. A bucket that was not used for a minute is full anyway, so we can drop it.
+     */
+    private final Cache<String, AtomicLong> buckets = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+
+    /**
+     * Time between two tokens, in nanoseconds
+     */
+    private final long intervalNanos;
+
+    /**
+     * How far ahead of now a bucket can get, in nanoseconds. (Burst size multiplied by interval)
+     */
+    private final long burstNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Current time, in nanoseconds
+     */
+    private final LongSupplier nanoClock;
+
+    /**
+     * Constructs a new {@link RateLimitInterceptor}
+     * @param requestsPerSecond Sustained amount of requests a user can send to an endpoint per second
+     * @param burst Amount of requests a user can send to an endpoint at once
+     * @param meterRegistry Where to count rejected requests
+     */
+    public RateLimitInterceptor(double requestsPerSecond, int burst, MeterRegistry meterRegistry) {
+        this(requestsPerSecond, burst, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new {@link RateLimitInterceptor}, with a clock of our own. (e.g. for tests)
+     */
+    RateLimitInterceptor(double requestsPerSecond, int burst, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        burstNanos = intervalNanos * Math.max(1, burst);
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern == null ? request.getServletPath() : pattern.toString();
+        Object userId = request.getAttribute(Tracing.PLAYER_ID_ATTRIBUTE);
+        String key = (userId == null ? request.getRemoteAddr() : userId) + " " + request.getMethod() + " " + endpoint;
+
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        long waitNanos = tryAcquire(bucket, now);
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        meterRegistry.counter("texasholdem.ratelimit.rejected", "endpoint", endpoint).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("\"Too many requests. Please slow down.\"");
+        return false;
+    }
+
+    /**
+     * Take a token out of a bucket
+     * @param bucket The time at which the bucket is full
+     * @param now Current time, in nanoseconds
+     * @return 0 when a token was taken, or how long to wait for a token, in nanoseconds
+     */
+    private long tryAcquire(AtomicLong bucket, long now) {
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + intervalNanos;
+            long excess = newFullAt - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -61,6 +61,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
                         "/v3/api-docs",
                         "/webjars/**"
                         ,"/user/signin", "/user/test", "/game/all", "/user/signup", "/", "/favicon.ico").permitAll() // Do not authenticate these requests
+                .antMatchers("/metrics", "/tracing", "/message/archive/**").access("hasIpAddress('127.0.0.1') or hasIpAddress('::1')") // Metrics, tracing switch and chat archive search are for local use only
                 .anyRequest().authenticated() // All other requests need to be authenticated
                 .and()
 //            .requiresChannel()
@@ -0,0 +1,229 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.server.model.service.GameService;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Route requests of a game to the node that owns it.<br/>
+ * The owning node is derived from the game hash in the path (See {@link ClusterTopology}), so any node can accept
+ * {@code /game/{hash}/*} and {@code /message/{hash}/*} requests. Requests of games that belong to another node are either
+ * forwarded to it, and its response is returned as is, or redirected to it with 307, based on {@code cluster.routing}.<br/>
+ * Requests that look a game up by the user ({@code /game/mygame}, {@code /game/leader/hash}) have no hash to route by.
+ * They are handled locally, and when the user has no game here, we ask the other nodes for it.<br/>
+ * This filter runs before spring security, so the owning node is the one that authenticates a forwarded request.
+ * This requires all nodes to share the same {@code security.jwt.secret}.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+public class ShardRoutingFilter extends OncePerRequestFilter {
+    /**
+     * A header we add to forwarded requests, so a node will never forward a request it received from another node.
+     * (e.g. when nodes have different topologies during a rolling restart)<br/>
+     * It is trusted when it comes from another node of the cluster only, so clients cannot skip the routing.
+     */
+    public static final String FORWARDED_HEADER = "X-TexasHoldem-Forwarded-By";
+
+    /**
+     * Matches paths of a specific game. First group is the game hash.
+     */
+    private static final Pattern GAME_PATH = Pattern.compile("^/(?:game|message)/([^/]+)(?:/.*)?$");
+
+    /**
+     * Paths under /game and /message that are not a game hash
+     */
+    private static final Set<String> NON_GAME_SEGMENTS = Set.of("new", "all", "evictions", "archive");
+
+    /**
+     * Paths under /game that find the game of the requesting user, which can be at any node
+     */
+    private static final Set<String> USER_LOOKUP_SEGMENTS = Set.of("mygame", "leader");
+
+    /**
+     * Chat streams are never forwarded, as a forwarded response is returned once it is complete. They are redirected instead.
+     */
+    private static final String STREAM_SUFFIX = "/stream";
+
+    /**
+     * Headers we must not copy, as the http client manages them by itself
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("host", "connection", "content-length", "expect", "upgrade", "transfer-encoding", "keep-alive", "date", "from", "via", "warning");
+
+    /**
+     * Headers of a forwarded response we must not copy. Hop-by-hop headers, and the length, which the container sets for the body we write
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
+    private final ClusterTopology clusterTopology;
+    private final boolean isRedirect;
+    private final HttpClient httpClient;
+
+    /**
+     * Constructs a new {@link ShardRoutingFilter}
+     * @param clusterTopology The topology to find owning nodes with
+     * @param routing "redirect" to respond with 307, or anything else to forward requests
+     */
+    public ShardRoutingFilter(ClusterTopology clusterTopology, String routing) {
+        this.clusterTopology = clusterTopology;
+        this.isRedirect = "redirect".equalsIgnoreCase(routing);
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !clusterTopology.isClustered() || isForwardedByNode(request);
+    }
+
+    private boolean isForwardedByNode(HttpServletRequest request) {
+        if (request.getHeader(FORWARDED_HEADER) == null) {
+            return false;
+        }
+
+        if (!clusterTopology.isRemoteNodeAddress(request.getRemoteAddr())) {
+            log.warn("Ignoring " + FORWARDED_HEADER + " sent by " + request.getRemoteAddr() + ", which is not a node of the cluster");
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (isUserLookup(request.getServletPath())) {
+            lookUpAtAllNodes(request, response, filterChain);
+            return;
+        }
+
+        Optional<String> owner = findRemoteOwner(request.getServletPath());
+        if (owner.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String targetUrl = owner.get() + request.getRequestURI() + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        if (isRedirect || request.getServletPath().endsWith(STREAM_SUFFIX)) {
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader("Location", targetUrl);
+        } else {
+            forward(request, response, targetUrl);
+        }
+    }
+
+    private static boolean isUserLookup(String path) {
+        Matcher matcher = GAME_PATH.matcher(path == null ? "" : path);
+        return matcher.matches() && path.startsWith("/game/") && USER_LOOKUP_SEGMENTS.contains(matcher.group(1));
+    }
+
+    /**
+     * Handle a user lookup locally. When the user has no game here (404), ask the other nodes, and respond with
+     * the first response that is not 404. Lookups are always forwarded, as we do not know which node to redirect to.
+     */
+    private void lookUpAtAllNodes(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper localResponse = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, localResponse);
+        if ((localResponse.getStatus() != HttpServletResponse.SC_NOT_FOUND) || response.isCommitted()) {
+            localResponse.copyBodyToResponse();
+            return;
+        }
+
+        String pathAndQuery = request.getRequestURI() + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        for (String node : clusterTopology.getRemoteNodes()) {
+            try {
+                HttpResponse<byte[]> nodeResponse = send(request, new byte[0], node + pathAndQuery);
+                if (nodeResponse.statusCode() != HttpServletResponse.SC_NOT_FOUND) {
+                    // Status and headers of the local response were set on the response itself. Body is cached.
+                    response.reset();
+                    writeResponse(nodeResponse, response);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                // A node that is down has no games to find. Keep looking at the others.
+                log.warn("Failed to look up " + pathAndQuery + " at " + node + ": " + e.getMessage());
+            }
+        }
+
+        localResponse.copyBodyToResponse();
+    }
+
+    private Optional<String> findRemoteOwner(String path) {
+        Matcher matcher = GAME_PATH.matcher(path == null ? "" : path);
+        if (!matcher.matches() || NON_GAME_SEGMENTS.contains(matcher.group(1))) {
+            return Optional.empty();
+        }
+
+        try {
+            return clusterTopology.findRemoteOwner(GameService.gameIdFromGameHash(matcher.group(1)));
+        } catch (IllegalArgumentException e) {
+            // Not a game hash. Let the controller respond to it.
+            return Optional.empty();
+        }
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, String targetUrl) throws IOException {
+        try {
+            writeResponse(send(request, request.getInputStream().readAllBytes(), targetUrl), response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Interrupted while routing to " + targetUrl);
+        } catch (IOException e) {
+            log.error("Failed to route request to " + targetUrl, e);
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY, "Game node is unavailable");
+        }
+    }
+
+    /**
+     * Send a request to another node, with all of the headers of the original request
+     */
+    private HttpResponse<byte[]> send(HttpServletRequest request, byte[] body, String targetUrl) throws IOException, InterruptedException {
+        HttpRequest.Builder forwardRequest = HttpRequest.newBuilder(URI.create(targetUrl))
+            .timeout(Duration.ofSeconds(30))
+            .method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(body))
+            .header(FORWARDED_HEADER, request.getLocalAddr() + ":" + request.getLocalPort());
+        for (String headerName : Collections.list(request.getHeaderNames())) {
+            if (!RESTRICTED_HEADERS.contains(headerName.toLowerCase()) && !FORWARDED_HEADER.equalsIgnoreCase(headerName)) {
+                for (String headerValue : Collections.list(request.getHeaders(headerName))) {
+                    forwardRequest.header(headerName, headerValue);
+                }
+            }
+        }
+
+        return httpClient.send(forwardRequest.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Respond with the response of another node. All headers are copied (e.g. Retry-After, ETag, Cache-Control), except hop-by-hop ones.
+     */
+    private static void writeResponse(HttpResponse<byte[]> nodeResponse, HttpServletResponse response) throws IOException {
+        response.setStatus(nodeResponse.statusCode());
+        nodeResponse.headers().map().forEach((headerName, headerValues) -> {
+            // Skip HTTP/2 pseudo headers, such as :status
+            if (!headerName.startsWith(":") && !HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase())) {
+                headerValues.forEach(headerValue -> response.addHeader(headerName, headerValue));
+            }
+        });
+
+        response.getOutputStream().write(nodeResponse.body());
+    }
+}
@@ -1,21 +1,27 @@
 package org.hit.android.haim.texasholdem.server.config;
 
 import java.util.Collections;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hit.android.haim.texasholdem.server.security.BoundedPasswordEncoder;
+import org.hit.android.haim.texasholdem.server.trace.TracingFilter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.core.Ordered;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import org.springframework.web.filter.CommonsRequestLoggingFilter;
 
 /**
  * A class to configure Spring boot.<br/>
@@ -38,8 +44,9 @@ public class SpringBootConfiguration {
         // The problem is that we must make the cache transaction aware. Otherwise we might get into situations where the
         // cache was updated, but transaction failed. In this way we will look at the data in memory, but it will be lost
         // because that data was not persisted.
+        // Caffeine records hits and misses, so the hit rate of the cache is part of the metrics.
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Collections.singletonList(new ConcurrentMapCache("userCache")));
+        cacheManager.setCaches(Collections.singletonList(new CaffeineCache("userCache", Caffeine.newBuilder().recordStats().build())));
 
         // Manually call initialize the caches as our SimpleCacheManager is not declared as a bean
         cacheManager.initializeCaches();
@@ -47,10 +54,15 @@ public class SpringBootConfiguration {
         return new TransactionAwareCacheManagerProxy(cacheManager);
     }
 
-    // In order to hash passwords, rather than saving them as clear text in our database
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // In order to hash passwords, rather than saving them as clear text in our database.
+    // Hashing is CPU heavy, so it runs on a bounded pool, and sign-ins are rejected with 429 when the pool is overloaded.
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(@Value("${security.password.cost:10}") int cost,
+                                           @Value("${security.password.threads:2}") int threads,
+                                           @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.timeout-millis:3000}") long timeoutMillis,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(cost, threads, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
@@ -86,15 +98,63 @@ public class SpringBootConfiguration {
     //     return tomcat;
     // }
 
+    /**
+     * Route requests of games owned by other nodes to their owners. Registered before spring security,
+     * so we do not authenticate requests that another node is responsible for.
+     */
+    @Bean
+    public FilterRegistrationBean<ShardRoutingFilter> shardRoutingFilter(ClusterTopology clusterTopology, @Value("${cluster.routing:forward}") String routing) {
+        FilterRegistrationBean<ShardRoutingFilter> registration = new FilterRegistrationBean<>(new ShardRoutingFilter(clusterTopology, routing));
+        registration.addUrlPatterns("/game/*", "/message/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Record an event per request for the flight recorder. Registered right after the routing of requests, so
+     * a request is traced by the node that handles it.
+     */
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter() {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Replaces the default json converter of spring, to measure json serialization time per endpoint.
+     */
+    @Bean
+    public TimedJsonHttpMessageConverter timedJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TimedJsonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    /**
+     * Sampled access log, written by a background thread. See {@link AccessLogFilter}<br/>
+     * The filter is a bean so it is closed on shut down, and it is registered by {@link #accessLogFilterRegistration(AccessLogFilter)}
+     */
+    @Bean
+    public AccessLogFilter accessLogFilter(@Value("${access-log.sample-rate:0.01}") double sampleRate,
+                                           @Value("${access-log.slow-threshold-millis:1000}") long slowThresholdMillis,
+                                           @Value("${access-log.include-headers:false}") boolean includeHeaders,
+                                           @Value("${access-log.include-payload:false}") boolean includePayload,
+                                           @Value("${access-log.max-length:1024}") int maxLength,
+                                           @Value("${access-log.redacted-headers:Authorization,Cookie,Set-Cookie}") Set<String> redactedHeaders,
+                                           @Value("${access-log.queue-capacity:10000}") int queueCapacity) {
+        return new AccessLogFilter(sampleRate, slowThresholdMillis, includeHeaders, includePayload, maxLength, redactedHeaders, queueCapacity);
+    }
+
+    /**
+     * Register the access log right after tracing, before spring security, so requests that are rejected by
+     * spring security are logged too, and their duration includes authentication.
+     */
     @Bean
-    public CommonsRequestLoggingFilter requestLoggingFilter() {
-        CommonsRequestLoggingFilter loggingFilter = new CommonsRequestLoggingFilter();
-        loggingFilter.setIncludeClientInfo(true);
-        loggingFilter.setIncludeQueryString(true);
-        loggingFilter.setIncludePayload(true);
-        loggingFilter.setMaxPayloadLength(100000);
-        loggingFilter.setIncludeHeaders(true);
-        return loggingFilter;
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilterRegistration(AccessLogFilter accessLogFilter) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(accessLogFilter);
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
     }
 
     // private Connector getHttpConnector() {
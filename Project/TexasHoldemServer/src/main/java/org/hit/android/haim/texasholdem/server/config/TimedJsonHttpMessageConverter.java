@@ -0,0 +1,74 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
+import org.hit.android.haim.texasholdem.server.trace.TraceEvents;
+import org.hit.android.haim.texasholdem.server.trace.Tracing;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The json converter of responses, measuring how long it takes to serialize the response of every endpoint.<br/>
+ * Endpoints are identified by their path pattern, e.g. {@code /game/{gameHash}}, so there is a single timer per endpoint.
+ * Serialization is also recorded as a {@link TraceEvents.StateSerialized} event for the flight recorder.
+ * Note that the measured time includes writing to the response buffer.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private static final String UNKNOWN_ENDPOINT = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new {@link TimedJsonHttpMessageConverter}
+     * @param objectMapper The object mapper of spring
+     * @param meterRegistry Where to record serialization time
+     */
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TraceEvents.StateSerialized event = new TraceEvents.StateSerialized();
+        event.begin();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            String endpoint = currentEndpoint();
+            sample.stop(Timer.builder("texasholdem.json.serialization")
+                .description("Time it takes to serialize the json response of an endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry));
+
+            event.endpoint = endpoint;
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            event.commit(requestAttributes instanceof ServletRequestAttributes ? Tracing.gameHashOf(((ServletRequestAttributes) requestAttributes).getRequest()) : null,
+                ThreadContextMap.getInstance().getUserId());
+        }
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return UNKNOWN_ENDPOINT;
+        }
+
+        Object pattern = requestAttributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? UNKNOWN_ENDPOINT : pattern.toString();
+    }
+}
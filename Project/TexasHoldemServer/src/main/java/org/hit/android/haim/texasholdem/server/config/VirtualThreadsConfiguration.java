@@ -0,0 +1,67 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the server on virtual threads when {@code threads.virtual=true} and the JVM supports them. (Java 21 and up)<br/>
+ * In this mode, Undertow dispatches servlet requests to a virtual thread per request, instead of its worker pool, and
+ * the threads of games (listener notifications, turn timers, round launchers) are virtual threads as well.
+ * This way requests that block on the database do not hold a worker thread, and the amount of polling clients is not
+ * limited by the size of the worker pool.<br/>
+ * Bots keep their low priority platform threads. When the JVM does not support virtual threads, the server falls back to platform threads.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+@Configuration
+public class VirtualThreadsConfiguration {
+    /**
+     * Whether the server runs on virtual threads
+     */
+    private final boolean isVirtualThreads;
+
+    /**
+     * Constructs a new {@link VirtualThreadsConfiguration}
+     * @param isVirtualThreads Whether to use virtual threads, if supported
+     */
+    public VirtualThreadsConfiguration(@Value("${threads.virtual:false}") boolean isVirtualThreads) {
+        if (isVirtualThreads && !CustomThreadFactory.isVirtualThreadsSupported()) {
+            log.warn("Virtual threads were requested, but they are not supported by Java " + System.getProperty("java.version") + ". Using platform threads.");
+        }
+
+        CustomThreadFactory.setVirtualThreads(isVirtualThreads);
+        this.isVirtualThreads = CustomThreadFactory.isVirtualThreads();
+        log.info("Server threads mode: " + (this.isVirtualThreads ? "virtual" : "platform"));
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsCustomizer() {
+        return factory -> {
+            if (isVirtualThreads) {
+                ExecutorService executor = newVirtualThreadPerTaskExecutor();
+                factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo.setExecutor(executor));
+            }
+        };
+    }
+
+    /**
+     * @return {@code Executors.newVirtualThreadPerTaskExecutor()}. Called by reflection as we compile for Java 11.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Virtual threads are not supported", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Interceptors of controller requests.<br/>
+ * Polling endpoints are rate limited per user. (See {@link RateLimitInterceptor}) These are the reads that clients
+ * repeat on a timer: game info, players and chat messages. Streams, history and search are not polled, so they are not limited.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    /**
+     * Constructs a new {@link WebMvcConfiguration}
+     * @param requestsPerSecond Sustained amount of requests a user can send to a polling endpoint per second
+     * @param burst Amount of requests a user can send to a polling endpoint at once
+     * @param meterRegistry Where to count rejected requests
+     */
+    public WebMvcConfiguration(@Value("${rate-limit.requests-per-second:5}") double requestsPerSecond,
+                               @Value("${rate-limit.burst:10}") int burst,
+                               MeterRegistry meterRegistry) {
+        rateLimitInterceptor = new RateLimitInterceptor(requestsPerSecond, burst, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor)
+            .addPathPatterns("/game/*/info", "/game/*/players", "/message/*", "/message/*/since/*", "/message/*/after/*");
+    }
+}
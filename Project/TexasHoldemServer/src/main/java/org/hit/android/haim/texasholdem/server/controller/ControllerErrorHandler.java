@@ -2,6 +2,8 @@ package org.hit.android.haim.texasholdem.server.controller;
 
 import com.fasterxml.jackson.databind.node.TextNode;
 import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.server.controller.common.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -16,7 +18,9 @@ public class ControllerErrorHandler {
     /**
      * Use this method to return an internal server error response, or bad request, depends on the type of the error.<br/>
      * In case the specified thrown is instance of IllegalArgumentException, this indicates a client error at the service layer,
-     * hence we return a BAD REQUEST for that. Otherwise, this is an unexpected server error.
+     * hence we return a BAD REQUEST for that. In case of {@link TooManyRequestsException}, the server is overloaded, and we
+     * return TOO MANY REQUESTS, letting the client know when to retry. It might be wrapped, e.g. by spring security, so we
+     * look for it in the causes too. Otherwise, this is an unexpected server error.
      * @param t A thrown to handle
      * @return A response entity with the exception message as body. (JsonNode, and not simple string)
      */
@@ -26,8 +30,30 @@ public class ControllerErrorHandler {
             return ResponseEntity.badRequest().body(new TextNode(t.getMessage()));
         }
 
+        TooManyRequestsException tooManyRequests = findTooManyRequests(t);
+        if (tooManyRequests != null) {
+            log.warn("Too Many Requests: " + tooManyRequests.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooManyRequests.getRetryAfterSeconds()))
+                .body(new TextNode(tooManyRequests.getMessage()));
+        }
+
         log.error("Unexpected error has occurred.", t);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new TextNode("Unexpected error has occurred. Reason: " + t.getMessage()));
     }
+
+    /**
+     * @param t A thrown to look at
+     * @return The {@link TooManyRequestsException} that is the specified thrown or one of its causes, or {@code null}
+     */
+    static TooManyRequestsException findTooManyRequests(Throwable t) {
+        for (Throwable curr = t; curr != null; curr = (curr.getCause() == curr ? null : curr.getCause())) {
+            if (curr instanceof TooManyRequestsException) {
+                return (TooManyRequestsException) curr;
+            }
+        }
+
+        return null;
+    }
 }
 
@@ -8,6 +8,8 @@ import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotLevel;
+import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.service.GameService;
 import org.hit.android.haim.texasholdem.server.security.JwtUtils;
@@ -92,6 +94,15 @@ public class GameController {
         }
     }
 
+    @GetMapping("/evictions")
+    public ResponseEntity<?> getEvictionCounts() {
+        try {
+            return ResponseEntity.ok(gameService.getEvictionCounts());
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
     @PutMapping("/{gameHash}/start")
     public ResponseEntity<?> startGame(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken, @PathVariable String gameHash) {
         try {
@@ -154,6 +165,25 @@ public class GameController {
         }
     }
 
+    /**
+     * Fill free seats of a game with bots. Available for the creator of a game only, before the game is started,
+     * or between rounds.
+     */
+    @PutMapping("/{gameHash}/bots")
+    public ResponseEntity<?> addBots(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken,
+                                     @PathVariable String gameHash,
+                                     @RequestParam(defaultValue = "1") int amount,
+                                     @RequestParam(defaultValue = "MEDIUM") BotLevel level) {
+        try {
+            User user = jwtUtils.parseToken(jwtToken);
+
+            // In case the game is active, or user is not the creator, an illegal argument exception will be thrown and return to client as BAD_REQUEST
+            return ResponseEntity.ok(gameService.addBots(gameHash, user.getId(), amount, level));
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
     @PutMapping("/{gameHash}/leave")
     public ResponseEntity<?> leaveGame(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken, @PathVariable String gameHash) {
         try {
@@ -178,7 +208,8 @@ public class GameController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok(game.get().getPlayers().getPlayers());
+            // Clients share a view of the game. Reveal the hand of the requesting user only.
+            return ResponseEntity.ok(gameService.viewOf(game.get()).playersFor(ThreadContextMap.getInstance().getUserId()));
         } catch (Throwable t) {
             return ControllerErrorHandler.handleServerError(t);
         }
@@ -200,7 +231,8 @@ public class GameController {
             }
 
             // Return game engine which contains all of the info, except sensitive data like player/deck cards.
-            return ResponseEntity.ok(game.get());
+            // Players share a view of the game. Reveal the hand of the requesting user only.
+            return ResponseEntity.ok(gameService.viewOf(game.get()).gameFor(user.getId()));
         } catch (Throwable t) {
             return ControllerErrorHandler.handleServerError(t);
         }
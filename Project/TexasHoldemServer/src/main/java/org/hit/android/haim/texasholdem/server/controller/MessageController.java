@@ -1,12 +1,16 @@
 package org.hit.android.haim.texasholdem.server.controller;
 
-import com.fasterxml.jackson.databind.node.TextNode;
+import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.service.MessageService;
+import org.hit.android.haim.texasholdem.server.security.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hit.android.haim.texasholdem.server.config.JwtAuthenticationFilter.AUTHORIZATION_HEADER;
 
 /**
  * All message RESTful web services are in this controller class.
@@ -20,10 +24,65 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
 
-    @PostMapping("/{channelName}/{userId}")
-    public ResponseEntity<?> sendMessage(@PathVariable("channelName") String channelName, @PathVariable("userId") String userId, @RequestBody TextNode content) {
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    /**
+     * Send a batch of messages, as a json array of strings, on behalf of the signed in user.
+     * Responds with the sent messages, including their sequence numbers, so clients can acknowledge them.
+     */
+    @PostMapping("/{channelName}")
+    public ResponseEntity<?> sendMessages(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken, @PathVariable("channelName") String channelName, @RequestBody List<String> contents) {
+        try {
+            User user = jwtUtils.parseToken(jwtToken);
+            return ResponseEntity.ok(messageService.sendMessages(channelName, user.getId(), contents));
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
+    /**
+     * Subscribe to a channel, to receive its messages and users as server sent events, and the state of its game when the
+     * signed in user is one of its players. Clients reconnect with the Last-Event-ID header, which is the sequence number
+     * of the last message they have.
+     */
+    @GetMapping("/{channelName}/stream")
+    public ResponseEntity<?> streamChannel(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken, @PathVariable("channelName") String channelName, @RequestHeader(value = "Last-Event-ID", required = false) Long lastMessageSeq) {
         try {
-            return ResponseEntity.ok(messageService.sendMessage(channelName, userId, content.asText()));
+            User user = jwtUtils.parseToken(jwtToken);
+            return ResponseEntity.ok(messageService.subscribe(channelName, user.getId(), lastMessageSeq == null ? 0 : lastMessageSeq));
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
+    /**
+     * Read a page of the archived history of a channel. Accessible to the players of its game only.
+     */
+    @GetMapping("/{channelName}/history")
+    public ResponseEntity<?> getChannelHistory(@RequestHeader(AUTHORIZATION_HEADER) String jwtToken,
+                                               @PathVariable("channelName") String channelName,
+                                               @RequestParam(value = "before", required = false) Long beforeMillis,
+                                               @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        try {
+            User user = jwtUtils.parseToken(jwtToken);
+            return ResponseEntity.ok(messageService.findHistory(channelName, user.getId(), beforeMillis == null ? Long.MAX_VALUE : beforeMillis, limit));
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
+    /**
+     * Search the chat archive, for moderation and support. Accessible from the local host only. (See SecurityConfiguration)
+     */
+    @GetMapping("/archive/search")
+    public ResponseEntity<?> searchArchive(@RequestParam(value = "channel", required = false) String channelName,
+                                           @RequestParam(value = "userId", required = false) String userId,
+                                           @RequestParam(value = "text", required = false) String text,
+                                           @RequestParam(value = "hours", defaultValue = "24") int hours,
+                                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(messageService.searchArchive(channelName, userId, text, hours, limit));
         } catch (Throwable t) {
             return ControllerErrorHandler.handleServerError(t);
         }
@@ -46,5 +105,14 @@ public class MessageController {
             return ControllerErrorHandler.handleServerError(t);
         }
     }
+
+    @GetMapping("/{channelName}/after/{lastMessageSeq}")
+    public ResponseEntity<?> getMessagesAfterSeqInChannel(@PathVariable("channelName") String channelName, @PathVariable("lastMessageSeq") long lastMessageSeq) {
+        try {
+            return ResponseEntity.ok(messageService.findLatestByChannelName(channelName, lastMessageSeq));
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
 }
 
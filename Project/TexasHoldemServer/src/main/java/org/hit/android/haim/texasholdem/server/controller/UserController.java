@@ -1,19 +1,25 @@
 package org.hit.android.haim.texasholdem.server.controller;
 
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotPlayer;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.bean.user.UserImpl;
 import org.hit.android.haim.texasholdem.server.model.service.UserService;
 import org.hit.android.haim.texasholdem.server.security.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.hit.android.haim.texasholdem.server.config.JwtAuthenticationFilter.AUTHORIZATION_HEADER;
@@ -31,6 +37,7 @@ public class UserController {
     static final String USER_DETAILS_ARE_MANDATORY_SIGN_UP_BAD_REQUEST = "Missing user details for sign up";
     static final String USER_DETAILS_ARE_MANDATORY_SIGN_IN_BAD_REQUEST = "Missing user details for sign in/out";
     static final String USER_IS_NOT_SIGNED_UP_BAD_REQUEST = "User is not signed up";
+    static final String USER_ID_IS_RESERVED_BAD_REQUEST = "User identifier cannot start with " + BotPlayer.ID_PREFIX;
     static final String WRONG_USERNAME_PASS_BAD_REQUEST = "Incorrect user name or password";
 
     @Autowired
@@ -51,6 +58,11 @@ public class UserController {
                 return ResponseEntity.badRequest().body(USER_DETAILS_ARE_MANDATORY_SIGN_UP_BAD_REQUEST);
             }
 
+            // Identifiers of bots are reserved, so a user can never take the seat of a bot
+            if (user.getId().toLowerCase(Locale.ROOT).startsWith(BotPlayer.ID_PREFIX)) {
+                return ResponseEntity.badRequest().body(USER_ID_IS_RESERVED_BAD_REQUEST);
+            }
+
             if (userService.existsById(user.getId())) {
                 return ResponseEntity.badRequest().body(USER_IS_ALREADY_REGISTERED_BAD_REQUEST);
             }
@@ -81,6 +93,11 @@ public class UserController {
             } catch (BadCredentialsException e) {
                 return ResponseEntity.badRequest().body(WRONG_USERNAME_PASS_BAD_REQUEST);
             } catch (AuthenticationException e) {
+                // Spring security wraps failures of looking the user up, e.g. when hashing is overloaded. (See BoundedPasswordEncoder)
+                if (ControllerErrorHandler.findTooManyRequests(e) != null) {
+                    return ControllerErrorHandler.handleServerError(e);
+                }
+
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unable to sign in: " + e.getMessage());
             }
 
@@ -142,6 +159,42 @@ public class UserController {
         }
     }
 
+    /**
+     * Get the profile image of a user, as raw bytes.<br/>
+     * The response carries an ETag (the digest of the image), so clients can cache the image and revalidate it with
+     * If-None-Match. When the image was not modified we respond with 304 and no body, so avatars are downloaded once.
+     * @param userId The user to get its image
+     * @param request Used to check the If-None-Match header
+     * @return The image, 304 when it was not modified, or 404 when there is no such user or the user has no image
+     */
+    @GetMapping("/{userId}/image")
+    public ResponseEntity<?> userImage(@PathVariable String userId, WebRequest request) {
+        try {
+            if ((userId == null) || userId.isBlank()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Optional<? extends User> userEntity = userService.findById(userId);
+            byte[] image = userEntity.map(User::getImage).orElse(null);
+            if ((image == null) || (image.length == 0)) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(image) + "\"";
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+            }
+
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(image);
+        } catch (Throwable t) {
+            return ControllerErrorHandler.handleServerError(t);
+        }
+    }
+
     @PostMapping("/{userId}/image")
     public ResponseEntity<?> updateUserImage(@PathVariable String userId, @RequestHeader(AUTHORIZATION_HEADER) String jwtToken, @RequestBody User user) {
         try {
@@ -0,0 +1,32 @@
+package org.hit.android.haim.texasholdem.server.controller.common;
+
+/**
+ * Thrown when the server is too busy to handle a request right now, and the client should retry later.<br/>
+ * Controllers respond with 429 (Too Many Requests) for this exception. (See {@link org.hit.android.haim.texasholdem.server.controller.ControllerErrorHandler ControllerErrorHandler})
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class TooManyRequestsException extends RuntimeException {
+    /**
+     * How many seconds a client should wait before retrying
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new {@link TooManyRequestsException}
+     * @param message The reason
+     * @param retryAfterSeconds How many seconds a client should wait before retrying
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return How many seconds a client should wait before retrying
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,134 @@
+package org.hit.android.haim.texasholdem.server.model.game;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A json copy of a game, taken once under the lock of the game, and shared by all of its readers. (Polling clients and
+ * push subscribers)<br/>
+ * {@link Player} reveals the hand of the user in the {@link ThreadContextMap} only, so a game used to be serialized
+ * for every reader. Instead, we serialize it once with no hand revealed, keep the hands aside, and reveal the hand of
+ * the reader in a copy of the json.<br/>
+ * A view is identified by the {@link GameEngine#getStateVersion() state version} of the game it was taken of, so
+ * readers can share it until the game changes. The shared json must not be modified.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Getter
+public class GameView {
+    private final int gameId;
+
+    /**
+     * The state version of the game when this view was taken
+     */
+    private final long version;
+
+    /**
+     * The game, with no hand revealed
+     */
+    private final JsonNode game;
+
+    /**
+     * Hand of every player, by player identifier
+     */
+    private final Map<String, JsonNode> hands;
+
+    private GameView(int gameId, long version, JsonNode game, Map<String, JsonNode> hands) {
+        this.gameId = gameId;
+        this.version = version;
+        this.game = game;
+        this.hands = hands;
+    }
+
+    /**
+     * Take a view of a game. The game cannot change while we copy it.
+     * @param game The game to take a view of
+     * @param objectMapper The object mapper to serialize the game with
+     * @return A view of the game
+     */
+    public static GameView of(GameEngine game, ObjectMapper objectMapper) {
+        ThreadContextMap threadContext = ThreadContextMap.getInstance();
+        String userId = threadContext.getUserId();
+        game.getGameLock().lock();
+        try {
+            // Serialize as nobody, so no hand is revealed
+            threadContext.setUserId(null);
+            JsonNode json = objectMapper.valueToTree(game);
+
+            Map<String, JsonNode> hands = new HashMap<>();
+            game.getPlayers().forEachPlayer(player -> hands.put(player.getId(),
+                player.getHand() == null ? NullNode.getInstance() : objectMapper.valueToTree(player.getHand())));
+
+            return new GameView(game.getId(), game.getStateVersion(), json, hands);
+        } finally {
+            game.getGameLock().unlock();
+            threadContext.setUserId(userId);
+        }
+    }
+
+    /**
+     * @param userId The user to reveal the hand of. Can be {@code null}
+     * @return The game, as the specified user is allowed to see it
+     */
+    public JsonNode gameFor(String userId) {
+        JsonNode hand = userId == null ? null : hands.get(userId);
+        if ((hand == null) || hand.isNull()) {
+            return game;
+        }
+
+        JsonNode result = game.deepCopy();
+        revealHand(result, userId, hand);
+        return result;
+    }
+
+    /**
+     * @param userId The user to reveal the hand of. Can be {@code null}
+     * @return The players sitting at the table, as the specified user is allowed to see them
+     */
+    public ArrayNode playersFor(String userId) {
+        ArrayNode players = JsonNodeFactory.instance.arrayNode();
+        game.path("players").path("playersArray").forEach(player -> {
+            if (!player.isNull()) {
+                players.add(player);
+            }
+        });
+
+        JsonNode hand = userId == null ? null : hands.get(userId);
+        if ((hand == null) || hand.isNull()) {
+            return players;
+        }
+
+        ArrayNode result = players.deepCopy();
+        revealHand(result, userId, hand);
+        return result;
+    }
+
+    /**
+     * Set the hand of every occurrence of a player in a json. (e.g. the player can be the dealer as well)
+     */
+    private static void revealHand(JsonNode json, String userId, JsonNode hand) {
+        if (json.isObject()) {
+            ObjectNode object = (ObjectNode) json;
+            JsonNode id = object.get("id");
+            if ((id != null) && id.isTextual() && userId.equals(id.textValue()) && object.has("hand")) {
+                object.set("hand", hand);
+            }
+        }
+
+        if (json.isContainerNode()) {
+            json.forEach(child -> revealHand(child, userId, hand));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.hit.android.haim.texasholdem.server.model.game;
+
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotEngine;
+import org.hit.android.haim.texasholdem.common.util.EventLog;
+
+/**
+ * An implementation of {@link BotEngine}, for the server side.<br/>
+ * Here we redirect logs to log4j2.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ServerBotEngine extends BotEngine {
+    private static final EventLog EVENT_LOG = new ServerEventLog(ServerBotEngine.class);
+
+    /**
+     * Constructs a new {@link ServerBotEngine}
+     * @param threads Amount of threads making decisions
+     * @param queueCapacity Maximum amount of bot turns waiting for a thread
+     * @param decisionBudgetMillis How much time a bot has to decide on an action
+     */
+    public ServerBotEngine(int threads, int queueCapacity, long decisionBudgetMillis) {
+        super(threads, queueCapacity, decisionBudgetMillis);
+    }
+
+    @Override
+    protected EventLog eventLog() {
+        return EVENT_LOG;
+    }
+}
@@ -0,0 +1,47 @@
+package org.hit.android.haim.texasholdem.server.model.game;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hit.android.haim.texasholdem.common.util.EventLog;
+
+/**
+ * An implementation of {@link EventLog}, for the server side.<br/>
+ * Events are written straight to log4j2, so they do not go through the redirected {@link System#out}.
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ServerEventLog extends EventLog {
+    private final Logger logger;
+
+    /**
+     * Constructs a new {@link ServerEventLog}
+     * @param loggerClass The class to name the logger after, so its level can be configured in log4j2.xml
+     */
+    public ServerEventLog(Class<?> loggerClass) {
+        logger = LogManager.getLogger(loggerClass);
+    }
+
+    @Override
+    public boolean isEnabled(EventLog.Level level) {
+        return logger.isEnabled(toLog4jLevel(level));
+    }
+
+    @Override
+    protected void write(EventLog.Level level, String message, Throwable error) {
+        logger.log(toLog4jLevel(level), message, error);
+    }
+
+    private static Level toLog4jLevel(EventLog.Level level) {
+        switch (level) {
+            case DEBUG:
+                return Level.DEBUG;
+            case WARN:
+                return Level.WARN;
+            case ERROR:
+                return Level.ERROR;
+            default:
+                return Level.INFO;
+        }
+    }
+}
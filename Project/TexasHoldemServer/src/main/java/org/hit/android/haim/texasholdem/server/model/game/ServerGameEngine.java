@@ -2,20 +2,22 @@ package org.hit.android.haim.texasholdem.server.model.game;
 
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import lombok.extern.log4j.Log4j2;
 import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngineSnapshot;
+import org.hit.android.haim.texasholdem.common.util.EventLog;
 import org.hit.android.haim.texasholdem.server.controller.common.Base64;
 
 /**
  * An implementation of {@link GameEngine}, for the server side.<br/>
- * Here we define the game hash and redirect logs to log4j2.
+ * Here we define the game identifier and hash, and redirect logs to log4j2.
  * @author Haim Adrian
  * @since 27-Jun-21
  */
-@Log4j2
 @NoArgsConstructor
 public class ServerGameEngine extends GameEngine {
+    private static final EventLog EVENT_LOG = new ServerEventLog(ServerGameEngine.class);
+
     /**
      * Constructs a new {@link ServerGameEngine}
      * @param gameSettings Preferences of a game.
@@ -25,14 +27,33 @@ public class ServerGameEngine extends GameEngine {
         super(gameSettings, listener);
     }
 
+    /**
+     * Restores a {@link ServerGameEngine} out of a snapshot
+     * @param snapshot The snapshot to restore a game from
+     * @param listener A listener to get notified upon player updates, so we can persist changes in chips amount.
+     */
+    public ServerGameEngine(@NonNull GameEngineSnapshot snapshot, @NonNull PlayerUpdateListener listener) {
+        super(snapshot, listener);
+    }
+
+    @Override
+    protected int generateId() {
+        return ShardedGameId.compose(super.generateId(), ShardedGameId.nextLocalShard());
+    }
+
+    @Override
+    protected int sequenceOf(int gameId) {
+        return ShardedGameId.sequenceOf(gameId);
+    }
+
     @Override
     protected void initGameHash() {
         gameHash = Base64.encodeToString(getId());
     }
 
     @Override
-    protected void info(String message) {
-        log.info(message);
+    protected EventLog eventLog() {
+        return EVENT_LOG;
     }
 }
 
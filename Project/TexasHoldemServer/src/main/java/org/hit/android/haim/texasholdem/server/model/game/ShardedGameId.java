@@ -0,0 +1,83 @@
+package org.hit.android.haim.texasholdem.server.model.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Game identifiers that encode the shard a game belongs to.<br/>
+ * The lowest {@link #SHARD_BITS} bits of an identifier are the shard, and the rest are the value of the game counter.
+ * This way any server node can tell which node owns a game, out of the game hash only, without asking anyone.<br/>
+ * Shards are virtual. Every node owns a set of shards (See {@link org.hit.android.haim.texasholdem.server.config.ClusterTopology ClusterTopology}),
+ * and new games are spread among the shards of the node that created them.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public final class ShardedGameId {
+    /**
+     * Amount of bits we use for the shard. 6 bits are 64 shards, which leaves 2^25 games per shard
+     */
+    public static final int SHARD_BITS = 6;
+    public static final int SHARDS = 1 << SHARD_BITS;
+    private static final int SHARD_MASK = SHARDS - 1;
+
+    /**
+     * The shards owned by this node. By default, when there is a single node, it owns all of the shards.
+     */
+    private static volatile int[] localShards = IntStream.range(0, SHARDS).toArray();
+
+    /**
+     * Used to spread new games among the local shards
+     */
+    private static final AtomicInteger localShardCounter = new AtomicInteger();
+
+    private ShardedGameId() {
+
+    }
+
+    /**
+     * Compose a game identifier
+     * @param sequence Value of the game counter
+     * @param shard The shard that a game belongs to
+     * @return The identifier of a game
+     */
+    public static int compose(int sequence, int shard) {
+        return (sequence << SHARD_BITS) | (shard & SHARD_MASK);
+    }
+
+    /**
+     * @param gameId Identifier of a game
+     * @return The shard that the specified game belongs to
+     */
+    public static int shardOf(int gameId) {
+        return gameId & SHARD_MASK;
+    }
+
+    /**
+     * @param gameId Identifier of a game
+     * @return The value of the game counter that the specified game was created with
+     */
+    public static int sequenceOf(int gameId) {
+        return gameId >>> SHARD_BITS;
+    }
+
+    /**
+     * @return One of the shards owned by this node, to create a new game at
+     */
+    public static int nextLocalShard() {
+        int[] shards = localShards;
+        return shards[Math.floorMod(localShardCounter.getAndIncrement(), shards.length)];
+    }
+
+    /**
+     * Set the shards owned by this node. Called once the cluster topology is known.
+     * @param shards The shards owned by this node. Cannot be empty.
+     */
+    public static void setLocalShards(int[] shards) {
+        if ((shards == null) || (shards.length == 0)) {
+            throw new IllegalArgumentException("A node must own one shard at least");
+        }
+
+        localShards = shards.clone();
+    }
+}
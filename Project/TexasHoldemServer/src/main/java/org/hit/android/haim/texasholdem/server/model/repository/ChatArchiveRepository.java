@@ -0,0 +1,590 @@
+package org.hit.android.haim.texasholdem.server.model.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.common.util.JsonUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A repository that archives chat messages to local files, so they are kept after their game is stopped, without
+ * loading the database.<br/>
+ * Messages are appended, as json lines, to segment files. Every segment holds the messages of one time partition
+ * ({@code chat.archive.partition}), and segments older than {@code chat.archive.retention} are deleted.<br/>
+ * For every segment we keep a sparse index, with the offset of every {@code chat.archive.index-interval}th message of
+ * each channel, so reading the history of a channel skips the parts of a segment before the channel started, and after
+ * the requested time. The index is written next to the segment when the segment is sealed, and rebuilt from the
+ * segment when it is missing. (e.g. after a crash)<br/>
+ * Segments are read through memory mapped buffers. Messages are written by a single background thread, so sending a
+ * message never waits for the disk. When the queue of the writer is full, messages are not archived.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+@Repository
+public class ChatArchiveRepository {
+    private static final String SEGMENT_PREFIX = "chat-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final DateTimeFormatter SEGMENT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = JsonUtils.createObjectMapper();
+
+    private final boolean isEnabled;
+    private final Path directory;
+    private final long partitionMillis;
+    private final long retentionMillis;
+    private final int indexInterval;
+
+    /**
+     * All segments, ordered from the oldest to the newest
+     */
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<ArchivedMessage> queue;
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private Thread writer;
+    private volatile boolean isRunning;
+
+    /**
+     * The segment the writer appends to, and its stream. Accessed by the writer thread only.
+     */
+    private Segment activeSegment;
+    private OutputStream activeOut;
+
+    /**
+     * Constructs a new {@link ChatArchiveRepository}
+     * @param isEnabled Whether to archive messages
+     * @param directory Where to keep the segments
+     * @param partition Time span of the messages in a segment
+     * @param retention How long to keep segments
+     * @param indexInterval Index every n-th message of a channel in a segment
+     * @param queueCapacity Maximum amount of messages waiting to be written
+     */
+    public ChatArchiveRepository(@Value("${chat.archive.enabled:true}") boolean isEnabled,
+                                 @Value("${chat.archive.dir:chat-archive}") String directory,
+                                 @Value("${chat.archive.partition:1h}") Duration partition,
+                                 @Value("${chat.archive.retention:7d}") Duration retention,
+                                 @Value("${chat.archive.index-interval:32}") int indexInterval,
+                                 @Value("${chat.archive.queue-capacity:10000}") int queueCapacity) {
+        this.isEnabled = isEnabled;
+        this.directory = Paths.get(directory);
+        this.partitionMillis = Math.max(TimeUnit.MINUTES.toMillis(1), partition.toMillis());
+        this.retentionMillis = retention.toMillis();
+        this.indexInterval = Math.max(1, indexInterval);
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * Load the existing segments, and start the writer.
+     */
+    @PostConstruct
+    public void open() {
+        if (!isEnabled) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    try {
+                        segments.add(loadSegment(file));
+                    } catch (Exception e) {
+                        log.error("Failed to load chat archive segment " + file.toAbsolutePath(), e);
+                    }
+                }
+            }
+
+            segments.sort(Comparator.comparingLong(segment -> segment.startMillis));
+            log.info("Loaded " + segments.size() + " chat archive segments from " + directory.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to load chat archive from " + directory.toAbsolutePath(), e);
+        }
+
+        isRunning = true;
+        writer = new CustomThreadFactory("ChatArchiveWriter", false).newThread(this::writeMessages);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Archive a message. The message is written in the background.
+     * @param message The message to archive. It must be appended to its channel already, so it has a sequence number
+     */
+    public void append(Message message) {
+        if (!isEnabled || !isRunning) {
+            return;
+        }
+
+        ArchivedMessage archived = new ArchivedMessage(toEpochMillis(message.getDateTimeSent()), message.getChannelId(), message.getSeq(),
+            message.getUser() == null ? null : message.getUser().getId(), message.getUser() == null ? null : message.getUser().getName(), message.getMessage());
+        if (!queue.offer(archived)) {
+            droppedMessages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Read a page of the history of a channel.<br/>
+     * To read the previous page, use the time of the first message in a page as {@code beforeMillis}.
+     * @param channel Name of the channel
+     * @param beforeMillis Read messages sent before this time, in milliseconds since epoch
+     * @param limit Maximum amount of messages to read
+     * @return The latest messages sent to the channel before the specified time, ordered from the oldest to the newest
+     */
+    public List<ArchivedMessage> findHistory(String channel, long beforeMillis, int limit) {
+        String channelToken = channelToken(channel);
+        Deque<ArchivedMessage> result = new ArrayDeque<>(limit);
+
+        // Go from the newest segment to the oldest one, until we have enough messages
+        for (int i = segments.size() - 1; (i >= 0) && (result.size() < limit); i--) {
+            Segment segment = segments.get(i);
+            List<IndexEntry> entries = segment.index.get(channel);
+            if ((segment.startMillis >= beforeMillis) || (entries == null) || entries.isEmpty()) {
+                continue;
+            }
+
+            // Start at the first message of the channel in this segment, and stop at the first indexed message that is too new
+            long from = entries.get(0).getOffset();
+            long to = Long.MAX_VALUE;
+            for (IndexEntry entry : entries) {
+                if (entry.getTime() >= beforeMillis) {
+                    to = entry.getOffset();
+                    break;
+                }
+            }
+
+            Deque<ArchivedMessage> page = scan(segment, from, to, channelToken,
+                message -> channel.equals(message.getChannel()) && (message.getTime() < beforeMillis), limit - result.size());
+            while (!page.isEmpty()) {
+                result.addFirst(page.pollLast());
+            }
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Search recent messages. All criteria are optional, and a message must match all of the specified ones.
+     * @param channel Name of a channel, or {@code null} to search all channels
+     * @param userId Identifier of the user who sent the message, or {@code null} for any user
+     * @param text Text to look for in messages, ignoring case, or {@code null} for any message
+     * @param sinceMillis Search messages sent since this time, in milliseconds since epoch
+     * @param limit Maximum amount of messages to find
+     * @return The latest matching messages, ordered from the oldest to the newest
+     */
+    public List<ArchivedMessage> search(String channel, String userId, String text, long sinceMillis, int limit) {
+        String channelToken = channel == null ? null : channelToken(channel);
+        String lowerText = text == null ? null : text.toLowerCase(Locale.ROOT);
+        Predicate<ArchivedMessage> filter = message -> (message.getTime() >= sinceMillis)
+            && ((channel == null) || channel.equals(message.getChannel()))
+            && ((userId == null) || userId.equals(message.getUserId()))
+            && ((lowerText == null) || ((message.getMessage() != null) && message.getMessage().toLowerCase(Locale.ROOT).contains(lowerText)));
+
+        Deque<ArchivedMessage> result = new ArrayDeque<>(limit);
+        for (int i = segments.size() - 1; (i >= 0) && (result.size() < limit); i--) {
+            Segment segment = segments.get(i);
+            if (segment.startMillis + partitionMillis <= sinceMillis) {
+                break;
+            }
+
+            long from = 0;
+            if (channel != null) {
+                List<IndexEntry> entries = segment.index.get(channel);
+                if ((entries == null) || entries.isEmpty()) {
+                    continue;
+                }
+
+                from = entries.get(0).getOffset();
+            }
+
+            Deque<ArchivedMessage> page = scan(segment, from, Long.MAX_VALUE, channelToken, filter, limit - result.size());
+            while (!page.isEmpty()) {
+                result.addFirst(page.pollLast());
+            }
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @return Amount of messages that were not archived since start up because the queue was full
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Read the messages of a segment between two offsets, and keep the latest ones that match a filter.
+     * @param segment The segment to read
+     * @param from Offset to start reading from. Must be the beginning of a line
+     * @param to Offset to stop reading at
+     * @param token When not null, lines that do not contain it are skipped without parsing them
+     * @param filter Which messages to keep
+     * @param limit Maximum amount of messages to keep
+     * @return The latest matching messages in the range, ordered from the oldest to the newest
+     */
+    private Deque<ArchivedMessage> scan(Segment segment, long from, long to, String token, Predicate<ArchivedMessage> filter, int limit) {
+        Deque<ArchivedMessage> result = new ArrayDeque<>();
+        ByteBuffer buffer;
+        try {
+            buffer = segment.read();
+        } catch (IOException e) {
+            log.error("Failed to read chat archive segment " + segment.file.toAbsolutePath(), e);
+            return result;
+        }
+
+        int end = (int) Math.min(to, buffer.limit());
+        int lineStart = (int) Math.min(from, end);
+        for (int i = lineStart; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                String line = decode(buffer, lineStart, i);
+                lineStart = i + 1;
+                if ((token != null) && !line.contains(token)) {
+                    continue;
+                }
+
+                try {
+                    ArchivedMessage message = objectMapper.readValue(line, ArchivedMessage.class);
+                    if (filter.test(message)) {
+                        result.addLast(message);
+                        if (result.size() > limit) {
+                            result.pollFirst();
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping a malformed line in chat archive segment " + segment.file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The loop of the writer thread. Writes messages until the repository is closed.
+     */
+    private void writeMessages() {
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                ArchivedMessage message = queue.poll(1, TimeUnit.SECONDS);
+                if (message != null) {
+                    write(message);
+                }
+
+                // Flush when there is nothing else to write, so readers see the messages
+                if (queue.isEmpty() && (activeOut != null)) {
+                    activeOut.flush();
+                    activeSegment.flushedSize = activeSegment.writtenSize;
+                }
+            } catch (InterruptedException e) {
+                isRunning = false;
+            } catch (Exception e) {
+                // Do not let a failure stop the archive
+                log.error("Failed to archive chat message", e);
+            }
+        }
+
+        try {
+            seal();
+        } catch (IOException e) {
+            log.error("Failed to seal chat archive segment", e);
+        }
+    }
+
+    private void write(ArchivedMessage message) throws IOException {
+        long partitionStart = message.getTime() - (message.getTime() % partitionMillis);
+        if ((activeSegment == null) || (partitionStart > activeSegment.startMillis)) {
+            roll(partitionStart);
+        }
+
+        byte[] line = objectMapper.writeValueAsBytes(message);
+        long offset = activeSegment.writtenSize;
+        activeOut.write(line);
+        activeOut.write('\n');
+        activeSegment.writtenSize += line.length + 1;
+        activeSegment.index(message.getChannel(), message.getTime(), offset, indexInterval);
+    }
+
+    /**
+     * Seal the active segment, start a segment for the specified partition, and delete expired segments.
+     */
+    private void roll(long partitionStart) throws IOException {
+        seal();
+
+        Path file = directory.resolve(SEGMENT_PREFIX + SEGMENT_TIME_FORMAT.format(Instant.ofEpochMilli(partitionStart)) + SEGMENT_SUFFIX);
+        Segment segment = segments.stream().filter(s -> s.file.equals(file)).findFirst().orElse(null);
+        if (segment == null) {
+            segment = new Segment(file, partitionStart);
+            segments.add(segment);
+        } else {
+            // We restarted in the middle of a partition. Keep appending to its segment.
+            segment.isSealed = false;
+            segment.mapped = null;
+            Files.deleteIfExists(indexFile(file));
+        }
+
+        activeSegment = segment;
+        activeOut = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+
+        // We append to the end of the file, so offsets of the new messages start there
+        segment.writtenSize = Files.size(file);
+        segment.flushedSize = segment.writtenSize;
+
+        long expiredBefore = partitionStart - retentionMillis;
+        for (Segment expired : segments) {
+            if ((retentionMillis > 0) && (expired.startMillis + partitionMillis <= expiredBefore)) {
+                segments.remove(expired);
+                Files.deleteIfExists(expired.file);
+                Files.deleteIfExists(indexFile(expired.file));
+                log.info("Deleted expired chat archive segment " + expired.file.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Close the active segment and write its index
+     */
+    private void seal() throws IOException {
+        if (activeSegment == null) {
+            return;
+        }
+
+        activeOut.close();
+        activeSegment.flushedSize = activeSegment.writtenSize;
+        activeSegment.isSealed = true;
+        objectMapper.writeValue(indexFile(activeSegment.file).toFile(), activeSegment.index);
+
+        activeSegment = null;
+        activeOut = null;
+    }
+
+    /**
+     * Load a segment, and its index. When there is no index, we build it by reading the segment.
+     */
+    private Segment loadSegment(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String time = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        Segment segment = new Segment(file, Instant.from(SEGMENT_TIME_FORMAT.parse(time)).toEpochMilli());
+        segment.writtenSize = Files.size(file);
+        segment.flushedSize = segment.writtenSize;
+        segment.isSealed = true;
+
+        Path indexFile = indexFile(file);
+        if (Files.exists(indexFile)) {
+            Map<String, List<IndexEntry>> index = objectMapper.readValue(indexFile.toFile(), new TypeReference<Map<String, List<IndexEntry>>>() {});
+            index.forEach((channel, entries) -> segment.index.put(channel, new CopyOnWriteArrayList<>(entries)));
+        } else {
+            ByteBuffer buffer = segment.read();
+            int lineStart = 0;
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    try {
+                        ArchivedMessage message = objectMapper.readValue(decode(buffer, lineStart, i), ArchivedMessage.class);
+                        segment.index(message.getChannel(), message.getTime(), lineStart, indexInterval);
+                    } catch (IOException e) {
+                        // e.g. a line that was written partially before a crash. Do not lose the rest of the segment
+                        log.warn("Skipping a malformed line in chat archive segment " + file.getFileName() + ": " + e.getMessage());
+                    }
+
+                    lineStart = i + 1;
+                }
+            }
+        }
+
+        return segment;
+    }
+
+    private static Path indexFile(Path segmentFile) {
+        return segmentFile.resolveSibling(segmentFile.getFileName() + INDEX_SUFFIX);
+    }
+
+    private static String channelToken(String channel) {
+        return "\"channel\":\"" + channel + "\"";
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        ByteBuffer line = buffer.duplicate();
+        line.position(from);
+        line.limit(to);
+        return StandardCharsets.UTF_8.decode(line).toString();
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? System.currentTimeMillis() : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Stop the writer, after it writes the messages that are already in queue, and seal the active segment.
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+
+        isRunning = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A segment file, with the messages of one time partition, and its sparse index
+     */
+    private static class Segment {
+        private final Path file;
+
+        /**
+         * Start time of the partition, in milliseconds since epoch
+         */
+        private final long startMillis;
+
+        /**
+         * Offsets of every n-th message of each channel, ordered by offset
+         */
+        private final Map<String, List<IndexEntry>> index = new ConcurrentHashMap<>();
+
+        /**
+         * Amount of messages of each channel in this segment. Used by the writer only.
+         */
+        private final Map<String, Integer> channelMessages = new HashMap<>();
+
+        private long writtenSize;
+
+        /**
+         * Size of the segment that is visible to readers. Messages after it might not be written completely yet.
+         */
+        private volatile long flushedSize;
+        private volatile boolean isSealed;
+
+        /**
+         * A sealed segment does not change, so we map it once
+         */
+        private volatile MappedByteBuffer mapped;
+
+        Segment(Path file, long startMillis) {
+            this.file = file;
+            this.startMillis = startMillis;
+        }
+
+        void index(String channel, long time, long offset, int interval) {
+            int count = channelMessages.merge(channel, 1, Integer::sum);
+            if ((count - 1) % interval == 0) {
+                index.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(new IndexEntry(time, offset));
+            }
+        }
+
+        /**
+         * @return The content of this segment that is visible to readers, memory mapped
+         */
+        ByteBuffer read() throws IOException {
+            MappedByteBuffer buffer = mapped;
+            if (buffer != null) {
+                return buffer.duplicate();
+            }
+
+            long size = flushedSize;
+            if (size == 0) {
+                return ByteBuffer.allocate(0);
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            if (isSealed) {
+                mapped = buffer;
+            }
+
+            return buffer.duplicate();
+        }
+    }
+
+    /**
+     * An entry of the sparse index of a segment
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IndexEntry {
+        /**
+         * Time the message was sent, in milliseconds since epoch
+         */
+        private long time;
+
+        /**
+         * Offset of the message in its segment
+         */
+        private long offset;
+    }
+
+    /**
+     * A message, as we keep it in the archive
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ArchivedMessage {
+        /**
+         * Time the message was sent, in milliseconds since epoch
+         */
+        private long time;
+
+        private String channel;
+
+        /**
+         * Sequence number of the message in its channel
+         */
+        private long seq;
+
+        private String userId;
+        private String userName;
+        private String message;
+    }
+}
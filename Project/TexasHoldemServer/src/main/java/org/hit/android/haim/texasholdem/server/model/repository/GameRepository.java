@@ -3,212 +3,116 @@ package org.hit.android.haim.texasholdem.server.model.repository;
 import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
-import org.hit.android.haim.texasholdem.server.model.game.ServerGameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngineSnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
- * A repository holding all active games.<br/>
- * Do not use this class directly. Instead, use {@link org.hit.android.haim.texasholdem.server.model.service.GameService}
+ * A repository holding the active games of a server node.<br/>
+ * Every node holds the games of the shards it owns only (See {@link org.hit.android.haim.texasholdem.server.model.game.ShardedGameId ShardedGameId}),
+ * and requests of games owned by other nodes are routed to them before they get here.<br/>
+ * Do not use this interface directly. Instead, use {@link org.hit.android.haim.texasholdem.server.model.service.GameService}
  *
  * @author Haim Adrian
  * @since 08-May-21
+ * @see LocalGameRepository
  */
-public class GameRepository {
-    private final Map<Integer, GameEngine> games = new ConcurrentHashMap<>();
-
-    /**
-     * A map between user identifier to a game he created.<br/>
-     * We hold this map to retrieve game hashes by game creator in O(1)
-     */
-    private final Map<String, GameEngine> ownerToGame = new ConcurrentHashMap<>();
-
-    /**
-     * A map between user identifier to a game he is part of.<br/>
-     * We hold this map to retrieve games by players in O(1)
-     */
-    private final Map<String, GameEngine> playerToGame = new ConcurrentHashMap<>();
-
-    private GameRepository() {
-
-    }
-
-    public static GameRepository getInstance() {
-        return SingletonRef.instance;
-    }
-
+public interface GameRepository {
     /**
      * Create and get a new {@link GameEngine}
      * @param settings Settings of a game
      * @param listener A listener to get notified upon player updates, so we can persist changes in chips amount.
      * @return the newly created game
      */
-    public GameEngine createNewGame(GameSettings settings, GameEngine.PlayerUpdateListener listener) {
-        if (settings.getSmallBet() <= 0) {
-            settings.setSmallBet(1);
-        }
-
-        if (settings.getBigBet() <= 1) {
-            settings.setBigBet(2);
-        }
-
-        if (settings.getTurnTime() <= TimeUnit.SECONDS.toMillis(3)) {
-            settings.setTurnTime(TimeUnit.MINUTES.toMillis(1));
-        }
-
-        // If there is another game a user created, close it. A user cannot create several games simultaneously.
-        GameEngine existingGame = ownerToGame.get(settings.getCreatorId());
-        if (existingGame != null) {
-            stopGame(existingGame.getId());
-        }
-
-        GameEngine game = new ServerGameEngine(settings, listener);
-        games.put(game.getId(), game);
-        ownerToGame.put(settings.getCreatorId(), game);
-        return game;
-    }
+    GameEngine createNewGame(GameSettings settings, GameEngine.PlayerUpdateListener listener);
+
+    /**
+     * Restore a {@link GameEngine} out of a snapshot, and register it as an active game.
+     * @param snapshot A snapshot of a game, taken before the server was restarted
+     * @param listener A listener to get notified upon player updates, so we can persist changes in chips amount.
+     * @return the restored game
+     */
+    GameEngine restoreGame(GameEngineSnapshot snapshot, GameEngine.PlayerUpdateListener listener);
 
     /**
      * Get a game by its identifier
      * @param gameId The identifier of a game
      * @return An optional reference to the game. (Empty when there is no game with the given identifier)
      */
-    public Optional<GameEngine> findGameById(int gameId) {
-        if (!games.containsKey(gameId)) {
-            return Optional.empty();
-        }
-
-        return Optional.of(games.get(gameId));
-    }
+    Optional<GameEngine> findGameById(int gameId);
 
     /**
      * Get a game by the identifier of the user created that game
      * @param creatorId The identifier of a user to get the game he created
      * @return An optional reference to the game. (Empty when there is no game with the given identifier)
      */
-    public Optional<GameEngine> findGameByCreator(String creatorId) {
-        if (!ownerToGame.containsKey(creatorId)) {
-            return Optional.empty();
-        }
-
-        return Optional.of(ownerToGame.get(creatorId));
-    }
+    Optional<GameEngine> findGameByCreator(String creatorId);
 
     /**
      * Get the game of a player, if there is such
      * @param playerId The identifier of a user to get the game he is part of
      * @return An optional reference to the game. (Empty when there is no game with the given identifier)
      */
-    public Optional<GameEngine> findGameByPlayer(String playerId) {
-        if (!playerToGame.containsKey(playerId)) {
-            return Optional.empty();
-        }
-
-        GameEngine game = playerToGame.get(playerId);
+    Optional<GameEngine> findGameByPlayer(String playerId);
 
-        // In case the map is out of sync, sync now.
-        if (game.getPlayers().getPlayerById(playerId) == null) {
-            leaveGame(game.getId(), playerId);
-            return Optional.empty();
-        }
+    /**
+     * @return All game engines. It is safe to modify the repository while iterating over the result.
+     */
+    Iterable<GameEngine> findAll();
 
-        return Optional.of(game);
-    }
+    /**
+     * Find the games that had no activity since the specified time, ordered from the most idle one.<br/>
+     * This does not walk all of the games, but the idle ones only.
+     * @param idleSince Time in milliseconds since epoch. Games with no activity since this time are returned
+     * @return The idle games
+     */
+    List<GameEngine> findIdleGames(long idleSince);
 
     /**
-     * @return All game engines
+     * Record an activity in a game, e.g. a player action, to keep it from being considered idle.
+     * @param gameId The identifier of a game
      */
-    public Iterable<GameEngine> findAll() {
-        // Return a new arraylist to let outside world to iterate over game engines and modify game repository,
-        // without failing on modification exception
-        return new ArrayList<>(games.values());
-    }
+    void touch(int gameId);
 
     /**
      * Start running a game.
      * @param gameId The identifier of a game
      */
-    public void startGame(int gameId) {
-        GameEngine existingGame = games.get(gameId);
-        if (existingGame != null) {
-            existingGame.start();
-        }
-    }
+    void startGame(int gameId);
 
     /**
      * End a running game.<br/>
      * After closing a game it is deleted, hence you won't be able to find this game.
      * @param gameId The identifier of a game
      */
-    public void stopGame(int gameId) {
-        GameEngine existingGame = games.remove(gameId);
-        if (existingGame != null) {
-            ownerToGame.remove(existingGame.getGameSettings().getCreatorId());
-            existingGame.stop();
-        }
-    }
+    void stopGame(int gameId);
+
+    /**
+     * End a running game, in case it still had no activity since the specified time.<br/>
+     * Use this to evict games found by {@link #findIdleGames(long)}, as a game might become active after it was found idle.
+     * @param gameId The identifier of a game
+     * @param idleSince Time in milliseconds since epoch. The game is stopped only if it had no activity since this time
+     * @return Whether the game was stopped
+     */
+    boolean stopGameIfIdleSince(int gameId, long idleSince);
 
     /**
      * Add player to a game
      * @param gameId The identifier of a game
      * @param player The player that joins
      */
-    public void joinGame(int gameId, Player player) {
-        GameEngine existingGame = games.get(gameId);
-        if (existingGame != null) {
-            // Check if user joins another game while he is part of a game already
-            GameEngine gameEngine = playerToGame.get(player.getId());
-            if ((gameEngine != null) && (gameId != gameEngine.getId())) {
-                leaveGame(gameEngine.getId(), player.getId());
-            }
-
-            existingGame.addPlayer(player);
-            playerToGame.put(player.getId(), existingGame);
-        }
-    }
+    void joinGame(int gameId, Player player);
 
     /**
      * Remove player from a game
      * @param gameId The identifier of a game
      * @param userId The player that leaves
      */
-    public void leaveGame(int gameId, String userId) {
-        GameEngine existingGame = games.get(gameId);
-        if (existingGame != null) {
-            GameEngine playersGame = playerToGame.remove(userId);
-            if ((existingGame.getPlayers().getPlayerById(userId) == null) && (playersGame != null)) {
-                existingGame = playersGame;
-            }
-
-            Player player = existingGame.getPlayers().getPlayerById(userId);
-            if (player != null) {
-                existingGame.removePlayer(player);
-            }
-
-            // If no players left, discard that game.
-            if (existingGame.getPlayers().size() == 0) {
-                stopGame(gameId);
-            }
-        } else {
-            // It might be that game was stopped, though we have not cleared references.
-            // For example, when user loses all of his chips, GameEngine disconnects it,
-            // but we still have our maps out of date. So remove the player here.
-            playerToGame.remove(userId);
-        }
-    }
-
-    private static class SingletonRef {
-        static final GameRepository instance = new GameRepository();
-    }
-
-    public List<GameEngine> all() {
-        return games.values().stream().collect(Collectors.toList());
-    }
-}
+    void leaveGame(int gameId, String userId);
 
+    /**
+     * @return All game engines, as a list
+     */
+    List<GameEngine> all();
+}
@@ -0,0 +1,136 @@
+package org.hit.android.haim.texasholdem.server.model.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngineSnapshot;
+import org.hit.android.haim.texasholdem.common.util.JsonUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A repository that checkpoints active games to a local file when the server shuts down, and reads
+ * them back when the server starts up, so a restart does not kill every in-flight hand.<br/>
+ * Snapshots are kept as gzip compressed json. The file is deleted once it is read, so we never restore
+ * the same games twice. (e.g. after a crash, where there was no chance to take a fresh snapshot)
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+@Repository
+public class GameSnapshotRepository {
+    private final ObjectMapper objectMapper = JsonUtils.createObjectMapper();
+
+    /**
+     * Whether to take and restore snapshots or not
+     */
+    @Value("${game.snapshot.enabled:true}")
+    private boolean isEnabled;
+
+    /**
+     * Path of the snapshot file
+     */
+    @Value("${game.snapshot.file:games.snapshot}")
+    private String snapshotFile;
+
+    /**
+     * Write a snapshot of the specified games to the snapshot file.<br/>
+     * We write to a temporary file first, and then move it, so a failure in the middle will not leave a corrupted snapshot.
+     * @param games The games to checkpoint
+     */
+    public void save(Iterable<GameEngine> games) {
+        if (!isEnabled) {
+            return;
+        }
+
+        GamesSnapshot snapshot = new GamesSnapshot();
+        snapshot.setTimeTaken(System.currentTimeMillis());
+        snapshot.setNextGameId(GameEngine.getNextGameId());
+        for (GameEngine game : games) {
+            try {
+                snapshot.getGames().add(game.toSnapshot());
+            } catch (Exception e) {
+                log.error("Failed to take a snapshot of game: " + game.getId(), e);
+            }
+        }
+
+        Path file = Paths.get(snapshotFile);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved a snapshot of " + snapshot.getGames().size() + " games to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to save games snapshot to " + file.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Read the snapshot file, if there is one, and delete it.
+     * @return The snapshot that was saved, or empty in case there is no snapshot
+     */
+    public Optional<GamesSnapshot> load() {
+        Path file = Paths.get(snapshotFile);
+        if (!isEnabled || !Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        GamesSnapshot snapshot = null;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            snapshot = objectMapper.readValue(in, GamesSnapshot.class);
+            log.info("Loaded a snapshot of " + snapshot.getGames().size() + " games from " + file.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to load games snapshot from " + file.toAbsolutePath(), e);
+        }
+
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            log.error("Failed to delete games snapshot " + file.toAbsolutePath(), e);
+        }
+
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * The content of a snapshot file
+     */
+    @Data
+    @NoArgsConstructor
+    public static class GamesSnapshot {
+        /**
+         * When the snapshot was taken, in milliseconds since epoch
+         */
+        private long timeTaken;
+
+        /**
+         * The game identifier sequence, so we will not reuse identifiers after restart
+         */
+        private int nextGameId;
+
+        private List<GameEngineSnapshot> games = new ArrayList<>();
+    }
+}
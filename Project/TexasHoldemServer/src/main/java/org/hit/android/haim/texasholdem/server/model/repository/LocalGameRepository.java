@@ -0,0 +1,450 @@
+package org.hit.android.haim.texasholdem.server.model.repository;
+
+import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngineSnapshot;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotPlayer;
+import org.hit.android.haim.texasholdem.server.model.game.ServerGameEngine;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link GameRepository} holding the active games of this node in memory.<br/>
+ * Games are indexed by identifier, by creator and by players. Reads are lock free, and all updates are done by a single
+ * writer at a time, which updates all of the indexes together. This way a lookup never finds a player in a game he has
+ * left, or a game that was already stopped.<br/>
+ * The games themselves are never called while holding the writer lock, as they notify their listeners when they change,
+ * e.g. when a player leaves in the middle of a round and folds. So we update the indexes first, and then the game.<br/>
+ * In addition, games are ordered by their last activity, so finding idle games does not walk all of the games.<br/>
+ * Do not use this class directly. Instead, use {@link org.hit.android.haim.texasholdem.server.model.service.GameService}
+ *
+ * @author Haim Adrian
+ * @since 08-May-21
+ */
+public class LocalGameRepository implements GameRepository {
+    private final Map<Integer, GameEntry> games = new ConcurrentHashMap<>();
+
+    /**
+     * A map between user identifier to a game he created.<br/>
+     * We hold this map to retrieve game hashes by game creator in O(1)
+     */
+    private final Map<String, GameEntry> ownerToGame = new ConcurrentHashMap<>();
+
+    /**
+     * A map between user identifier to a game he is part of.<br/>
+     * We hold this map to retrieve games by players in O(1)
+     */
+    private final Map<String, GameEntry> playerToGame = new ConcurrentHashMap<>();
+
+    /**
+     * Games ordered by their last activity, oldest first. There is a single key per game.<br/>
+     * Activity is recorded on the game entry without locking, so a key might be older than the actual activity of its game.
+     * Such keys are moved forward when we meet them while looking for idle games.
+     */
+    private final NavigableSet<ActivityKey> activityIndex = new TreeSet<>();
+
+    /**
+     * Single writer lock. Guards all updates of the indexes and {@link #activityIndex}
+     */
+    private final Lock writeLock = new ReentrantLock();
+
+    private LocalGameRepository() {
+
+    }
+
+    public static LocalGameRepository getInstance() {
+        return SingletonRef.instance;
+    }
+
+    @Override
+    public GameEngine createNewGame(GameSettings settings, GameEngine.PlayerUpdateListener listener) {
+        if (settings.getSmallBet() <= 0) {
+            settings.setSmallBet(1);
+        }
+
+        if (settings.getBigBet() <= 1) {
+            settings.setBigBet(2);
+        }
+
+        if (settings.getTurnTime() <= TimeUnit.SECONDS.toMillis(3)) {
+            settings.setTurnTime(TimeUnit.MINUTES.toMillis(1));
+        }
+
+        GameEntry existingGame;
+        GameEntry entry;
+        writeLock.lock();
+        try {
+            // If there is another game a user created, close it. A user cannot create several games simultaneously.
+            existingGame = ownerToGame.get(settings.getCreatorId());
+            if (existingGame != null) {
+                unregister(existingGame.getId());
+            }
+
+            IndexSyncListener indexSyncListener = new IndexSyncListener(listener);
+            entry = register(new ServerGameEngine(settings, indexSyncListener));
+            indexSyncListener.gameId = entry.getId();
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (existingGame != null) {
+            existingGame.game.stop();
+        }
+
+        return entry.game;
+    }
+
+    @Override
+    public GameEngine restoreGame(GameEngineSnapshot snapshot, GameEngine.PlayerUpdateListener listener) {
+        writeLock.lock();
+        try {
+            IndexSyncListener indexSyncListener = new IndexSyncListener(listener);
+            GameEntry entry = register(new ServerGameEngine(snapshot, indexSyncListener));
+            indexSyncListener.gameId = entry.getId();
+            entry.game.getPlayers().getPlayers().forEach(player -> playerToGame.put(player.getId(), entry));
+            return entry.game;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add a new game to the indexes. Call this when holding the {@link #writeLock}
+     */
+    private GameEntry register(GameEngine game) {
+        GameEntry entry = new GameEntry(game);
+        games.put(entry.getId(), entry);
+        ownerToGame.put(game.getGameSettings().getCreatorId(), entry);
+        activityIndex.add(new ActivityKey(entry.indexedActivity, entry.getId()));
+        return entry;
+    }
+
+    /**
+     * Remove a game from the indexes. Call this when holding the {@link #writeLock}, and stop the game after releasing it.
+     * @return The removed game, or {@code null} in case there is no such game
+     */
+    private GameEntry unregister(int gameId) {
+        GameEntry existingGame = games.remove(gameId);
+        if (existingGame != null) {
+            ownerToGame.remove(existingGame.game.getGameSettings().getCreatorId(), existingGame);
+            existingGame.game.getPlayers().getPlayers().forEach(player -> playerToGame.remove(player.getId(), existingGame));
+            activityIndex.remove(new ActivityKey(existingGame.indexedActivity, gameId));
+        }
+
+        return existingGame;
+    }
+
+    @Override
+    public Optional<GameEngine> findGameById(int gameId) {
+        return Optional.ofNullable(games.get(gameId)).map(entry -> entry.game);
+    }
+
+    @Override
+    public Optional<GameEngine> findGameByCreator(String creatorId) {
+        return Optional.ofNullable(ownerToGame.get(creatorId)).map(entry -> entry.game);
+    }
+
+    @Override
+    public Optional<GameEngine> findGameByPlayer(String playerId) {
+        return Optional.ofNullable(playerToGame.get(playerId)).map(entry -> entry.game);
+    }
+
+    @Override
+    public Iterable<GameEngine> findAll() {
+        // Return a new arraylist to let outside world to iterate over game engines and modify game repository,
+        // without failing on modification exception
+        return all();
+    }
+
+    @Override
+    public List<GameEngine> findIdleGames(long idleSince) {
+        List<GameEngine> idleGames = new ArrayList<>();
+
+        writeLock.lock();
+        try {
+            List<GameEntry> activeGames = new ArrayList<>();
+            Iterator<ActivityKey> iterator = activityIndex.headSet(new ActivityKey(idleSince, Integer.MIN_VALUE), false).iterator();
+            while (iterator.hasNext()) {
+                ActivityKey key = iterator.next();
+                GameEntry entry = games.get(key.gameId);
+                if (entry == null) {
+                    iterator.remove();
+                } else if (entry.lastActivity > key.time) {
+                    // There was an activity since we have indexed this game. Move it forward.
+                    iterator.remove();
+                    activeGames.add(entry);
+                } else {
+                    idleGames.add(entry.game);
+                }
+            }
+
+            for (GameEntry entry : activeGames) {
+                entry.indexedActivity = entry.lastActivity;
+                activityIndex.add(new ActivityKey(entry.indexedActivity, entry.getId()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        return idleGames;
+    }
+
+    @Override
+    public void touch(int gameId) {
+        GameEntry entry = games.get(gameId);
+        if (entry != null) {
+            entry.lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void startGame(int gameId) {
+        GameEntry existingGame = games.get(gameId);
+        if (existingGame != null) {
+            existingGame.game.start();
+            touch(gameId);
+        }
+    }
+
+    @Override
+    public void stopGame(int gameId) {
+        GameEntry existingGame;
+        writeLock.lock();
+        try {
+            existingGame = unregister(gameId);
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (existingGame != null) {
+            existingGame.game.stop();
+        }
+    }
+
+    @Override
+    public boolean stopGameIfIdleSince(int gameId, long idleSince) {
+        GameEntry existingGame;
+        writeLock.lock();
+        try {
+            // Check the activity again under the lock, so we do not stop a game that a player has just joined or acted in
+            existingGame = games.get(gameId);
+            if ((existingGame == null) || (existingGame.lastActivity >= idleSince)) {
+                return false;
+            }
+
+            unregister(gameId);
+        } finally {
+            writeLock.unlock();
+        }
+
+        existingGame.game.stop();
+        return true;
+    }
+
+    @Override
+    public void joinGame(int gameId, Player player) {
+        GameEntry existingGame = games.get(gameId);
+        if (existingGame == null) {
+            return;
+        }
+
+        // addPlayer throws exception in case the game is active, and ignores players when the game is full
+        existingGame.game.addPlayer(player);
+        if (existingGame.game.getPlayers().getPlayerById(player.getId()) == null) {
+            return;
+        }
+
+        GameEntry playersGame;
+        writeLock.lock();
+        try {
+            // Game might have been stopped while the player was joining
+            if (games.get(gameId) != existingGame) {
+                return;
+            }
+
+            playersGame = playerToGame.put(player.getId(), existingGame);
+        } finally {
+            writeLock.unlock();
+        }
+
+        touch(gameId);
+
+        // A user can be part of a single game. If he was part of another game, leave it.
+        if ((playersGame != null) && (playersGame != existingGame)) {
+            removePlayer(playersGame, player.getId());
+        }
+    }
+
+    @Override
+    public void leaveGame(int gameId, String userId) {
+        GameEntry existingGame;
+        writeLock.lock();
+        try {
+            // Player leaves the game he is part of, even if it is not the specified one
+            existingGame = playerToGame.remove(userId);
+            if (existingGame == null) {
+                existingGame = games.get(gameId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (existingGame != null) {
+            removePlayer(existingGame, userId);
+        }
+    }
+
+    /**
+     * Remove a player from a game, after it was removed from the indexes. A player that leaves in the middle of
+     * his turn folds, so we must not hold the {@link #writeLock} here.
+     */
+    private void removePlayer(GameEntry existingGame, String userId) {
+        Player player = existingGame.game.getPlayers().getPlayerById(userId);
+        if (player != null) {
+            existingGame.game.removePlayer(player);
+        }
+
+        // If no players left, discard that game. Bots do not play by themselves.
+        if (existingGame.game.getPlayers().getPlayers().stream().allMatch(p -> p instanceof BotPlayer)) {
+            stopGame(existingGame.getId());
+        } else {
+            touch(existingGame.getId());
+        }
+    }
+
+    /**
+     * Occurs when a game disconnects a player by itself, e.g. when player has no chips left.
+     */
+    private void onPlayerDisconnected(int gameId, Player player) {
+        writeLock.lock();
+        try {
+            GameEntry existingGame = games.get(gameId);
+            if (existingGame != null) {
+                playerToGame.remove(player.getId(), existingGame);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<GameEngine> all() {
+        return games.values().stream().map(entry -> entry.game).collect(Collectors.toList());
+    }
+
+    private static class SingletonRef {
+        static final LocalGameRepository instance = new LocalGameRepository();
+    }
+
+    /**
+     * A game and its last activity
+     */
+    private static class GameEntry {
+        final GameEngine game;
+
+        /**
+         * Last activity of the game, in milliseconds since epoch. Updated without locking, on every activity.
+         */
+        volatile long lastActivity;
+
+        /**
+         * The activity time {@link #activityIndex} holds for this game. Guarded by {@link #writeLock}
+         */
+        long indexedActivity;
+
+        GameEntry(GameEngine game) {
+            this.game = game;
+            lastActivity = System.currentTimeMillis();
+            indexedActivity = lastActivity;
+        }
+
+        int getId() {
+            return game.getId();
+        }
+    }
+
+    /**
+     * A key of {@link #activityIndex}, ordered by time and then by game identifier
+     */
+    private static class ActivityKey implements Comparable<ActivityKey> {
+        final long time;
+        final int gameId;
+
+        ActivityKey(long time, int gameId) {
+            this.time = time;
+            this.gameId = gameId;
+        }
+
+        @Override
+        public int compareTo(ActivityKey other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : Integer.compare(gameId, other.gameId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof ActivityKey) && (compareTo((ActivityKey) o) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, gameId);
+        }
+    }
+
+    /**
+     * Keeps the player index in sync with the players that a game disconnects by itself, and delegates
+     * all other events to the listener of the game.
+     */
+    private class IndexSyncListener implements GameEngine.PlayerUpdateListener {
+        private final GameEngine.PlayerUpdateListener listener;
+        private volatile int gameId;
+
+        IndexSyncListener(GameEngine.PlayerUpdateListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onPlayerChipsUpdated(Player player, long chips) {
+            listener.onPlayerChipsUpdated(player, chips);
+        }
+
+        @Override
+        public void onPlayerDisconnected(Player player) {
+            LocalGameRepository.this.onPlayerDisconnected(gameId, player);
+            listener.onPlayerDisconnected(player);
+        }
+
+        @Override
+        public void onPlayerTurn(GameEngine game, Player player) {
+            listener.onPlayerTurn(game, player);
+        }
+
+        @Override
+        public void onPlayerActionExecuted(GameEngine game, Player player, PlayerAction action, long durationNanos) {
+            listener.onPlayerActionExecuted(game, player, action, durationNanos);
+        }
+
+        @Override
+        public void onShowdown(GameEngine game, long evaluationNanos) {
+            listener.onShowdown(game, evaluationNanos);
+        }
+
+        @Override
+        public void onPlayerTurnTimeout(GameEngine game, Player player) {
+            listener.onPlayerTurnTimeout(game, player);
+        }
+
+        @Override
+        public void onGameReady(GameEngine game) {
+            listener.onGameReady(game);
+        }
+    }
+}
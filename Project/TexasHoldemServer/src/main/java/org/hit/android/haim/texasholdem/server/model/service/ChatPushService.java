@@ -0,0 +1,422 @@
+package org.hit.android.haim.texasholdem.server.model.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.server.model.game.GameView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the updates of chat channels, and of their games, to their subscribers, as server sent events.<br/>
+ * A subscriber is a client that listens to a channel, using {@code GET /message/{channelName}/stream}. It receives a
+ * {@code message} event for every message sent to the channel, a {@code users} event whenever players join or leave,
+ * and a {@code game} event whenever the state of the game changes, in case the subscriber is one of its players.
+ * This replaces polling the messages, the players and the whole game every second, so a client needs a single connection.<br/>
+ * Publishing never blocks. Every subscriber has its own bounded queue, which is drained by one sender at a time. Senders
+ * are a fixed pool of {@code chat.push.threads} threads, so slow clients cannot take more threads than that. Instead,
+ * their queues fill up, and we either drop their oldest event, or disconnect them, based on {@code chat.push.overflow}.
+ * A disconnected client reconnects with the sequence number of the last message it has (Last-Event-ID), and receives
+ * the messages it missed.<br/>
+ * Events are built by the senders. Publishers only queue what to send, e.g. a copy of a game that was taken once.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Log4j2
+@Service
+public class ChatPushService {
+    /**
+     * What to do when the queue of a subscriber is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the oldest event of the subscriber, and keep it connected
+         */
+        DROP_OLDEST,
+
+        /**
+         * Disconnect the subscriber, so it will reconnect and read the messages it missed
+         */
+        DISCONNECT
+    }
+
+    /**
+     * Subscribers by channel name
+     */
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes a game once per player, as every player sees its own hand only
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Drains the queues of subscribers, and builds their events. A subscriber is drained by one task at most, so it takes
+     * one thread at most.
+     */
+    private final ExecutorService senders;
+
+    /**
+     * Sends a comment to idle subscribers, so clients and proxies do not close idle connections
+     */
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration timeout;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong disconnectedSubscribers = new AtomicLong();
+
+    /**
+     * Constructs a new {@link ChatPushService}
+     * @param queueCapacity Maximum amount of events waiting to be sent to a subscriber
+     * @param overflow "drop-oldest" or "disconnect". See {@link OverflowPolicy}
+     * @param threads Amount of threads sending events to subscribers
+     * @param timeout How long a subscription lives before the client has to reconnect
+     * @param heartbeatInterval How often we send a heartbeat to idle subscribers
+     * @param objectMapper Serializes games, the same way they are serialized by the game controller
+     * @param meterRegistry Where to publish the metrics of subscribers
+     */
+    public ChatPushService(@Value("${chat.push.queue-capacity:64}") int queueCapacity,
+                           @Value("${chat.push.overflow:disconnect}") String overflow,
+                           @Value("${chat.push.threads:8}") int threads,
+                           @Value("${chat.push.timeout:5m}") Duration timeout,
+                           @Value("${chat.push.heartbeat-interval:5s}") Duration heartbeatInterval,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflow.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.timeout = timeout;
+
+        senders = Executors.newFixedThreadPool(Math.max(1, threads), new CustomThreadFactory("ChatPush"));
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("ChatHeartbeat"));
+        heartbeatExecutor.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("texasholdem.chat.subscribers", subscribers, subs -> subs.values().stream().mapToInt(Set::size).sum())
+            .description("Amount of clients subscribed to chat channels")
+            .register(meterRegistry);
+        FunctionCounter.builder("texasholdem.chat.push.dropped", droppedEvents, AtomicLong::get)
+            .description("Amount of events dropped because the queue of a subscriber was full")
+            .register(meterRegistry);
+        FunctionCounter.builder("texasholdem.chat.push.disconnected", disconnectedSubscribers, AtomicLong::get)
+            .description("Amount of subscribers disconnected because their queue was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to a channel.<br/>
+     * The users, the game and the backlog are the first events of the subscriber. Callers must make sure nothing is published
+     * to the channel between collecting the backlog and subscribing, so the subscriber does not miss, or get twice, a message.
+     * @param channelName Name of the channel to subscribe to
+     * @param userId Identifier of the subscribing user. Game events are sent to the players of the game only
+     * @param backlog Messages the client does not have yet
+     * @param users Current users of the channel
+     * @param game The game of the channel, in case the user is one of its players. Otherwise {@code null}
+     * @return The emitter to respond with
+     */
+    public SseEmitter subscribe(String channelName, String userId, List<Message> backlog, Collection<Player> users, GameEngine game) throws JsonProcessingException {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(channelName, userId, emitter);
+
+        // The emitter keeps events sent before it is returned, so the backlog does not go through the queue, and does not overflow it
+        try {
+            emitter.send(usersEvent(users));
+            if (game != null) {
+                emitter.send(gameEvent(objectMapper.writeValueAsString(GameView.of(game, objectMapper).gameFor(userId))));
+            }
+
+            for (Message message : backlog) {
+                emitter.send(messageEvent(message));
+            }
+        } catch (IOException e) {
+            subscriber.close();
+            return emitter;
+        }
+
+        subscribers.compute(channelName, (name, channelSubscribers) -> {
+            Set<Subscriber> result = channelSubscribers == null ? ConcurrentHashMap.newKeySet() : channelSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+
+        return emitter;
+    }
+
+    /**
+     * Push a message to all subscribers of its channel
+     * @param channelName Name of the channel the message was sent to
+     * @param message The message
+     */
+    public void publishMessage(String channelName, Message message) {
+        publish(channelName, () -> messageEvent(message));
+    }
+
+    /**
+     * Push the users of a channel to all of its subscribers, after players join or leave
+     * @param channelName Name of the channel
+     * @param users Current users of the channel
+     */
+    public void publishUsers(String channelName, Collection<Player> users) {
+        List<Player> usersCopy = new ArrayList<>(users);
+        publish(channelName, () -> usersEvent(usersCopy));
+    }
+
+    /**
+     * Push the state of a game to the subscribers of its channel that are players of the game.<br/>
+     * We take a single {@link GameView copy} of the game, under the lock of the game, so it is consistent. The game
+     * listeners call this while the game is changing, so this is all we do on the calling thread. Every player gets its
+     * own view of the game, revealing its own hand only, which is serialized by the senders.
+     * @param game The game whose state has changed. Its hash is the name of its channel
+     */
+    public void publishGame(GameEngine game) {
+        String channelName = game.getGameHash();
+        Set<Subscriber> channelSubscribers = subscribers.get(channelName);
+        if (channelSubscribers == null) {
+            return;
+        }
+
+        try {
+            GameView view = GameView.of(game, objectMapper);
+
+            // A user might be subscribed more than once, e.g. from two devices. Serialize once per player.
+            Map<String, String> playerToJson = new ConcurrentHashMap<>();
+            for (Subscriber subscriber : channelSubscribers) {
+                if (view.getHands().containsKey(subscriber.userId)) {
+                    subscriber.offer(() -> gameEvent(playerToJson.computeIfAbsent(subscriber.userId, userId -> gameJsonFor(view, userId))));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to publish game: " + channelName, e);
+        }
+    }
+
+    /**
+     * Serialize a game as it is seen by one of its players
+     * @param view A copy of the game
+     * @param userId The player to serialize the game for
+     * @return The game, as json
+     */
+    private String gameJsonFor(GameView view, String userId) {
+        try {
+            return objectMapper.writeValueAsString(view.gameFor(userId));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize game: " + view.getGameId(), e);
+        }
+    }
+
+    /**
+     * Disconnect all subscribers of a channel, when its game is stopped
+     * @param channelName Name of the channel
+     */
+    public void closeChannel(String channelName) {
+        Set<Subscriber> channelSubscribers = subscribers.remove(channelName);
+        if (channelSubscribers != null) {
+            channelSubscribers.forEach(Subscriber::close);
+        }
+    }
+
+    /**
+     * Create the emitter of a new subscriber. Tests override it, to capture the events of a subscriber.
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    /**
+     * An event builder can be built once only, so every subscriber gets its own builder
+     */
+    private void publish(String channelName, Supplier<SseEmitter.SseEventBuilder> event) {
+        publish(channelName, subscriber -> true, event);
+    }
+
+    private void publish(String channelName, Predicate<Subscriber> filter, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<Subscriber> channelSubscribers = subscribers.get(channelName);
+        if (channelSubscribers != null) {
+            channelSubscribers.forEach(subscriber -> {
+                if (filter.test(subscriber)) {
+                    subscriber.offer(event);
+                }
+            });
+        }
+    }
+
+    private void sendHeartbeats() {
+        try {
+            subscribers.values().forEach(channelSubscribers -> channelSubscribers.forEach(Subscriber::heartbeat));
+        } catch (Exception e) {
+            // Do not let an exception cancel the scheduled task
+            log.error("Error has occurred while sending chat heartbeats", e);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder messageEvent(Message message) {
+        return SseEmitter.event().name("message").id(String.valueOf(message.getSeq())).data(message, MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder usersEvent(Collection<Player> users) {
+        return SseEmitter.event().name("users").data(users, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * @param gameJson A game, already serialized. Game events have no id, so they do not reset the Last-Event-ID of a client
+     */
+    private static SseEmitter.SseEventBuilder gameEvent(String gameJson) {
+        return SseEmitter.event().name("game").data(gameJson, MediaType.TEXT_PLAIN);
+    }
+
+    /**
+     * Disconnect all subscribers, and stop sending.
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        new ArrayList<>(subscribers.keySet()).forEach(this::closeChannel);
+        senders.shutdownNow();
+    }
+
+    /**
+     * A client listening to a channel, with its own queue of events
+     */
+    private class Subscriber {
+        private final String channelName;
+        private final String userId;
+        private final SseEmitter emitter;
+        /**
+         * Events to send. They are built by the sender, so publishers do not spend time on serializing them.
+         */
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue;
+
+        /**
+         * Whether a sender is draining the queue of this subscriber
+         */
+        private final AtomicBoolean isDraining = new AtomicBoolean();
+        private volatile boolean isClosed;
+
+        Subscriber(String channelName, String userId, SseEmitter emitter) {
+            this.channelName = channelName;
+            this.userId = userId;
+            this.emitter = emitter;
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+
+            emitter.onCompletion(this::unsubscribe);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (isClosed) {
+                return;
+            }
+
+            if (!queue.offer(event)) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    disconnectedSubscribers.incrementAndGet();
+                    close();
+                    return;
+                }
+
+                // Make room by dropping the oldest event. Another publisher might take the room first, so drop until we fit.
+                do {
+                    queue.poll();
+                    droppedEvents.incrementAndGet();
+                } while (!queue.offer(event));
+            }
+
+            drain();
+        }
+
+        void heartbeat() {
+            // Heartbeats are for idle subscribers only. There is no need to keep a busy subscriber alive.
+            if (queue.isEmpty()) {
+                offer(() -> SseEmitter.event().comment(""));
+            }
+        }
+
+        private void drain() {
+            if (isDraining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::send);
+                } catch (Exception e) {
+                    // Shutting down
+                    isDraining.set(false);
+                }
+            }
+        }
+
+        private void send() {
+            try {
+                // Send a queue at most, and then let other subscribers use this thread
+                Supplier<SseEmitter.SseEventBuilder> event;
+                for (int i = 0; (i < queueCapacity) && !isClosed && ((event = queue.poll()) != null); i++) {
+                    emitter.send(event.get());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client has gone, or emitter was completed
+                close();
+            } catch (Exception e) {
+                log.error("Failed to send an event to a subscriber of: " + channelName, e);
+            } finally {
+                isDraining.set(false);
+            }
+
+            // An event might have been offered after we polled the last one, and before we reset the flag
+            if (!isClosed && !queue.isEmpty()) {
+                drain();
+            }
+        }
+
+        void close() {
+            if (!isClosed) {
+                isClosed = true;
+                queue.clear();
+                unsubscribe();
+                try {
+                    emitter.complete();
+                } catch (Exception ignore) {
+                    // Already completed
+                }
+            }
+        }
+
+        private void unsubscribe() {
+            isClosed = true;
+            subscribers.computeIfPresent(channelName, (name, channelSubscribers) -> {
+                channelSubscribers.remove(this);
+                return channelSubscribers.isEmpty() ? null : channelSubscribers;
+            });
+        }
+    }
+}
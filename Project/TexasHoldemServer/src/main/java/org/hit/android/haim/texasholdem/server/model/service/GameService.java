@@ -1,21 +1,48 @@
 package org.hit.android.haim.texasholdem.server.model.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
 import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerAction;
+import org.hit.android.haim.texasholdem.common.model.bean.game.PlayerActionKind;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotEngine;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotLevel;
+import org.hit.android.haim.texasholdem.common.model.game.bot.BotPlayer;
 import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
 import org.hit.android.haim.texasholdem.server.controller.common.Base64;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
+import org.hit.android.haim.texasholdem.server.model.game.GameView;
+import org.hit.android.haim.texasholdem.server.model.game.ServerBotEngine;
 import org.hit.android.haim.texasholdem.server.model.repository.GameRepository;
+import org.hit.android.haim.texasholdem.server.model.repository.GameSnapshotRepository;
+import org.hit.android.haim.texasholdem.server.model.repository.LocalGameRepository;
+import org.hit.android.haim.texasholdem.server.trace.TraceEvents;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Access to games using this class
@@ -23,32 +50,234 @@ import java.util.concurrent.TimeUnit;
  * @author Haim Adrian
  * @since 21-Mar-21
  */
+@Log4j2
 @Service
+@DependsOn("virtualThreadsConfiguration") // Threads mode must be set before we create games and their threads
 public class GameService {
-    private final GameRepository gameRepository = GameRepository.getInstance();
+    /**
+     * Bots join a game with this amount of big bets
+     */
+    private static final long BOT_BUY_IN_BIG_BETS = 100;
+
+    /**
+     * How long to wait for games to deliver their chips updates when shutting down
+     */
+    private static final long SHUTDOWN_NOTIFICATIONS_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * The games of this node. Games of other nodes are never reached here, as their requests are routed
+     * to the owning node. (See {@link org.hit.android.haim.texasholdem.server.config.ShardRoutingFilter ShardRoutingFilter})
+     */
+    private final GameRepository gameRepository = LocalGameRepository.getInstance();
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private GameSnapshotRepository gameSnapshotRepository;
+
+    /**
+     * Pushes the users of a game chat to its subscribers, when players join or leave, and the state of a game to its players
+     */
+    @Autowired
+    private ChatPushService chatPushService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The last view of every game that was read, so polling clients share it as long as the game does not change
+     */
+    private final Cache<Integer, GameView> gameViews = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+
     /**
-     * We keep a single thread pool scheduler that runs every 15 minutes and takes care of
-     * clearing up inactive games.<br/>
-     * A game is considered inactive when it is opened for more than a hour, and there are no players or 1 player only.
+     * Clients that poll a game that has just changed wait for a single view of it to be taken, instead of taking
+     * one each. Reads are identified by the game identifier and its state version.
+     */
+    private final RequestCoalescer<String, GameView> gameViewReads = new RequestCoalescer<>();
+
+    /**
+     * We keep a single thread pool scheduler that runs every {@link #evictionInterval} and takes care of
+     * evicting inactive games.<br/>
+     * A game is considered inactive when it had no activity for {@link #idleTimeout}, and there are no players or 1 player only,
+     * or when it had no activity for {@link #abandonedTimeout} at all.
      */
     private final ScheduledExecutorService cleanupExecutor;
 
+    /**
+     * How long a game with 1 player at most can be idle before we evict it
+     */
+    private final Duration idleTimeout;
+
+    /**
+     * How long any game can be idle before we consider it abandoned and evict it. Zero means never.
+     */
+    private final Duration abandonedTimeout;
+
+    /**
+     * How often we look for idle games. Games are ordered by their last activity, so a check visits the idle games only.
+     */
+    private final Duration evictionInterval;
+
+    /**
+     * Amount of games evicted since start up, because they were idle with 1 player at most
+     */
+    private final AtomicLong idleEvictions = new AtomicLong();
+
+    /**
+     * Amount of games evicted since start up, because nobody has played at them for {@link #abandonedTimeout}
+     */
+    private final AtomicLong abandonedEvictions = new AtomicLong();
+
+    /**
+     * Plays the turns of bots in all games. Bots have their own threads, so they never take the threads of human players.
+     */
+    private final BotEngine botEngine;
+
+    /**
+     * The listener of all games. Persists updates of chips, and lets bots play their turns.
+     */
+    private final GameEngine.PlayerUpdateListener gamesListener = new GamesListener();
+
+    /**
+     * Time it takes to execute a player action, by action kind. The count of a timer is the amount of actions.
+     */
+    private final Map<PlayerActionKind, Timer> actionTimers = new EnumMap<>(PlayerActionKind.class);
+
+    /**
+     * Time it takes to evaluate the hands of the players at showdown and share the pot
+     */
+    private final Timer showdownTimer;
+
+    /**
+     * Amount of turns that were over because a player did not act in time
+     */
+    private final Counter turnTimeouts;
+
     /**
      * Constructs a new {@link GameService}
+     * @param idleTimeout See {@link #idleTimeout}
+     * @param abandonedTimeout See {@link #abandonedTimeout}
+     * @param evictionInterval See {@link #evictionInterval}
+     * @param botThreads Amount of threads that play bot turns
+     * @param botQueueCapacity Maximum amount of bot turns waiting for a thread
+     * @param botDecisionBudget How much time a bot has to decide on an action
+     * @param meterRegistry Where to publish the metrics of the games
      */
-    public GameService() {
+    public GameService(@Value("${game.eviction.idle-timeout:10m}") Duration idleTimeout,
+                       @Value("${game.eviction.abandoned-timeout:2h}") Duration abandonedTimeout,
+                       @Value("${game.eviction.interval:30s}") Duration evictionInterval,
+                       @Value("${game.bots.threads:2}") int botThreads,
+                       @Value("${game.bots.queue-capacity:10000}") int botQueueCapacity,
+                       @Value("${game.bots.decision-budget:50ms}") Duration botDecisionBudget,
+                       MeterRegistry meterRegistry) {
+        this.idleTimeout = idleTimeout;
+        this.abandonedTimeout = abandonedTimeout;
+        this.evictionInterval = evictionInterval;
+        botEngine = new ServerBotEngine(botThreads, botQueueCapacity, botDecisionBudget.toMillis());
+
         cleanupExecutor = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("GamesCleanupScheduler"));
-        cleanupExecutor.scheduleAtFixedRate(() -> gameRepository.findAll().forEach(game -> {
-            // If game was opened more than a hour ago, and there is 1 player at most, close it.
-            if (((System.currentTimeMillis() - game.getTimeCreated()) > TimeUnit.HOURS.toMillis(1)) &&
-                (game.getPlayers().size() <= 1)) {
-                gameRepository.stopGame(game.getId());
+        cleanupExecutor.scheduleWithFixedDelay(this::evictIdleGames, evictionInterval.toMillis(), evictionInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        for (PlayerActionKind kind : PlayerActionKind.values()) {
+            actionTimers.put(kind, Timer.builder("texasholdem.game.actions").description("Time it takes to execute a player action").tag("kind", kind.name().toLowerCase()).register(meterRegistry));
+        }
+
+        showdownTimer = Timer.builder("texasholdem.game.showdown").description("Time it takes to evaluate hands and share the pot").register(meterRegistry);
+        turnTimeouts = Counter.builder("texasholdem.game.turn.timeouts").description("Turns that were over because a player did not act in time").register(meterRegistry);
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * Register the metrics that are sampled on scrape, so we do not have to update them on every change
+     * @param meterRegistry Where to register the metrics
+     */
+    private void registerMeters(MeterRegistry meterRegistry) {
+        Gauge.builder("texasholdem.tables.active", gameRepository, repository -> repository.all().size()).description("Amount of games at this node").register(meterRegistry);
+        Gauge.builder("texasholdem.players.seated", this, service -> service.countSeatedPlayers(false)).description("Amount of players sitting at the games of this node").tag("kind", "human").register(meterRegistry);
+        Gauge.builder("texasholdem.players.seated", this, service -> service.countSeatedPlayers(true)).description("Amount of players sitting at the games of this node").tag("kind", "bot").register(meterRegistry);
+        Gauge.builder("texasholdem.game.notifier.queue", gameRepository, repository -> repository.all().stream().mapToInt(GameEngine::getPendingNotifications).sum()).description("Updates waiting to be sent to game listeners").register(meterRegistry);
+
+        FunctionCounter.builder("texasholdem.tables.evictions", idleEvictions, AtomicLong::get).description("Games evicted since start up").tag("reason", "idle").register(meterRegistry);
+        FunctionCounter.builder("texasholdem.tables.evictions", abandonedEvictions, AtomicLong::get).description("Games evicted since start up").tag("reason", "abandoned").register(meterRegistry);
+        FunctionCounter.builder("texasholdem.bots.decisions", botEngine, BotEngine::getDecisions).description("Decisions made by bots").register(meterRegistry);
+        FunctionCounter.builder("texasholdem.bots.decisions.over.budget", botEngine, BotEngine::getOverBudgetDecisions).description("Bot decisions that took longer than their budget").register(meterRegistry);
+        FunctionCounter.builder("texasholdem.bots.turns.dropped", botEngine, BotEngine::getDroppedTurns).description("Bot turns dropped due to a full queue").register(meterRegistry);
+    }
+
+    /**
+     * @param bots Whether to count bots or human players
+     * @return Amount of bots, or human players, sitting at the games of this node
+     */
+    private long countSeatedPlayers(boolean bots) {
+        long[] count = new long[1];
+        gameRepository.all().forEach(game -> game.getPlayers().forEachPlayer(player -> {
+            if ((player instanceof BotPlayer) == bots) {
+                count[0]++;
             }
-        }), 0, 15, TimeUnit.MINUTES);
+        }));
+
+        return count[0];
+    }
+
+    /**
+     * Stop games that had no activity for too long, to free their threads and memory.
+     */
+    private void evictIdleGames() {
+        try {
+            long now = System.currentTimeMillis();
+            if (!abandonedTimeout.isZero()) {
+                long abandonedSince = now - abandonedTimeout.toMillis();
+                gameRepository.findIdleGames(abandonedSince).forEach(game -> {
+                    if (gameRepository.stopGameIfIdleSince(game.getId(), abandonedSince)) {
+                        log.info("Evicted abandoned game: " + game.getId());
+                        chatPushService.closeChannel(game.getGameHash());
+                        abandonedEvictions.incrementAndGet();
+                    }
+                });
+            }
+
+            long idleSince = now - idleTimeout.toMillis();
+            gameRepository.findIdleGames(idleSince).forEach(game -> {
+                // If game had no activity for a while, and there is 1 player at most, close it. Bots are not counted.
+                if ((game.getPlayers().getPlayers().stream().filter(p -> !(p instanceof BotPlayer)).count() <= 1) &&
+                    gameRepository.stopGameIfIdleSince(game.getId(), idleSince)) {
+                    log.info("Evicted idle game: " + game.getId());
+                    chatPushService.closeChannel(game.getGameHash());
+                    idleEvictions.incrementAndGet();
+                }
+            });
+        } catch (Exception e) {
+            // Do not let an exception cancel the scheduled task
+            log.error("Error has occurred while evicting idle games", e);
+        }
+    }
+
+    /**
+     * @return Amount of evicted games since start up, by eviction reason
+     */
+    public Map<String, Long> getEvictionCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("idle", idleEvictions.get());
+        counts.put("abandoned", abandonedEvictions.get());
+        return counts;
+    }
+
+    /**
+     * Restore the games that were active when the server was shut down, if there is a snapshot of them.
+     */
+    @PostConstruct
+    public void restoreGames() {
+        gameSnapshotRepository.load().ifPresent(snapshot -> {
+            GameEngine.advanceGameCounter(snapshot.getNextGameId());
+            snapshot.getGames().forEach(gameSnapshot -> {
+                try {
+                    gameRepository.restoreGame(gameSnapshot, gamesListener);
+                } catch (Exception e) {
+                    log.error("Failed to restore game: " + gameSnapshot.getId(), e);
+                }
+            });
+        });
     }
 
     /**
@@ -58,12 +287,24 @@ public class GameService {
         settings.setNetwork(true);
 
         // Create a new game and listen to every single user update. (Update of chips affects the coins of a user)
-        return gameRepository.createNewGame(settings, (player, chips) -> {
-            // The chips that we receive here can be positive, when player earns chips, or negative when player
-            // loses chips. So here we just add this amount to the amount of user's coins, so we will persist the most up to date value.
-            Optional<? extends User> user = userService.findById(player.getId());
-            user.ifPresent(value -> userService.updateCoins(value, user.get().getCoins() + chips));
-        });
+        return gameRepository.createNewGame(settings, gamesListener);
+    }
+
+    /**
+     * The listener of all games, to persist updates of chips.
+     * @param player The player with the up to date chips
+     * @param chips The chips value that was modified. Can be negative when player loses chips
+     */
+    private void onPlayerChipsUpdated(Player player, long chips) {
+        // Bots are not users. Their chips live in the game only.
+        if (player instanceof BotPlayer) {
+            return;
+        }
+
+        // The chips that we receive here can be positive, when player earns chips, or negative when player
+        // loses chips. So here we just add this amount to the amount of user's coins, so we will persist the most up to date value.
+        Optional<? extends User> user = userService.findById(player.getId());
+        user.ifPresent(value -> userService.updateCoins(value, user.get().getCoins() + chips));
     }
 
     /**
@@ -74,6 +315,27 @@ public class GameService {
         return gameRepository.findGameById(gameId);
     }
 
+    /**
+     * Get an up to date view of a game, to respond to the clients polling it.<br/>
+     * As long as the game does not change, all of its readers share the same view. When it changes, the first reader
+     * takes a new view and the readers that arrive meanwhile wait for it.
+     * @param game The game to get a view of
+     * @return A view of the game, taken at its current state version or later
+     */
+    public GameView viewOf(GameEngine game) {
+        long version = game.getStateVersion();
+        GameView view = gameViews.getIfPresent(game.getId());
+        if ((view != null) && (view.getVersion() >= version)) {
+            return view;
+        }
+
+        GameView newView = gameViewReads.get(game.getId() + ":" + version, () -> GameView.of(game, objectMapper));
+
+        // Keep the latest view, in case a reader of an older version has just finished
+        gameViews.asMap().merge(game.getId(), newView, (current, other) -> current.getVersion() >= other.getVersion() ? current : other);
+        return newView;
+    }
+
     /**
      * See {@link GameRepository#findGameByCreator(String)}
      */
@@ -114,6 +376,52 @@ public class GameService {
 
         // addPlayer throws exception in case the game is active
         gameRepository.joinGame(game.get().getId(), player);
+        chatPushService.publishUsers(gameHash, game.get().getPlayers().getPlayers());
+        chatPushService.publishGame(game.get());
+    }
+
+    /**
+     * Fill free seats of a game with bots.<br/>
+     * Only the creator of a game can add bots, and like players, bots can join when the game is not active only.
+     * Bots buy in with {@link #BOT_BUY_IN_BIG_BETS} big bets, which are not taken from any user.
+     * @param gameHash Hash of the game to add bots to
+     * @param userId The user identifier of the player who adds bots
+     * @param amount How many bots to add. Bots are added as long as there are free seats.
+     * @param level The level of the bots
+     * @return The bots that have joined
+     */
+    public List<Player> addBots(String gameHash, String userId, int amount, BotLevel level) {
+        int gameId = gameIdFromGameHash(gameHash);
+        Optional<GameEngine> game = gameRepository.findGameById(gameId);
+        if (game.isEmpty()) {
+            throw new IllegalArgumentException("Game not found: " + gameHash);
+        }
+
+        if (!game.get().getGameSettings().getCreatorId().equals(userId)) {
+            throw new IllegalArgumentException("Only the creator of a game can add bots");
+        }
+
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount of bots must be positive");
+        }
+
+        List<Player> bots = new ArrayList<>(amount);
+        long chips = game.get().getGameSettings().getBigBet() * BOT_BUY_IN_BIG_BETS;
+        for (int i = 0; (i < amount) && (game.get().getPlayers().size() < GameEngine.MAXIMUM_AMOUNT_OF_PLAYERS); i++) {
+            // addPlayer throws exception in case the game is active
+            Player bot = botEngine.createBot(chips, level);
+            gameRepository.joinGame(gameId, bot);
+            if (game.get().getPlayers().getPlayerById(bot.getId()) != null) {
+                bots.add(bot);
+            }
+        }
+
+        if (!bots.isEmpty()) {
+            chatPushService.publishUsers(gameHash, game.get().getPlayers().getPlayers());
+            chatPushService.publishGame(game.get());
+        }
+
+        return bots;
     }
 
     /**
@@ -131,6 +439,8 @@ public class GameService {
 
         // Find a player by its identifier, and remove him from game, in case he is part of the specified game.
         gameRepository.leaveGame(game.get().getId(), userId);
+        chatPushService.publishUsers(gameHash, game.get().getPlayers().getPlayers());
+        chatPushService.publishGame(game.get());
     }
 
     /**
@@ -155,6 +465,7 @@ public class GameService {
      */
     public void stopGame(String gameHash) {
         gameRepository.stopGame(gameIdFromGameHash(gameHash));
+        chatPushService.closeChannel(gameHash);
     }
 
     /**
@@ -176,16 +487,44 @@ public class GameService {
         if (player != null) {
             // This will throw an exception in case this is not the player's turn
             game.get().executePlayerAction(player, playerAction);
+            gameRepository.touch(gameId);
         } else {
             throw new IllegalArgumentException("Player with id " + userId + " is not playing");
         }
     }
 
     /**
-     * Shut down the cleanup executor.
+     * See {@link GameRepository#touch(int)}
+     */
+    public void touch(GameEngine game) {
+        gameRepository.touch(game.getId());
+    }
+
+    /**
+     * Shut down the cleanup executor, and checkpoint all active games so they are restored on next start up.<br/>
+     * Games are suspended first, so they stop accepting actions and their turn timers are paused, and the chips updates
+     * that they queued are delivered. Then every game is snapshot under its own lock, so we never save half an action.
      */
     public void shutdown() {
         cleanupExecutor.shutdownNow();
+        botEngine.shutdown();
+
+        List<GameEngine> games = gameRepository.all();
+        games.forEach(GameEngine::suspend);
+
+        long deadline = System.currentTimeMillis() + SHUTDOWN_NOTIFICATIONS_TIMEOUT_MILLIS;
+        for (GameEngine game : games) {
+            try {
+                if (!game.awaitPendingNotifications(Math.max(0, deadline - System.currentTimeMillis()))) {
+                    log.warn("Chips updates of game were not delivered before shutdown: " + game.getId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        gameSnapshotRepository.save(games);
     }
 
     /**
@@ -211,5 +550,62 @@ public class GameService {
     public List<GameEngine> all() throws IllegalArgumentException {
         return gameRepository.all();
     }
+
+    /**
+     * Listens to all games. Persists updates of chips, forwards turns to the {@link #botEngine}, which plays
+     * them in case the player is a bot, pushes the state of the games to their players, and records the metrics of the games.
+     */
+    private class GamesListener implements GameEngine.PlayerUpdateListener {
+        @Override
+        public void onPlayerChipsUpdated(Player player, long chips) {
+            GameService.this.onPlayerChipsUpdated(player, chips);
+        }
+
+        @Override
+        public void onPlayerTurn(GameEngine game, Player player) {
+            // Publish before a bot plays, so the game is not modified by the bot while we serialize it
+            chatPushService.publishGame(game);
+            botEngine.onPlayerTurn(game, player);
+        }
+
+        @Override
+        public void onGameReady(GameEngine game) {
+            chatPushService.publishUsers(game.getGameHash(), game.getPlayers().getPlayers());
+            chatPushService.publishGame(game);
+        }
+
+        @Override
+        public void onPlayerActionExecuted(GameEngine game, Player player, PlayerAction action, long durationNanos) {
+            if (action.getActionKind() != null) {
+                actionTimers.get(action.getActionKind()).record(durationNanos, TimeUnit.NANOSECONDS);
+            }
+
+            // Actions of players are recorded when they are executed. Record the actions of bots here.
+            if (player instanceof BotPlayer) {
+                gameRepository.touch(game.getId());
+            }
+
+            TraceEvents.ActionExecuted event = new TraceEvents.ActionExecuted();
+            event.action = String.valueOf(action.getActionKind());
+            event.chips = action.getChips() == null ? 0 : action.getChips().get();
+            event.executionTime = durationNanos;
+            event.commit(game.getGameHash(), player.getId());
+        }
+
+        @Override
+        public void onShowdown(GameEngine game, long evaluationNanos) {
+            showdownTimer.record(evaluationNanos, TimeUnit.NANOSECONDS);
+            chatPushService.publishGame(game);
+
+            TraceEvents.PotResolved event = new TraceEvents.PotResolved();
+            event.evaluationTime = evaluationNanos;
+            event.commit(game.getGameHash(), null);
+        }
+
+        @Override
+        public void onPlayerTurnTimeout(GameEngine game, Player player) {
+            turnTimeouts.increment();
+        }
+    }
 }
 
@@ -1,17 +1,23 @@
 package org.hit.android.haim.texasholdem.server.model.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.logging.log4j.util.Strings;
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Channel;
 import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
 import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
 import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.server.model.repository.ChatArchiveRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -22,9 +28,30 @@ import java.util.stream.Collectors;
  */
 @Service
 public class MessageService {
+    /**
+     * Maximum amount of messages in a page of history or search results
+     */
+    private static final int MAX_ARCHIVE_PAGE_SIZE = 500;
+
+    /**
+     * Maximum amount of messages a client can send at once
+     */
+    private static final int MAX_BATCH_SIZE = 20;
+
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private ChatPushService chatPushService;
+
+    @Autowired
+    private ChatArchiveRepository chatArchiveRepository;
+    /**
+     * Clients of a game poll its chat every second. Concurrent reads of the same channel, since the same time, are
+     * computed once and shared by all of them.
+     */
+    private final RequestCoalescer<String, List<Message>> chatReads = new RequestCoalescer<>();
+
     /**
      * Collects all messages in a channel, sorted by timestamp<br/>
      * Channel name is the hash of a game, for which we want to retrieve the messages
@@ -42,47 +69,161 @@ public class MessageService {
      * @param gameHash The game identifier to collect messages from its chat
      */
     public Collection<Message> findByGameId(String gameHash) {
-        Optional<GameEngine> game = gameService.findById(gameHash);
-
-        //@formatter:off
-        return game.map(value -> value.getChat().getMessages()
-            .stream()
-            .sorted(Comparator.comparing(Message::getDateTimeSent))
-            .collect(Collectors.toList()))
-            .orElseGet(ArrayList::new);
-        //@formatter:on
+        return chatReads.get(gameHash, () -> {
+            Optional<GameEngine> game = gameService.findById(gameHash);
+
+            return Collections.unmodifiableList(game.map(value -> value.getChat().since(0)).orElseGet(ArrayList::new));
+        });
     }
 
     /**
      * Collects all messages in a channel, that arrived after the given {@code lastMessageDateTime}, sorted by timestamp<br/>
+     * Note that messages sent at the same time as {@code lastMessageDateTime} are not collected. Prefer reading by
+     * sequence number, using {@link #findLatestByChannelName(String, long)}.<br/>
      * Channel name is the hash of a game, for which we want to retrieve the messages
      *
      * @param channelName Name of the channel to collect messages from
      * @param lastMessageDateTime To collect all messages that arrived after this date time
      */
     public Collection<Message> findLatestByChannelName(String channelName, LocalDateTime lastMessageDateTime) {
+        return chatReads.get(channelName + "/since/" + lastMessageDateTime, () -> {
+            Optional<GameEngine> game = gameService.findById(channelName);
+
+            // Messages are already ordered, so there is no need to sort them
+            //@formatter:off
+            return Collections.unmodifiableList(game.map(value -> value.getChat().since(0)
+                .stream()
+                .filter(message -> message.getDateTimeSent().isAfter(lastMessageDateTime))
+                .collect(Collectors.toList()))
+                .orElseGet(ArrayList::new));
+            //@formatter:on
+        });
+    }
+
+    /**
+     * Collects all messages in a channel, whose sequence number is greater than {@code lastMessageSeq}, ordered by sequence number.<br/>
+     * This is an O(k) slice of the channel, where k is the amount of new messages, so we do not coalesce it.<br/>
+     * Channel name is the hash of a game, for which we want to retrieve the messages
+     *
+     * @param channelName Name of the channel to collect messages from
+     * @param lastMessageSeq To collect all messages that arrived after the message with this sequence number
+     */
+    public Collection<Message> findLatestByChannelName(String channelName, long lastMessageSeq) {
+        Optional<GameEngine> game = gameService.findById(channelName);
+        return Collections.unmodifiableList(game.map(value -> value.getChat().since(lastMessageSeq)).orElseGet(ArrayList::new));
+    }
+
+    /**
+     * Reads a page of the archived history of a channel, e.g. to scroll back beyond the messages a channel keeps in memory.
+     * See {@link ChatArchiveRepository#findHistory(String, long, int)}<br/>
+     * Only players of the game can read the history of its chat. Once a game is stopped, its archive is searched locally,
+     * for moderation and support. (See {@link #searchArchive(String, String, String, int, int)})
+     *
+     * @param channelName Name of the channel to read its history
+     * @param userId Identifier of the requesting user
+     * @param beforeMillis Read messages sent before this time, in milliseconds since epoch
+     * @param limit Maximum amount of messages to read
+     */
+    public List<ChatArchiveRepository.ArchivedMessage> findHistory(String channelName, String userId, long beforeMillis, int limit) {
+        validatePageSize(limit);
+
+        Optional<GameEngine> game = gameService.findById(channelName);
+        if (game.isEmpty()) {
+            throw new IllegalArgumentException("Game not found: " + channelName);
+        }
+
+        if (game.get().getPlayers().getPlayerById(userId) == null) {
+            throw new IllegalArgumentException("Player not found: " + userId);
+        }
+
+        return chatArchiveRepository.findHistory(channelName, beforeMillis, limit);
+    }
+
+    /**
+     * Searches the archived messages of the last {@code hours}. All criteria are optional.
+     * See {@link ChatArchiveRepository#search(String, String, String, long, int)}
+     *
+     * @param channelName Name of a channel to search at, or {@code null} for all channels
+     * @param userId Identifier of the user who sent the messages, or {@code null} for any user
+     * @param text Text to look for, or {@code null} for any message
+     * @param hours How many hours back to search
+     * @param limit Maximum amount of messages to find
+     */
+    public List<ChatArchiveRepository.ArchivedMessage> searchArchive(String channelName, String userId, String text, int hours, int limit) {
+        validatePageSize(limit);
+        if (hours <= 0) {
+            throw new IllegalArgumentException("Hours must be positive");
+        }
+
+        long sinceMillis = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hours);
+        return chatArchiveRepository.search(Strings.isBlank(channelName) ? null : channelName, Strings.isBlank(userId) ? null : userId,
+            Strings.isBlank(text) ? null : text, sinceMillis, limit);
+    }
+
+    private static void validatePageSize(int limit) {
+        if ((limit <= 0) || (limit > MAX_ARCHIVE_PAGE_SIZE)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_ARCHIVE_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Subscribe to the updates of a channel, instead of polling it. See {@link ChatPushService}<br/>
+     * Channel name is the hash of a game, for which we want to receive the messages. Players of the game receive the
+     * state of the game as well, so they do not have to poll it.
+     *
+     * @param channelName Name of the channel to subscribe to
+     * @param userId Identifier of the subscribing user
+     * @param lastMessageSeq The sequence number of the last message the client has, to receive the messages after it first. Use 0 to receive all messages
+     * @return The emitter to respond with
+     */
+    public SseEmitter subscribe(String channelName, String userId, long lastMessageSeq) throws JsonProcessingException {
         Optional<GameEngine> game = gameService.findById(channelName);
+        if (game.isEmpty()) {
+            throw new IllegalArgumentException("Game not found: " + channelName);
+        }
 
-        //@formatter:off
-        return game.map(value -> value.getChat().getMessages()
-            .stream()
-            .filter(message -> message.getDateTimeSent().isAfter(lastMessageDateTime))
-            .sorted(Comparator.comparing(Message::getDateTimeSent))
-            .collect(Collectors.toList()))
-            .orElseGet(ArrayList::new);
-        //@formatter:on
+        // Lock the chat, so no message is sent between reading the backlog and subscribing. See sendMessage
+        Channel chat = game.get().getChat();
+        synchronized (chat) {
+            boolean isPlayer = game.get().getPlayers().getPlayerById(userId) != null;
+            return chatPushService.subscribe(channelName, userId, chat.since(lastMessageSeq), game.get().getPlayers().getPlayers(), isPlayer ? game.get() : null);
+        }
     }
 
     /**
-     * Sends a message to the specified channel<br/>
+     * Sends a message to the specified channel, and pushes it to the subscribers of the channel<br/>
      * Channel name is the hash of a game, for which we want to retrieve the messages
      * @param channelName Name of the channel to which we will send the message
      * @param userId The user identifier, who sent the message
      * @param messageContent The message to send
      * @return A message reference
+     * @see #sendMessages(String, String, List)
      */
     public Message sendMessage(String channelName, String userId, String messageContent) {
-        if (Strings.isBlank(messageContent)) {
+        return sendMessages(channelName, userId, Collections.singletonList(messageContent)).get(0);
+    }
+
+    /**
+     * Sends a batch of messages to the specified channel, and pushes them to the subscribers of the channel<br/>
+     * The game and the player are looked up once per batch, and the messages are appended with a single lock
+     * acquisition, so they get consecutive sequence numbers and the same server time. Clients should rely on the
+     * sequence numbers for ordering, and not on the time, as messages can be sent at the same millisecond.<br/>
+     * Channel name is the hash of a game, for which we want to retrieve the messages
+     * @param channelName Name of the channel to which we will send the messages
+     * @param userId The user identifier, who sent the messages
+     * @param messageContents The messages to send, at most {@link #MAX_BATCH_SIZE}
+     * @return The sent messages, with their sequence numbers, in the order they were specified
+     */
+    public List<Message> sendMessages(String channelName, String userId, List<String> messageContents) {
+        if ((messageContents == null) || messageContents.isEmpty()) {
+            throw new IllegalArgumentException("Cannot send empty message");
+        }
+
+        if (messageContents.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot send more than " + MAX_BATCH_SIZE + " messages at once");
+        }
+
+        if (messageContents.stream().anyMatch(Strings::isBlank)) {
             throw new IllegalArgumentException("Cannot send empty message");
         }
 
@@ -96,9 +237,22 @@ public class MessageService {
             throw new IllegalArgumentException("Player not found: " + userId);
         }
 
-        Message message = new Message(messageContent, LocalDateTime.now(), game.get().getChat().getName(), player);
-        game.get().getChat().getMessages().add(message);
-        return message;
+        Channel chat = game.get().getChat();
+        LocalDateTime now = LocalDateTime.now();
+        List<Message> messages = new ArrayList<>(messageContents.size());
+        for (String messageContent : messageContents) {
+            messages.add(new Message(messageContent, now, chat.getName(), player));
+        }
+
+        // Append, publish and archive together, so subscribers and the archive get messages ordered by their sequence numbers.
+        // Archiving only queues the messages, so it does not hold the lock for long.
+        synchronized (chat) {
+            chat.getMessages().addAll(messages);
+            messages.forEach(message -> chatPushService.publishMessage(channelName, message));
+            messages.forEach(chatArchiveRepository::append);
+        }
+
+        gameService.touch(game.get());
+        return messages;
     }
 }
-
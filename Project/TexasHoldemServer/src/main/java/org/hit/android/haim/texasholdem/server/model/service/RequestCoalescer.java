@@ -0,0 +1,57 @@
+package org.hit.android.haim.texasholdem.server.model.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads into a single computation.<br/>
+ * The first caller of a key computes the result, and callers that arrive with the same key while it computes
+ * wait for it and get the same result. Once the computation is over, the key is released, so the next caller computes
+ * an up to date result. Nothing is cached.<br/>
+ * Results are shared, so they must not be modified by callers. When a computation fails, all of its callers get the failure.
+ *
+ * @param <K> Type of the keys identifying reads
+ * @param <V> Type of the results
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class RequestCoalescer<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Get the result of a read, joining a computation of the same key if there is one in flight
+     * @param key Identifies the read
+     * @param computation Computes the result, in case there is no computation of the key in flight
+     * @return The result
+     */
+    public V get(K key, Supplier<V> computation) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            V result = computation.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // Complete on any failure, including errors, or callers waiting for this computation would wait forever
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+}
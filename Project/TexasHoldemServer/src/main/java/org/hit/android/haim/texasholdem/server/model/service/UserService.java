@@ -1,11 +1,14 @@
 package org.hit.android.haim.texasholdem.server.model.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.bean.user.UserDBImpl;
 import org.hit.android.haim.texasholdem.server.model.repository.UserRepository;
+import org.hit.android.haim.texasholdem.server.trace.TraceEvents;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -30,10 +33,13 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * See {@link UserRepository#findById(Object)}
      */
-    @CachePut(value = "userCache", key = "#id", condition = "#result != null") // Cache the results of this method because we call it from AuthorizationFilter, and we need it to be as fast as possible.
+    @Cacheable(value = "userCache", key = "#id", unless = "#result == null") // Cache the results of this method because we call it from AuthorizationFilter, and we need it to be as fast as possible.
     public Optional<? extends User> findById(String id) {
         return userRepository.findByIdIgnoreCase(id);
     }
@@ -65,7 +71,11 @@ public class UserService implements UserDetailsService {
      */
     @CachePut(value = "userCache", key = "#user.id") // When we save, we want to remove item from cache, in order to have the up to date item in the cache.
     public User updateCoins(User user, long coins) {
-        userRepository.updateCoins(user.getId(), coins);
+        TraceEvents.CoinsWrite event = new TraceEvents.CoinsWrite();
+        event.begin();
+        meterRegistry.timer("texasholdem.db.writes", "operation", "updateCoins").record(() -> userRepository.updateCoins(user.getId(), coins));
+        event.coins = coins;
+        event.commit(null, user.getId());
 
         UserDBImpl updatedUser = new UserDBImpl(findById(user.getId()).get());
         updatedUser.setCoins(coins);
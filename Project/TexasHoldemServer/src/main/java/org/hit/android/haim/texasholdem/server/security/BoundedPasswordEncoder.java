@@ -0,0 +1,119 @@
+package org.hit.android.haim.texasholdem.server.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hit.android.haim.texasholdem.common.util.CustomThreadFactory;
+import org.hit.android.haim.texasholdem.server.controller.common.TooManyRequestsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link BCryptPasswordEncoder} that hashes passwords on a dedicated, bounded, thread pool.<br/>
+ * Every hash takes tens of milliseconds of CPU, so a burst of sign-ins (e.g. after a restart, when all tokens are invalid)
+ * could take all of the CPU and stall game requests. Here hashing can take {@code threads} cores at most, and when
+ * there are more than {@code queueCapacity} passwords waiting to be hashed, or a password waits longer than {@code timeout},
+ * we fail fast with {@link TooManyRequestsException}, which is a 429 response.<br/>
+ * Request threads still wait for the result, but they do not spend CPU while waiting.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    /**
+     * How long a client should wait before signing in again, when we are overloaded
+     */
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    /**
+     * Constructs a new {@link BoundedPasswordEncoder}
+     * @param cost The log2 of the BCrypt rounds. Existing hashes keep the cost they were created with
+     * @param threads Amount of threads that hash passwords
+     * @param queueCapacity Maximum amount of passwords waiting for a thread
+     * @param timeoutMillis Maximum time to wait for a hash, including the time in queue
+     * @param meterRegistry Where to publish hashing metrics
+     */
+    public BoundedPasswordEncoder(int cost, int threads, int queueCapacity, long timeoutMillis, MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(cost), threads, queueCapacity, timeoutMillis, meterRegistry);
+    }
+
+    /**
+     * Constructs a new {@link BoundedPasswordEncoder} that delegates hashing to the specified encoder. (e.g. for tests)
+     */
+    BoundedPasswordEncoder(PasswordEncoder encoder, int threads, int queueCapacity, long timeoutMillis, MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        this.timeoutMillis = timeoutMillis;
+        executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), new CustomThreadFactory("PasswordHashing", false));
+
+        encodeTimer = Timer.builder("texasholdem.auth.hashing").description("Time it takes to hash a password, including the time in queue").tag("operation", "encode").register(meterRegistry);
+        matchesTimer = Timer.builder("texasholdem.auth.hashing").description("Time it takes to hash a password, including the time in queue").tag("operation", "matches").register(meterRegistry);
+        rejections = Counter.builder("texasholdem.auth.hashing.rejected").description("Passwords that were not hashed because we were overloaded").register(meterRegistry);
+        Gauge.builder("texasholdem.auth.hashing.queue", executor, pool -> pool.getQueue().size()).description("Passwords waiting to be hashed").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> hash(() -> encoder.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> hash(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T hash(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new TooManyRequestsException("Server is busy signing in other users. Please try again later.", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new TooManyRequestsException("Server is busy signing in other users. Please try again later.", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        }
+    }
+
+    /**
+     * Stop hashing threads
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -3,10 +3,12 @@ package org.hit.android.haim.texasholdem.server.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.log4j.Log4j2;
 import org.hit.android.haim.texasholdem.server.model.bean.user.User;
 import org.hit.android.haim.texasholdem.server.model.bean.user.UserImpl;
+import org.hit.android.haim.texasholdem.server.trace.TraceEvents;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -32,9 +34,16 @@ public class JwtUtils {
 //    @Value("${server.ssl.key-alias}")
 //    private String keyStoreAlias;
 
+    /**
+     * A Base64 encoded secret (32 bytes at least) to sign the JWT with.<br/>
+     * All nodes of a cluster must share the same secret, so a token issued by one node is valid at the others.
+     */
+    @Value("${security.jwt.secret:}")
+    private String secret;
+
     /**
      * A secret key to use for signing the JWT.<br/>
-     * We generate a new one every time the server starts up.
+     * When there is no {@link #secret}, we generate a new one every time the server starts up.
      */
     private Key key;
 
@@ -48,6 +57,8 @@ public class JwtUtils {
      */
     public User parseToken(String jwtToken) {
         User user = null;
+        TraceEvents.JwtParsed event = new TraceEvents.JwtParsed();
+        event.begin();
         if ((jwtToken != null) && !jwtToken.isBlank()) {
             initKeyIfNeeded();
 
@@ -66,6 +77,8 @@ public class JwtUtils {
             }
         }
 
+        event.valid = user != null;
+        event.commit(null, user == null ? null : user.getId());
         return user;
     }
 
@@ -88,7 +101,12 @@ public class JwtUtils {
             synchronized (this) {
                 if (key == null) {
                     try {
-                        key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+                        if ((secret != null) && !secret.isBlank()) {
+                            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret.trim()));
+                        } else {
+                            key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+                        }
+
                         log.info("Key has been loaded and ready for use by JwtUtils");
                     } catch (Exception e) {
                         log.error("Error has occurred while loading key store: " + e.toString(), e);
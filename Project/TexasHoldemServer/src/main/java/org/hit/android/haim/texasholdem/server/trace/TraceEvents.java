@@ -0,0 +1,113 @@
+package org.hit.android.haim.texasholdem.server.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Custom Java Flight Recorder events, following a request from the controllers, through the {@code GameEngine}
+ * and its listener, to the database.<br/>
+ * Usage: {@code event.begin()}, do the work, fill the fields of the event and then {@link GameEvent#commit(String, String)}.
+ * While there is no running recording, or {@link Tracing} is disabled, an event costs nothing but its allocation,
+ * which the JIT usually eliminates.<br/>
+ * Events are tagged with the hash of the game and the identifier of the player, when they are known.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public final class TraceEvents {
+    private TraceEvents() {
+    }
+
+    /**
+     * Base class of all events, with the game and player an event refers to
+     */
+    @Category("Texas Holdem")
+    @StackTrace(false)
+    public abstract static class GameEvent extends Event {
+        @Label("Game")
+        String gameId;
+
+        @Label("Player")
+        String playerId;
+
+        /**
+         * Commit the event in case it should be recorded
+         * @param gameId Hash of the game the event refers to. Can be {@code null}
+         * @param playerId Identifier of the player the event refers to. Can be {@code null}
+         */
+        public void commit(String gameId, String playerId) {
+            if (Tracing.isEnabled() && shouldCommit()) {
+                this.gameId = gameId;
+                this.playerId = playerId;
+                commit();
+            }
+        }
+    }
+
+    @Name("texasholdem.HttpRequest")
+    @Label("HTTP Request")
+    @Description("An HTTP request, from the moment it was received until the response was written")
+    public static class HttpRequest extends GameEvent {
+        @Label("Method")
+        public String method;
+
+        @Label("Endpoint")
+        public String endpoint;
+
+        @Label("Status")
+        public int status;
+    }
+
+    @Name("texasholdem.JwtParsed")
+    @Label("JWT Parsed")
+    @Description("Parsing and validating the JWT of a request")
+    public static class JwtParsed extends GameEvent {
+        @Label("Valid")
+        public boolean valid;
+    }
+
+    @Name("texasholdem.ActionExecuted")
+    @Label("Action Executed")
+    @Description("A player action executed by the game engine. Committed once the action is over, so its duration is the execution time field")
+    public static class ActionExecuted extends GameEvent {
+        @Label("Action")
+        public String action;
+
+        @Label("Chips")
+        public long chips;
+
+        @Label("Execution Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long executionTime;
+    }
+
+    @Name("texasholdem.PotResolved")
+    @Label("Pot Resolved")
+    @Description("Evaluation of the hands at showdown, and sharing the pot among the winners. Committed once the pot is shared")
+    public static class PotResolved extends GameEvent {
+        @Label("Evaluation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long evaluationTime;
+    }
+
+    @Name("texasholdem.StateSerialized")
+    @Label("State Serialized")
+    @Description("Serialization of a response to json, including writing it to the response buffer")
+    public static class StateSerialized extends GameEvent {
+        @Label("Endpoint")
+        public String endpoint;
+    }
+
+    @Name("texasholdem.CoinsWrite")
+    @Label("Coins Write")
+    @Description("Persisting the coins of a user")
+    public static class CoinsWrite extends GameEvent {
+        @Label("Coins")
+        public long coins;
+    }
+}
@@ -0,0 +1,55 @@
+package org.hit.android.haim.texasholdem.server.trace;
+
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * Runtime switch of the {@link TraceEvents JFR events} of the server.<br/>
+ * Events are recorded only while a flight recording is running, e.g. {@code jcmd <pid> JFR.start name=texasholdem},
+ * and while tracing is enabled. Tracing can be switched off without a restart using the local {@code /tracing} endpoint.
+ * (See {@link TracingEndpoint})
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public final class Tracing {
+    /**
+     * A request attribute holding the identifier of the requesting player, once its JWT was parsed
+     */
+    public static final String PLAYER_ID_ATTRIBUTE = Tracing.class.getName() + ".playerId";
+
+    /**
+     * Name of the path variable that holds a game hash. (e.g. {@code /game/{gameHash}/action})
+     */
+    private static final String GAME_HASH_VARIABLE = "gameHash";
+
+    private static volatile boolean enabled = true;
+
+    private Tracing() {
+    }
+
+    /**
+     * @return Whether events should be recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled Whether events should be recorded
+     */
+    public static void setEnabled(boolean enabled) {
+        Tracing.enabled = enabled;
+    }
+
+    /**
+     * @param request A request that was handled by a controller
+     * @return The game hash from the path of the request, or {@code null} when the request does not refer to a specific game
+     */
+    public static String gameHashOf(HttpServletRequest request) {
+        Object pathVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return pathVariables instanceof Map ? (String) ((Map<?, ?>) pathVariables).get(GAME_HASH_VARIABLE) : null;
+    }
+}
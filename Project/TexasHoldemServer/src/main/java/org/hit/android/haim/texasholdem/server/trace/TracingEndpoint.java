@@ -0,0 +1,39 @@
+package org.hit.android.haim.texasholdem.server.trace;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * A local endpoint to switch {@link Tracing} on and off at runtime.<br/>
+ * {@code GET /tracing} to see whether it is enabled, and {@code POST /tracing} with {@code {"enabled": false}} to disable it.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+@Component
+@Endpoint(id = "tracing")
+public class TracingEndpoint {
+    /**
+     * Constructs a new {@link TracingEndpoint}
+     * @param enabled Whether tracing is enabled on start up
+     */
+    public TracingEndpoint(@Value("${tracing.jfr.enabled:true}") boolean enabled) {
+        Tracing.setEnabled(enabled);
+    }
+
+    @ReadOperation
+    public Map<String, Boolean> tracing() {
+        return Map.of("enabled", Tracing.isEnabled());
+    }
+
+    @WriteOperation
+    public Map<String, Boolean> setEnabled(boolean enabled) {
+        Tracing.setEnabled(enabled);
+        return tracing();
+    }
+}
@@ -0,0 +1,34 @@
+package org.hit.android.haim.texasholdem.server.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records a {@link TraceEvents.HttpRequest} event per request, spanning all of the filters and the controller.<br/>
+ * The game and the player are known only after the request was handled, so the event is filled at the end.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class TracingFilter extends OncePerRequestFilter {
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        TraceEvents.HttpRequest event = new TraceEvents.HttpRequest();
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.method = request.getMethod();
+            event.endpoint = pattern == null ? request.getServletPath() : pattern.toString();
+            event.status = response.getStatus();
+            event.commit(Tracing.gameHashOf(request), (String) request.getAttribute(Tracing.PLAYER_ID_ATTRIBUTE));
+        }
+    }
+}
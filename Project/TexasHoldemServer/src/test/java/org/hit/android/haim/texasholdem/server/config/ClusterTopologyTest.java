@@ -0,0 +1,90 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import org.hit.android.haim.texasholdem.server.model.game.ShardedGameId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ClusterTopologyTest {
+    static final String NODE_A = "http://localhost:8080";
+    static final String NODE_B = "http://localhost:8081";
+
+    @AfterEach
+    public void tearDown() {
+        // Local shards are static, so restore the single node default
+        ShardedGameId.setLocalShards(IntStream.range(0, ShardedGameId.SHARDS).toArray());
+    }
+
+    @Test
+    public void testInit_singleNode_allGamesAreLocal() {
+        ClusterTopology topology = topology(NODE_A, NODE_A);
+
+        Assertions.assertFalse(topology.isClustered());
+        for (int shard = 0; shard < ShardedGameId.SHARDS; shard++) {
+            Assertions.assertEquals(Optional.empty(), topology.findRemoteOwner(ShardedGameId.compose(1, shard)), "Shard " + shard + " must be local");
+        }
+    }
+
+    @Test
+    public void testFindRemoteOwner_twoNodes_everyShardIsOwnedByOneNode() {
+        ClusterTopology topologyOfA = topology(NODE_A + "," + NODE_B, NODE_A);
+        ClusterTopology topologyOfB = topology(NODE_B + "/, " + NODE_A, NODE_B + "/");
+
+        int localToA = 0;
+        for (int shard = 0; shard < ShardedGameId.SHARDS; shard++) {
+            int gameId = ShardedGameId.compose(7, shard);
+            Optional<String> ownerByA = topologyOfA.findRemoteOwner(gameId);
+            Optional<String> ownerByB = topologyOfB.findRemoteOwner(gameId);
+
+            // Nodes must agree on the owner, regardless of the order and the format of cluster.nodes
+            if (ownerByA.isEmpty()) {
+                localToA++;
+                Assertions.assertEquals(Optional.of(NODE_A), ownerByB, "Shard " + shard + " is owned by A");
+            } else {
+                Assertions.assertEquals(Optional.of(NODE_B), ownerByA, "Shard " + shard + " is owned by B");
+                Assertions.assertEquals(Optional.empty(), ownerByB, "Shard " + shard + " is local to B");
+            }
+
+            Assertions.assertEquals(ownerByA, topologyOfA.findRemoteOwner(ShardedGameId.compose(1000, shard)), "Owner depends on the shard only");
+        }
+
+        Assertions.assertTrue((localToA > 0) && (localToA < ShardedGameId.SHARDS), "Both nodes must own shards. A owns " + localToA);
+    }
+
+    @Test
+    public void testInit_twoNodes_newGamesAreCreatedAtLocalShards() {
+        ClusterTopology topology = topology(NODE_A + "," + NODE_B, NODE_B);
+
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < ShardedGameId.SHARDS; i++) {
+            int shard = ShardedGameId.nextLocalShard();
+            shards.add(shard);
+            Assertions.assertEquals(Optional.empty(), topology.findRemoteOwner(ShardedGameId.compose(1, shard)), "New games must be local");
+        }
+
+        Assertions.assertFalse(shards.isEmpty());
+    }
+
+    @Test
+    public void testInit_selfIsNotANode_throwsException() {
+        Assertions.assertThrows(IllegalStateException.class, () -> topology(NODE_A + "," + NODE_B, "http://localhost:8082"));
+    }
+
+    static ClusterTopology topology(String nodes, String self) {
+        ClusterTopology topology = new ClusterTopology();
+        ReflectionTestUtils.setField(topology, "nodes", nodes);
+        ReflectionTestUtils.setField(topology, "self", self);
+        topology.init();
+        return topology;
+    }
+}
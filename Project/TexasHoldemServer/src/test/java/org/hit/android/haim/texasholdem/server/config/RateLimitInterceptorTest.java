@@ -0,0 +1,114 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hit.android.haim.texasholdem.server.trace.Tracing;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The interceptor runs on a clock of our own, so refilling buckets does not depend on the time tests take.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class RateLimitInterceptorTest {
+    private static final int BURST = 3;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private MeterRegistry meterRegistry;
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        // A token every 500 milliseconds
+        rateLimitInterceptor = new RateLimitInterceptor(2, BURST, meterRegistry, clock::get);
+    }
+
+    @Test
+    public void testPreHandle_burst_requestsOverTheBurstAreRejected() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            Assertions.assertTrue(preHandle("p1").isAllowed, "Requests up to the burst must be allowed");
+        }
+
+        Result rejected = preHandle("p1");
+        Assertions.assertFalse(rejected.isAllowed, "Request over the burst must be rejected");
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.response.getStatus());
+        Assertions.assertEquals("1", rejected.response.getHeader(HttpHeaders.RETRY_AFTER), "Next token is in less than a second");
+        Assertions.assertEquals(1, meterRegistry.counter("texasholdem.ratelimit.rejected", "endpoint", "/game/{gameHash}").count());
+    }
+
+    @Test
+    public void testPreHandle_timePasses_bucketIsRefilled() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            preHandle("p1");
+        }
+        Assertions.assertFalse(preHandle("p1").isAllowed, "Bucket supposed to be empty");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        Assertions.assertTrue(preHandle("p1").isAllowed, "A token supposed to be added after an interval");
+        Assertions.assertFalse(preHandle("p1").isAllowed, "Only one token supposed to be added after an interval");
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < BURST; i++) {
+            Assertions.assertTrue(preHandle("p1").isAllowed, "Bucket supposed to be full after a long pause");
+        }
+        Assertions.assertFalse(preHandle("p1").isAllowed, "Bucket must not get fuller than the burst");
+    }
+
+    @Test
+    public void testPreHandle_severalUsers_eachUserHasItsOwnBucket() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            preHandle("p1");
+        }
+        Assertions.assertFalse(preHandle("p1").isAllowed, "Bucket of p1 supposed to be empty");
+
+        Assertions.assertTrue(preHandle("p2").isAllowed, "Requests of one user must not limit another user");
+    }
+
+    @Test
+    public void testPreHandle_notGet_isNotLimited() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            preHandle("p1");
+        }
+        Assertions.assertFalse(preHandle("p1").isAllowed, "Bucket of p1 supposed to be empty");
+
+        for (int i = 0; i <= BURST; i++) {
+            Assertions.assertTrue(preHandle("POST", "p1").isAllowed, "Only polling (GET) must be limited");
+        }
+    }
+
+    private Result preHandle(String userId) throws Exception {
+        return preHandle("GET", userId);
+    }
+
+    private Result preHandle(String method, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/game/1234");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/game/{gameHash}");
+        request.setAttribute(Tracing.PLAYER_ID_ATTRIBUTE, userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        return new Result(rateLimitInterceptor.preHandle(request, response, new Object()), response);
+    }
+
+    private static class Result {
+        private final boolean isAllowed;
+        private final MockHttpServletResponse response;
+
+        Result(boolean isAllowed, MockHttpServletResponse response) {
+            this.isAllowed = isAllowed;
+            this.response = response;
+        }
+    }
+}
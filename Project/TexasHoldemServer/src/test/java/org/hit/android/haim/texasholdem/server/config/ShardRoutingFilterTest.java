@@ -0,0 +1,177 @@
+package org.hit.android.haim.texasholdem.server.config;
+
+import org.hit.android.haim.texasholdem.server.controller.common.Base64;
+import org.hit.android.haim.texasholdem.server.model.game.ShardedGameId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.stream.IntStream;
+
+/**
+ * This node is A, in a cluster of A and B. Node B listens to a port nobody listens to, so forwarding to it fails.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ShardRoutingFilterTest {
+    private static final String NODE_A = "http://127.0.0.1:8080";
+    private static final String NODE_B = "http://127.0.0.1:1";
+
+    private ClusterTopology topology;
+    private String localGameHash;
+    private String remoteGameHash;
+
+    @BeforeEach
+    public void setup() {
+        topology = ClusterTopologyTest.topology(NODE_A + "," + NODE_B, NODE_A);
+
+        for (int shard = 0; shard < ShardedGameId.SHARDS; shard++) {
+            int gameId = ShardedGameId.compose(1, shard);
+            if (topology.findRemoteOwner(gameId).isEmpty()) {
+                localGameHash = Base64.encodeToString(gameId);
+            } else {
+                remoteGameHash = Base64.encodeToString(gameId);
+            }
+        }
+
+        Assertions.assertNotNull(localGameHash, "A must own a shard");
+        Assertions.assertNotNull(remoteGameHash, "B must own a shard");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ShardedGameId.setLocalShards(IntStream.range(0, ShardedGameId.SHARDS).toArray());
+    }
+
+    @Test
+    public void testFilter_localGame_requestIsHandledLocally() throws Exception {
+        Routed routed = filter("forward", request("/game/" + localGameHash + "/info"));
+
+        Assertions.assertTrue(routed.isHandledLocally(), "Request of a local game must be handled by this node");
+    }
+
+    @Test
+    public void testFilter_nonGameSegments_requestIsHandledLocally() throws Exception {
+        for (String path : new String[] { "/game/new", "/game/all", "/game/evictions", "/message/archive/search" }) {
+            Routed routed = filter("redirect", request(path));
+
+            Assertions.assertTrue(routed.isHandledLocally(), path + " is not a game path, so it must be handled by this node");
+        }
+    }
+
+    @Test
+    public void testFilter_remoteGameAndRedirect_requestIsRedirectedToOwner() throws Exception {
+        MockHttpServletRequest request = request("/game/" + remoteGameHash + "/info");
+        request.setQueryString("a=1");
+
+        Routed routed = filter("redirect", request);
+
+        Assertions.assertFalse(routed.isHandledLocally(), "Request of a remote game must not be handled by this node");
+        Assertions.assertEquals(HttpServletResponse.SC_TEMPORARY_REDIRECT, routed.response.getStatus());
+        Assertions.assertEquals(NODE_B + "/game/" + remoteGameHash + "/info?a=1", routed.response.getHeader("Location"));
+    }
+
+    @Test
+    public void testFilter_remoteGameAndForward_requestIsForwardedToOwner() throws Exception {
+        Routed routed = filter("forward", request("/message/" + remoteGameHash));
+
+        // Node B is not there, so forwarding fails with a bad gateway
+        Assertions.assertFalse(routed.isHandledLocally(), "Request of a remote game must not be handled by this node");
+        Assertions.assertEquals(HttpServletResponse.SC_BAD_GATEWAY, routed.response.getStatus(), "Request must be forwarded, not redirected");
+    }
+
+    @Test
+    public void testFilter_remoteStreamAndForward_streamIsRedirectedToOwner() throws Exception {
+        Routed routed = filter("forward", request("/message/" + remoteGameHash + "/stream"));
+
+        Assertions.assertFalse(routed.isHandledLocally(), "Stream of a remote game must not be handled by this node");
+        Assertions.assertEquals(HttpServletResponse.SC_TEMPORARY_REDIRECT, routed.response.getStatus(), "Streams are never forwarded");
+        Assertions.assertEquals(NODE_B + "/message/" + remoteGameHash + "/stream", routed.response.getHeader("Location"));
+    }
+
+    @Test
+    public void testFilter_remoteGameForwardedByAnotherNode_requestIsHandledLocally() throws Exception {
+        MockHttpServletRequest request = request("/game/" + remoteGameHash + "/info");
+        request.addHeader(ShardRoutingFilter.FORWARDED_HEADER, "127.0.0.1:8081");
+
+        Routed routed = filter("redirect", request);
+
+        Assertions.assertTrue(routed.isHandledLocally(), "Forwarded requests must never be routed again");
+    }
+
+    @Test
+    public void testFilter_remoteGameForwardedHeaderFromClient_requestIsRedirectedToOwner() throws Exception {
+        MockHttpServletRequest request = request("/game/" + remoteGameHash + "/info");
+        request.addHeader(ShardRoutingFilter.FORWARDED_HEADER, "127.0.0.1:8081");
+        request.setRemoteAddr("10.0.0.7");
+
+        Routed routed = filter("redirect", request);
+
+        Assertions.assertFalse(routed.isHandledLocally(), "Forwarded header of a client which is not a node must be ignored");
+        Assertions.assertEquals(HttpServletResponse.SC_TEMPORARY_REDIRECT, routed.response.getStatus());
+    }
+
+    @Test
+    public void testFilter_userLookupFoundLocally_localResponseIsReturned() throws Exception {
+        for (String path : new String[] { "/game/mygame", "/game/leader/hash" }) {
+            Routed routed = filter("redirect", request(path));
+
+            Assertions.assertTrue(routed.isHandledLocally(), path + " must be looked up at this node first");
+            Assertions.assertEquals(HttpServletResponse.SC_OK, routed.response.getStatus(), "Game of " + path + " was found at this node");
+        }
+    }
+
+    @Test
+    public void testFilter_userLookupNotFoundAnywhere_localNotFoundIsReturned() throws Exception {
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
+        });
+
+        // Node B is not there, so it has no game to find
+        Routed routed = filter("forward", request("/game/mygame"), chain);
+
+        Assertions.assertTrue(routed.isHandledLocally(), "User lookup must be looked up at this node first");
+        Assertions.assertEquals(HttpServletResponse.SC_NOT_FOUND, routed.response.getStatus());
+    }
+
+    private Routed filter(String routing, MockHttpServletRequest request) throws Exception {
+        return filter(routing, request, new MockFilterChain());
+    }
+
+    private Routed filter(String routing, MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ShardRoutingFilter(topology, routing).doFilter(request, response, chain);
+        return new Routed(chain, response);
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static class Routed {
+        private final MockFilterChain chain;
+        private final MockHttpServletResponse response;
+
+        Routed(MockFilterChain chain, MockHttpServletResponse response) {
+            this.chain = chain;
+            this.response = response;
+        }
+
+        boolean isHandledLocally() {
+            return chain.getRequest() != null;
+        }
+    }
+}
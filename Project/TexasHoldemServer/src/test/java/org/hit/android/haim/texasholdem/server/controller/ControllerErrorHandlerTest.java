@@ -0,0 +1,41 @@
+package org.hit.android.haim.texasholdem.server.controller;
+
+import org.hit.android.haim.texasholdem.server.controller.common.TooManyRequestsException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ControllerErrorHandlerTest {
+    @Test
+    public void testHandleServerError_tooManyRequests_respondsWithRetryAfter() {
+        ResponseEntity<?> response = ControllerErrorHandler.handleServerError(new TooManyRequestsException("busy", 2));
+
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        Assertions.assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testHandleServerError_tooManyRequestsWrappedBySpringSecurity_respondsWithRetryAfter() {
+        // Spring security wraps failures of looking the user up, at the first sign in. (Timing attack protection hashes a password)
+        Throwable t = new InternalAuthenticationServiceException("busy", new TooManyRequestsException("busy", 2));
+
+        ResponseEntity<?> response = ControllerErrorHandler.handleServerError(t);
+
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode(), "Overload must not surface as a server error");
+        Assertions.assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testHandleServerError_unexpectedError_respondsWithServerError() {
+        ResponseEntity<?> response = ControllerErrorHandler.handleServerError(new IllegalStateException("oops"));
+
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
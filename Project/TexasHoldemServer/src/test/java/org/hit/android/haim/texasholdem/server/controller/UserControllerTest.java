@@ -103,6 +103,16 @@
              .andExpect(content().string(UserController.USER_DETAILS_ARE_MANDATORY_SIGN_UP_BAD_REQUEST));
     }
 
+    @Test
+    void testSignUp_botUserId_signUpFail() throws Exception {
+       UserImpl userToCreate = new UserImpl("Bot-1", "pass".toCharArray(), "nameForTest", LocalDate.of(1993, 7, 15));
+       String json = mapper.writeValueAsString(userToCreate);
+
+       mockMvc.perform(put("/user/signup").secure(true).contentType(APPLICATION_JSON_UTF8).content(json))
+             .andExpect(status().isBadRequest())
+             .andExpect(content().string(UserController.USER_ID_IS_RESERVED_BAD_REQUEST));
+    }
+
     @Test
     void testSignIn_userExists_signInSuccess() throws Exception {
        String json = "{ \"id\": \"charizard@pokemon.com\", \"pwd\": \"Roarrr\" }";
@@ -0,0 +1,52 @@
+package org.hit.android.haim.texasholdem.server.model.game;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ShardedGameIdTest {
+    @AfterEach
+    public void tearDown() {
+        // Local shards are static, so restore the single node default
+        ShardedGameId.setLocalShards(IntStream.range(0, ShardedGameId.SHARDS).toArray());
+    }
+
+    @Test
+    public void testCompose_anySequenceAndShard_bothAreDecoded() {
+        for (int shard = 0; shard < ShardedGameId.SHARDS; shard++) {
+            for (int sequence : new int[] { 0, 1, 1000, (1 << 25) - 1 }) {
+                int gameId = ShardedGameId.compose(sequence, shard);
+
+                Assertions.assertTrue(gameId >= 0, "Game identifier must be positive, so its hash can be decoded");
+                Assertions.assertEquals(shard, ShardedGameId.shardOf(gameId), "Shard of " + gameId);
+                Assertions.assertEquals(sequence, ShardedGameId.sequenceOf(gameId), "Sequence of " + gameId);
+            }
+        }
+    }
+
+    @Test
+    public void testNextLocalShard_someLocalShards_spreadsAmongLocalShardsOnly() {
+        ShardedGameId.setLocalShards(new int[] { 3, 17, 42 });
+
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            shards.add(ShardedGameId.nextLocalShard());
+        }
+
+        Assertions.assertEquals(Set.of(3, 17, 42), shards, "New games must be spread among all of the local shards, and these only");
+    }
+
+    @Test
+    public void testSetLocalShards_noShards_throwsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ShardedGameId.setLocalShards(new int[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ShardedGameId.setLocalShards(null));
+    }
+}
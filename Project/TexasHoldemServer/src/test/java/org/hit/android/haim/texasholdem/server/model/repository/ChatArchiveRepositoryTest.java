@@ -0,0 +1,152 @@
+package org.hit.android.haim.texasholdem.server.model.repository;
+
+import org.hit.android.haim.texasholdem.common.model.bean.chat.Message;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The archive is disabled in the test profile, so we test it against a temporary directory.<br/>
+ * Messages are written in the background, so every test closes the repository, which writes what is in queue, and
+ * reads through a new repository, the way the archive is loaded after a restart.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ChatArchiveRepositoryTest {
+    /**
+     * A round time, so all of the messages of a test fall in the same partition unless a test says otherwise
+     */
+    private static final long BASE_TIME = Instant.parse("2026-01-01T12:00:00Z").toEpochMilli();
+
+    @TempDir
+    Path directory;
+
+    private final List<ChatArchiveRepository> repositories = new ArrayList<>();
+    private long seq;
+
+    @AfterEach
+    public void tearDown() {
+        repositories.forEach(ChatArchiveRepository::close);
+    }
+
+    @Test
+    public void testFindHistory_manyMessages_pagesFromNewestToOldest() {
+        ChatArchiveRepository writer = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        for (int i = 0; i < 10; i++) {
+            writer.append(message("g1", "m" + i, BASE_TIME + i * 1000));
+            writer.append(message("g2", "other" + i, BASE_TIME + i * 1000 + 500));
+        }
+        writer.close();
+
+        ChatArchiveRepository reader = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        List<ChatArchiveRepository.ArchivedMessage> page = reader.findHistory("g1", Long.MAX_VALUE, 4);
+        Assertions.assertEquals(List.of("m6", "m7", "m8", "m9"), texts(page), "First page must hold the newest messages");
+
+        page = reader.findHistory("g1", page.get(0).getTime(), 4);
+        Assertions.assertEquals(List.of("m2", "m3", "m4", "m5"), texts(page), "Second page must hold the messages before the first page");
+
+        page = reader.findHistory("g1", page.get(0).getTime(), 4);
+        Assertions.assertEquals(List.of("m0", "m1"), texts(page), "Last page must hold the rest of the messages");
+    }
+
+    @Test
+    public void testRoll_newPartitions_expiredSegmentsAreDeleted() throws IOException {
+        ChatArchiveRepository writer = openRepository(Duration.ofMinutes(1), Duration.ofMinutes(2));
+        writer.append(message("g1", "old", BASE_TIME));
+        writer.append(message("g1", "older than retention", BASE_TIME + TimeUnit.MINUTES.toMillis(1)));
+        writer.append(message("g1", "kept", BASE_TIME + TimeUnit.MINUTES.toMillis(9)));
+        writer.append(message("g1", "new", BASE_TIME + TimeUnit.MINUTES.toMillis(10)));
+        writer.close();
+
+        Assertions.assertEquals(2, listFiles("chat-*.log").size(), "Segments older than retention must be deleted");
+        Assertions.assertEquals(2, listFiles("chat-*.log.idx").size(), "Indexes of deleted segments must be deleted too");
+
+        ChatArchiveRepository reader = openRepository(Duration.ofMinutes(1), Duration.ofMinutes(2));
+        Assertions.assertEquals(List.of("kept", "new"), texts(reader.findHistory("g1", Long.MAX_VALUE, 10)));
+    }
+
+    @Test
+    public void testRoll_restartInTheMiddleOfPartition_appendsAfterExistingMessages() {
+        ChatArchiveRepository writer = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        for (int i = 0; i < 3; i++) {
+            writer.append(message("g1", "m" + i, BASE_TIME + i * 1000));
+        }
+        writer.close();
+
+        // Keep writing to the same partition after a restart
+        writer = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        for (int i = 3; i < 6; i++) {
+            writer.append(message("g1", "m" + i, BASE_TIME + i * 1000));
+        }
+        writer.close();
+
+        ChatArchiveRepository reader = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        Assertions.assertEquals(List.of("m0", "m1", "m2", "m3", "m4", "m5"), texts(reader.findHistory("g1", Long.MAX_VALUE, 10)));
+        Assertions.assertEquals(List.of("m2", "m3"), texts(reader.findHistory("g1", BASE_TIME + 4000, 2)),
+            "Index must point at the offsets of the messages appended after the restart");
+    }
+
+    @Test
+    public void testOpen_indexIsMissingAndLineIsMalformed_indexIsRebuiltWithoutTheLine() throws IOException {
+        ChatArchiveRepository writer = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        for (int i = 0; i < 5; i++) {
+            writer.append(message("g1", "m" + i, BASE_TIME + i * 1000));
+        }
+        writer.close();
+
+        // A crash leaves no index, and might leave a line that was written partially
+        for (Path index : listFiles("chat-*.log.idx")) {
+            Files.delete(index);
+        }
+        Path segment = listFiles("chat-*.log").get(0);
+        Files.write(segment, "{\"time\":1,\"chann\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        ChatArchiveRepository reader = openRepository(Duration.ofHours(1), Duration.ofDays(7));
+        Assertions.assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), texts(reader.findHistory("g1", Long.MAX_VALUE, 10)),
+            "Segment must be loaded although one of its lines is malformed");
+        Assertions.assertEquals(List.of("m1", "m2"), texts(reader.findHistory("g1", BASE_TIME + 3000, 2)));
+    }
+
+    private ChatArchiveRepository openRepository(Duration partition, Duration retention) {
+        ChatArchiveRepository repository = new ChatArchiveRepository(true, directory.toString(), partition, retention, 2, 100);
+        repository.open();
+        repositories.add(repository);
+        return repository;
+    }
+
+    private Message message(String channel, String text, long timeMillis) {
+        Player user = Player.builder().id("p1").name("P1").build();
+        return new Message(text, LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault()), channel, user, ++seq);
+    }
+
+    private List<Path> listFiles(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(files::add);
+        }
+
+        return files;
+    }
+
+    private static List<String> texts(List<ChatArchiveRepository.ArchivedMessage> messages) {
+        return messages.stream().map(ChatArchiveRepository.ArchivedMessage::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,122 @@
+package org.hit.android.haim.texasholdem.server.model.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hit.android.haim.texasholdem.common.model.bean.game.GameSettings;
+import org.hit.android.haim.texasholdem.common.model.bean.game.Player;
+import org.hit.android.haim.texasholdem.common.model.game.Chips;
+import org.hit.android.haim.texasholdem.common.model.game.GameEngine;
+import org.hit.android.haim.texasholdem.common.util.ThreadContextMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class ChatPushServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CapturingEmitter emitter;
+    private ChatPushService chatPushService;
+    private GameEngine game;
+
+    @BeforeEach
+    public void setup() {
+        emitter = new CapturingEmitter();
+        chatPushService = new ChatPushService(64, "disconnect", 2, Duration.ofMinutes(1), Duration.ofMinutes(1), objectMapper, new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter createEmitter() {
+                return emitter;
+            }
+        };
+
+        game = new GameEngine(GameSettings.builder().smallBet(1).bigBet(2).creatorId("p1").build(), (player, chips) -> { });
+        game.addPlayer(Player.builder().id("p1").name("P1").chips(new Chips(100)).position(0).build());
+        game.addPlayer(Player.builder().id("p2").name("P2").chips(new Chips(100)).position(1).build());
+        game.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        game.stop();
+        chatPushService.shutdown();
+        ThreadContextMap.getInstance().setUserId(null);
+    }
+
+    @Test
+    public void testPublishGame_publishedFromThreadWithoutUser_recipientGetsItsOwnHandOnly() throws Exception {
+        chatPushService.subscribe(game.getGameHash(), "p1", Collections.emptyList(), game.getPlayers().getPlayers(), null);
+
+        // Games are published from the threads of the game, where there is no requesting user
+        ThreadContextMap.getInstance().setUserId(null);
+        chatPushService.publishGame(game);
+
+        JsonNode pushedGame = objectMapper.readTree(emitter.awaitGameEvent());
+        JsonNode p1 = findPlayer(pushedGame, "p1");
+        JsonNode p2 = findPlayer(pushedGame, "p2");
+        Assertions.assertTrue(p1.hasNonNull("hand"), "Recipient must get its own hand: " + p1);
+        Assertions.assertFalse(p2.hasNonNull("hand"), "Recipient must not get the hand of another player: " + p2);
+        Assertions.assertNull(ThreadContextMap.getInstance().getUserId(), "User of the publishing thread must be restored");
+    }
+
+    @Test
+    public void testPublishGame_publishedFromRequestOfAnotherPlayer_recipientGetsItsOwnHandOnly() throws Exception {
+        chatPushService.subscribe(game.getGameHash(), "p2", Collections.emptyList(), game.getPlayers().getPlayers(), null);
+
+        // e.g. p1 has joined or acted, and its request publishes the game
+        ThreadContextMap.getInstance().setUserId("p1");
+        chatPushService.publishGame(game);
+
+        JsonNode pushedGame = objectMapper.readTree(emitter.awaitGameEvent());
+        Assertions.assertFalse(findPlayer(pushedGame, "p1").hasNonNull("hand"), "Hand of the requesting player must not be pushed to others");
+        Assertions.assertTrue(findPlayer(pushedGame, "p2").hasNonNull("hand"), "Recipient must get its own hand");
+        Assertions.assertEquals("p1", ThreadContextMap.getInstance().getUserId(), "User of the publishing thread must be restored");
+    }
+
+    private static JsonNode findPlayer(JsonNode game, String playerId) {
+        for (JsonNode player : game.get("players").get("playersArray")) {
+            if (!player.isNull() && playerId.equals(player.get("id").asText())) {
+                return player;
+            }
+        }
+
+        throw new AssertionError("Player " + playerId + " is missing from: " + game);
+    }
+
+    /**
+     * Keeps the events sent to a subscriber, instead of writing them to a response
+     */
+    private static class CapturingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream().map(data -> String.valueOf(data.getData())).collect(Collectors.joining()));
+        }
+
+        /**
+         * @return The data of the next game event
+         */
+        String awaitGameEvent() throws InterruptedException {
+            String event;
+            while ((event = events.poll(5, TimeUnit.SECONDS)) != null) {
+                if (event.startsWith("event:game")) {
+                    return event.substring(event.indexOf("data:") + "data:".length()).trim();
+                }
+            }
+
+            throw new AssertionError("Game was not pushed");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.hit.android.haim.texasholdem.server.model.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class RequestCoalescerTest {
+    private static final int FOLLOWERS = 8;
+
+    private final RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Thread> followerThreads = new ArrayList<>();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final CountDownLatch computing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGet_concurrentReadsOfSameKey_computedOnce() throws Exception {
+        Future<String> leader = executor.submit(() -> coalescer.get("key", () -> blockingComputation("result")));
+        List<Future<String>> followers = startFollowers(() -> "not supposed to be computed");
+
+        release.countDown();
+
+        Assertions.assertEquals("result", leader.get(1, TimeUnit.MINUTES));
+        for (Future<String> follower : followers) {
+            Assertions.assertEquals("result", follower.get(1, TimeUnit.MINUTES), "Followers must get the result of the computation in flight");
+        }
+        Assertions.assertEquals(1, computations.get(), "Concurrent reads of the same key must be computed once");
+
+        Assertions.assertEquals("next", coalescer.get("key", () -> "next"), "Key must be released once its computation is over");
+    }
+
+    @Test
+    public void testGet_computationThrowsException_allCallersGetTheException() throws Exception {
+        Future<String> leader = executor.submit(() -> coalescer.get("key", () -> blockingComputation(new IllegalStateException("failed"))));
+        List<Future<String>> followers = startFollowers(() -> "not supposed to be computed");
+
+        release.countDown();
+
+        assertFailedWith(IllegalStateException.class, leader);
+        for (Future<String> follower : followers) {
+            assertFailedWith(IllegalStateException.class, follower);
+        }
+
+        Assertions.assertEquals("next", coalescer.get("key", () -> "next"), "Key must be released after a failure");
+    }
+
+    @Test
+    public void testGet_computationThrowsError_allCallersGetTheError() throws Exception {
+        Future<String> leader = executor.submit(() -> coalescer.get("key", () -> blockingComputation(new StackOverflowError())));
+        List<Future<String>> followers = startFollowers(() -> "not supposed to be computed");
+
+        release.countDown();
+
+        assertFailedWith(StackOverflowError.class, leader);
+        for (Future<String> follower : followers) {
+            assertFailedWith(StackOverflowError.class, follower);
+        }
+
+        Assertions.assertEquals("next", coalescer.get("key", () -> "next"), "Key must be released after an error");
+    }
+
+    /**
+     * Computes a result once {@link #release} is counted down
+     * @param outcome The result, or a throwable to throw
+     */
+    private String blockingComputation(Object outcome) {
+        computations.incrementAndGet();
+        computing.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+
+        if (outcome instanceof RuntimeException) {
+            throw (RuntimeException) outcome;
+        }
+        if (outcome instanceof Error) {
+            throw (Error) outcome;
+        }
+
+        return (String) outcome;
+    }
+
+    /**
+     * Start readers of the key once the leader is computing, and return once all of them wait for the leader
+     */
+    private List<Future<String>> startFollowers(Supplier<String> computation) throws InterruptedException {
+        Assertions.assertTrue(computing.await(1, TimeUnit.MINUTES), "Leader did not start computing");
+
+        List<Future<String>> followers = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(FOLLOWERS);
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> {
+                synchronized (followerThreads) {
+                    followerThreads.add(Thread.currentThread());
+                }
+                started.countDown();
+                return coalescer.get("key", computation);
+            }));
+        }
+
+        // Followers park while they wait for the computation of the leader
+        Assertions.assertTrue(started.await(1, TimeUnit.MINUTES), "Followers did not start");
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        synchronized (followerThreads) {
+            for (Thread follower : followerThreads) {
+                while (follower.getState() != Thread.State.WAITING) {
+                    Assertions.assertTrue(System.nanoTime() < deadline, "Follower did not wait for the leader");
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        return followers;
+    }
+
+    private static void assertFailedWith(Class<? extends Throwable> expected, Future<String> future) throws Exception {
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.MINUTES));
+        Assertions.assertTrue(expected.isInstance(e.getCause()), "Expected " + expected.getSimpleName() + " but was: " + e.getCause());
+    }
+}
@@ -0,0 +1,112 @@
+package org.hit.android.haim.texasholdem.server.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hit.android.haim.texasholdem.server.controller.common.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing is delegated to an encoder that blocks until we release it, so we control how busy the hashing threads are.
+ *
+ * @author Haim Adrian
+ * @since 18-Oct-26
+ */
+public class BoundedPasswordEncoderTest {
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private MeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    public void testEncode_threadIsFree_passwordIsHashed() {
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, TimeUnit.MINUTES.toMillis(1), meterRegistry);
+        release.countDown();
+
+        Assertions.assertEquals("hash-pwd", passwordEncoder.encode("pwd"));
+        Assertions.assertTrue(passwordEncoder.matches("pwd", "hash-pwd"));
+    }
+
+    @Test
+    public void testEncode_threadIsBusyAndQueueIsFull_rejectedWithRetryAfter() throws Exception {
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, TimeUnit.MINUTES.toMillis(1), meterRegistry);
+
+        // Occupy the single thread, and then the single place in queue
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        Assertions.assertTrue(hashing.await(1, TimeUnit.MINUTES), "First password supposed to be hashed");
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        awaitQueueSize(1);
+
+        TooManyRequestsException e = Assertions.assertThrows(TooManyRequestsException.class, () -> passwordEncoder.encode("third"));
+        Assertions.assertTrue(e.getRetryAfterSeconds() > 0, "Client must be told when to retry");
+        Assertions.assertEquals(1, meterRegistry.counter("texasholdem.auth.hashing.rejected").count());
+
+        // Once the thread is free, the passwords that were accepted are hashed
+        release.countDown();
+        Assertions.assertEquals("hash-first", busy.get(1, TimeUnit.MINUTES));
+        Assertions.assertEquals("hash-second", queued.get(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testMatches_hashTakesLongerThanTimeout_rejectedWithRetryAfter() {
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 50, meterRegistry);
+
+        TooManyRequestsException e = Assertions.assertThrows(TooManyRequestsException.class, () -> passwordEncoder.matches("pwd", "hash-pwd"));
+        Assertions.assertTrue(e.getRetryAfterSeconds() > 0, "Client must be told when to retry");
+        Assertions.assertEquals(1, meterRegistry.counter("texasholdem.auth.hashing.rejected").count());
+    }
+
+    private void awaitQueueSize(int size) {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (meterRegistry.get("texasholdem.auth.hashing.queue").gauge().value() < size) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Password did not get to the queue");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Hashes by a prefix, once the test releases it
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("hash-" + rawPassword);
+        }
+
+        private void await() {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                // Hashing was cancelled
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}